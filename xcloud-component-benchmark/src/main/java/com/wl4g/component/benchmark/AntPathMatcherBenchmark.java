@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.wl4g.component.common.matching.AntPathMatcher;
+
+/**
+ * {@link AntPathMatcher} benchmarks.
+ * 
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version v1.0 2021-06-20
+ * @sine v1.0
+ * @see
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AntPathMatcherBenchmark {
+
+	@Param({ "true", "false" })
+	private boolean cachePatterns;
+
+	private AntPathMatcher matcher;
+
+	@Setup
+	public void setup() {
+		matcher = new AntPathMatcher();
+		matcher.setCachePatterns(cachePatterns);
+	}
+
+	@Benchmark
+	public boolean matchLiteral() {
+		return matcher.match("/api/v2/users/list", "/api/v2/users/list");
+	}
+
+	@Benchmark
+	public boolean matchWildcard() {
+		return matcher.match("/api/*/users/**/*.json", "/api/v2/users/1001/orders/2021/detail.json");
+	}
+
+	@Benchmark
+	public boolean matchUriVariables() {
+		return matcher.match("/api/{version}/users/{userId}/orders/{orderId}", "/api/v2/users/1001/orders/9527");
+	}
+
+	@Benchmark
+	public boolean mismatchWildcard() {
+		return matcher.match("/admin/**/*.html", "/api/v2/users/1001/orders/2021/detail.json");
+	}
+
+}
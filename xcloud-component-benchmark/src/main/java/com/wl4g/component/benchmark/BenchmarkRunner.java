@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.benchmark;
+
+import static java.lang.String.format;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarks runner, all the JMH command line options are supported, and the
+ * results are written as JSON (to 'jmh-result.json' by default) unless
+ * specified, so the results can be compared between builds. </br>
+ * 
+ * <pre>
+ * java -jar target/benchmarks.jar
+ * java -jar target/benchmarks.jar SnowflakeIdGeneratorBenchmark -rff snowflake.json
+ * </pre>
+ * 
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version v1.0 2021-06-20
+ * @sine v1.0
+ * @see
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions cmdOptions = new CommandLineOptions(args);
+		if (cmdOptions.shouldHelp() || cmdOptions.shouldList() || cmdOptions.shouldListWithParams()
+				|| cmdOptions.shouldListProfilers() || cmdOptions.shouldListResultFormats()) {
+			org.openjdk.jmh.Main.main(args);
+			return;
+		}
+
+		OptionsBuilder builder = new OptionsBuilder();
+		builder.parent(cmdOptions);
+		if (cmdOptions.getIncludes().isEmpty()) {
+			builder.include(format("%s\\..*Benchmark", BenchmarkRunner.class.getPackage().getName()));
+		}
+		if (!cmdOptions.getResultFormat().hasValue()) {
+			builder.resultFormat(ResultFormatType.JSON);
+		}
+		if (!cmdOptions.getResult().hasValue()) {
+			builder.result(DEFAULT_RESULT_FILE);
+		}
+		Options options = builder.build();
+		new Runner(options).run();
+	}
+
+	public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+}
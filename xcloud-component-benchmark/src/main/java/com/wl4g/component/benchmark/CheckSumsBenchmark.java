@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.wl4g.component.common.codec.CheckSums;
+
+/**
+ * {@link CheckSums} benchmarks.
+ * 
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version v1.0 2021-06-20
+ * @sine v1.0
+ * @see
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckSumsBenchmark {
+
+	@Param({ "64", "1024", "16384" })
+	private int size;
+
+	private byte[] data;
+	private String text;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(size);
+		data = new byte[size];
+		random.nextBytes(data);
+		StringBuilder sb = new StringBuilder(size);
+		for (int i = 0; i < size; i++) {
+			sb.append((char) ('a' + random.nextInt(26)));
+		}
+		text = sb.toString();
+	}
+
+	@Benchmark
+	public long crc16() {
+		return CheckSums.crc16(data);
+	}
+
+	@Benchmark
+	public long crc32() {
+		return CheckSums.crc32(data);
+	}
+
+	@Benchmark
+	public long crc64() {
+		return CheckSums.crc64(data);
+	}
+
+	@Benchmark
+	public long crc32String() {
+		return CheckSums.crc32String(text);
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.wl4g.component.core.kit.access.IPAccessControl;
+import com.wl4g.component.core.kit.access.IPAccessControl.IPAccessProperties;
+
+/**
+ * {@link IPAccessControl} benchmarks with the number of configured ranges.
+ * 
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version v1.0 2021-06-20
+ * @sine v1.0
+ * @see
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IPAccessControlBenchmark {
+
+	@Param({ "10", "1000" })
+	private int ranges;
+
+	private IPAccessControl accessControl;
+
+	@Setup
+	public void setup() {
+		List<String> allowRanges = new ArrayList<>(ranges);
+		List<String> denyRanges = new ArrayList<>(ranges);
+		for (int i = 0; i < ranges; i++) {
+			allowRanges.add(String.format("%s.%s.0.0/16", 11 + (i >> 8) % 100, i & 0xff));
+			denyRanges.add(String.format("%s.%s.%s.0/24", 11 + (i >> 8) % 100, i & 0xff, i % 256));
+		}
+		allowRanges.add("2001:db8::/32");
+
+		IPAccessProperties config = new IPAccessProperties();
+		config.setSecure(true);
+		config.setAllowIpRange(allowRanges);
+		config.setDenyIpRange(denyRanges);
+		config.refresh();
+		accessControl = new IPAccessControl(config);
+	}
+
+	@Benchmark
+	public boolean permittedIPv4() {
+		return accessControl.isPermitted("11.3.100.25");
+	}
+
+	@Benchmark
+	public boolean deniedIPv4() {
+		return accessControl.isPermitted("11.3.3.25");
+	}
+
+	@Benchmark
+	public boolean permittedIPv6() {
+		return accessControl.isPermitted("2001:db8:85a3::8a2e:370:7334");
+	}
+
+	@Benchmark
+	public boolean ownIntranet() {
+		return accessControl.isAnyNetIPOwnPermitted("192.168.1.100");
+	}
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.wl4g.component.support.cache.jedis.util.RedisSpecUtil;
+
+/**
+ * {@link RedisSpecUtil#safeCheckKeys(List)} benchmarks, it is called before
+ * each jedis command in safe mode.
+ * 
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version v1.0 2021-06-20
+ * @sine v1.0
+ * @see
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisSpecUtilBenchmark {
+
+	@Param({ "1", "16" })
+	private int keys;
+
+	private List<String> keyList;
+	private String[] keyArray;
+
+	@Setup
+	public void setup() {
+		keyList = new ArrayList<>(keys);
+		for (int i = 0; i < keys; i++) {
+			keyList.add("iam:session:user_info:" + (10000000 + i));
+		}
+		keyArray = keyList.toArray(new String[0]);
+	}
+
+	@Benchmark
+	public List<String> safeCheckKeys() {
+		RedisSpecUtil.safeCheckKeys(keyList);
+		return keyList;
+	}
+
+	@Benchmark
+	public String[] safeCheckKeysBatch() {
+		RedisSpecUtil.safeCheckKeys(keyArray);
+		return keyArray;
+	}
+
+}
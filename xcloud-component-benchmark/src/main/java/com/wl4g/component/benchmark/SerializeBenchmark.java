@@ -0,0 +1,189 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.benchmark;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.wl4g.component.common.serialize.JacksonUtils;
+import com.wl4g.component.common.serialize.JdkSerializeUtils;
+import com.wl4g.component.common.serialize.ProtostuffUtils;
+
+/**
+ * {@link ProtostuffUtils}, {@link JdkSerializeUtils} and {@link JacksonUtils}
+ * round trip benchmarks of a typical cached object.
+ * 
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version v1.0 2021-06-20
+ * @sine v1.0
+ * @see
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializeBenchmark {
+
+	private SampleBean bean;
+	private byte[] protostuffData;
+	private byte[] jdkData;
+	private String jsonData;
+
+	@Setup
+	public void setup() {
+		bean = SampleBean.create();
+		protostuffData = ProtostuffUtils.serialize(bean);
+		jdkData = JdkSerializeUtils.serialize(bean);
+		jsonData = JacksonUtils.toJSONString(bean);
+	}
+
+	@Benchmark
+	public byte[] protostuffSerialize() {
+		return ProtostuffUtils.serialize(bean);
+	}
+
+	@Benchmark
+	public SampleBean protostuffDeserialize() {
+		return ProtostuffUtils.deserialize(protostuffData, SampleBean.class);
+	}
+
+	@Benchmark
+	public byte[] jdkSerialize() {
+		return JdkSerializeUtils.serialize(bean);
+	}
+
+	@Benchmark
+	public Object jdkDeserialize() {
+		return JdkSerializeUtils.unserialize(jdkData);
+	}
+
+	@Benchmark
+	public String jacksonSerialize() {
+		return JacksonUtils.toJSONString(bean);
+	}
+
+	@Benchmark
+	public SampleBean jacksonDeserialize() {
+		return JacksonUtils.parseJSON(jsonData, SampleBean.class);
+	}
+
+	/**
+	 * Sample bean of benchmarks.
+	 */
+	public static class SampleBean implements Serializable {
+		private static final long serialVersionUID = 2913459208461258357L;
+
+		private long id;
+		private String name;
+		private String email;
+		private int age;
+		private boolean enabled;
+		private List<String> roles;
+		private Map<String, String> attributes;
+
+		public long getId() {
+			return id;
+		}
+
+		public void setId(long id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public String getEmail() {
+			return email;
+		}
+
+		public void setEmail(String email) {
+			this.email = email;
+		}
+
+		public int getAge() {
+			return age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public List<String> getRoles() {
+			return roles;
+		}
+
+		public void setRoles(List<String> roles) {
+			this.roles = roles;
+		}
+
+		public Map<String, String> getAttributes() {
+			return attributes;
+		}
+
+		public void setAttributes(Map<String, String> attributes) {
+			this.attributes = attributes;
+		}
+
+		static SampleBean create() {
+			SampleBean bean = new SampleBean();
+			bean.setId(1234567890123L);
+			bean.setName("wanglsir");
+			bean.setEmail("wanglsir@gmail.com");
+			bean.setAge(28);
+			bean.setEnabled(true);
+			bean.setRoles(new ArrayList<>());
+			for (int i = 0; i < 8; i++) {
+				bean.getRoles().add("role-" + i);
+			}
+			bean.setAttributes(new LinkedHashMap<>());
+			for (int i = 0; i < 8; i++) {
+				bean.getAttributes().put("attribute-" + i, "value-" + i);
+			}
+			return bean;
+		}
+	}
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.wl4g.component.common.id.SnowflakeIdGenerator;
+import com.wl4g.component.common.id.SnowflakeIdGenerator.BitsDefine;
+
+/**
+ * {@link SnowflakeIdGenerator} benchmarks, the throughput is bounded by the
+ * sequence bits per millisecond, so the contended cases measure the cost of
+ * waiting for the next millisecond too.
+ * 
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version v1.0 2021-06-20
+ * @sine v1.0
+ * @see
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnowflakeIdGeneratorBenchmark {
+
+	private final SnowflakeIdGenerator generator = new SnowflakeIdGenerator(BitsDefine.LargeUnsafeJs, 1L, 1L, 0L);
+
+	@Benchmark
+	public long nextId() {
+		return generator.nextId();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public long nextIdContended() {
+		return generator.nextId();
+	}
+
+	@Benchmark
+	public long[] nextIdsBatch() {
+		return generator.nextIds(BATCH_SIZE);
+	}
+
+	private static final int BATCH_SIZE = 100;
+
+}
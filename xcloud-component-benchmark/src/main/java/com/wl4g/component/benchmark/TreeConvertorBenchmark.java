@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.wl4g.component.common.function.TreeConvertor;
+import com.wl4g.component.common.function.TreeConvertor.TreeNode;
+
+/**
+ * {@link TreeConvertor} benchmarks, the plane tree is a complete tree of the
+ * fan-out, e.g. menus or organizations.
+ * 
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version v1.0 2021-06-20
+ * @sine v1.0
+ * @see
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeConvertorBenchmark {
+
+	@Param({ "100", "2000" })
+	private int nodes;
+
+	private List<SampleNode> planeTree;
+
+	/**
+	 * The converted tree nodes are mutated, so the plane tree is re-created
+	 * for each invocation.
+	 */
+	@Setup(Level.Invocation)
+	public void setup() {
+		planeTree = new ArrayList<>(nodes);
+		for (int i = 1; i <= nodes; i++) {
+			SampleNode node = new SampleNode();
+			node.setId(String.valueOf(i));
+			node.setParentId(i <= FAN_OUT ? "0" : String.valueOf((i - 1) / FAN_OUT));
+			planeTree.add(node);
+		}
+	}
+
+	@Benchmark
+	public List<SampleNode> formatToChildren() {
+		return new TreeConvertor<SampleNode>("0", TreeConvertor.NodeIdMatcher.defaultInstance).formatToChildren(planeTree,
+				false);
+	}
+
+	private static final int FAN_OUT = 8;
+
+	/**
+	 * Sample node of benchmarks.
+	 */
+	public static class SampleNode implements TreeNode<SampleNode> {
+		private static final long serialVersionUID = -3386414327004425946L;
+
+		private String id;
+		private String parentId;
+		private int level;
+		private List<SampleNode> childrens;
+
+		@Override
+		public String getId() {
+			return id;
+		}
+
+		@Override
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		@Override
+		public String getParentId() {
+			return parentId;
+		}
+
+		@Override
+		public void setParentId(String parentId) {
+			this.parentId = parentId;
+		}
+
+		@Override
+		public int getLevel() {
+			return level;
+		}
+
+		@Override
+		public void setLevel(int level) {
+			this.level = level;
+		}
+
+		@Override
+		public List<SampleNode> getChildrens() {
+			return childrens;
+		}
+
+		@Override
+		public void setChildrens(List<SampleNode> childrens) {
+			this.childrens = childrens;
+		}
+	}
+
+}
@@ -22,7 +22,16 @@ import static java.lang.String.format;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Snowflake algorithms Id generator.
+ * Snowflake algorithms Id generator. </br>
+ * 
+ * <p>
+ * The last timestamp and sequence are packed into a single CAS updated word, so
+ * the generation is lock-free. When the sequence of current millisecond is
+ * exhausted, the next millisecond is borrowed instead of spin waiting, and a
+ * small clock regression (up to {@link #maxBackwardMillis}) is tolerated by
+ * continuing the last timestamp, both are bounded so that the timestamps never
+ * drift too far from the real clock.
+ * </p>
  *
  * @author Wangl.sir <wanglsir@gmail.com, 983708408@qq.com>
  * @version v1.0 2018年6月10日
@@ -40,21 +49,38 @@ public final class SnowflakeIdGenerator {
 	private final long workerId;
 	// Data center ID.
 	private final long dataCenterId;
-	// Sequence ID.
-	private final AtomicLong sequence = new AtomicLong(0L);
-	// Last generate timestamp.
-	private final AtomicLong lastTime = new AtomicLong(-1L);
+	// Pre-shifted data center and worker bits.
+	private final long nodeBits;
+	// Maximum tolerated clock drift milliseconds (backwards or borrowed).
+	private final long maxBackwardMillis;
+	// Last generated (timestamp-twepoch) and sequence packed word.
+	private final AtomicLong state;
 
 	public SnowflakeIdGenerator() {
 		this(BitsDefine.StandardSafeJs, 0L, 0L, 0L);
 	}
 
 	public SnowflakeIdGenerator(BitsDefine def, long workerId, long dataCenterId, long sequence) {
+		this(def, workerId, dataCenterId, sequence, DEFAULT_MAX_BACKWARD_MILLIS);
+	}
+
+	public SnowflakeIdGenerator(BitsDefine def, long workerId, long dataCenterId, long sequence, long maxBackwardMillis) {
 		validate(def, workerId, dataCenterId, sequence);
+		isTrueOf(maxBackwardMillis >= 0, "maxBackwardMillis>=0");
 		this.def = def;
 		this.workerId = workerId;
 		this.dataCenterId = dataCenterId;
-		this.sequence.set(sequence);
+		this.nodeBits = (dataCenterId << def.dataCenterIdShift) | (workerId << def.workerIdShift);
+		this.maxBackwardMillis = maxBackwardMillis;
+		this.state = new AtomicLong(sequence & def.sequenceMask);
+	}
+
+	public long getWorkerId() {
+		return workerId;
+	}
+
+	public long getDataCenterId() {
+		return dataCenterId;
 	}
 
 	/**
@@ -62,47 +88,87 @@ public final class SnowflakeIdGenerator {
 	 * 
 	 * @return
 	 */
-	public synchronized long nextId() {
-		long now = timeGen();
-		// 如果服务器时间有问题(时钟后退) 报错。
-		if (now < lastTime.get()) {
-			throw new IllegalStateException(
-					format("Clock moved backwards. Refusing to generate id for %d milliseconds", lastTime.get() - now));
-		}
-		// 如果上次生成时间和当前时间相同,在同一毫秒内
-		if (lastTime.get() == now) {
-			// sequence自增，因为sequence只有12bit，所以和sequenceMask相与一下，去掉高位
-			sequence.set(sequence.incrementAndGet() & def.sequenceMask);
-			// 判断是否溢出,也就是每毫秒内超过4095，当为4096时，与sequenceMask相与，sequence就等于0
-			if (sequence.get() == 0) {
-				// 自旋等待到下一毫秒
-				now = tilNextMillis(lastTime.get());
+	public long nextId() {
+		return toId(reserve(1));
+	}
+
+	/**
+	 * Gets next batch global UIDs, the sequence range of each millisecond is
+	 * reserved in one step.
+	 * 
+	 * @param n
+	 * @return
+	 */
+	public long[] nextIds(int n) {
+		isTrueOf(n >= 0, "n>=0");
+		long[] ids = new long[n];
+		int maxPerMillis = (int) Math.min(def.sequenceMask + 1, Integer.MAX_VALUE);
+		for (int filled = 0; filled < n;) {
+			int count = Math.min(n - filled, maxPerMillis);
+			long first = reserve(count);
+			for (int i = 0; i < count; i++) {
+				ids[filled++] = toId(first + i);
 			}
-		} else {
-			// 如果和上次生成时间不同,重置sequence，就是下一毫秒开始，sequence计数重新从0开始累加
-			sequence.set(0L);
 		}
-		lastTime.set(now);
+		return ids;
+	}
 
-		// Finally, the ID is calculated according to the rules.
-		// 000000000000000000000000000000000000000000 00000 00000 000000000000
-		// time dataCenterId workerId sequence
-		return ((now - def.twepoch) << def.timestampLeftShift) | (dataCenterId << def.dataCenterIdShift)
-				| (workerId << def.workerIdShift) | sequence.get();
+	/**
+	 * Reserve the contiguous sequence range of a millisecond.
+	 * 
+	 * @param count
+	 *            The size of range, must not greater than
+	 *            {@link BitsDefine#sequenceMask}+1
+	 * @return The first packed word of range.
+	 */
+	private long reserve(int count) {
+		for (;;) {
+			long current = state.get();
+			long lastTime = current >>> def.sequenceBits;
+			long now = timeGen() - def.twepoch;
+
+			long time, start;
+			if (now > lastTime) {
+				time = now;
+				start = 0L;
+			} else {
+				// Same millisecond or clock moved backwards, continue the last
+				// timestamp, and borrows the next millisecond when exhausted.
+				time = lastTime;
+				start = (current & def.sequenceMask) + 1;
+				if (start + count - 1 > def.sequenceMask) {
+					time = lastTime + 1;
+					start = 0L;
+				}
+				if (time - now > maxBackwardMillis) {
+					if (now < lastTime - maxBackwardMillis) {
+						throw new IllegalStateException(format(
+								"Clock moved backwards. Refusing to generate id for %d milliseconds", lastTime - now));
+					}
+					// Too many borrowed, waiting for the clock to catch up.
+					Thread.yield();
+					continue;
+				}
+			}
+			if (state.compareAndSet(current, (time << def.sequenceBits) | (start + count - 1))) {
+				return (time << def.sequenceBits) | start;
+			}
+		}
 	}
 
 	/**
-	 * Spin wait until next MS
+	 * Finally, the ID is calculated according to the rules.
+	 * 
+	 * <pre>
+	 * 000000000000000000000000000000000000000000 00000 00000 000000000000
+	 * time dataCenterId workerId sequence
+	 * </pre>
 	 * 
-	 * @param lastTimestamp
+	 * @param packed
 	 * @return
 	 */
-	protected long tilNextMillis(long lastTimestamp) {
-		long timestamp = timeGen();
-		while (timestamp <= lastTimestamp) {
-			timestamp = timeGen();
-		}
-		return timestamp;
+	private long toId(long packed) {
+		return ((packed >>> def.sequenceBits) << def.timestampLeftShift) | nodeBits | (packed & def.sequenceMask);
 	}
 
 	/**
@@ -137,6 +203,11 @@ public final class SnowflakeIdGenerator {
 		}
 	}
 
+	/**
+	 * Default maximum tolerated clock drift milliseconds.
+	 */
+	public static final long DEFAULT_MAX_BACKWARD_MILLIS = 10L;
+
 	/**
 	 * Gets {@link SnowflakeIdGenerator} default instance.
 	 * 
@@ -16,13 +16,21 @@
 package com.wl4g.component.common.remoting;
 
 import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static com.wl4g.component.common.lang.TypeConverts.safeLongToInt;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Nullable;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
@@ -35,32 +43,53 @@ import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
 import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.pool.ChannelPool;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.util.concurrent.FutureListener;
 
 /**
  * {@link ClientHttpRequest} implementation based on Netty 4.
  *
  * <p>
- * Created via the {@link Netty4ClientHttpRequestFactory}.
+ * Created via the {@link Netty4ClientHttpRequestFactory}, the connection is
+ * either acquired from the keep-alive {@link ChannelPool} and released on the
+ * response closed, or connected by {@link Bootstrap} and closed on the response
+ * closed.
  */
 class Netty4ClientHttpRequest extends AbstractAsyncClientHttpRequest implements ClientHttpRequest {
 
+	@Nullable
 	private final Bootstrap bootstrap;
+	@Nullable
+	private final ChannelPool channelPool;
+	private final long readTimeout;
 	private final URI uri;
 	private final HttpMethod method;
 	private final ByteBufOutputStream body;
 	private boolean executed = false;
 
 	public Netty4ClientHttpRequest(Bootstrap bootstrap, URI uri, HttpMethod method) {
-		notNullOf(bootstrap, "bootstrap");
+		this(notNullOf(bootstrap, "bootstrap"), null, -1, uri, method);
+	}
+
+	public Netty4ClientHttpRequest(ChannelPool channelPool, URI uri, HttpMethod method, long readTimeout) {
+		this(null, notNullOf(channelPool, "channelPool"), readTimeout, uri, method);
+	}
+
+	private Netty4ClientHttpRequest(Bootstrap bootstrap, ChannelPool channelPool, long readTimeout, URI uri,
+			HttpMethod method) {
 		notNullOf(uri, "uri");
 		notNullOf(method, "method");
 		this.bootstrap = bootstrap;
+		this.channelPool = channelPool;
+		this.readTimeout = readTimeout;
 		this.uri = uri;
 		this.method = method;
 		this.body = new ByteBufOutputStream(Unpooled.buffer(1024));
@@ -162,21 +191,49 @@ class Netty4ClientHttpRequest extends AbstractAsyncClientHttpRequest implements
 	protected ListenableFuture<ClientHttpResponse> executeInternal(final HttpHeaders headers) throws IOException {
 		final SettableFuture<ClientHttpResponse> responseFuture = SettableFuture.create();
 
-		ChannelFutureListener connectionListener = future -> {
-			if (future.isSuccess()) {
-				Channel channel = future.channel();
-				channel.pipeline().addLast(new RequestExecuteHandler(responseFuture));
-				channel.writeAndFlush(createFullHttpRequest(headers));
-			} else {
+		if (nonNull(channelPool)) {
+			FutureListener<Channel> acquireListener = future -> {
+				if (future.isSuccess()) {
+					doWriteRequest(new ChannelLease(future.getNow(), channelPool), headers, responseFuture);
+				} else {
+					responseFuture.setException(future.cause());
+				}
+			};
+			this.channelPool.acquire().addListener(acquireListener);
+		} else {
+			ChannelFutureListener connectionListener = future -> {
+				if (future.isSuccess()) {
+					doWriteRequest(new ChannelLease(future.channel(), null), headers, responseFuture);
+				} else {
+					responseFuture.setException(future.cause());
+				}
+			};
+			this.bootstrap.connect(uri.getHost(), getPort(uri)).addListener(connectionListener);
+		}
+		return responseFuture;
+	}
+
+	private void doWriteRequest(ChannelLease lease, HttpHeaders headers, SettableFuture<ClientHttpResponse> responseFuture) {
+		try {
+			ChannelPipeline pipe = lease.channel.pipeline();
+			if (readTimeout > 0) {
+				pipe.addLast(READ_TIMEOUT_HANDLER, new ReadTimeoutHandler(safeLongToInt(readTimeout), MILLISECONDS));
+			}
+			pipe.addLast(EXECUTE_HANDLER, new RequestExecuteHandler(responseFuture, lease));
+		} catch (Exception e) {
+			responseFuture.setException(e);
+			lease.release(false);
+			return;
+		}
+		lease.channel.writeAndFlush(createFullHttpRequest(headers, nonNull(lease.pool))).addListener(future -> {
+			if (!future.isSuccess()) {
 				responseFuture.setException(future.cause());
+				lease.release(false);
 			}
-		};
-
-		this.bootstrap.connect(uri.getHost(), getPort(uri)).addListener(connectionListener);
-		return responseFuture;
+		});
 	}
 
-	private FullHttpRequest createFullHttpRequest(HttpHeaders headers) {
+	private FullHttpRequest createFullHttpRequest(HttpHeaders headers, boolean keepAlive) {
 		io.netty.handler.codec.http.HttpMethod nettyMethod = io.netty.handler.codec.http.HttpMethod.valueOf(method.name());
 
 		String authority = uri.getRawAuthority();
@@ -184,7 +241,7 @@ class Netty4ClientHttpRequest extends AbstractAsyncClientHttpRequest implements
 		FullHttpRequest nettyRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, nettyMethod, path, body.buffer());
 
 		nettyRequest.headers().set(HttpHeaders.HOST, uri.getHost() + ":" + getPort(uri));
-		nettyRequest.headers().set(HttpHeaders.CONNECTION, "close");
+		nettyRequest.headers().set(HttpHeaders.CONNECTION, keepAlive ? "keep-alive" : "close");
 		for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
 			nettyRequest.headers().add(entry.getKey(), entry.getValue());
 		}
@@ -195,7 +252,7 @@ class Netty4ClientHttpRequest extends AbstractAsyncClientHttpRequest implements
 		return nettyRequest;
 	}
 
-	private static int getPort(URI uri) {
+	static int getPort(URI uri) {
 		int port = uri.getPort();
 		if (port == -1) {
 			if ("http".equalsIgnoreCase(uri.getScheme())) {
@@ -214,20 +271,85 @@ class Netty4ClientHttpRequest extends AbstractAsyncClientHttpRequest implements
 	private static class RequestExecuteHandler extends SimpleChannelInboundHandler<FullHttpResponse> {
 
 		private final SettableFuture<ClientHttpResponse> responseFuture;
+		private final ChannelLease lease;
 
-		public RequestExecuteHandler(SettableFuture<ClientHttpResponse> responseFuture) {
+		public RequestExecuteHandler(SettableFuture<ClientHttpResponse> responseFuture, ChannelLease lease) {
 			this.responseFuture = responseFuture;
+			this.lease = lease;
 		}
 
 		@Override
 		protected void channelRead0(ChannelHandlerContext context, FullHttpResponse response) throws Exception {
-			this.responseFuture.set(new Netty4ClientHttpResponse(context, response));
+			Netty4ClientHttpResponse clientResponse = new Netty4ClientHttpResponse(response, lease);
+			if (!this.responseFuture.set(clientResponse)) {
+				clientResponse.close();
+			}
+		}
+
+		@Override
+		public void channelInactive(ChannelHandlerContext context) throws Exception {
+			// e.g. the keep-alive connection closed by server.
+			this.responseFuture.setException(new IOException("Connection closed prematurely"));
+			this.lease.release(false);
+			super.channelInactive(context);
 		}
 
 		@Override
 		public void exceptionCaught(ChannelHandlerContext context, Throwable cause) throws Exception {
 			this.responseFuture.setException(cause);
+			this.lease.release(false);
 		}
 	}
 
+	/**
+	 * The connection leased by a request, it's released only once: back to the
+	 * channel pool if reusable, otherwise closed.
+	 */
+	static final class ChannelLease {
+
+		private final Channel channel;
+		@Nullable
+		private final ChannelPool pool;
+		private final AtomicBoolean released = new AtomicBoolean(false);
+
+		ChannelLease(Channel channel, @Nullable ChannelPool pool) {
+			this.channel = channel;
+			this.pool = pool;
+		}
+
+		/**
+		 * Release the connection.
+		 * 
+		 * @param reusable
+		 *            Whether the connection can be reused, e.g. the response
+		 *            has been fully read and is keep-alive.
+		 */
+		void release(boolean reusable) {
+			if (!released.compareAndSet(false, true)) {
+				return;
+			}
+			removeHandler(channel.pipeline(), EXECUTE_HANDLER);
+			removeHandler(channel.pipeline(), READ_TIMEOUT_HANDLER);
+			if (!reusable || isNull(pool)) {
+				channel.close();
+			}
+			if (nonNull(pool)) {
+				// Closed channels are also released to free the pool permits.
+				pool.release(channel);
+			}
+		}
+
+		private static void removeHandler(ChannelPipeline pipe, String name) {
+			try {
+				if (nonNull(pipe.get(name))) {
+					pipe.remove(name);
+				}
+			} catch (NoSuchElementException e) { // Ignore, removed by closed
+			}
+		}
+	}
+
+	private static final String EXECUTE_HANDLER = "requestExecuteHandler";
+	private static final String READ_TIMEOUT_HANDLER = "requestReadTimeoutHandler";
+
 }
\ No newline at end of file
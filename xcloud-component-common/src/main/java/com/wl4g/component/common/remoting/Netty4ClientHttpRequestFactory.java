@@ -15,7 +15,7 @@
  */
 package com.wl4g.component.common.remoting;
 
-import static java.util.Objects.isNull;
+import static java.util.Collections.unmodifiableMap;
 import static java.util.Objects.nonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static com.wl4g.component.common.lang.Assert2.*;
@@ -25,6 +25,11 @@ import static java.lang.Runtime.getRuntime;
 import java.io.Closeable;
 import java.io.IOException;
 import java.net.URI;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.net.ssl.SSLException;
 
@@ -33,11 +38,19 @@ import com.wl4g.component.common.remoting.standard.HttpHeaders;
 import static com.wl4g.component.common.remoting.standard.HttpMediaType.MULTIPART_FORM_DATA;
 
 import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelConfig;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
+import io.netty.channel.pool.AbstractChannelPoolMap;
+import io.netty.channel.pool.ChannelHealthChecker;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.channel.pool.FixedChannelPool;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.SocketChannelConfig;
 import io.netty.channel.socket.nio.NioSocketChannel;
@@ -50,7 +63,12 @@ import io.netty.handler.logging.LoggingHandler;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
 import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
 
 /**
  * {@link ClientHttpRequestFactory} implementation that uses
@@ -59,8 +77,11 @@ import io.netty.handler.timeout.ReadTimeoutHandler;
  * Allows to use a pre-configured {@link EventLoopGroup} instance: useful for
  * sharing across multiple clients.
  * <p>
- * Note that this implementation consistently closes the HTTP connection on each
- * request.
+ * By default the connections are kept alive and reused with a bounded channel
+ * pool per host (scheme, host and port), idle connections are evicted after
+ * {@link #setMaxIdleTime(long)}. Note that the multipart requests and the
+ * requests with {@link #setKeepAlive(boolean)} disabled still close the HTTP
+ * connection on each request.
  * 
  * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
  * @version 2020年7月01日 v1.0.0
@@ -77,9 +98,16 @@ public class Netty4ClientHttpRequestFactory implements ClientHttpRequestFactory,
 	private long connectTimeout;
 	private long readTimeout;
 	private int maxResponseSize;
+	private boolean keepAlive = true;
+	private int maxConnectionsPerHost = DEFAULT_MAX_CONNECTIONS_PER_HOST;
+	private long acquireTimeout = DEFAULT_ACQUIRE_TIMEOUT;
+	private long maxIdleTime = DEFAULT_MAX_IDLE_TIME;
 
-	@Nullable
-	private volatile Bootstrap bootstrap;
+	/** Keep-alive channel pools of per host. */
+	private final ChannelPoolMap channelPools = new ChannelPoolMap();
+
+	/** Channel pool metrics of per host. */
+	private final Map<String, PoolMetrics> poolMetrics = new ConcurrentHashMap<>(8);
 
 	/**
 	 * Create a new {@code Netty4ClientHttpRequestFactory} with a default
@@ -104,7 +132,7 @@ public class Netty4ClientHttpRequestFactory implements ClientHttpRequestFactory,
 	 * @param debug
 	 */
 	public Netty4ClientHttpRequestFactory(boolean debug, int connectTimeout, int readTimeout, int maxResponseSize) {
-		this(new NioEventLoopGroup(getRuntime().availableProcessors() * 2), debug);
+		this(new NioEventLoopGroup(getRuntime().availableProcessors() * 2), debug, true);
 		setConnectTimeout(connectTimeout);
 		setReadTimeout(readTimeout);
 		setMaxResponseSize(maxResponseSize);
@@ -121,9 +149,13 @@ public class Netty4ClientHttpRequestFactory implements ClientHttpRequestFactory,
 	 * @param debug
 	 */
 	public Netty4ClientHttpRequestFactory(EventLoopGroup eventLoopGroup, boolean debug) {
-		// notNull(eventLoopGroup, "EventLoopGroup must not be null");
+		this(eventLoopGroup, debug, false);
+	}
+
+	private Netty4ClientHttpRequestFactory(EventLoopGroup eventLoopGroup, boolean debug, boolean defaultEventLoopGroup) {
+		notNull(eventLoopGroup, "EventLoopGroup must not be null");
 		this.eventLoopGroup = eventLoopGroup;
-		this.defaultEventLoopGroup = isNull(eventLoopGroup);
+		this.defaultEventLoopGroup = defaultEventLoopGroup;
 		this.debug = debug;
 	}
 
@@ -169,6 +201,60 @@ public class Netty4ClientHttpRequestFactory implements ClientHttpRequestFactory,
 		this.readTimeout = readTimeout;
 	}
 
+	/**
+	 * Set whether to keep alive and reuse the connections with the channel
+	 * pool of per host, default: true
+	 * <p>
+	 * The pool settings should be set before the first request of the host.
+	 */
+	public void setKeepAlive(boolean keepAlive) {
+		this.keepAlive = keepAlive;
+	}
+
+	/**
+	 * Set the maximum number of connections of per host.
+	 * <p>
+	 * By default this is set to {@link #DEFAULT_MAX_CONNECTIONS_PER_HOST}.
+	 */
+	public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+		isTrue(maxConnectionsPerHost > 0, "maxConnectionsPerHost must be greater than 0");
+		this.maxConnectionsPerHost = maxConnectionsPerHost;
+	}
+
+	/**
+	 * Set the maximum time (in milliseconds) to wait for a pooled connection
+	 * when the {@link #setMaxConnectionsPerHost(int)} is reached. A timeout
+	 * value of 0 specifies an infinite timeout.
+	 * <p>
+	 * By default this is set to {@link #DEFAULT_ACQUIRE_TIMEOUT}.
+	 */
+	public void setAcquireTimeout(long acquireTimeout) {
+		this.acquireTimeout = acquireTimeout;
+	}
+
+	/**
+	 * Set the maximum time (in milliseconds) of pooled connections to be idle,
+	 * it should be less than the keep-alive timeout of the servers. A value of
+	 * 0 specifies never evicted.
+	 * <p>
+	 * By default this is set to {@link #DEFAULT_MAX_IDLE_TIME}.
+	 * 
+	 * @see IdleStateHandler
+	 */
+	public void setMaxIdleTime(long maxIdleTime) {
+		this.maxIdleTime = maxIdleTime;
+	}
+
+	/**
+	 * Gets the channel pool metrics of per host, the key is
+	 * {@code scheme://host:port}.
+	 * 
+	 * @return
+	 */
+	public Map<String, PoolMetrics> getPoolMetrics() {
+		return unmodifiableMap(poolMetrics);
+	}
+
 	/**
 	 * Create nttp request of netty.
 	 * 
@@ -179,6 +265,9 @@ public class Netty4ClientHttpRequestFactory implements ClientHttpRequestFactory,
 	 * @throws IOException
 	 */
 	public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod, HttpHeaders requestHeaders) throws IOException {
+		if (keepAlive && !isMultipart(requestHeaders)) {
+			return new Netty4ClientHttpRequest(getChannelPool(uri), uri, httpMethod, readTimeout);
+		}
 		return new Netty4ClientHttpRequest(getBootstrap(uri, requestHeaders), uri, httpMethod);
 	}
 
@@ -213,8 +302,13 @@ public class Netty4ClientHttpRequestFactory implements ClientHttpRequestFactory,
 		}
 	}
 
+	private ChannelPool getChannelPool(URI uri) {
+		boolean isSecure = isSecure(uri);
+		return channelPools.get(new PoolKey(isSecure ? "https" : "http", uri.getHost(), Netty4ClientHttpRequest.getPort(uri)));
+	}
+
 	private Bootstrap getBootstrap(URI uri, HttpHeaders requestHeaders) {
-		boolean isSecure = (uri.getPort() == 443 || "https".equalsIgnoreCase(uri.getScheme()));
+		boolean isSecure = isSecure(uri);
 		// if (isSecure) {
 		// return createBootstrap(uri, true, requestHeaders);
 		// } else if (isNull(bootstrap)) {
@@ -233,6 +327,7 @@ public class Netty4ClientHttpRequestFactory implements ClientHttpRequestFactory,
 
 	@Override
 	public void close() throws IOException {
+		channelPools.close();
 		if (defaultEventLoopGroup) {
 			// Clean up the EventLoopGroup if we created it in the constructor
 			try {
@@ -271,7 +366,7 @@ public class Netty4ClientHttpRequestFactory implements ClientHttpRequestFactory,
 			}
 			pipe.addLast(new HttpClientCodec());
 
-			if (nonNull(requestHeaders) && MULTIPART_FORM_DATA.isCompatibleWith(requestHeaders.getContentType())) {
+			if (isMultipart(requestHeaders)) {
 				// Remove the following line if you don't want automatic
 				// content decompression.
 				pipe.addLast("inflater", new HttpContentDecompressor());
@@ -288,6 +383,219 @@ public class Netty4ClientHttpRequestFactory implements ClientHttpRequestFactory,
 
 	}
 
+	/**
+	 * {@link ChannelPoolMap}
+	 */
+	private class ChannelPoolMap extends AbstractChannelPoolMap<PoolKey, FixedChannelPool> {
+
+		@Override
+		protected FixedChannelPool newPool(PoolKey key) {
+			PoolMetrics metrics = poolMetrics.computeIfAbsent(key.toString(), k -> new PoolMetrics());
+			Bootstrap bootstrap = new Bootstrap().group(eventLoopGroup).channel(NioSocketChannel.class).remoteAddress(key.host,
+					key.port);
+			return new MeteredChannelPool(bootstrap, new PooledChannelHandler(key, metrics), metrics, maxConnectionsPerHost,
+					acquireTimeout);
+		}
+
+	}
+
+	/**
+	 * Bounded channel pool of a host, counting the acquisition timeouts.
+	 */
+	private static class MeteredChannelPool extends FixedChannelPool {
+		private final PoolMetrics metrics;
+
+		MeteredChannelPool(Bootstrap bootstrap, AbstractChannelPoolHandler handler, PoolMetrics metrics, int maxConnectionsPerHost,
+				long acquireTimeout) {
+			super(bootstrap, handler, ChannelHealthChecker.ACTIVE, acquireTimeout > 0 ? AcquireTimeoutAction.FAIL : null,
+					acquireTimeout > 0 ? acquireTimeout : -1, maxConnectionsPerHost, Integer.MAX_VALUE, true, true);
+			this.metrics = metrics;
+		}
+
+		@Override
+		public Future<Channel> acquire(Promise<Channel> promise) {
+			return super.acquire(promise).addListener(future -> {
+				if (future.cause() instanceof TimeoutException) {
+					metrics.acquireTimeouts.incrementAndGet();
+				}
+			});
+		}
+
+	}
+
+	/**
+	 * Initializes the keep-alive pipeline of pooled channels. The per request
+	 * handlers(e.g. read timeout) are added and removed by
+	 * {@link Netty4ClientHttpRequest}.
+	 */
+	private class PooledChannelHandler extends AbstractChannelPoolHandler {
+		private final PoolKey key;
+		private final PoolMetrics metrics;
+
+		PooledChannelHandler(PoolKey key, PoolMetrics metrics) {
+			this.key = key;
+			this.metrics = metrics;
+		}
+
+		@Override
+		public void channelCreated(Channel ch) throws Exception {
+			metrics.created.incrementAndGet();
+			configureChannel((SocketChannelConfig) ch.config());
+
+			ChannelPipeline pipe = ch.pipeline();
+			if (debug) {
+				pipe.addLast(new LoggingHandler(LogLevel.INFO));
+			}
+			if (key.isSecure()) {
+				notNull(getSslContext(), "sslContext should not be null");
+				pipe.addLast(getSslContext().newHandler(ch.alloc(), key.host, key.port));
+			}
+			pipe.addLast(new HttpClientCodec());
+			pipe.addLast(new HttpObjectAggregator(maxResponseSize));
+			if (maxIdleTime > 0) {
+				pipe.addLast(new IdleStateHandler(0, 0, maxIdleTime, MILLISECONDS));
+				pipe.addLast(new IdleChannelEvictor(metrics));
+			}
+		}
+
+		@Override
+		public void channelAcquired(Channel ch) throws Exception {
+			metrics.leased.incrementAndGet();
+			if (nonNull(ch.attr(LEASED).getAndSet(true))) {
+				metrics.reused.incrementAndGet();
+			}
+		}
+
+		@Override
+		public void channelReleased(Channel ch) throws Exception {
+			metrics.leased.decrementAndGet();
+			ch.attr(LEASED).set(false);
+		}
+
+	}
+
+	/**
+	 * Closes the pooled channel that has been idle (not leased) too long.
+	 */
+	private static class IdleChannelEvictor extends ChannelInboundHandlerAdapter {
+		private final PoolMetrics metrics;
+
+		IdleChannelEvictor(PoolMetrics metrics) {
+			this.metrics = metrics;
+		}
+
+		@Override
+		public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+			if (evt instanceof IdleStateEvent) {
+				if (!Boolean.TRUE.equals(ctx.channel().attr(LEASED).get())) {
+					metrics.idleEvicted.incrementAndGet();
+					ctx.close();
+				}
+				return;
+			}
+			super.userEventTriggered(ctx, evt);
+		}
+
+	}
+
+	/**
+	 * Channel pool key of per host.
+	 */
+	private static final class PoolKey {
+		private final String scheme;
+		private final String host;
+		private final int port;
+
+		PoolKey(String scheme, String host, int port) {
+			this.scheme = scheme;
+			this.host = host;
+			this.port = port;
+		}
+
+		boolean isSecure() {
+			return "https".equals(scheme);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof PoolKey)) {
+				return false;
+			}
+			PoolKey that = (PoolKey) obj;
+			return port == that.port && scheme.equals(that.scheme) && host.equalsIgnoreCase(that.host);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(scheme, host.toLowerCase(), port);
+		}
+
+		@Override
+		public String toString() {
+			return scheme + "://" + host + ":" + port;
+		}
+
+	}
+
+	/**
+	 * Channel pool metrics of a host.
+	 */
+	public static final class PoolMetrics {
+		private final AtomicLong created = new AtomicLong(0);
+		private final AtomicLong reused = new AtomicLong(0);
+		private final AtomicLong leased = new AtomicLong(0);
+		private final AtomicLong idleEvicted = new AtomicLong(0);
+		private final AtomicLong acquireTimeouts = new AtomicLong(0);
+
+		/** Total number of connections created. */
+		public long getCreated() {
+			return created.get();
+		}
+
+		/** Total number of pooled connections reused. */
+		public long getReused() {
+			return reused.get();
+		}
+
+		/** Number of connections currently leased by requests. */
+		public long getLeased() {
+			return leased.get();
+		}
+
+		/** Total number of idle connections evicted. */
+		public long getIdleEvicted() {
+			return idleEvicted.get();
+		}
+
+		/** Total number of acquisitions timed out. */
+		public long getAcquireTimeouts() {
+			return acquireTimeouts.get();
+		}
+
+		@Override
+		public String toString() {
+			return "PoolMetrics [created=" + created + ", reused=" + reused + ", leased=" + leased + ", idleEvicted="
+					+ idleEvicted + ", acquireTimeouts=" + acquireTimeouts + "]";
+		}
+
+	}
+
+	private static boolean isSecure(URI uri) {
+		return (uri.getPort() == 443 || "https".equalsIgnoreCase(uri.getScheme()));
+	}
+
+	private static boolean isMultipart(HttpHeaders requestHeaders) {
+		return nonNull(requestHeaders) && MULTIPART_FORM_DATA.isCompatibleWith(requestHeaders.getContentType());
+	}
+
+	/**
+	 * Whether the pooled channel is leased by a request.
+	 */
+	private static final AttributeKey<Boolean> LEASED = AttributeKey.valueOf(Netty4ClientHttpRequestFactory.class, "leased");
+
 	/**
 	 * The default maximum response size.
 	 * 
@@ -295,4 +603,25 @@ public class Netty4ClientHttpRequestFactory implements ClientHttpRequestFactory,
 	 */
 	public static final int DEFAULT_MAX_RESPONSE_SIZE = 1024 * 1024 * 10;
 
+	/**
+	 * The default maximum number of connections of per host.
+	 * 
+	 * @see #setMaxConnectionsPerHost(int)
+	 */
+	public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 64;
+
+	/**
+	 * The default pooled connection acquisition timeout (in milliseconds).
+	 * 
+	 * @see #setAcquireTimeout(long)
+	 */
+	public static final long DEFAULT_ACQUIRE_TIMEOUT = 10_000L;
+
+	/**
+	 * The default maximum idle time of pooled connections (in milliseconds).
+	 * 
+	 * @see #setMaxIdleTime(long)
+	 */
+	public static final long DEFAULT_MAX_IDLE_TIME = 30_000L;
+
 }
\ No newline at end of file
@@ -23,24 +23,26 @@ import com.wl4g.component.common.lang.Assert2;
 import com.wl4g.component.common.remoting.standard.HttpHeaders;
 import com.wl4g.component.common.remoting.standard.HttpStatus;
 
+import com.wl4g.component.common.remoting.Netty4ClientHttpRequest.ChannelLease;
+
 import io.netty.buffer.ByteBufInputStream;
-import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpUtil;
 
 /**
  * {@link ClientHttpResponse} implementation based on Netty 4.
  */
 class Netty4ClientHttpResponse extends AbstractClientHttpResponse {
 
-	private final ChannelHandlerContext context;
+	private final ChannelLease lease;
 	private final FullHttpResponse nettyResponse;
 	private final ByteBufInputStream body;
 	private volatile HttpHeaders headers;
 
-	public Netty4ClientHttpResponse(ChannelHandlerContext context, FullHttpResponse nettyResponse) {
-		Assert2.notNull(context, "ChannelHandlerContext must not be null");
+	public Netty4ClientHttpResponse(FullHttpResponse nettyResponse, ChannelLease lease) {
 		Assert2.notNull(nettyResponse, "FullHttpResponse must not be null");
-		this.context = context;
+		Assert2.notNull(lease, "ChannelLease must not be null");
+		this.lease = lease;
 		this.nettyResponse = nettyResponse;
 		this.body = new ByteBufInputStream(nettyResponse.content());
 		this.nettyResponse.retain();
@@ -116,8 +118,11 @@ class Netty4ClientHttpResponse extends AbstractClientHttpResponse {
 
 	@Override
 	public void close() {
+		// The response has been fully aggregated, so the connection can be
+		// reused unless the server requires to close it.
+		boolean reusable = HttpUtil.isKeepAlive(nettyResponse);
 		nettyResponse.release();
-		context.close();
+		lease.release(reusable);
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.common.task;
+
+import static com.wl4g.component.common.lang.Assert2.hasTextOf;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-process {@link ScheduleCoordinator}, which coordinates the executors of
+ * the same JVM (e.g. the single node deployment and tests).
+ * 
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version v1.0 2021-07-01
+ * @since
+ */
+public class LocalScheduleCoordinator implements ScheduleCoordinator {
+
+	/** The last claimed fire time of jobs. */
+	private final ConcurrentMap<String, Long> claimed = new ConcurrentHashMap<>();
+
+	@Override
+	public boolean tryClaim(String jobName, long fireTime, long leaseMs) {
+		Long last = claimed.putIfAbsent(hasTextOf(jobName, "jobName"), fireTime);
+		while (last != null) {
+			if (last >= fireTime) {
+				return false;
+			}
+			if (claimed.replace(jobName, last, fireTime)) {
+				return true;
+			}
+			last = claimed.putIfAbsent(jobName, fireTime);
+		}
+		return true;
+	}
+
+}
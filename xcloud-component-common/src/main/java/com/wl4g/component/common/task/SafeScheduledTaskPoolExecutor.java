@@ -15,6 +15,7 @@
  */
 package com.wl4g.component.common.task;
 
+import static com.wl4g.component.common.lang.Assert2.hasTextOf;
 import static com.wl4g.component.common.lang.Assert2.isTrue;
 import static com.wl4g.component.common.lang.Assert2.notNull;
 import static com.wl4g.component.common.lang.Assert2.notNullOf;
@@ -22,6 +23,7 @@ import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
 import static com.wl4g.component.common.reflect.ReflectionUtils2.*;
 import static java.lang.Integer.MAX_VALUE;
 import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
 import static java.lang.System.nanoTime;
 import static java.util.Collections.emptyList;
 import static java.util.Objects.nonNull;
@@ -82,6 +84,11 @@ public class SafeScheduledTaskPoolExecutor extends ScheduledThreadPoolExecutor {
 	 */
 	final private RejectedExecutionHandler rejectHandler;
 
+	/**
+	 * {@link ScheduleCoordinator} of cluster singleton scheduling.
+	 */
+	private volatile ScheduleCoordinator coordinator;
+
 	public SafeScheduledTaskPoolExecutor(int coreMaximumPoolSize, long keepAliveTimeMs, ThreadFactory threadFactory,
 			int acceptQueue, RejectedExecutionHandler rejectHandler) {
 		super(coreMaximumPoolSize, threadFactory, rejectHandler);
@@ -93,6 +100,14 @@ public class SafeScheduledTaskPoolExecutor extends ScheduledThreadPoolExecutor {
 		this.rejectHandler = rejectHandler;
 	}
 
+	public ScheduleCoordinator getCoordinator() {
+		return coordinator;
+	}
+
+	public void setCoordinator(ScheduleCoordinator coordinator) {
+		this.coordinator = notNullOf(coordinator, "coordinator");
+	}
+
 	/**
 	 * The {@link #invokeAll(Collection, long, TimeUnit)} or
 	 * {@link #invokeAny(Collection, long, TimeUnit)} related methods also call
@@ -230,6 +245,34 @@ public class SafeScheduledTaskPoolExecutor extends ScheduledThreadPoolExecutor {
 				unit.toMillis(initialDelay), MAX_VALUE, MILLISECONDS);
 	}
 
+	/**
+	 * Cluster singleton scheduling at fixed rate, that is, each fire runs on
+	 * only one node, which is claimed through the {@link ScheduleCoordinator}.
+	 * The fires are aligned to the multiples of period of the wall clock, so
+	 * all nodes claim the same fire times (the clock skew must be less than
+	 * half period).
+	 * 
+	 * @see {@link #setCoordinator(ScheduleCoordinator)}
+	 * 
+	 * @param jobName
+	 *            The cluster unique job name.
+	 * @param runnable
+	 *            The exceptions are logged, without cancelling the
+	 *            subsequent fires.
+	 * @param period
+	 * @param unit
+	 * @return The future, or null if rejected by the queue limit (see
+	 *         {@link #scheduleAtFixedRate(Runnable, long, long, TimeUnit)})
+	 */
+	public ScheduledFuture<?> scheduleAtFixedRateSingleton(String jobName, Runnable runnable, long period, TimeUnit unit) {
+		ScheduleCoordinator coordinator = notNull(this.coordinator, "No schedule coordinator, singleton scheduling unavailable");
+		long periodMs = unit.toMillis(period);
+		isTrue(periodMs > 0, "period must be greater than 0ms");
+		long initialDelayMs = periodMs - currentTimeMillis() % periodMs;
+		return scheduleAtFixedRate(new SingletonScheduleRunnable(coordinator, hasTextOf(jobName, "jobName"), periodMs, runnable),
+				initialDelayMs, periodMs, MILLISECONDS);
+	}
+
 	@Override
 	public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
 		if (checkRejectedQueueLimit(command))
@@ -551,6 +594,63 @@ public class SafeScheduledTaskPoolExecutor extends ScheduledThreadPoolExecutor {
 
 	}
 
+	/**
+	 * {@link SingletonScheduleRunnable}
+	 * 
+	 * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+	 * @version 2021-07-01 v1.0.0
+	 * @see
+	 */
+	class SingletonScheduleRunnable implements Runnable {
+
+		final private ScheduleCoordinator coordinator;
+
+		/** Cluster unique job name. */
+		final private String jobName;
+
+		final private long periodMs;
+
+		final private Runnable runnable;
+
+		SingletonScheduleRunnable(ScheduleCoordinator coordinator, String jobName, long periodMs, Runnable runnable) {
+			this.coordinator = notNullOf(coordinator, "coordinator");
+			this.jobName = jobName;
+			this.periodMs = periodMs;
+			this.runnable = notNullOf(runnable, "runnable");
+		}
+
+		@Override
+		public void run() {
+			runAt(currentTimeMillis());
+		}
+
+		/**
+		 * Claim and run the fire of the time.
+		 * 
+		 * @param now
+		 *            Current time(ms)
+		 */
+		void runAt(long now) {
+			// The nearest aligned fire time, tolerating the clock skew.
+			long fireTime = Math.round((double) now / periodMs);
+			boolean claimed;
+			try {
+				claimed = coordinator.tryClaim(jobName, fireTime, periodMs);
+			} catch (Exception e) { // Skip rather than run on all nodes.
+				log.warn(format("Failed to claim fire %s of job '%s', skipped", fireTime, jobName), e);
+				return;
+			}
+			if (claimed) {
+				try {
+					runnable.run();
+				} catch (Throwable e) { // Otherwise the subsequent fires are cancelled.
+					log.error(format("Failed to run fire %s of job '%s'", fireTime, jobName), e);
+				}
+			}
+		}
+
+	}
+
 	/**
 	 * Empty runnable.
 	 */
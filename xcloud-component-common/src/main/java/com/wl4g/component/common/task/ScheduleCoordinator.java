@@ -0,0 +1,43 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.common.task;
+
+/**
+ * Coordinator of cluster singleton scheduling, which decides the only node to
+ * run a fire of periodic job, see
+ * {@link SafeScheduledTaskPoolExecutor#scheduleAtFixedRateSingleton(String, Runnable, long, java.util.concurrent.TimeUnit)}
+ * 
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version v1.0 2021-07-01
+ * @since
+ */
+public interface ScheduleCoordinator {
+
+	/**
+	 * Try to claim the fire of the job, only one of the nodes that claim the
+	 * same job and fire time succeeds.
+	 * 
+	 * @param jobName
+	 *            The cluster unique job name.
+	 * @param fireTime
+	 *            The fire time (the wall clock aligned period index).
+	 * @param leaseMs
+	 *            The retention time(ms) of claim.
+	 * @return true if claimed and the job should run on this node.
+	 */
+	boolean tryClaim(String jobName, long fireTime, long leaseMs);
+
+}
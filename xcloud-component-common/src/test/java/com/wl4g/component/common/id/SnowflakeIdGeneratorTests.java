@@ -20,12 +20,18 @@ import static java.lang.System.currentTimeMillis;
 import static java.lang.System.out;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
+import org.junit.Test;
+
+import com.wl4g.component.common.id.SnowflakeIdGenerator.BitsDefine;
+
 /**
  * {@link SnowflakeIdGeneratorTests}
  *
@@ -40,6 +46,25 @@ public class SnowflakeIdGeneratorTests {
 		concurrentGenerateCostCase();
 	}
 
+	@Test
+	public void nextIdsUniqueAndIncreasingCase() {
+		// Sequence of 2 bits, that is, the batch must borrow milliseconds.
+		SnowflakeIdGenerator idGen = new SnowflakeIdGenerator(new BitsDefine(1288834974657L, 2L, 2L, 2L), 1L, 2L, 0L);
+		long[] ids = idGen.nextIds(10);
+		Set<Long> unique = new HashSet<>();
+		long last = idGen.nextId();
+		unique.add(last);
+		for (long id : ids) {
+			unique.add(id);
+		}
+		for (int i = 1; i < ids.length; i++) {
+			assert ids[i] > ids[i - 1];
+		}
+		assert last > ids[ids.length - 1];
+		assert unique.size() == ids.length + 1;
+		assert idGen.nextIds(0).length == 0;
+	}
+
 	public static void simpleGenerateCase() {
 		out.println("=== simpleGenerateCase ====");
 
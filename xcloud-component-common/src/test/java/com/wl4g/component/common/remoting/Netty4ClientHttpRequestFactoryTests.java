@@ -0,0 +1,220 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.common.remoting;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.Test;
+
+import com.google.common.io.ByteStreams;
+import com.wl4g.component.common.remoting.Netty4ClientHttpRequestFactory.PoolMetrics;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpVersion;
+
+/**
+ * {@link Netty4ClientHttpRequestFactoryTests}
+ * 
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version v1.0 2021-07-04
+ * @since
+ */
+public class Netty4ClientHttpRequestFactoryTests {
+
+	@Test
+	public void testReuseKeepAliveConnection() throws Exception {
+		try (HttpTestServer server = new HttpTestServer();
+				Netty4ClientHttpRequestFactory factory = new Netty4ClientHttpRequestFactory()) {
+			for (int i = 0; i < 5; i++) {
+				assert ("hello" + i).equals(doGet(factory, server.uri("/hello" + i)));
+				assert waitUntil(() -> getMetrics(factory, server).getLeased() == 0);
+			}
+			PoolMetrics metrics = getMetrics(factory, server);
+			assert metrics.getCreated() == 1 && metrics.getReused() == 4 : metrics;
+			assert server.accepted.get() == 1;
+		}
+	}
+
+	@Test
+	public void testNotReuseConnectionClosedByServer() throws Exception {
+		try (HttpTestServer server = new HttpTestServer();
+				Netty4ClientHttpRequestFactory factory = new Netty4ClientHttpRequestFactory()) {
+			for (int i = 0; i < 3; i++) {
+				assert "close".equals(doGet(factory, server.uri("/close")));
+				assert waitUntil(() -> getMetrics(factory, server).getLeased() == 0);
+			}
+			PoolMetrics metrics = getMetrics(factory, server);
+			assert metrics.getCreated() == 3 && metrics.getReused() == 0 : metrics;
+			assert server.accepted.get() == 3;
+		}
+	}
+
+	@Test
+	public void testAcquireTimeoutIfMaxConnectionsReached() throws Exception {
+		try (HttpTestServer server = new HttpTestServer();
+				Netty4ClientHttpRequestFactory factory = new Netty4ClientHttpRequestFactory()) {
+			factory.setMaxConnectionsPerHost(1);
+			factory.setAcquireTimeout(200L);
+
+			ClientHttpResponse leased = factory.createRequest(server.uri("/leased"), HttpMethod.GET, null).execute();
+			try {
+				factory.createRequest(server.uri("/waiting"), HttpMethod.GET, null).execute();
+				assert false;
+			} catch (IOException e) {
+				assert e.getCause() instanceof TimeoutException;
+			}
+			assert getMetrics(factory, server).getAcquireTimeouts() == 1;
+
+			// Available after the leased connection is released.
+			leased.close();
+			assert "waiting".equals(doGet(factory, server.uri("/waiting")));
+			assert getMetrics(factory, server).getCreated() == 1;
+		}
+	}
+
+	@Test
+	public void testEvictIdleConnection() throws Exception {
+		try (HttpTestServer server = new HttpTestServer();
+				Netty4ClientHttpRequestFactory factory = new Netty4ClientHttpRequestFactory()) {
+			factory.setMaxIdleTime(100L);
+
+			assert "idle".equals(doGet(factory, server.uri("/idle")));
+			assert waitUntil(() -> getMetrics(factory, server).getIdleEvicted() == 1);
+			assert "idle".equals(doGet(factory, server.uri("/idle")));
+			PoolMetrics metrics = getMetrics(factory, server);
+			assert metrics.getCreated() == 2 && metrics.getReused() == 0 : metrics;
+		}
+	}
+
+	@Test
+	public void testKeepAliveDisabled() throws Exception {
+		try (HttpTestServer server = new HttpTestServer();
+				Netty4ClientHttpRequestFactory factory = new Netty4ClientHttpRequestFactory()) {
+			factory.setKeepAlive(false);
+			for (int i = 0; i < 3; i++) {
+				assert "once".equals(doGet(factory, server.uri("/once")));
+			}
+			assert waitUntil(() -> server.accepted.get() == 3);
+			assert factory.getPoolMetrics().isEmpty();
+		}
+	}
+
+	private static String doGet(Netty4ClientHttpRequestFactory factory, URI uri) throws IOException {
+		ClientHttpResponse response = factory.createRequest(uri, HttpMethod.GET, null).execute();
+		try {
+			assert response.getRawStatusCode() == 200;
+			return new String(ByteStreams.toByteArray(response.getBody()), UTF_8);
+		} finally {
+			response.close();
+		}
+	}
+
+	private static PoolMetrics getMetrics(Netty4ClientHttpRequestFactory factory, HttpTestServer server) {
+		return factory.getPoolMetrics().get("http://127.0.0.1:" + server.port);
+	}
+
+	private static boolean waitUntil(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000L;
+		while (!condition.getAsBoolean()) {
+			if (System.currentTimeMillis() > deadline) {
+				return false;
+			}
+			Thread.sleep(5L);
+		}
+		return true;
+	}
+
+	/**
+	 * Local HTTP server that responds the request path (without '/'), and
+	 * closes the connection if the path is '/close'.
+	 */
+	private static class HttpTestServer implements Closeable {
+		private final EventLoopGroup group = new NioEventLoopGroup(1);
+		private final AtomicInteger accepted = new AtomicInteger(0);
+		private final Channel channel;
+		private final int port;
+
+		HttpTestServer() throws InterruptedException {
+			this.channel = new ServerBootstrap().group(group).channel(NioServerSocketChannel.class)
+					.childHandler(new ChannelInitializer<SocketChannel>() {
+						@Override
+						protected void initChannel(SocketChannel ch) throws Exception {
+							accepted.incrementAndGet();
+							ch.pipeline().addLast(new HttpServerCodec(), new HttpObjectAggregator(65536),
+									new SimpleChannelInboundHandler<FullHttpRequest>() {
+										@Override
+										protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request)
+												throws Exception {
+											doResponse(ctx, request.uri().substring(1));
+										}
+									});
+						}
+					}).bind("127.0.0.1", 0).sync().channel();
+			this.port = ((InetSocketAddress) channel.localAddress()).getPort();
+		}
+
+		URI uri(String path) {
+			return URI.create("http://127.0.0.1:" + port + path);
+		}
+
+		@Override
+		public void close() {
+			channel.close().syncUninterruptibly();
+			group.shutdownGracefully().syncUninterruptibly();
+		}
+
+		private static void doResponse(ChannelHandlerContext ctx, String body) {
+			FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+					Unpooled.copiedBuffer(body, UTF_8));
+			response.headers().set(HttpHeaderNames.CONTENT_LENGTH, response.content().readableBytes());
+			if ("close".equals(body)) {
+				response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+				ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+			} else {
+				response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+				ctx.writeAndFlush(response);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.common.task;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor.AbortPolicy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.wl4g.component.common.task.SafeScheduledTaskPoolExecutor.SingletonScheduleRunnable;
+
+/**
+ * {@link SingletonScheduleTests}
+ * 
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version v1.0 2021-07-01
+ * @since
+ */
+public class SingletonScheduleTests {
+
+	@Test
+	public void testLocalCoordinatorClaimOnce() {
+		LocalScheduleCoordinator coordinator = new LocalScheduleCoordinator();
+		assert coordinator.tryClaim("job1", 100L, 1000L);
+		assert !coordinator.tryClaim("job1", 100L, 1000L);
+		assert !coordinator.tryClaim("job1", 99L, 1000L);
+		assert coordinator.tryClaim("job2", 100L, 1000L);
+		assert coordinator.tryClaim("job1", 101L, 1000L);
+	}
+
+	@Test
+	public void testClaimEachFireOnceAcrossNodes() {
+		LocalScheduleCoordinator coordinator = new LocalScheduleCoordinator();
+		AtomicInteger runs = new AtomicInteger(0);
+		List<SafeScheduledTaskPoolExecutor> executors = new ArrayList<>();
+		List<SingletonScheduleRunnable> nodes = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			SafeScheduledTaskPoolExecutor executor = newExecutor(coordinator);
+			executors.add(executor);
+			nodes.add(executor.new SingletonScheduleRunnable(coordinator, "testJob", 200L, () -> runs.incrementAndGet()));
+		}
+		// The clock skews are less than half period.
+		long[] skews = { -90L, 0L, 90L };
+		for (long fire = 1000L; fire < 1010L; fire++) {
+			for (int i = 0; i < nodes.size(); i++) {
+				nodes.get(i).runAt(fire * 200L + skews[i]);
+			}
+		}
+		// Each fire runs on only one of the nodes.
+		assert runs.get() == 10 : runs.get();
+		executors.forEach(e -> e.shutdownNow());
+	}
+
+	@Test
+	public void testFailedFireNotCancelSubsequentFires() throws Exception {
+		SafeScheduledTaskPoolExecutor executor = newExecutor(new LocalScheduleCoordinator());
+		try {
+			CountDownLatch fires = new CountDownLatch(3);
+			ScheduledFuture<?> future = executor.scheduleAtFixedRateSingleton("testFailedJob", () -> {
+				fires.countDown();
+				throw new IllegalStateException("Failed to run job");
+			}, 50L, MILLISECONDS);
+			assert future != null;
+			assert fires.await(5, SECONDS);
+			assert !future.isDone();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testSkipFireIfClaimFailed() {
+		AtomicInteger runs = new AtomicInteger(0);
+		ScheduleCoordinator coordinator = (jobName, fireTime, periodMs) -> {
+			throw new IllegalStateException("Coordinator unavailable");
+		};
+		SafeScheduledTaskPoolExecutor executor = newExecutor(coordinator);
+		executor.new SingletonScheduleRunnable(coordinator, "testJob", 200L, () -> runs.incrementAndGet()).runAt(200_000L);
+		assert runs.get() == 0;
+		executor.shutdownNow();
+	}
+
+	private static SafeScheduledTaskPoolExecutor newExecutor(ScheduleCoordinator coordinator) {
+		SafeScheduledTaskPoolExecutor executor = new SafeScheduledTaskPoolExecutor(1, 0L, Executors.defaultThreadFactory(), 16,
+				new AbortPolicy());
+		executor.setCoordinator(coordinator);
+		return executor;
+	}
+
+}
@@ -57,4 +57,9 @@ public abstract class BaseConstant {
 		return nonNull(value) ? value : defaultValue;
 	}
 
+	public static Boolean getBooleanProperty(@NotNull String key, @Nullable Boolean defaultValue) {
+		String value = getProperty(key);
+		return nonNull(value) ? Boolean.valueOf(value.trim()) : defaultValue;
+	}
+
 }
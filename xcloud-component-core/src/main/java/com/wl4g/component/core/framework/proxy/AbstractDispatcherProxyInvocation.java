@@ -24,7 +24,9 @@ import static java.util.stream.Collectors.toList;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 
@@ -59,14 +61,15 @@ public abstract class AbstractDispatcherProxyInvocation implements ProxyInvocati
 
 	@Override
 	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-		if (isExcludeMethod(proxy, getTarget(), method, args)) {
-			return method.invoke(getTarget(), args);
+		Object target = getTarget();
+		if (isExcludeMethod(proxy, target, method, args)) {
+			return method.invoke(target, args);
 		}
-		return doInvoke(getTarget(), method, args);
+		return doInvoke(target, method, args);
 	}
 
 	protected boolean isExcludeMethod(Object proxy, Object target, Method method, Object[] args) {
-		return excludeMethods.contains(method.getName());
+		return excludeMethodNames.contains(method.getName());
 	}
 
 	protected abstract Object doInvoke(final Object target, final Method method, final Object[] args) throws Throwable;
@@ -92,6 +95,7 @@ public abstract class AbstractDispatcherProxyInvocation implements ProxyInvocati
 			add("close"); // Closeable#close()
 		}
 	});
+	private static final Set<String> excludeMethodNames = new HashSet<>(excludeMethods);
 	public static final String FACTORYBEAN_GETOBJECT = "getObject";
 
 }
\ No newline at end of file
@@ -27,11 +27,13 @@ import static com.wl4g.component.common.lang.Assert2.isTrue;
 import static com.wl4g.component.common.lang.Assert2.notNullOf;
 import static java.lang.String.format;
 import static java.lang.reflect.Modifier.isFinal;
+import static java.util.Objects.isNull;
 import static org.springframework.util.ClassUtils.CGLIB_CLASS_SEPARATOR;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * {@link DispatcherFactoryBeanSmartProxyInvocation}
@@ -87,13 +89,22 @@ public class DispatcherFactoryBeanSmartProxyInvocation extends AbstractDispatche
 							targetClass.getName().concat(CGLIB_CLASS_SEPARATOR).concat(SmartProxy.class.getSimpleName()));
 				}
 			};
-			enhancer.setCallback(new DispatcherSmartProxyInvocation(beanFactory, configurer, targetBeanName, targetClass, () -> {
+			final FactoryBean factoryBean = (FactoryBean) targetFactoryBean;
+			Supplier<Object> targetSupplier = () -> {
 				try {
-					return ((FactoryBean) targetFactoryBean).getObject();
+					return factoryBean.getObject();
 				} catch (Exception e) {
 					throw new IllegalStateException(e);
 				}
-			}));
+			};
+			// As with spring, the object of singleton FactoryBean is cached.
+			// (e.g: org.mybatis.spring.MapperFactoryBean#getObject() returns a
+			// new object each time)
+			if (factoryBean.isSingleton()) {
+				targetSupplier = new CachedTargetSupplier(targetSupplier);
+			}
+			enhancer.setCallback(
+					new DispatcherSmartProxyInvocation(beanFactory, configurer, targetBeanName, targetClass, targetSupplier));
 			// Sets interfaces.
 			List<Class<?>> interfaces = new ArrayList<>(4);
 			interfaces.add(SmartProxy.class);
@@ -113,4 +124,30 @@ public class DispatcherFactoryBeanSmartProxyInvocation extends AbstractDispatche
 		return method.invoke(targetFactoryBean, args);
 	}
 
+	/**
+	 * Lazy initialized and cached target supplier.
+	 */
+	private static final class CachedTargetSupplier implements Supplier<Object> {
+		private final Supplier<Object> delegate;
+		private volatile Object target;
+
+		CachedTargetSupplier(Supplier<Object> delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Object get() {
+			Object target = this.target;
+			if (isNull(target)) {
+				synchronized (this) {
+					target = this.target;
+					if (isNull(target)) {
+						this.target = target = delegate.get();
+					}
+				}
+			}
+			return target;
+		}
+	}
+
 }
\ No newline at end of file
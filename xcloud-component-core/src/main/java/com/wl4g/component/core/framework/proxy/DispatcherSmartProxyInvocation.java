@@ -17,14 +17,13 @@ package com.wl4g.component.core.framework.proxy;
 
 import static com.wl4g.component.common.collection.CollectionUtils2.safeList;
 import static com.wl4g.component.common.lang.Assert2.notNullOf;
-import static com.wl4g.component.common.reflect.ReflectionUtils2.makeAccessible;
 import static java.lang.String.format;
 import static java.util.Objects.isNull;
-import static java.util.stream.Collectors.toList;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
@@ -43,6 +42,11 @@ public class DispatcherSmartProxyInvocation extends AbstractDispatcherProxyInvoc
     protected final Supplier<Object> targetSuplier;
     protected Object target; // typeof object(not FactoryBean)
 
+    /**
+     * The resolved invokers of per method.
+     */
+    private final Map<Method, MethodInvoker> invokers = new ConcurrentHashMap<>(16);
+
     public DispatcherSmartProxyInvocation(DefaultListableBeanFactory beanFactory, SmartProxyAutoConfiguration configurer,
             String targetBeanName, Class<?> targetClass, Supplier<Object> targetSuplier) {
         super(beanFactory, configurer, targetBeanName, targetClass);
@@ -51,9 +55,8 @@ public class DispatcherSmartProxyInvocation extends AbstractDispatcherProxyInvoc
 
     @Override
     public Object getTarget() {
-        // TODO use cache?
-        // e.g: but org.mybatis.spring.MapperFactoryBean#getObject()
-        // Returns a new object each time.
+        // Notes: the object of singleton FactoryBean is cached by supplier,
+        // see: DispatcherFactoryBeanSmartProxyInvocation#doInvoke()
         /**
          * Notes: do not use {@link BeanFactory#getBean(targetBeanName)} to get
          * the actual original object here, because it may have been overridden
@@ -65,20 +68,21 @@ public class DispatcherSmartProxyInvocation extends AbstractDispatcherProxyInvoc
 
     @Override
     public Object doInvoke(final Object target, final Method method, final Object[] args) throws Throwable {
-        if (!method.isAccessible()) {
-            makeAccessible(method);
+        MethodInvoker invoker = invokers.get(method);
+        if (isNull(invoker)) {
+            invoker = invokers.computeIfAbsent(method, m -> resolveInvoker(target, m, args));
         }
 
-        // Match all filters that support intercepting target methods.
-        List<SmartProxyFilter> matchedFilters = safeList(configurer.getProcessors(targetClass)).stream()
-                .filter(p -> p.supportMethodProxy(target, method, targetClass, args)).collect(toList());
-
         // Invoke target(actual) method.
         Object result = null;
         try {
-            result = new InvocationChain(matchedFilters).doInvoke(target, method, args);
-        } catch (Throwable ex) {
-            if (isNull(ex) || isNull(ex.getCause())) {
+            if (invoker.filters.length == 0) {
+                result = invoker.invokeTarget(target, args);
+            } else {
+                result = new InvocationChain(invoker.filters, invoker).doInvoke(target, method, args);
+            }
+        } catch (InvocationTargetException ex) {
+            if (isNull(ex.getCause())) {
                 throw new InvocationTargetException(null,
                         format("Failed to invocation target: %s, method: %s, args: %s", target, method, args));
             } else {
@@ -87,8 +91,25 @@ public class DispatcherSmartProxyInvocation extends AbstractDispatcherProxyInvoc
             }
         }
 
-        log.debug("Invoked proxied origin method: {}, args:{}, return: {}", method, args, result);
+        if (log.isDebugEnabled()) {
+            log.debug("Invoked proxied origin method: {}, args:{}, return: {}", method, args, result);
+        }
         return result;
     }
 
+    /**
+     * Resolve the invoker of method, that is, match all filters that support
+     * intercepting target method.
+     * 
+     * @param target
+     * @param method
+     * @param args
+     * @return
+     */
+    private MethodInvoker resolveInvoker(Object target, Method method, Object[] args) {
+        SmartProxyFilter[] matchedFilters = safeList(configurer.getProcessors(targetClass)).stream()
+                .filter(p -> p.supportMethodProxy(target, method, targetClass, args)).toArray(SmartProxyFilter[]::new);
+        return new MethodInvoker(method, matchedFilters);
+    }
+
 }
\ No newline at end of file
@@ -21,6 +21,7 @@ package com.wl4g.component.core.framework.proxy;
 
 import static com.wl4g.component.common.lang.Assert2.notNullOf;
 import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
+import static java.util.Objects.isNull;
 
 import java.lang.reflect.Method;
 import java.util.List;
@@ -41,22 +42,29 @@ import com.wl4g.component.common.log.SmartLogger;
 public class InvocationChain {
 	protected final SmartLogger log = getLogger(InvocationChain.class);
 
-	private final List<SmartProxyFilter> filters;
+	private final SmartProxyFilter[] filters;
+	@Nullable
+	private final MethodInvoker invoker;
 	private int index;
 
 	public InvocationChain(List<SmartProxyFilter> filters) {
+		this(notNullOf(filters, "filters").toArray(new SmartProxyFilter[0]), null);
+	}
+
+	InvocationChain(SmartProxyFilter[] filters, @Nullable MethodInvoker invoker) {
 		this.filters = notNullOf(filters, "filters");
+		this.invoker = invoker;
 		this.index = 0;
 	}
 
 	public Object doInvoke(@NotNull Object target, @NotNull Method method, @Nullable Object[] args) throws Exception {
 		log.trace("Invoking smart proxied filter at index: {}", index);
-		if (index >= filters.size()) {
+		if (index >= filters.length) {
 			// When none of the filters execute the actual target method, it
 			// must be called at the end.
-			return method.invoke(target, args);
+			return isNull(invoker) ? method.invoke(target, args) : invoker.invokeTarget(target, args);
 		}
-		return filters.get(index++).doInvoke(this, target, method, args);
+		return filters[index++].doInvoke(this, target, method, args);
 	}
 
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.core.framework.proxy;
+
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static com.wl4g.component.common.reflect.ReflectionUtils2.makeAccessible;
+import static java.lang.reflect.Modifier.isStatic;
+import static java.util.Objects.isNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * The resolved invoker of a proxied method, that is, the applicable
+ * {@link SmartProxyFilter} chain and the target method handle.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version v1.0 2021-06-18
+ * @sine v1.0
+ * @see
+ */
+final class MethodInvoker {
+
+	/** The applicable filters of method. */
+	final SmartProxyFilter[] filters;
+
+	/** The target method. */
+	private final Method method;
+
+	/** The parameter types of target method. */
+	private final Class<?>[] paramTypes;
+
+	/** The boxed parameter types of target method. */
+	private final Class<?>[] boxedParamTypes;
+
+	/** The target method handle of type (Object,Object[])Object */
+	private final MethodHandle handle;
+
+	MethodInvoker(Method method, SmartProxyFilter[] filters) {
+		this.method = notNullOf(method, "method");
+		this.filters = notNullOf(filters, "filters");
+		this.paramTypes = method.getParameterTypes();
+		this.boxedParamTypes = MethodType.methodType(void.class, paramTypes).wrap().parameterArray();
+		makeAccessible(method);
+		try {
+			MethodHandle handle = MethodHandles.lookup().unreflect(method);
+			if (isStatic(method.getModifiers())) {
+				handle = MethodHandles.dropArguments(handle, 0, Object.class);
+			}
+			this.handle = handle.asSpreader(Object[].class, method.getParameterCount())
+					.asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Invoke the target method, as with {@link Method#invoke(Object, Object...)}
+	 * only the exception thrown by target is wrapped as
+	 * {@link InvocationTargetException}, while an invalid receiver or arguments
+	 * is rejected with {@link NullPointerException} or
+	 * {@link IllegalArgumentException}.
+	 *
+	 * @param target
+	 * @param args
+	 * @return
+	 * @throws IllegalAccessException
+	 * @throws InvocationTargetException
+	 */
+	Object invokeTarget(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+		args = isNull(args) ? EMPTY_ARGS : args;
+		if (!isInvocable(target, args)) {
+			// Fallback to reflection, which rejects with the same exceptions
+			// and also applies the widening conversions of arguments.
+			return method.invoke(target, args);
+		}
+		try {
+			return (Object) handle.invokeExact(target, args);
+		} catch (Throwable e) {
+			throw new InvocationTargetException(e);
+		}
+	}
+
+	/**
+	 * Check whether the receiver and arguments exactly match the target method
+	 * handle, so that any exception thrown by it must be thrown by target.
+	 *
+	 * @param target
+	 * @param args
+	 * @return
+	 */
+	private boolean isInvocable(Object target, Object[] args) {
+		if (!isStatic(method.getModifiers()) && !method.getDeclaringClass().isInstance(target)) {
+			return false;
+		}
+		if (args.length != paramTypes.length) {
+			return false;
+		}
+		for (int i = 0; i < args.length; i++) {
+			if (isNull(args[i]) ? paramTypes[i].isPrimitive() : !boxedParamTypes[i].isInstance(args[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static final Object[] EMPTY_ARGS = new Object[0];
+
+}
@@ -53,7 +53,10 @@ public interface SmartProxyFilter extends Ordered {
 	boolean supportTypeProxy(Object target, Class<?> actualOriginalTargetClass);
 
 	/**
-	 * Check whether the current method proxy is supported.
+	 * Check whether the current method proxy is supported. </br>
+	 * <b>Note:</b> it is only called on the first invocation of each method,
+	 * and the result is cached, so it should be determined by the method and
+	 * class rather than the target and arguments.
 	 * 
 	 * @param method
 	 * @param actualOriginalTargetClass
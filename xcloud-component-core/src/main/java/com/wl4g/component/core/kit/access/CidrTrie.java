@@ -0,0 +1,331 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.core.kit.access;
+
+import static java.lang.ThreadLocal.withInitial;
+
+import java.util.Arrays;
+
+/**
+ * Immutable binary radix trie of IPv4 and IPv6 CIDR ranges. </br>
+ *
+ * <p>
+ * Each range is compiled into the path of its prefix bits and marked with the
+ * flags (e.g: {@link #ALLOW}, {@link #DENY}), a lookup walks the address bits
+ * and returns the union flags of all matched ranges, so it takes O(address
+ * bits) without allocation. The IPv4-mapped IPv6 addresses (e.g:
+ * ::ffff:10.0.0.1) are looked up as IPv4.
+ * </p>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version v1.0 2021-06-17
+ * @sine v1.0
+ * @see
+ */
+final class CidrTrie {
+
+	/** IPv4 trie nodes, the children of node N are [2N] and [2N+1]. */
+	private final int[] v4Children;
+	private final byte[] v4Flags;
+
+	/** IPv6 trie nodes, the children of node N are [2N] and [2N+1]. */
+	private final int[] v6Children;
+	private final byte[] v6Flags;
+
+	private CidrTrie(Builder builder) {
+		this.v4Children = Arrays.copyOf(builder.v4.children, builder.v4.size * 2);
+		this.v4Flags = Arrays.copyOf(builder.v4.flags, builder.v4.size);
+		this.v6Children = Arrays.copyOf(builder.v6.children, builder.v6.size * 2);
+		this.v6Flags = Arrays.copyOf(builder.v6.flags, builder.v6.size);
+	}
+
+	/**
+	 * Check whether there is no range.
+	 *
+	 * @return
+	 */
+	public boolean isEmpty() {
+		return v4Flags.length == 1 && v4Flags[0] == 0 && v6Flags.length == 1 && v6Flags[0] == 0;
+	}
+
+	/**
+	 * Lookup the flags of all ranges that contain the IP address.
+	 *
+	 * @param ip
+	 *            IPv4 or IPv6 address (the zone index is ignored).
+	 * @return The union flags of matched ranges, 0 if not matched, -1 if the
+	 *         IP address is invalid.
+	 */
+	public int match(String ip) {
+		if (ip == null) {
+			return -1;
+		}
+		int end = ip.indexOf('%');
+		end = end < 0 ? ip.length() : end;
+		if (ip.indexOf(':') < 0) {
+			long v4 = parseIPv4(ip, 0, end);
+			return v4 < 0 ? -1 : match(v4Children, v4Flags, v4 << 32, 0L, 32);
+		}
+		long[] address = V6_BUFFER.get();
+		if (!parseIPv6(ip, end, address)) {
+			return -1;
+		}
+		if (address[0] == 0L && (address[1] >>> 32) == 0xffffL) {
+			return match(v4Children, v4Flags, address[1] << 32, 0L, 32);
+		}
+		return match(v6Children, v6Flags, address[0], address[1], 128);
+	}
+
+	private static int match(int[] children, byte[] flags, long hi, long lo, int bits) {
+		int node = 0;
+		int matched = flags[0];
+		for (int i = 0; i < bits; i++) {
+			int child = children[(node << 1) | bit(hi, lo, i)];
+			if (child == 0) {
+				break;
+			}
+			node = child;
+			matched |= flags[node];
+		}
+		return matched;
+	}
+
+	private static int bit(long hi, long lo, int index) {
+		return (int) (index < 64 ? (hi >>> (63 - index)) & 1L : (lo >>> (127 - index)) & 1L);
+	}
+
+	/**
+	 * Parse the dotted decimal IPv4 address.
+	 *
+	 * @return The unsigned 32 bits address, or -1 if invalid.
+	 */
+	static long parseIPv4(String s, int from, int to) {
+		long address = 0L;
+		int octets = 0;
+		int i = from;
+		while (i < to) {
+			int start = i, value = 0;
+			while (i < to && s.charAt(i) >= '0' && s.charAt(i) <= '9') {
+				value = value * 10 + (s.charAt(i++) - '0');
+				if (i - start > 3) {
+					return -1L;
+				}
+			}
+			if (i == start || value > 255 || ++octets > 4) {
+				return -1L;
+			}
+			address = (address << 8) | value;
+			if (i < to) {
+				if (s.charAt(i) != '.' || ++i == to) {
+					return -1L;
+				}
+			}
+		}
+		return octets == 4 ? address : -1L;
+	}
+
+	/**
+	 * Parse the IPv6 address (including the compressed and IPv4 embedded
+	 * forms).
+	 *
+	 * @param address
+	 *            The high and low 64 bits of parsed address.
+	 * @return false if invalid.
+	 */
+	static boolean parseIPv6(String s, int to, long[] address) {
+		long headHi = 0L, headLo = 0L, tailHi = 0L, tailLo = 0L;
+		int headCount = 0, tailCount = 0;
+		boolean compressed = false;
+		int i = 0;
+		if (to >= 2 && s.charAt(0) == ':' && s.charAt(1) == ':') {
+			compressed = true;
+			i = 2;
+		} else if (to == 0 || s.charAt(0) == ':') {
+			return false;
+		}
+		while (i < to) {
+			int start = i, value = 0, digit;
+			while (i < to && (digit = Character.digit(s.charAt(i), 16)) >= 0) {
+				value = (value << 4) | digit;
+				if (++i - start > 4) {
+					return false;
+				}
+			}
+			int groups = 1;
+			long groupValue = value;
+			if (i < to && s.charAt(i) == '.') { // IPv4 embedded.
+				groupValue = parseIPv4(s, start, to);
+				if (groupValue < 0) {
+					return false;
+				}
+				groups = 2;
+				i = to;
+			} else if (i == start) {
+				return false;
+			}
+			for (int g = groups - 1; g >= 0; g--) {
+				long group = (groupValue >>> (g * 16)) & 0xffffL;
+				if (compressed) {
+					tailHi = (tailHi << 16) | (tailLo >>> 48);
+					tailLo = (tailLo << 16) | group;
+					tailCount++;
+				} else {
+					headHi = (headHi << 16) | (headLo >>> 48);
+					headLo = (headLo << 16) | group;
+					headCount++;
+				}
+			}
+			if (i == to) {
+				break;
+			}
+			if (s.charAt(i) != ':' || ++i == to) {
+				return false;
+			}
+			if (s.charAt(i) == ':') {
+				if (compressed) {
+					return false;
+				}
+				compressed = true;
+				i++;
+			}
+		}
+		int count = headCount + tailCount;
+		if (compressed ? count > 7 : count != 8) {
+			return false;
+		}
+		// Align the head groups to the highest bits.
+		for (int g = headCount; g < 8; g++) {
+			headHi = (headHi << 16) | (headLo >>> 48);
+			headLo <<= 16;
+		}
+		address[0] = headHi | tailHi;
+		address[1] = headLo | tailLo;
+		return true;
+	}
+
+	/**
+	 * Thread local parsing buffer of IPv6 address.
+	 */
+	private static final ThreadLocal<long[]> V6_BUFFER = withInitial(() -> new long[2]);
+
+	/** Flag of allowed range. */
+	public static final int ALLOW = 1;
+
+	/** Flag of denied range. */
+	public static final int DENY = 2;
+
+	/**
+	 * {@link CidrTrie} builder, not thread-safe.
+	 */
+	static final class Builder {
+		private final Nodes v4 = new Nodes();
+		private final Nodes v6 = new Nodes();
+
+		/**
+		 * Add the CIDR range, e.g: 10.0.0.0/8, 10.0.0.1,
+		 * 10.0.0.0/255.0.0.0, fc00::/7
+		 *
+		 * @param range
+		 * @param flag
+		 * @return
+		 * @throws IllegalArgumentException
+		 *             If the range is invalid.
+		 */
+		public Builder add(String range, int flag) {
+			if (range == null) {
+				throw new IllegalArgumentException("Invalid IP range");
+			}
+			range = range.trim();
+			int index = range.indexOf('/');
+			String ip = index < 0 ? range : range.substring(0, index);
+			String prefix = index < 0 ? null : range.substring(index + 1);
+
+			if (ip.indexOf(':') < 0) {
+				long address = parseIPv4(ip, 0, ip.length());
+				if (address < 0) {
+					throw new IllegalArgumentException("Invalid IP range [" + range + "]");
+				}
+				v4.insert(address << 32, 0L, parsePrefix(range, prefix, 32), flag);
+			} else {
+				long[] address = new long[2];
+				if (!parseIPv6(ip, ip.length(), address)) {
+					throw new IllegalArgumentException("Invalid IP range [" + range + "]");
+				}
+				v6.insert(address[0], address[1], parsePrefix(range, prefix, 128), flag);
+			}
+			return this;
+		}
+
+		public CidrTrie build() {
+			return new CidrTrie(this);
+		}
+
+		private static int parsePrefix(String range, String prefix, int bits) {
+			if (prefix == null) {
+				return bits;
+			}
+			int length;
+			if (bits == 32 && prefix.indexOf('.') >= 0) { // e.g: 255.255.0.0
+				long mask = parseIPv4(prefix, 0, prefix.length());
+				length = Long.numberOfLeadingZeros(~mask & 0xffffffffL) - 32;
+				if (mask < 0 || ((mask << length) & 0xffffffffL) != 0) {
+					throw new IllegalArgumentException("Invalid IP range [" + range + "]");
+				}
+				return length;
+			}
+			try {
+				length = Integer.parseInt(prefix);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Invalid IP range [" + range + "]", e);
+			}
+			if (length < 0 || length > bits) {
+				throw new IllegalArgumentException("Invalid IP range [" + range + "]");
+			}
+			return length;
+		}
+	}
+
+	/**
+	 * Growable trie nodes of builder.
+	 */
+	private static final class Nodes {
+		private int[] children = new int[32];
+		private byte[] flags = new byte[16];
+		private int size = 1; // Root
+
+		void insert(long hi, long lo, int prefix, int flag) {
+			int node = 0;
+			for (int i = 0; i < prefix; i++) {
+				int index = (node << 1) | bit(hi, lo, i);
+				if (children[index] == 0) {
+					int child = newNode(); // May grow the children
+					children[index] = child;
+				}
+				node = children[index];
+			}
+			flags[node] |= flag;
+		}
+
+		private int newNode() {
+			if (size == flags.length) {
+				flags = Arrays.copyOf(flags, size * 2);
+				children = Arrays.copyOf(children, size * 4);
+			}
+			return size++;
+		}
+	}
+
+}
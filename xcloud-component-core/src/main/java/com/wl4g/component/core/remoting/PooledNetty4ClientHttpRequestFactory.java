@@ -0,0 +1,158 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.core.remoting;
+
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static java.util.Objects.isNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.AbstractClientHttpResponse;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import com.wl4g.component.common.remoting.Netty4ClientHttpRequestFactory;
+
+/**
+ * Spring {@link ClientHttpRequestFactory} adapter of the keep-alive pooled
+ * {@link Netty4ClientHttpRequestFactory}, (the spring's
+ * {@link org.springframework.http.client.Netty4ClientHttpRequestFactory}
+ * consistently closes the HTTP connection on each request).
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-16 v1.0.0
+ * @see
+ */
+public class PooledNetty4ClientHttpRequestFactory implements ClientHttpRequestFactory, DisposableBean {
+
+	private final Netty4ClientHttpRequestFactory delegate;
+
+	public PooledNetty4ClientHttpRequestFactory(Netty4ClientHttpRequestFactory delegate) {
+		this.delegate = notNullOf(delegate, "delegate");
+	}
+
+	public Netty4ClientHttpRequestFactory getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+		return new PooledNetty4ClientHttpRequest(uri, httpMethod);
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		delegate.close();
+	}
+
+	/**
+	 * The delegate request is created lazily, because the headers(e.g.
+	 * multipart content type) are required by
+	 * {@link Netty4ClientHttpRequestFactory#createRequest}.
+	 */
+	private class PooledNetty4ClientHttpRequest extends AbstractClientHttpRequest {
+		private final URI uri;
+		private final HttpMethod method;
+		private com.wl4g.component.common.remoting.ClientHttpRequest request;
+
+		PooledNetty4ClientHttpRequest(URI uri, HttpMethod method) {
+			this.uri = uri;
+			this.method = method;
+		}
+
+		@Override
+		public String getMethodValue() {
+			return method.name();
+		}
+
+		@Override
+		public URI getURI() {
+			return uri;
+		}
+
+		@Override
+		protected OutputStream getBodyInternal(HttpHeaders headers) throws IOException {
+			return getRequest(headers).getBody();
+		}
+
+		@Override
+		protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+			return new PooledNetty4ClientHttpResponse(getRequest(headers).execute());
+		}
+
+		private com.wl4g.component.common.remoting.ClientHttpRequest getRequest(HttpHeaders headers) throws IOException {
+			if (isNull(request)) {
+				com.wl4g.component.common.remoting.standard.HttpHeaders requestHeaders = new com.wl4g.component.common.remoting.standard.HttpHeaders();
+				requestHeaders.putAll(headers);
+				request = delegate.createRequest(uri, io.netty.handler.codec.http.HttpMethod.valueOf(method.name()),
+						requestHeaders);
+				request.getHeaders().putAll(headers);
+			}
+			return request;
+		}
+	}
+
+	/**
+	 * {@link PooledNetty4ClientHttpResponse}
+	 */
+	private static class PooledNetty4ClientHttpResponse extends AbstractClientHttpResponse {
+		private final com.wl4g.component.common.remoting.ClientHttpResponse response;
+		private HttpHeaders headers;
+
+		PooledNetty4ClientHttpResponse(com.wl4g.component.common.remoting.ClientHttpResponse response) {
+			this.response = response;
+		}
+
+		@Override
+		public int getRawStatusCode() throws IOException {
+			return response.getRawStatusCode();
+		}
+
+		@Override
+		public String getStatusText() throws IOException {
+			return response.getStatusText();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			if (isNull(headers)) {
+				HttpHeaders headers = new HttpHeaders();
+				headers.putAll(response.getHeaders());
+				this.headers = headers;
+			}
+			return headers;
+		}
+
+		@Override
+		public InputStream getBody() throws IOException {
+			return response.getBody();
+		}
+
+		@Override
+		public void close() {
+			response.close();
+		}
+	}
+
+}
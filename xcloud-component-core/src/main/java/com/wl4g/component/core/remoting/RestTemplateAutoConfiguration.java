@@ -32,9 +32,10 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplicat
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.client.ClientHttpRequestFactory;
-import org.springframework.http.client.Netty4ClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import com.wl4g.component.common.remoting.Netty4ClientHttpRequestFactory;
+
 import io.netty.handler.ssl.ClientAuth;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
@@ -74,8 +75,12 @@ public class RestTemplateAutoConfiguration {
 		factory.setReadTimeout(config.getReadTimeout());
 		factory.setConnectTimeout(config.getConnectTimeout());
 		factory.setMaxResponseSize(config.getMaxResponseSize());
+		factory.setKeepAlive(config.isKeepAlive());
+		factory.setMaxConnectionsPerHost(config.getMaxConnectionsPerHost());
+		factory.setAcquireTimeout(config.getAcquireTimeout());
+		factory.setMaxIdleTime(config.getMaxIdleTime());
 		// factory.setSslContext(sslContext);
-		return factory;
+		return new PooledNetty4ClientHttpRequestFactory(factory);
 	}
 
 	/**
@@ -204,6 +209,10 @@ public class RestTemplateAutoConfiguration {
 		private int readTimeout = 60_000;
 		private int connectTimeout = 10_000;
 		private int maxResponseSize = 1024 * 1024 * 10;
+		private boolean keepAlive = true;
+		private int maxConnectionsPerHost = Netty4ClientHttpRequestFactory.DEFAULT_MAX_CONNECTIONS_PER_HOST;
+		private long acquireTimeout = Netty4ClientHttpRequestFactory.DEFAULT_ACQUIRE_TIMEOUT;
+		private long maxIdleTime = Netty4ClientHttpRequestFactory.DEFAULT_MAX_IDLE_TIME;
 		private SslProperties sslProperties = new SslProperties();
 
 		public Integer getReadTimeout() {
@@ -230,6 +239,38 @@ public class RestTemplateAutoConfiguration {
 			this.maxResponseSize = maxResponseSize;
 		}
 
+		public boolean isKeepAlive() {
+			return keepAlive;
+		}
+
+		public void setKeepAlive(boolean keepAlive) {
+			this.keepAlive = keepAlive;
+		}
+
+		public int getMaxConnectionsPerHost() {
+			return maxConnectionsPerHost;
+		}
+
+		public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+			this.maxConnectionsPerHost = maxConnectionsPerHost;
+		}
+
+		public long getAcquireTimeout() {
+			return acquireTimeout;
+		}
+
+		public void setAcquireTimeout(long acquireTimeout) {
+			this.acquireTimeout = acquireTimeout;
+		}
+
+		public long getMaxIdleTime() {
+			return maxIdleTime;
+		}
+
+		public void setMaxIdleTime(long maxIdleTime) {
+			this.maxIdleTime = maxIdleTime;
+		}
+
 		public SslProperties getSslProperties() {
 			return sslProperties;
 		}
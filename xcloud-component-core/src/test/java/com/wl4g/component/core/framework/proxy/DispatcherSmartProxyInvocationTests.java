@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2017 ~ 2025 the original author or authors.
+ * <Wanglsir@gmail.com, 983708408@qq.com> Technology CO.LTD.
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Reference to website: http://wl4g.com
+ */
+package com.wl4g.component.core.framework.proxy;
+
+import static java.util.Arrays.asList;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.validation.constraints.NotNull;
+
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * {@link DispatcherSmartProxyInvocationTests}
+ * 
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version v1.0 2021-06-18
+ * @sine v1.0
+ * @see
+ */
+public class DispatcherSmartProxyInvocationTests {
+
+	@Test
+	public void testInvokeFiltersInOrder() throws Throwable {
+		List<String> invoked = new ArrayList<>();
+		DispatcherSmartProxyInvocation invocation = newInvocation(new MyHandler(invoked), new MyProxyFilter("filter1", invoked),
+				new MyProxyFilter("filter2", invoked), new MyProxyFilter("filter3", invoked));
+
+		Object result = invocation.invoke(null, MyHandler.class.getMethod("echo", String.class), new Object[] { "foo" });
+		assert "foo".equals(result);
+		assert asList("filter1", "filter2", "filter3", "echo:foo").equals(invoked) : invoked;
+	}
+
+	@Test
+	public void testReuseCachedInvoker() throws Throwable {
+		List<String> invoked = new ArrayList<>();
+		MyProxyFilter filter = new MyProxyFilter("filter1", invoked);
+		DispatcherSmartProxyInvocation invocation = newInvocation(new MyHandler(invoked), filter);
+
+		Method echo = MyHandler.class.getMethod("echo", String.class);
+		for (int i = 0; i < 3; i++) {
+			assert ("foo" + i).equals(invocation.invoke(null, echo, new Object[] { "foo" + i }));
+		}
+		// The filters of method are matched only on first invocation.
+		assert filter.supportCount.get() == 1;
+		assert invoked.size() == 6 : invoked;
+
+		invocation.invoke(null, MyHandler.class.getMethod("echo", String.class), new Object[] { "bar" });
+		assert filter.supportCount.get() == 1;
+		invocation.invoke(null, MyHandler.class.getMethod("twice", int.class), new Object[] { 2 });
+		assert filter.supportCount.get() == 2;
+	}
+
+	@Test
+	public void testUnwrapTargetException() throws Throwable {
+		List<String> invoked = new ArrayList<>();
+		DispatcherSmartProxyInvocation withFilters = newInvocation(new MyHandler(invoked), new MyProxyFilter("filter1", invoked));
+		DispatcherSmartProxyInvocation withoutFilters = newInvocation(new MyHandler(invoked));
+
+		Method fail = MyHandler.class.getMethod("fail", String.class);
+		for (DispatcherSmartProxyInvocation invocation : asList(withFilters, withoutFilters)) {
+			try {
+				invocation.invoke(null, fail, new Object[] { "oops" });
+				assert false;
+			} catch (UnsupportedOperationException e) {
+				assert "oops".equals(e.getMessage());
+			}
+		}
+	}
+
+	@Test
+	public void testRejectInvalidArguments() throws Throwable {
+		DispatcherSmartProxyInvocation invocation = newInvocation(new MyHandler(new ArrayList<>()));
+		try {
+			invocation.invoke(null, MyHandler.class.getMethod("twice", int.class), new Object[] { "2" });
+			assert false;
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static DispatcherSmartProxyInvocation newInvocation(MyHandler target, SmartProxyFilter... filters) {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerBeanDefinition("myHandler", new RootBeanDefinition(MyHandler.class));
+
+		SmartProxyAutoConfiguration configurer = new SmartProxyAutoConfiguration();
+		Field field = ReflectionUtils.findField(SmartProxyAutoConfiguration.class, "knownProxiedMapping");
+		ReflectionUtils.makeAccessible(field);
+		((Map<Class<?>, List<SmartProxyFilter>>) ReflectionUtils.getField(field, configurer)).put(MyHandler.class,
+				new ArrayList<>(asList(filters)));
+
+		return new DispatcherSmartProxyInvocation(beanFactory, configurer, "myHandler", MyHandler.class, () -> target);
+	}
+
+	static class MyProxyFilter implements SmartProxyFilter {
+
+		private final String name;
+		private final List<String> invoked;
+		private final AtomicInteger supportCount = new AtomicInteger(0);
+
+		public MyProxyFilter(String name, List<String> invoked) {
+			super();
+			this.name = name;
+			this.invoked = invoked;
+		}
+
+		@Override
+		public int getOrder() {
+			return 0;
+		}
+
+		@Override
+		public boolean supportTypeProxy(Object target, Class<?> actualOriginalTargetClass) {
+			return true;
+		}
+
+		@Override
+		public boolean supportMethodProxy(Object target, Method method, Class<?> actualOriginalTargetClass, Object... args) {
+			supportCount.incrementAndGet();
+			return true;
+		}
+
+		@Override
+		public Object doInvoke(@NotNull InvocationChain chain, @NotNull Object target, @NotNull Method method, Object[] args)
+				throws Exception {
+			invoked.add(name);
+			return SmartProxyFilter.super.doInvoke(chain, target, method, args);
+		}
+
+	}
+
+	public static class MyHandler {
+		private final List<String> invoked;
+
+		public MyHandler(List<String> invoked) {
+			this.invoked = invoked;
+		}
+
+		public String echo(String message) {
+			invoked.add("echo:" + message);
+			return message;
+		}
+
+		public int twice(int value) {
+			return value * 2;
+		}
+
+		public void fail(String message) {
+			throw new UnsupportedOperationException(message);
+		}
+	}
+
+}
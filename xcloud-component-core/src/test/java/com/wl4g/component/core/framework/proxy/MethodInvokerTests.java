@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2017 ~ 2025 the original author or authors.
+ * <Wanglsir@gmail.com, 983708408@qq.com> Technology CO.LTD.
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Reference to website: http://wl4g.com
+ */
+package com.wl4g.component.core.framework.proxy;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+
+/**
+ * {@link MethodInvokerTests}
+ * 
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version v1.0 2021-06-18
+ * @sine v1.0
+ * @see
+ */
+public class MethodInvokerTests {
+
+	@Test
+	public void testInvokeInstanceMethod() throws Exception {
+		MethodInvoker invoker = newInvoker("concat", String.class, int.class);
+		assert "foo-1".equals(invoker.invokeTarget(new MyHandler("-"), new Object[] { "foo", 1 }));
+		// Widening of arguments as Method#invoke
+		assert "bar-2".equals(invoker.invokeTarget(new MyHandler("-"), new Object[] { "bar", (short) 2 }));
+	}
+
+	@Test
+	public void testInvokeStaticMethod() throws Exception {
+		MethodInvoker invoker = newInvoker("sum", int.class, int.class);
+		assert Integer.valueOf(3).equals(invoker.invokeTarget(null, new Object[] { 1, 2 }));
+		assert Integer.valueOf(7).equals(invoker.invokeTarget(new Object(), new Object[] { 3, 4 }));
+
+		MethodInvoker noArgs = newInvoker("hello");
+		assert "hello".equals(noArgs.invokeTarget(null, null));
+	}
+
+	@Test
+	public void testWrapTargetException() throws Exception {
+		MethodInvoker invoker = newInvoker("fail", String.class);
+		try {
+			invoker.invokeTarget(new MyHandler("-"), new Object[] { "oops" });
+			assert false;
+		} catch (InvocationTargetException e) {
+			assert e.getCause() instanceof IllegalStateException;
+			assert "oops".equals(e.getCause().getMessage());
+		}
+	}
+
+	@Test
+	public void testRejectInvalidReceiverOrArguments() throws Exception {
+		MethodInvoker invoker = newInvoker("concat", String.class, int.class);
+		assertThrows(IllegalArgumentException.class, () -> invoker.invokeTarget(new Object(), new Object[] { "foo", 1 }));
+		assertThrows(NullPointerException.class, () -> invoker.invokeTarget(null, new Object[] { "foo", 1 }));
+		assertThrows(IllegalArgumentException.class, () -> invoker.invokeTarget(new MyHandler("-"), new Object[] { "foo" }));
+		assertThrows(IllegalArgumentException.class, () -> invoker.invokeTarget(new MyHandler("-"), new Object[] { "foo", "1" }));
+		assertThrows(IllegalArgumentException.class, () -> invoker.invokeTarget(new MyHandler("-"), new Object[] { "foo", null }));
+	}
+
+	private static MethodInvoker newInvoker(String name, Class<?>... paramTypes) throws Exception {
+		Method method = MyHandler.class.getDeclaredMethod(name, paramTypes);
+		return new MethodInvoker(method, new SmartProxyFilter[0]);
+	}
+
+	private static void assertThrows(Class<? extends Throwable> expected, Invocation invocation) {
+		try {
+			invocation.invoke();
+			assert false : "Expected " + expected.getSimpleName();
+		} catch (Throwable e) {
+			assert expected.isInstance(e) : e;
+		}
+	}
+
+	static interface Invocation {
+		void invoke() throws Throwable;
+	}
+
+	static class MyHandler {
+		private final String separator;
+
+		MyHandler(String separator) {
+			this.separator = separator;
+		}
+
+		String concat(String prefix, int index) {
+			return prefix + separator + index;
+		}
+
+		void fail(String message) {
+			throw new IllegalStateException(message);
+		}
+
+		static int sum(int a, int b) {
+			return a + b;
+		}
+
+		static String hello() {
+			return "hello";
+		}
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.core.kit.access;
+
+import static com.wl4g.component.core.kit.access.CidrTrie.ALLOW;
+import static com.wl4g.component.core.kit.access.CidrTrie.DENY;
+
+import org.junit.Test;
+
+import com.wl4g.component.core.kit.access.IPAccessControl.IPAccessProperties;
+
+/**
+ * {@link CidrTrieTests}
+ * 
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version v1.0 2021-06-17
+ * @sine v1.0
+ * @see
+ */
+public class CidrTrieTests {
+
+	@Test
+	public void matchIPv4AndIPv6Case1() {
+		CidrTrie trie = new CidrTrie.Builder().add("10.0.0.0/8", ALLOW).add("10.1.0.0/255.255.0.0", DENY)
+				.add("192.168.1.7", ALLOW).add("fc00::/7", ALLOW).add("2001:db8::/32", DENY).build();
+
+		assert trie.match("10.2.3.4") == ALLOW;
+		assert trie.match("10.1.2.3") == (ALLOW | DENY);
+		assert trie.match("192.168.1.7") == ALLOW;
+		assert trie.match("192.168.1.8") == 0;
+		assert trie.match("::ffff:10.9.9.9") == ALLOW;
+		assert trie.match("fd12:3456:789a:1::1") == ALLOW;
+		assert trie.match("2001:db8::1") == DENY;
+		assert trie.match("fe80::1%eth0") == 0;
+	}
+
+	@Test
+	public void invalidAddressCase2() {
+		CidrTrie trie = new CidrTrie.Builder().build();
+		assert trie.isEmpty();
+		assert trie.match(null) == -1;
+		assert trie.match("1.2.3") == -1;
+		assert trie.match("256.1.1.1") == -1;
+		assert trie.match("1.2.3.4.") == -1;
+		assert trie.match(":1") == -1;
+		assert trie.match("1:2:3:4:5:6:7:8:9") == -1;
+		assert trie.match("1:2:3:4:5:6:7::8") == -1;
+	}
+
+	@Test
+	public void accessControlCase3() throws Exception {
+		IPAccessProperties config = new IPAccessProperties();
+		config.getAllowIpRange().add("10.0.0.0/8");
+		config.getDenyIpRange().add("10.0.0.160");
+		config.afterPropertiesSet();
+		IPAccessControl ctl = new IPAccessControl(config);
+
+		assert ctl.isIPRangePermitted("10.0.0.161");
+		assert !ctl.isIPRangePermitted("10.0.0.160");
+		assert !ctl.isIPRangePermitted("121.47.108.77");
+		assert ctl.isAnyNetIPOwnPermitted("172.20.1.1");
+		assert !ctl.isAnyNetIPOwnPermitted("172.32.1.1");
+		assert ctl.isAnyNetIPOwnPermitted("localhost");
+
+		config.getDenyIpRange().clear();
+		config.refresh();
+		assert ctl.isIPRangePermitted("10.0.0.160");
+	}
+
+}
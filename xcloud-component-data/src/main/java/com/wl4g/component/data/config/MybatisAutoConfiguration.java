@@ -18,6 +18,7 @@ package com.wl4g.component.data.config;
 import static com.wl4g.component.data.constant.DataComponentConstant.KEY_HOTSPOT_LOADER_PREFIX;
 import static com.wl4g.component.data.constant.DataComponentConstant.KEY_MYBATIS_PREFIX;
 
+import java.util.List;
 import java.util.Properties;
 
 import org.apache.ibatis.plugin.Interceptor;
@@ -33,6 +34,7 @@ import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 
 import com.github.pagehelper.PageHelper;
+import com.wl4g.component.common.id.SnowflakeIdGenerator;
 import com.wl4g.component.core.annotation.condition.ConditionalOnJdwpDebug;
 import com.wl4g.component.data.mybatis.loader.SqlSessionMapperHotspotLoader;
 import com.wl4g.component.data.mybatis.loader.SqlSessionMapperHotspotLoader.HotspotLoaderProperties;
@@ -88,6 +90,10 @@ public class MybatisAutoConfiguration {
 	@ConditionalOnMissingBean
 	public IdGenerator defaultIdGenerator() {
 		return new IdGenerator() {
+			@Override
+			public long[] nextIds(List<?> parameters) {
+				return SnowflakeIdGenerator.getDefault().nextIds(parameters.size());
+			}
 		};
 	}
 
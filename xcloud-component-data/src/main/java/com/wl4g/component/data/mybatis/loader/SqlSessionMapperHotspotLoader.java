@@ -20,28 +20,49 @@ import static com.wl4g.component.common.lang.Assert2.notNull;
 import static com.wl4g.component.common.lang.Assert2.state;
 import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
 import static com.wl4g.component.common.reflect.ReflectionUtils2.*;
-import static java.lang.Thread.sleep;
-import static java.lang.String.format;
-import static java.lang.System.*;
+import static java.lang.System.currentTimeMillis;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.Arrays.asList;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.StringUtils.replace;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.builder.xml.XMLMapperEntityResolver;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.parsing.XPathParser;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.mybatis.spring.SqlSessionFactoryBean;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.core.io.FileSystemResource;
@@ -51,12 +72,28 @@ import com.wl4g.component.common.log.SmartLogger;
 
 /**
  * Mybatis {@link SqlSessionFactory} developments hotspot mapper re-loader.
+ * </br>
+ * 
+ * <p>
+ * The directories of mapper files are watched by {@link WatchService}, and
+ * only the namespace of changed mapper is reloaded(the statements, result
+ * maps, parameter maps, key generators, sql fragments and cache of it), so the
+ * statements of other mappers stay usable while reloading. The changed mapper
+ * is parsed into a scratch configuration first, and then its elements are
+ * swapped into the configuration in place, so the statements are never
+ * missing while parsing, and the older elements are kept if failed to parse.
+ * </p>
+ * 
+ * <font color=red>Note: the sql fragments included across namespaces are
+ * resolved at parse time, so the other mappers that including the changed
+ * fragments need to be saved again. And the configuration maps are not
+ * thread-safe, the in place swapping is only for developments.</font>
  * 
  * @author Wangl.sir <wanglsir@gmail.com, 983708408@qq.com>
  * @version v1.0 2019年11月14日
  * @since
  */
-public final class SqlSessionMapperHotspotLoader implements ApplicationRunner {
+public final class SqlSessionMapperHotspotLoader implements ApplicationRunner, DisposableBean {
 
 	protected final SmartLogger log = getLogger(getClass());
 
@@ -65,14 +102,15 @@ public final class SqlSessionMapperHotspotLoader implements ApplicationRunner {
 	/** Monitor objectives for {@link SqlSessionFactory} */
 	private final SqlSessionFactoryBean sessionFactory;
 
-	/** Refresher of last timestamp. */
-	private final AtomicLong lastRefreshTime = new AtomicLong(0L);
 	/** Runner thread boss. */
 	private Thread boss;
+	/** Mapper directories watcher. */
+	private WatchService watcher;
 
 	/** Mybatis sql sessions configurations. */
 	private Configuration configuration;
-	private Resource[] mapperLocations;
+	/** Watching mapper file resources, key is the absolute path. */
+	private Map<Path, Resource> mapperResources;
 
 	public SqlSessionMapperHotspotLoader(SqlSessionFactoryBean sessionFactory, HotspotLoaderProperties config) {
 		notNull(sessionFactory, "SqlSessionFactory can't is null.");
@@ -94,27 +132,35 @@ public final class SqlSessionMapperHotspotLoader implements ApplicationRunner {
 	 */
 	@Override
 	public void run(ApplicationArguments args) throws Exception {
-		boss = new Thread(() -> {
-			boolean stopped = false;
-			while (!stopped && !boss.isInterrupted()) {
-				try {
-					sleep(config.getMonitorLoaderIntervalMs());
-					if (isChanged()) {
-						refresh(configuration);
-						stopped = false;
-					}
-				} catch (Exception e) {
-					if (config.isFastFail()) {
-						stopped = true;
-						log.error("", e);
-					}
-				}
-			}
-			log.warn("Stopped SqlSession mappers hotspot loader monitor!");
-		});
+		if (mapperResources.isEmpty()) {
+			log.warn("No found file mappers of {}, skip hotspot loader.", sessionFactory);
+			return;
+		}
+		watcher = FileSystems.getDefault().newWatchService();
+		Set<Path> directories = new LinkedHashSet<>();
+		for (Path path : mapperResources.keySet()) {
+			directories.add(path.getParent());
+		}
+		for (Path dir : directories) {
+			// Some editors save by delete and create.
+			dir.register(watcher, ENTRY_CREATE, ENTRY_MODIFY);
+		}
+
+		boss = new Thread(() -> doWatching(), "mybatis-mapper-hotspot-loader");
+		boss.setDaemon(true);
 		boss.start();
 
-		log.info("Started SqlSession mappers hotspot loader of {}", sessionFactory.toString());
+		log.info("Started SqlSession mappers hotspot loader of {}, watching directories: {}", sessionFactory, directories);
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		if (nonNull(boss)) {
+			boss.interrupt();
+		}
+		if (nonNull(watcher)) {
+			watcher.close();
+		}
 	}
 
 	/**
@@ -123,128 +169,295 @@ public final class SqlSessionMapperHotspotLoader implements ApplicationRunner {
 	 * @throws Exception
 	 */
 	private synchronized void init() throws Exception {
-		state(isNull(configuration) && isNull(mapperLocations),
+		state(isNull(configuration) && isNull(mapperResources),
 				String.format("Already initialized mappers hotspot loader. configuration for: %s", configuration));
 		// Obtain configuration.
 		configuration = sessionFactory.getObject().getConfiguration();
 		// Obtain mapperLocations.
 		Field mapperLocaionsField = findField(SqlSessionFactoryBean.class, "mapperLocations", Resource[].class);
 		makeAccessible(mapperLocaionsField);
-		mapperLocations = (Resource[]) getField(mapperLocaionsField, sessionFactory);
-
-		// Convert to origin resources.
-		mapperLocations = getOriginResources(mapperLocations);
+		Resource[] mapperLocations = (Resource[]) getField(mapperLocaionsField, sessionFactory);
 
 		notNull(configuration, "SqlSessionFactory configuration can't is null.");
 		notNull(mapperLocations, "SqlSessionFactory mapperLocations can't is null.");
+
+		// Convert to origin resources.
+		mapperResources = new LinkedHashMap<>();
+		for (Resource rs : getOriginResources(mapperLocations)) {
+			File file = rs.getFile();
+			if (file.isFile()) {
+				mapperResources.put(file.toPath().toAbsolutePath().normalize(), rs);
+			}
+		}
 	}
 
 	/**
-	 * Refresh the contents of mybatis mapping files.
+	 * Watching the changed mappers, the events are merged until no more events
+	 * within the interval(e.g. editors usually write the file several times),
+	 * and then reload the changed mappers. The merging is at most
+	 * {@link #MAX_DEBOUNCE_INTERVALS} intervals, so the files that are written
+	 * continuously are still reloaded.
+	 */
+	private void doWatching() {
+		Set<Path> changed = new LinkedHashSet<>();
+		long firstChangedAt = 0L;
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				long intervalMs = config.getMonitorLoaderIntervalMs();
+				WatchKey key = watcher.poll(intervalMs, MILLISECONDS);
+				if (nonNull(key)) {
+					Path dir = (Path) key.watchable();
+					for (WatchEvent<?> event : key.pollEvents()) {
+						if (event.kind() == OVERFLOW) {
+							changed.addAll(mapperResources.keySet());
+						} else {
+							Path path = dir.resolve((Path) event.context());
+							if (mapperResources.containsKey(path)) {
+								changed.add(path);
+							}
+						}
+					}
+					key.reset();
+				}
+				if (changed.isEmpty()) {
+					firstChangedAt = 0L;
+				} else if (firstChangedAt == 0L) {
+					firstChangedAt = currentTimeMillis();
+				}
+				if (!changed.isEmpty()
+						&& (isNull(key) || currentTimeMillis() - firstChangedAt >= MAX_DEBOUNCE_INTERVALS * intervalMs)) {
+					try {
+						refresh(changed);
+					} catch (Exception e) {
+						log.error("Failed to refresh mappers.", e);
+						if (config.isFastFail()) {
+							break;
+						}
+					} finally {
+						changed.clear();
+						firstChangedAt = 0L;
+					}
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// Ignore, stopped
+		}
+		log.warn("Stopped SqlSession mappers hotspot loader monitor!");
+	}
+
+	/**
+	 * Refresh the contents of changed mybatis mapping files.
 	 * 
-	 * @param configuration
+	 * @param changed
 	 * @throws Exception
 	 */
-	private synchronized void refresh(Configuration configuration) throws Exception {
-		// 清理Mybatis的所有映射文件缓存, 目前由于未找到清空被修改文件的缓存的key值, 暂时仅支持全部清理, 然后全部加载
-		doCleanupOlderCacheConfig(configuration);
-
+	synchronized void refresh(Collection<Path> changed) throws Exception {
 		long begin = currentTimeMillis();
-		for (Resource rs : mapperLocations) {
+		List<Resource> refreshed = new ArrayList<>(changed.size());
+		for (Path path : changed) {
+			Resource rs = mapperResources.get(path);
+			if (!rs.exists()) { // e.g. deleted
+				continue;
+			}
 			try {
-				XMLMapperBuilder builder = new XMLMapperBuilder(rs.getInputStream(), configuration, rs.toString(),
-						configuration.getSqlFragments()); // Reload.
-				builder.parse();
-				log.debug("Refreshed for: {}", rs);
-			} catch (IOException e) {
-				log.error(format("Failed to refresh mapper for: %s", rs), e);
+				doReloadMapper(rs);
+				refreshed.add(rs);
+			} catch (Exception e) {
+				if (config.isFastFail()) {
+					throw e;
+				}
+				log.error(String.format("Failed to refresh mapper for: %s", rs), e);
 			}
 		}
-		long now = currentTimeMillis();
-		out.println(format("%s - Refreshed mappers: %s, cost: %sms", new Date(), mapperLocations.length, (now - begin)));
+		log.info("Refreshed mappers: {}, cost: {}ms", refreshed, (currentTimeMillis() - begin));
+	}
 
-		// Update refresh time.
-		lastRefreshTime.set(now);
+	/**
+	 * Reload the namespace elements of mapper. The mapper is parsed into a
+	 * scratch configuration, and then the elements are swapped into the
+	 * configuration only if parsed successfully.
+	 * 
+	 * @param rs
+	 * @throws Exception
+	 */
+	private void doReloadMapper(Resource rs) throws Exception {
+		String namespace = parseNamespace(rs);
+		synchronized (configuration) {
+			Configuration scratch = newScratchConfiguration(namespace);
+			try (InputStream in = rs.getInputStream()) {
+				XMLMapperBuilder builder = new XMLMapperBuilder(in, scratch, rs.toString(), scratch.getSqlFragments());
+				builder.parse();
+			}
+			// e.g. reference the unknown result map.
+			state(scratch.getIncompleteStatements().isEmpty() && scratch.getIncompleteResultMaps().isEmpty()
+					&& scratch.getIncompleteCacheRefs().isEmpty(), "Unresolved elements of namespace: %s, for: %s", namespace,
+					rs);
+			doSwapNamespace(namespace, scratch);
+			// The parsed elements refer the scratch configuration, e.g. the
+			// nested result maps and selects are looked up by it.
+			shareFields(scratch, field -> true);
+			log.debug("Refreshed namespace: {} for: {}", namespace, rs);
+		}
 	}
 
 	/**
-	 * Detect if at least one mapper file has been updated.
+	 * Parse the namespace of mapper file.
 	 * 
+	 * @param rs
 	 * @return
 	 * @throws IOException
 	 */
-	private boolean isChanged() throws IOException {
-		if (lastRefreshTime.get() <= 0) { // Just initialized?
-			lastRefreshTime.set(currentTimeMillis());
-			return false;
+	private String parseNamespace(Resource rs) throws IOException {
+		try (InputStream in = rs.getInputStream()) {
+			XPathParser parser = new XPathParser(in, true, configuration.getVariables(), new XMLMapperEntityResolver());
+			String namespace = parser.evalNode("/mapper").getStringAttribute("namespace");
+			isTrue(!isBlank(namespace), "Mapper's namespace cannot be empty. - %s", rs);
+			return namespace;
 		}
-		for (Resource rs : mapperLocations) {
-			if (nonNull(rs) && rs.getFile().lastModified() > lastRefreshTime.get()) {
-				return true;
-			}
-		}
-		return false;
 	}
 
 	/**
-	 * Clear several importants caches in configuration
+	 * New the scratch configuration to parse the mapper of namespace, which
+	 * shares the settings and registries (e.g. type aliases, mappers) of the
+	 * configuration, and contains the elements of other namespaces for the
+	 * references across namespaces.
 	 * 
-	 * @param configuration
+	 * @param namespace
+	 * @return
 	 * @throws Exception
 	 */
-	private synchronized void doCleanupOlderCacheConfig(Configuration configuration) throws Exception {
-		Class<?> classConfig = configuration.getClass();
-
-		clearMap(classConfig, configuration, "mappedStatements", null);
-		clearMap(classConfig, configuration, "caches", null);
-		clearMap(classConfig, configuration, "resultMaps", null);
-		clearMap(classConfig, configuration, "parameterMaps", null);
-		clearMap(classConfig, configuration, "keyGenerators", null);
-		clearMap(classConfig, configuration, "sqlFragments", null);
-
-		clearSet(classConfig, configuration, "loadedResources", null);
+	@SuppressWarnings("unchecked")
+	private Configuration newScratchConfiguration(String namespace) throws Exception {
+		Configuration scratch = new Configuration();
+		shareFields(scratch, field -> !SCRATCH_FIELDS.contains(field));
+		for (String fieldName : NAMESPACE_FIELDS) {
+			Map<String, Object> map = (Map<String, Object>) getConfigField(scratch, fieldName);
+			// The statements of mapper annotations are not reloaded.
+			getFullNameElements((Map<String, Object>) getConfigField(configuration, fieldName)).forEach((key, value) -> {
+				if (!isNamespaceKey(namespace, key) || isAnnotationStatement(value)) {
+					map.put(key, value); // StrictMap registers the short name keys.
+				}
+			});
+		}
+		return scratch;
 	}
 
 	/**
-	 * Clear map cache in configuration.
+	 * Share the fields of configuration with the scratch configuration.
 	 * 
-	 * @param classConfig
-	 * @param configuration
-	 * @param fieldName
-	 * @param clearKey
+	 * @param scratch
+	 * @param filter
+	 *            The field names to share.
 	 * @throws Exception
 	 */
-	@SuppressWarnings("rawtypes")
-	private synchronized void clearMap(Class<?> classConfig, Configuration configuration, String fieldName, Object clearKey)
-			throws Exception {
-		Field field = classConfig.getDeclaredField(fieldName);
-		field.setAccessible(true);
-		Map mapConfig = (Map) field.get(configuration);
-		// (此用于实现只重新加载单个mapper文件的热部署, 但是目前由于未找到清空被修改文件的缓存的key值,
-		// 暂无法实现单个mapper热部署)
-		// mapConfig.remove(clearKey);
-		mapConfig.clear();
+	private void shareFields(Configuration scratch, Predicate<String> filter) throws Exception {
+		for (Field field : Configuration.class.getDeclaredFields()) {
+			if (!Modifier.isStatic(field.getModifiers()) && filter.test(field.getName())) {
+				makeAccessible(field);
+				field.set(scratch, field.get(configuration));
+			}
+		}
 	}
 
 	/**
-	 * Clear set cache in configuration.
+	 * Swap the namespace elements of scratch configuration into the
+	 * configuration, the existing keys are replaced in place(including the
+	 * short name keys, Mybatis StrictMap also registers the element with short
+	 * name if not ambiguous), so the statements are never missing.
 	 * 
-	 * @param classConfig
-	 * @param configuration
-	 * @param fieldName
-	 * @param clearKey
+	 * @param namespace
+	 * @param scratch
 	 * @throws Exception
 	 */
-	@SuppressWarnings("rawtypes")
-	private synchronized void clearSet(Class<?> classConfig, Configuration configuration, String fieldName, Object clearKey)
-			throws Exception {
-		Field field = classConfig.getDeclaredField(fieldName);
+	@SuppressWarnings("unchecked")
+	private void doSwapNamespace(String namespace, Configuration scratch) throws Exception {
+		for (String fieldName : NAMESPACE_FIELDS) {
+			Map<String, Object> map = (Map<String, Object>) getConfigField(configuration, fieldName);
+			Map<String, Object> older = getNamespaceElements(namespace, map);
+			Map<String, Object> newer = getNamespaceElements(namespace, (Map<String, Object>) getConfigField(scratch, fieldName));
+			newer.forEach((key, value) -> {
+				Object old = older.remove(key);
+				if (nonNull(old)) {
+					// Not StrictMap.put(), which rejects the existing keys.
+					map.replace(key, value);
+					map.replace(getShortName(key), old, value);
+				} else {
+					map.put(key, value);
+				}
+			});
+			// The removed elements, the ambiguity markers are kept.
+			older.forEach((key, value) -> {
+				map.remove(key);
+				map.remove(getShortName(key), value);
+			});
+		}
+		Map<String, String> cacheRefs = (Map<String, String>) getConfigField(configuration, "cacheRefMap");
+		String cacheRef = ((Map<String, String>) getConfigField(scratch, "cacheRefMap")).get(namespace);
+		if (nonNull(cacheRef)) {
+			cacheRefs.put(namespace, cacheRef);
+		} else {
+			cacheRefs.remove(namespace);
+		}
+	}
+
+	/**
+	 * Gets the elements of namespace(full name keys), excluding the statements
+	 * of mapper annotations.
+	 * 
+	 * @param namespace
+	 * @param map
+	 * @return
+	 */
+	private static Map<String, Object> getNamespaceElements(String namespace, Map<String, Object> map) {
+		Map<String, Object> elements = new LinkedHashMap<>();
+		getFullNameElements(map).forEach((key, value) -> {
+			if (isNamespaceKey(namespace, key) && !isAnnotationStatement(value)) {
+				elements.put(key, value);
+			}
+		});
+		return elements;
+	}
+
+	/**
+	 * Gets the elements of full name keys, excluding the short name keys and
+	 * the ambiguity markers registered by Mybatis StrictMap.
+	 * 
+	 * @param map
+	 * @return
+	 */
+	private static Map<String, Object> getFullNameElements(Map<String, Object> map) {
+		Set<Object> values = Collections.newSetFromMap(new IdentityHashMap<>());
+		map.forEach((key, value) -> {
+			if (key.indexOf('.') >= 0) {
+				values.add(value);
+			}
+		});
+		Map<String, Object> elements = new LinkedHashMap<>();
+		map.forEach((key, value) -> {
+			if (key.indexOf('.') >= 0 || (!values.contains(value) && !value.getClass().getName().endsWith("$Ambiguity"))) {
+				elements.put(key, value);
+			}
+		});
+		return elements;
+	}
+
+	private static boolean isNamespaceKey(String namespace, String key) {
+		return key.equals(namespace) || key.startsWith(namespace.concat("."));
+	}
+
+	private static String getShortName(String key) {
+		return key.substring(key.lastIndexOf('.') + 1);
+	}
+
+	private static boolean isAnnotationStatement(Object element) {
+		return element instanceof MappedStatement
+				&& String.valueOf(((MappedStatement) element).getResource()).endsWith(".java (best guess)");
+	}
+
+	private static Object getConfigField(Configuration configuration, String fieldName) throws Exception {
+		Field field = Configuration.class.getDeclaredField(fieldName);
 		field.setAccessible(true);
-		Set setConfig = (Set) field.get(configuration);
-		// (此用于实现只重新加载单个mapper文件的热部署, 但是目前由于未找到清空被修改文件的缓存的key值,
-		// 暂无法实现单个mapper热部署)
-		// setConfig.remove(clearKey);
-		setConfig.clear();
+		return field.get(configuration);
 	}
 
 	/**
@@ -272,26 +485,6 @@ public final class SqlSessionMapperHotspotLoader implements ApplicationRunner {
 		return res.toArray(new Resource[] {});
 	}
 
-	// /**
-	// * 获取需要刷新的文件列表.(此用于实现只重新加载单个mapper文件的热部署, 但是目前由于未找到清空被修改文件的缓存的key值,
-	// * 暂无法实现单个mapper热部署)
-	// *
-	// * @param beforeTime
-	// * 上次刷新时间
-	// * @return 刷新文件列表
-	// * @throws IOException
-	// */
-	// private List<Resource> getRefreshResource(Long beforeTime) throws
-	// IOException {
-	// List<Resource> refreshResourcelist = new ArrayList<Resource>();
-	// for (Resource resource : mapperLocations) {
-	// if (resource != null && resource.getFile().lastModified() > beforeTime) {
-	// refreshResourcelist.add(resource);
-	// }
-	// }
-	// return refreshResourcelist;
-	// }
-
 	/**
 	 * Mybatis mappers hotspot loader properties configuration.
 	 * 
@@ -327,6 +520,29 @@ public final class SqlSessionMapperHotspotLoader implements ApplicationRunner {
 
 	}
 
+	/**
+	 * The configuration fields of namespace elements, (the keys are the
+	 * namespace or prefixed by namespace).
+	 */
+	private static final String[] NAMESPACE_FIELDS = { "mappedStatements", "caches", "resultMaps", "parameterMaps",
+			"keyGenerators", "sqlFragments" };
+
+	/**
+	 * The configuration fields that are not shared by the scratch
+	 * configuration.
+	 */
+	private static final Set<String> SCRATCH_FIELDS = new HashSet<>(asList(NAMESPACE_FIELDS));
+
+	static {
+		SCRATCH_FIELDS.addAll(asList("cacheRefMap", "loadedResources", "incompleteStatements", "incompleteCacheRefs",
+				"incompleteResultMaps", "incompleteMethods"));
+	}
+
+	/**
+	 * The maximum intervals of merging the continuous changes.
+	 */
+	private static final int MAX_DEBOUNCE_INTERVALS = 5;
+
 	private static final String TARGET_PART_PATH = "target" + File.separator + "classes";
 	private static final String SRC_PART_PATH = "src" + File.separator + "main" + File.separator + "resources";
 
@@ -15,6 +15,8 @@
  */
 package com.wl4g.component.data.mybatis.mapper;
 
+import java.util.List;
+
 import com.wl4g.component.common.id.SnowflakeIdGenerator;
 
 /**
@@ -36,4 +38,19 @@ public interface IdGenerator {
 		return SnowflakeIdGenerator.getDefault().nextId();
 	}
 
+	/**
+	 * Generated next IDs of batch, e.g: UserDao#insertBatch(List<User>), the
+	 * default is to call {@link #nextId(Object)} for each parameter.
+	 * 
+	 * @param parameters
+	 * @return
+	 */
+	default long[] nextIds(List<?> parameters) {
+		long[] ids = new long[parameters.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = nextId(parameters.get(i));
+		}
+		return ids;
+	}
+
 }
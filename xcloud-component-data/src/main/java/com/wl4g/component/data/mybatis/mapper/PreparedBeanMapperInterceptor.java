@@ -19,9 +19,12 @@ import static com.wl4g.component.common.lang.TypeConverts.parseLongOrNull;
 import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
+import static java.util.stream.Collectors.toList;
 import static org.springframework.beans.BeanUtils.copyProperties;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Properties;
 
 import org.apache.ibatis.executor.Executor;
@@ -214,13 +217,15 @@ public class PreparedBeanMapperInterceptor implements Interceptor {
 			}
 			// e.g: UserDao#insertBatch(List<User>)
 			else if (Iterable.class.isAssignableFrom(arg.getClass())) {
+				List<BaseBean> beans = new ArrayList<>();
 				Iterator it = ((Iterable) arg).iterator();
 				while (it.hasNext()) {
 					Object value = it.next();
-					if (BaseBean.class.isAssignableFrom(value.getClass())) {
-						doPreInsert(invoc, (BaseBean) arg);
+					if (nonNull(value) && BaseBean.class.isAssignableFrom(value.getClass())) {
+						beans.add((BaseBean) value);
 					}
 				}
+				doPreInsertBatch(invoc, beans);
 			}
 		}
 	}
@@ -231,6 +236,25 @@ public class PreparedBeanMapperInterceptor implements Interceptor {
 			bean.setId(idGenerator.nextId(bean));
 			log.debug("Dynamic assigned primary key ID for: {}, method: {}", bean.getId(), invoc.getMethod());
 		}
+		doPreInsertProperties(bean);
+	}
+
+	protected void doPreInsertBatch(Invocation invoc, List<BaseBean> beans) {
+		// Assign sets primary key IDs in batch.
+		List<BaseBean> unassigned = beans.stream().filter(b -> isNull(b.getId())).collect(toList());
+		if (!unassigned.isEmpty()) {
+			long[] ids = idGenerator.nextIds(unassigned);
+			for (int i = 0; i < ids.length; i++) {
+				unassigned.get(i).setId(ids[i]);
+			}
+			log.debug("Dynamic assigned primary key IDs for: {} beans, method: {}", ids.length, invoc.getMethod());
+		}
+		for (BaseBean bean : beans) {
+			doPreInsertProperties(bean);
+		}
+	}
+
+	private void doPreInsertProperties(BaseBean bean) {
 		if (isInsertSettable(bean)) {
 			bean.preInsert();
 			Long currentPrincipalId = getCurrentPrincipalId();
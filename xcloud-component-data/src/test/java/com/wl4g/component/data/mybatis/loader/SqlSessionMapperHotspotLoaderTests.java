@@ -0,0 +1,183 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.data.mybatis.loader;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import com.wl4g.component.data.mybatis.loader.SqlSessionMapperHotspotLoader.HotspotLoaderProperties;
+
+/**
+ * {@link SqlSessionMapperHotspotLoaderTests}
+ *
+ * @author Wangl.sir <wanglsir@gmail.com, 983708408@qq.com>
+ * @version v1.0 2021-07-04
+ * @since
+ */
+public class SqlSessionMapperHotspotLoaderTests {
+
+	@Test
+	public void testReloadChangedMapper() throws Exception {
+		MapperFixture fixture = new MapperFixture();
+		Configuration configuration = fixture.configuration;
+		MappedStatement barCommon = configuration.getMappedStatement(BAR + ".getCommon");
+
+		fixture.reload(fooMapper("SELECT 2 AS foo", "<select id=\"getNew\" resultType=\"map\">SELECT 2</select>"));
+		MappedStatement getFoo = configuration.getMappedStatement(FOO + ".getFoo");
+		assert "SELECT 2 AS foo".equals(getSql(getFoo));
+		// The short name key is replaced too.
+		assert configuration.getMappedStatement("getFoo") == getFoo;
+		assert configuration.getMappedStatement("getNew") == configuration.getMappedStatement(FOO + ".getNew");
+		assert getFoo.getResultMaps().get(0) == configuration.getResultMap(FOO + ".fooResult");
+		assert configuration.getResultMap("fooResult") == configuration.getResultMap(FOO + ".fooResult");
+		// The removed statement.
+		assert !configuration.hasStatement(FOO + ".getOld") && !configuration.hasStatement("getOld");
+
+		// The other mapper and the ambiguity marker are kept.
+		assert configuration.getMappedStatement(BAR + ".getCommon") == barCommon;
+		assertAmbiguous(configuration, "getCommon");
+	}
+
+	@Test
+	public void testKeepOlderIfFailedToParse() throws Exception {
+		MapperFixture fixture = new MapperFixture();
+		Configuration configuration = fixture.configuration;
+		MappedStatement getFoo = configuration.getMappedStatement(FOO + ".getFoo");
+		MappedStatement getOld = configuration.getMappedStatement(FOO + ".getOld");
+		ResultMap fooResult = configuration.getResultMap(FOO + ".fooResult");
+
+		String[] brokens = { "<mapper namespace=\"" + FOO + "\"><select id=\"getFoo\">SELECT 3</mapper>", // Malformed
+				fooMapper("SELECT 3 AS foo", "<select id=\"getFoo\" resultType=\"map\">SELECT 3</select>"), // Duplicated
+				fooMapper("SELECT 3 AS foo", "<select id=\"getNew\" resultMap=\"noSuchResult\">SELECT 3</select>") }; // Unresolved
+		for (String broken : brokens) {
+			fixture.reload(broken);
+			assert configuration.getMappedStatement(FOO + ".getFoo") == getFoo : broken;
+			assert configuration.getMappedStatement("getFoo") == getFoo : broken;
+			assert configuration.getMappedStatement(FOO + ".getOld") == getOld : broken;
+			assert configuration.getMappedStatement("getOld") == getOld : broken;
+			assert configuration.getResultMap(FOO + ".fooResult") == fooResult : broken;
+			assert configuration.getResultMap("fooResult") == fooResult : broken;
+			assert !configuration.hasStatement(FOO + ".getNew") && !configuration.hasStatement("getNew") : broken;
+			assertAmbiguous(configuration, "getCommon");
+		}
+		assert "SELECT 1 AS foo".equals(getSql(configuration.getMappedStatement(FOO + ".getFoo")));
+	}
+
+	@Test
+	public void testStatementsReadableWhileReloading() throws Exception {
+		MapperFixture fixture = new MapperFixture();
+		Configuration configuration = fixture.configuration;
+		AtomicBoolean running = new AtomicBoolean(true);
+		List<Throwable> errors = new CopyOnWriteArrayList<>();
+		Thread reader = new Thread(() -> {
+			while (running.get()) {
+				try {
+					configuration.getMappedStatement(FOO + ".getFoo");
+					configuration.getMappedStatement("getOld");
+				} catch (Throwable e) {
+					errors.add(e);
+				}
+			}
+		});
+		reader.start();
+		try {
+			for (int i = 0; i < 50; i++) {
+				fixture.reload(fooMapper("SELECT " + i + " AS foo", ""));
+			}
+		} finally {
+			running.set(false);
+			reader.join(5_000L);
+		}
+		assert errors.isEmpty() : errors;
+		assert "SELECT 49 AS foo".equals(getSql(configuration.getMappedStatement(FOO + ".getFoo")));
+	}
+
+	private static String fooMapper(String fooSql, String more) {
+		return "<mapper namespace=\"" + FOO + "\">"
+				+ "<resultMap id=\"fooResult\" type=\"map\"><result column=\"foo\" property=\"foo\"/></resultMap>"
+				+ "<select id=\"getFoo\" resultMap=\"fooResult\">" + fooSql + "</select>"
+				+ "<select id=\"getCommon\" resultType=\"map\">SELECT 1</select>"
+				+ "<select id=\"getOld\" resultType=\"map\">SELECT 1</select>" + more + "</mapper>";
+	}
+
+	private static String getSql(MappedStatement statement) {
+		return statement.getBoundSql(null).getSql().trim();
+	}
+
+	private static void assertAmbiguous(Configuration configuration, String shortName) {
+		try {
+			configuration.getMappedStatement(shortName);
+			assert false;
+		} catch (IllegalArgumentException e) {
+			assert e.getMessage().contains("ambiguous") : e.getMessage();
+		}
+	}
+
+	/**
+	 * The loader of the mappers in a temporary directory, the FOO mapper is
+	 * initialized with {@link #fooMapper(String, String)} of "SELECT 1 AS
+	 * foo", and the BAR mapper has the ambiguous "getCommon" statement.
+	 */
+	private static class MapperFixture {
+		private final Path fooPath;
+		private final SqlSessionMapperHotspotLoader loader;
+		private final Configuration configuration;
+
+		MapperFixture() throws Exception {
+			Path dir = Files.createTempDirectory("mappers");
+			this.fooPath = write(dir.resolve("FooMapper.xml"), fooMapper("SELECT 1 AS foo", ""));
+			Path barPath = write(dir.resolve("BarMapper.xml"),
+					"<mapper namespace=\"" + BAR + "\"><select id=\"getCommon\" resultType=\"map\">SELECT 2</select></mapper>");
+
+			SqlSessionFactoryBean sessionFactory = new SqlSessionFactoryBean();
+			sessionFactory.setDataSource(new SimpleDriverDataSource());
+			sessionFactory.setMapperLocations(new FileSystemResource(fooPath.toFile()),
+					new FileSystemResource(barPath.toFile()));
+			this.loader = new SqlSessionMapperHotspotLoader(sessionFactory, new HotspotLoaderProperties());
+			this.configuration = sessionFactory.getObject().getConfiguration();
+		}
+
+		void reload(String mapper) throws Exception {
+			write(fooPath, mapper);
+			loader.refresh(singletonList(fooPath));
+		}
+
+		private static Path write(Path path, String mapper) throws Exception {
+			String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+					+ "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n"
+					+ mapper;
+			return Files.write(path.toAbsolutePath().normalize(), xml.getBytes(UTF_8));
+		}
+	}
+
+	private static final String FOO = "com.wl4g.component.data.mybatis.loader.FooMapper";
+	private static final String BAR = "com.wl4g.component.data.mybatis.loader.BarMapper";
+
+}
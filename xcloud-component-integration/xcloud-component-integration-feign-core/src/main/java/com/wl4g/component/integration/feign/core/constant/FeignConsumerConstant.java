@@ -43,4 +43,11 @@ public abstract class FeignConsumerConstant extends BaseConstant {
 	public static final long RPC_ATTACTMENT_MAX_BYTES = getLongProperty(KEY_CONFIG_PREFIX + ".context.attachments-max-bytes",
 			6144L);
 
+	/**
+	 * Whether to serialize the custom object attachments with protostuff
+	 * instead of JSON. (Note: Both sides of RPC must use the same value types)
+	 */
+	public static final boolean RPC_ATTACTMENT_BINARY_VALUES = getBooleanProperty(
+			KEY_CONFIG_PREFIX + ".context.attachments-binary-values", false);
+
 }
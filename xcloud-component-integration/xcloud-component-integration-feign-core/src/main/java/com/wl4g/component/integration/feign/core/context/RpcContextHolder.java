@@ -22,19 +22,27 @@ package com.wl4g.component.integration.feign.core.context;
 import static com.google.common.base.Charsets.UTF_8;
 import static com.wl4g.component.common.collection.CollectionUtils2.safeMap;
 import static com.wl4g.component.common.lang.Assert2.hasTextOf;
+import static com.wl4g.component.common.lang.Assert2.isTrue;
 import static com.wl4g.component.common.lang.Assert2.notNullOf;
 import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
 import static com.wl4g.component.common.reflect.TypeUtils2.isSimpleType;
 import static com.wl4g.component.common.serialize.JacksonUtils.parseJSON;
 import static com.wl4g.component.common.serialize.JacksonUtils.toJSONString;
+import static com.wl4g.component.integration.feign.core.constant.FeignConsumerConstant.RPC_ATTACTMENT_BINARY_VALUES;
 import static com.wl4g.component.integration.feign.core.constant.FeignConsumerConstant.RPC_ATTACTMENT_MAX_BYTES;
 import static java.lang.String.format;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.copyOfRange;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.stream.Collectors.toList;
 
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 import javax.annotation.Nullable;
 import javax.validation.constraints.NotBlank;
@@ -43,8 +51,9 @@ import javax.validation.constraints.NotNull;
 import org.apache.commons.beanutils.ConvertUtilsBean;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 
-import com.wl4g.component.common.codec.CodecSource;
+import com.wl4g.component.common.codec.Encodes;
 import com.wl4g.component.common.log.SmartLogger;
+import com.wl4g.component.common.serialize.ProtostuffUtils;
 import com.wl4g.component.core.utils.context.SpringContextHolder;
 
 /**
@@ -89,13 +98,19 @@ public abstract class RpcContextHolder {
 		String value = getAttachment(key);
 		if (!isNull(value)) {
 			// Decode attachemnts value(http header safe)
-			String val = getCompressCodec().decode(value);
 			if (String.class.isAssignableFrom(valueType)) {
-				return (T) val;
+				return (T) getCompressCodec().decode(value);
 			} else if (isSimpleType(valueType)) {
-				return (T) defaultConverter.convert(val, valueType);
+				return (T) defaultConverter.convert(getCompressCodec().decode(value), valueType);
+			} else if (RPC_ATTACTMENT_BINARY_VALUES) { // Custom object
+				byte[] data = getCompressCodec().decodeBytes(value);
+				if (data.length > 0 && data[0] == BINARY_VALUE_MAGIC) {
+					return ProtostuffUtils.deserialize(copyOfRange(data, 1, data.length), valueType);
+				}
+				// Sent as JSON by the early versions.
+				return parseJSON(getCompressCodec().decode(value), valueType);
 			} else { // Custom object
-				return parseJSON((String) val, valueType);
+				return parseJSON(getCompressCodec().decode(value), valueType);
 			}
 		}
 		return null;
@@ -111,22 +126,28 @@ public abstract class RpcContextHolder {
 	public void set(@NotBlank String key, @Nullable Object value) {
 		hasTextOf(key, "attachmentKey");
 		if (nonNull(value)) {
-			String valStr = null;
+			// Encode attachemnts value(http header safe)
+			String encoded = null;
 			if (value instanceof String) {
-				valStr = (String) value;
+				encoded = getCompressCodec().encode((String) value);
 			} else if (isSimpleType(value.getClass())) {
-				valStr = defaultConverter.convert(value);
+				encoded = getCompressCodec().encode(defaultConverter.convert(value));
+			} else if (RPC_ATTACTMENT_BINARY_VALUES) { // Other object
+				byte[] body = ProtostuffUtils.serialize(value);
+				byte[] data = new byte[body.length + 1];
+				data[0] = BINARY_VALUE_MAGIC;
+				System.arraycopy(body, 0, data, 1, body.length);
+				encoded = getCompressCodec().encode(data);
 			} else { // Other object
-				valStr = toJSONString(value);
+				encoded = getCompressCodec().encode(toJSONString(value));
 			}
-			// Check safe max bytes limit
-			if (valStr.getBytes(UTF_8).length > RPC_ATTACTMENT_MAX_BYTES) {
+			// Check safe max bytes limit(the encoded value is ASCII)
+			if (encoded.length() > RPC_ATTACTMENT_MAX_BYTES) {
 				throw new IllegalArgumentException(format(
 						"Too large (%sbytes) attachment object, It is recommended to use parameters in the form of %s. - key: %s, value: %s",
 						RPC_ATTACTMENT_MAX_BYTES, ReferenceKey.class.getSimpleName(), key, value));
 			}
-			// Encode attachemnts value(http header safe)
-			setAttachment(key, getCompressCodec().encode(valStr));
+			setAttachment(key, encoded);
 		} else { // Remove attachment
 			removeAttachment(key);
 		}
@@ -421,21 +442,142 @@ public abstract class RpcContextHolder {
 	}
 
 	/**
-	 * Reference attachment safe/compress codec.
+	 * Reference attachment safe/compress codec. The default methods are the
+	 * legacy hex encoding, the implementations should override the bytes
+	 * methods.
 	 */
 	public static interface CompressCodec {
 		default String encode(String value) {
-			return new CodecSource(value).toHex();
+			return encode(value.getBytes(UTF_8));
 		}
 
 		default String decode(String value) {
-			return CodecSource.fromHex(value).toString();
+			return new String(decodeBytes(value), UTF_8);
+		}
+
+		default String encode(byte[] data) {
+			return Encodes.encodeHex(data);
 		}
 
-		public static final CompressCodec DEFAULT = new CompressCodec() {
+		default byte[] decodeBytes(String value) {
+			return Encodes.decodeHex(value);
+		}
+
+		/** Legacy hex codec, compatible with the early versions. */
+		public static final CompressCodec HEX = new CompressCodec() {
 		};
+
+		public static final CompressCodec DEFAULT = new DeflateCompressCodec();
 	}
 
+	/**
+	 * Deflate and URL-safe base64 {@link CompressCodec}, the first character of
+	 * encoded value is the header that selects the codec, (e.g: 'Z' deflated,
+	 * 'R' raw), and the values without header are decoded as legacy hex.
+	 */
+	public static class DeflateCompressCodec implements CompressCodec {
+		private final int compressThreshold;
+		private final int maxInflatedBytes;
+
+		public DeflateCompressCodec() {
+			this(DEFAULT_COMPRESS_THRESHOLD, DEFAULT_MAX_INFLATED_BYTES);
+		}
+
+		/**
+		 * @param compressThreshold
+		 *            The values shorter than this are not compressed, because
+		 *            the deflate overhead is larger than the saving.
+		 * @param maxInflatedBytes
+		 *            The maximum bytes of decoded value.
+		 */
+		public DeflateCompressCodec(int compressThreshold, int maxInflatedBytes) {
+			isTrue(compressThreshold >= 0, "compressThreshold must >= 0");
+			isTrue(maxInflatedBytes > 0, "maxInflatedBytes must > 0");
+			this.compressThreshold = compressThreshold;
+			this.maxInflatedBytes = maxInflatedBytes;
+		}
+
+		@Override
+		public String encode(byte[] data) {
+			if (data.length >= compressThreshold) {
+				byte[] deflated = deflate(data);
+				if (deflated.length < data.length) {
+					return HEADER_DEFLATE + BASE64_ENCODER.encodeToString(deflated);
+				}
+			}
+			return HEADER_RAW + BASE64_ENCODER.encodeToString(data);
+		}
+
+		@Override
+		public byte[] decodeBytes(String value) {
+			if (value.isEmpty()) {
+				return new byte[0];
+			}
+			switch (value.charAt(0)) {
+			case HEADER_DEFLATE:
+				return inflate(BASE64_DECODER.decode(value.substring(1)));
+			case HEADER_RAW:
+				return BASE64_DECODER.decode(value.substring(1));
+			default: // Legacy hex
+				return CompressCodec.super.decodeBytes(value);
+			}
+		}
+
+		private static byte[] deflate(byte[] data) {
+			Deflater deflater = DEFLATER_CACHE.get();
+			deflater.reset();
+			deflater.setInput(data);
+			deflater.finish();
+			byte[] buf = new byte[data.length + 16];
+			int len = 0;
+			while (!deflater.finished()) {
+				if (len == buf.length) {
+					buf = copyOf(buf, buf.length * 2);
+				}
+				len += deflater.deflate(buf, len, buf.length - len);
+			}
+			return copyOfRange(buf, 0, len);
+		}
+
+		private byte[] inflate(byte[] data) {
+			Inflater inflater = INFLATER_CACHE.get();
+			inflater.reset();
+			inflater.setInput(data);
+			byte[] buf = new byte[Math.min(data.length * 4 + 16, maxInflatedBytes)];
+			int len = 0;
+			try {
+				while (!inflater.finished()) {
+					if (len == buf.length) {
+						isTrue(len < maxInflatedBytes, "Too large inflated attachment, the max bytes: %s", maxInflatedBytes);
+						buf = copyOf(buf, (int) Math.min(buf.length * 2L, maxInflatedBytes));
+					}
+					int n = inflater.inflate(buf, len, buf.length - len);
+					if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+						throw new IllegalArgumentException("Invalid deflated attachment, truncated data");
+					}
+					len += n;
+				}
+			} catch (DataFormatException e) {
+				throw new IllegalArgumentException("Invalid deflated attachment", e);
+			}
+			return copyOfRange(buf, 0, len);
+		}
+
+		public static final char HEADER_DEFLATE = 'Z';
+		public static final char HEADER_RAW = 'R';
+		public static final int DEFAULT_COMPRESS_THRESHOLD = 64;
+		public static final int DEFAULT_MAX_INFLATED_BYTES = 1024 * 1024;
+
+		private static final Base64.Encoder BASE64_ENCODER = Base64.getUrlEncoder().withoutPadding();
+		private static final Base64.Decoder BASE64_DECODER = Base64.getUrlDecoder();
+		private static final ThreadLocal<Deflater> DEFLATER_CACHE = ThreadLocal
+				.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+		private static final ThreadLocal<Inflater> INFLATER_CACHE = ThreadLocal.withInitial(() -> new Inflater(true));
+	}
+
+	/** The first byte of the binary serialized (custom object) value. */
+	private static final byte BINARY_VALUE_MAGIC = 0;
+
 	/** Default types converter. */
 	private static final ConvertUtilsBean defaultConverter = new ConvertUtilsBean();
 
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2017 ~ 2025 the original author or authors.
+ * <Wanglsir@gmail.com, 983708408@qq.com> Technology CO.LTD.
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Reference to website: http://wl4g.com
+ */
+package com.wl4g.component.integration.feign.core.context;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.wl4g.component.integration.feign.core.context.RpcContextHolder.CompressCodec;
+import com.wl4g.component.integration.feign.core.context.RpcContextHolder.ReferenceRepository;
+
+/**
+ * {@link RpcContextHolderTests}
+ * 
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version v1.0 2021-06-19
+ * @sine v1.0
+ * @see
+ */
+public class RpcContextHolderTests {
+
+	@Test
+	public void hexCodecRoundTripCase1() {
+		assertRoundTrip(CompressCodec.HEX);
+	}
+
+	@Test
+	public void defaultCodecRoundTripCase2() {
+		assertRoundTrip(CompressCodec.DEFAULT);
+	}
+
+	@Test
+	public void customStringCodecRoundTripCase3() {
+		// Overrides only the string methods.
+		assertRoundTrip(new CompressCodec() {
+			@Override
+			public String encode(String value) {
+				try {
+					return URLEncoder.encode(value, "UTF-8");
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}
+
+			@Override
+			public String decode(String value) {
+				try {
+					return URLDecoder.decode(value, "UTF-8");
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		});
+	}
+
+	private static void assertRoundTrip(CompressCodec codec) {
+		MapRpcContextHolder holder = new MapRpcContextHolder(codec);
+		StringBuilder large = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			large.append("中文value-").append(i % 10);
+		}
+		holder.set("str", "foo 中文&bar");
+		holder.set("large", large.toString());
+		holder.set("int", 10);
+		holder.set("bool", true);
+		holder.set("user", new MyUser("u1", "jack"));
+
+		assert "foo 中文&bar".equals(holder.get("str", String.class));
+		assert large.toString().equals(holder.get("large", String.class));
+		assert holder.get("int", Integer.class) == 10;
+		assert holder.get("bool", Boolean.class);
+		MyUser user = holder.get("user", MyUser.class);
+		assert "u1".equals(user.getId()) && "jack".equals(user.getName());
+
+		holder.set("str", null);
+		assert holder.get("str", String.class) == null;
+	}
+
+	static class MapRpcContextHolder extends RpcContextHolder {
+		private final Map<String, String> attachments = new HashMap<>();
+
+		MapRpcContextHolder(CompressCodec codec) {
+			super(ReferenceRepository.NOOP, codec);
+		}
+
+		@Override
+		public String getAttachment(String key) {
+			return attachments.get(key);
+		}
+
+		@Override
+		public Map<String, String> getAttachments() {
+			return attachments;
+		}
+
+		@Override
+		public void setAttachment(String key, String value) {
+			attachments.put(key, value);
+		}
+
+		@Override
+		public void removeAttachment(String key) {
+			attachments.remove(key);
+		}
+
+		@Override
+		public void clearAttachments() {
+			attachments.clear();
+		}
+
+		@Override
+		protected RpcContextHolder getContext0() {
+			return this;
+		}
+
+		@Override
+		protected RpcContextHolder getServerContext0() {
+			return this;
+		}
+
+		@Override
+		protected void removeContext0() {
+		}
+
+		@Override
+		protected void removeServerContext0() {
+		}
+	}
+
+	public static class MyUser {
+		private String id;
+		private String name;
+
+		public MyUser() {
+		}
+
+		public MyUser(String id, String name) {
+			this.id = id;
+			this.name = name;
+		}
+
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+}
@@ -0,0 +1,437 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis;
+
+import static com.wl4g.component.common.lang.Assert2.isTrue;
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
+import static java.util.Objects.isNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.Closeable;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.wl4g.component.common.log.SmartLogger;
+
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.params.SetParams;
+
+/**
+ * Asynchronous {@link JedisClient} facade with automatic pipelining. </br>
+ *
+ * <p>
+ * The commands are queued and returned as futures immediately, a flusher
+ * thread drains the queue and flushes the queued commands as one
+ * {@link JedisBatch} (i.e. one pipeline per node in cluster mode), so the
+ * more concurrent commands, the larger the pipelines, and a few threads can
+ * drive thousands of concurrent commands. The commands are flushed in
+ * submission order, and the next batch is flushed after the previous batch
+ * replied.
+ * </p>
+ *
+ * <font color=red>Note: the futures are completed by the flusher thread, the
+ * blocking dependent actions should use the async variants (e.g:
+ * {@link CompletableFuture#thenApplyAsync(Function, Executor)} with
+ * {@link #getCallbackExecutor()}), otherwise the following batches will be
+ * delayed.</font>
+ *
+ * <pre>
+ * AsyncJedisClient async = new AsyncJedisClient(jedisClient);
+ * async.get("foo1").thenAccept(v -&gt; System.out.println(v));
+ * async.setex("foo2", 60, "bar2");
+ * </pre>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-26 v1.0.0
+ * @see JedisBatch
+ */
+public class AsyncJedisClient implements Closeable {
+    protected final SmartLogger log = getLogger(getClass());
+
+    /** {@link JedisClient} */
+    private final JedisClient jedisClient;
+
+    /** {@link AsyncProperties} */
+    private final AsyncProperties config;
+
+    /** Queued (not yet flushed) commands. */
+    private final BlockingQueue<AsyncCommand<?>> queue;
+
+    /** Commands flusher thread. */
+    private final Thread flusher;
+
+    /** Executor of the (maybe blocking) dependent actions of futures. */
+    private final ExecutorService callbackExecutor;
+
+    private volatile boolean closed;
+
+    public AsyncJedisClient(JedisClient jedisClient) {
+        this(jedisClient, new AsyncProperties());
+    }
+
+    public AsyncJedisClient(JedisClient jedisClient, AsyncProperties config) {
+        this.jedisClient = notNullOf(jedisClient, "jedisClient");
+        this.config = notNullOf(config, "asyncProperties");
+        this.queue = new LinkedBlockingQueue<>(config.getMaxPending());
+        int index = COUNTER.incrementAndGet();
+        this.callbackExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "jedis-async-callback-" + index);
+            t.setDaemon(true);
+            return t;
+        });
+        this.flusher = new Thread(() -> flushLoop(), "jedis-async-flusher-" + index);
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public JedisClient getJedisClient() {
+        return jedisClient;
+    }
+
+    /**
+     * Gets the executor of the dependent actions that may block (e.g. publish
+     * the near cache invalidation), so as not to delay the flusher thread. The
+     * actions are executed in submission order, and run in the caller thread
+     * once this client has been closed.
+     *
+     * @return
+     */
+    public Executor getCallbackExecutor() {
+        return task -> {
+            try {
+                callbackExecutor.execute(task);
+            } catch (RejectedExecutionException e) { // Closed
+                task.run();
+            }
+        };
+    }
+
+    /**
+     * Gets the number of queued (not yet flushed) commands.
+     *
+     * @return
+     */
+    public int getPending() {
+        return queue.size();
+    }
+
+    // --- Basic ---
+
+    public CompletableFuture<String> get(final String key) {
+        return submit(b -> b.get(key));
+    }
+
+    public CompletableFuture<byte[]> get(final byte[] key) {
+        return submit(b -> b.get(key));
+    }
+
+    public CompletableFuture<String> set(final String key, final String value) {
+        return submit(b -> b.set(key, value));
+    }
+
+    public CompletableFuture<String> set(final String key, final String value, final SetParams params) {
+        return submit(b -> b.set(key, value, params));
+    }
+
+    public CompletableFuture<String> set(final byte[] key, final byte[] value) {
+        return submit(b -> b.set(key, value));
+    }
+
+    public CompletableFuture<String> set(final byte[] key, final byte[] value, final SetParams params) {
+        return submit(b -> b.set(key, value, params));
+    }
+
+    public CompletableFuture<String> setex(final String key, final long seconds, final String value) {
+        return submit(b -> b.setex(key, seconds, value));
+    }
+
+    public CompletableFuture<String> setex(final byte[] key, final long seconds, final byte[] value) {
+        return submit(b -> b.setex(key, seconds, value));
+    }
+
+    public CompletableFuture<String> psetex(final String key, final long milliseconds, final String value) {
+        return submit(b -> b.psetex(key, milliseconds, value));
+    }
+
+    public CompletableFuture<Long> del(final String key) {
+        return submit(b -> b.del(key));
+    }
+
+    public CompletableFuture<Long> del(final byte[] key) {
+        return submit(b -> b.del(key));
+    }
+
+    public CompletableFuture<Boolean> exists(final String key) {
+        return submit(b -> b.exists(key));
+    }
+
+    public CompletableFuture<Long> expire(final String key, final long seconds) {
+        return submit(b -> b.expire(key, seconds));
+    }
+
+    public CompletableFuture<Long> pexpire(final String key, final long milliseconds) {
+        return submit(b -> b.pexpire(key, milliseconds));
+    }
+
+    public CompletableFuture<Long> pexpire(final byte[] key, final long milliseconds) {
+        return submit(b -> b.pexpire(key, milliseconds));
+    }
+
+    public CompletableFuture<Long> pttl(final String key) {
+        return submit(b -> b.pttl(key));
+    }
+
+    public CompletableFuture<Long> incrBy(final String key, final long increment) {
+        return submit(b -> b.incrBy(key, increment));
+    }
+
+    // --- Hash ---
+
+    public CompletableFuture<String> hget(final String key, final String field) {
+        return submit(b -> b.hget(key, field));
+    }
+
+    public CompletableFuture<Long> hset(final String key, final String field, final String value) {
+        return submit(b -> b.hset(key, field, value));
+    }
+
+    public CompletableFuture<String> hmset(final String key, final Map<String, String> hash) {
+        return submit(b -> b.hmset(key, hash));
+    }
+
+    public CompletableFuture<Map<String, String>> hgetAll(final String key) {
+        return submit(b -> b.hgetAll(key));
+    }
+
+    public CompletableFuture<Long> hdel(final String key, final String... fields) {
+        return submit(b -> b.hdel(key, fields));
+    }
+
+    // --- List ---
+
+    public CompletableFuture<Long> rpush(final String key, final String... values) {
+        return submit(b -> b.rpush(key, values));
+    }
+
+    public CompletableFuture<List<String>> lrange(final String key, final long start, final long stop) {
+        return submit(b -> b.lrange(key, start, stop));
+    }
+
+    // --- Set ---
+
+    public CompletableFuture<Long> sadd(final String key, final String... members) {
+        return submit(b -> b.sadd(key, members));
+    }
+
+    public CompletableFuture<Long> srem(final String key, final String... members) {
+        return submit(b -> b.srem(key, members));
+    }
+
+    public CompletableFuture<Set<String>> smembers(final String key) {
+        return submit(b -> b.smembers(key));
+    }
+
+    // --- Sorted set ---
+
+    public CompletableFuture<Long> zadd(final String key, final double score, final String member) {
+        return submit(b -> b.zadd(key, score, member));
+    }
+
+    public CompletableFuture<Double> zscore(final String key, final String member) {
+        return submit(b -> b.zscore(key, member));
+    }
+
+    /**
+     * Submit the command that is appended to the flushing batch, the commands
+     * are rejected (completed exceptionally) when closed or too many pending.
+     *
+     * @param command
+     *            Append the command to batch, e.g: {@code b -> b.get(key)}
+     * @return
+     */
+    public <T> CompletableFuture<T> submit(final Function<JedisBatch, CompletableFuture<T>> command) {
+        AsyncCommand<T> cmd = new AsyncCommand<>(notNullOf(command, "command"));
+        if (closed) {
+            cmd.future.completeExceptionally(new JedisException("Async jedis client has been closed"));
+        } else if (!queue.offer(cmd)) {
+            cmd.future.completeExceptionally(
+                    new JedisException("Too many pending async commands, maxPending: " + config.getMaxPending()));
+        } else if (closed && queue.remove(cmd)) { // Closed concurrently
+            cmd.future.completeExceptionally(new JedisException("Async jedis client has been closed"));
+        }
+        return cmd.future;
+    }
+
+    /**
+     * Close the flusher after the queued commands have been flushed.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            flusher.join(config.getCloseTimeoutMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Not flushed in time.
+        List<AsyncCommand<?>> remains = new ArrayList<>(queue.size());
+        queue.drainTo(remains);
+        JedisException ex = new JedisException("Async jedis client has been closed");
+        remains.forEach(cmd -> cmd.future.completeExceptionally(ex));
+        // The submitted callbacks are still executed.
+        callbackExecutor.shutdown();
+    }
+
+    private void flushLoop() {
+        List<AsyncCommand<?>> commands = new ArrayList<>(config.getMaxBatchSize());
+        while (!closed || !queue.isEmpty()) {
+            try {
+                AsyncCommand<?> first = queue.poll(DEFAULT_POLL_MS, MILLISECONDS);
+                if (isNull(first)) {
+                    continue;
+                }
+                commands.add(first);
+                queue.drainTo(commands, config.getMaxBatchSize() - 1);
+                doFlush(commands);
+            } catch (InterruptedException e) {
+                log.warn("Async jedis flusher interrupted, exiting...");
+                break;
+            } catch (Throwable e) {
+                log.error("Failed to flush async jedis commands.", e);
+            } finally {
+                commands.clear();
+            }
+        }
+    }
+
+    /**
+     * Flush the commands as a {@link JedisBatch}.
+     *
+     * @param commands
+     */
+    private void doFlush(List<AsyncCommand<?>> commands) {
+        try {
+            JedisBatch batch = jedisClient.batch();
+            // The bad command (e.g. rejected key) is completed exceptionally
+            // on its own, without failing the others.
+            for (AsyncCommand<?> cmd : commands) {
+                cmd.appendTo(batch);
+            }
+            batch.sync();
+        } catch (Throwable e) {
+            // e.g. failed to get the pipeline connections.
+            commands.forEach(cmd -> cmd.future.completeExceptionally(e));
+        }
+        log.debug("Flushed {} async jedis commands", commands.size());
+    }
+
+    /**
+     * Queued async command wrapper.
+     */
+    private static final class AsyncCommand<T> {
+        private final Function<JedisBatch, CompletableFuture<T>> command;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        AsyncCommand(Function<JedisBatch, CompletableFuture<T>> command) {
+            this.command = command;
+        }
+
+        void appendTo(JedisBatch batch) {
+            try {
+                command.apply(batch).whenComplete((result, ex) -> {
+                    if (isNull(ex)) {
+                        future.complete(result);
+                    } else {
+                        future.completeExceptionally(ex);
+                    }
+                });
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * {@link AsyncJedisClient} properties.
+     */
+    public static class AsyncProperties implements Serializable {
+        private static final long serialVersionUID = 3573614392720137861L;
+
+        /** Whether to enable the async jedis client. */
+        private boolean enabled = false;
+
+        /** Maximum number of commands per flushing batch. */
+        private int maxBatchSize = 512;
+
+        /** Maximum number of queued commands, the overflows are rejected. */
+        private int maxPending = 65536;
+
+        /** Maximum wait(ms) for the queued commands to be flushed on close. */
+        private long closeTimeoutMs = 10_000L;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            isTrue(maxBatchSize > 0, "maxBatchSize must > 0");
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public int getMaxPending() {
+            return maxPending;
+        }
+
+        public void setMaxPending(int maxPending) {
+            isTrue(maxPending > 0, "maxPending must > 0");
+            this.maxPending = maxPending;
+        }
+
+        public long getCloseTimeoutMs() {
+            return closeTimeoutMs;
+        }
+
+        public void setCloseTimeoutMs(long closeTimeoutMs) {
+            isTrue(closeTimeoutMs >= 0, "closeTimeoutMs must >= 0");
+            this.closeTimeoutMs = closeTimeoutMs;
+        }
+    }
+
+    private static final long DEFAULT_POLL_MS = 100L;
+    private static final AtomicInteger COUNTER = new AtomicInteger(0);
+
+}
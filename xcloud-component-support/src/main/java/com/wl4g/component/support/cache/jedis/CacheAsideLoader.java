@@ -0,0 +1,230 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis;
+
+import static com.wl4g.component.common.lang.Assert2.hasTextOf;
+import static com.wl4g.component.common.lang.Assert2.isTrue;
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
+import static com.wl4g.component.support.cache.jedis.JedisService.getBytesKey;
+import static java.lang.System.currentTimeMillis;
+import static java.util.Collections.singletonList;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import com.wl4g.component.common.log.SmartLogger;
+
+import redis.clients.jedis.params.SetParams;
+
+/**
+ * Single-flight cache-aside loader of {@link JedisService#getOrLoad}. </br>
+ *
+ * <p>
+ * On cache miss, the concurrent loads of the same key are coalesced in
+ * process (only one thread runs the loader and the others wait for its
+ * result), and optionally across processes by a short redis mutex (the
+ * others poll the value until the mutex expired). Before expiry the value is
+ * refreshed early by one caller with the probability that grows as the
+ * expiry approaches (XFetch: now - delta * beta * ln(rand()) &gt;= expiry,
+ * where delta is the last loading time), so the hot keys are usually
+ * refreshed before they expire.
+ * </p>
+ *
+ * The values are stored as: [magic(2 bytes)][expireAt(8 bytes)][delta(4
+ * bytes)][encoded value], so they must be only read and written by
+ * {@link JedisService#getOrLoad}, not by getObject/setObject. The values
+ * without the magic (e.g. written by setObject) are treated as cache miss,
+ * and overwritten by the loaded.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-27 v1.0.0
+ * @see
+ */
+class CacheAsideLoader {
+    protected final SmartLogger log = getLogger(getClass());
+
+    private final JedisService jedisService;
+
+    /** In-flight loadings of keys. */
+    private final Map<String, CompletableFuture<Object>> loadings = new ConcurrentHashMap<>(64);
+
+    CacheAsideLoader(JedisService jedisService) {
+        this.jedisService = notNullOf(jedisService, "jedisService");
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T getOrLoad(String key, long ttlMs, long mutexMs, Supplier<T> loader) {
+        hasTextOf(key, "key");
+        isTrue(ttlMs > 0, "ttlMs must > 0");
+        notNullOf(loader, "loader");
+        CachedEntry cached = doGetCached(key);
+        if (nonNull(cached) && !cached.shouldRefresh()) {
+            return (T) cached.value;
+        }
+
+        CompletableFuture<Object> loading = new CompletableFuture<>();
+        CompletableFuture<Object> existing = loadings.putIfAbsent(key, loading);
+        if (nonNull(existing)) {
+            // Being refreshed by other thread, the cached is still valid.
+            if (nonNull(cached)) {
+                return (T) cached.value;
+            }
+            return (T) waitFor(existing);
+        }
+        try {
+            Object value = doLoad(key, ttlMs, mutexMs, loader, cached);
+            loading.complete(value);
+            return (T) value;
+        } catch (Throwable e) {
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadings.remove(key, loading);
+        }
+    }
+
+    /**
+     * Do load value with the redis mutex if enabled.
+     */
+    private Object doLoad(String key, long ttlMs, long mutexMs, Supplier<?> loader, CachedEntry cached) {
+        if (mutexMs <= 0) {
+            return doLoadAndSet(key, ttlMs, loader);
+        }
+        String mutexKey = key.concat(MUTEX_SUFFIX);
+        String token = UUID.randomUUID().toString();
+        JedisClient client = jedisService.getJedisClient();
+        if (isNull(client.set(mutexKey, token, SetParams.setParams().nx().px(mutexMs)))) {
+            // Being loaded by other process.
+            if (nonNull(cached)) {
+                return cached.value;
+            }
+            long deadline = currentTimeMillis() + mutexMs;
+            while (currentTimeMillis() < deadline) {
+                sleep(Math.min(DEFAULT_POLL_MS, mutexMs));
+                CachedEntry loaded = doGetCached(key);
+                if (nonNull(loaded)) {
+                    return loaded.value;
+                }
+            }
+            log.warn("Timeout waiting for the loading of other process, load directly. key: {}", key);
+            return doLoadAndSet(key, ttlMs, loader);
+        }
+        try {
+            return doLoadAndSet(key, ttlMs, loader);
+        } finally {
+            client.eval(RELEASE_MUTEX_LUA, singletonList(mutexKey), singletonList(token));
+        }
+    }
+
+    private Object doLoadAndSet(String key, long ttlMs, Supplier<?> loader) {
+        long begin = currentTimeMillis();
+        Object value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException e) {
+            // Not the failure of redis.
+            log.warn(String.format("Failed to load the value of key: %s", key), e);
+            throw e;
+        }
+        long now = currentTimeMillis();
+        if (nonNull(value)) {
+            byte[] encoded = jedisService.encodeValue(value);
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + encoded.length);
+            buffer.putShort(MAGIC).putLong(now + ttlMs).putInt((int) Math.min(now - begin, Integer.MAX_VALUE)).put(encoded);
+            jedisService.getJedisClient().psetex(getBytesKey(key), ttlMs, buffer.array());
+            jedisService.invalidateNearCache(key);
+        }
+        log.debug("getOrLoad loaded {} = {}, cost: {}ms", key, value, (now - begin));
+        return value;
+    }
+
+    private CachedEntry doGetCached(String key) {
+        byte[] bytes = jedisService.getJedisClient().get(getBytesKey(key));
+        if (isNull(bytes) || bytes.length <= HEADER_LENGTH) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getShort() != MAGIC) {
+            log.warn("Ignored the cached value of key: {}, which is not written by getOrLoad", key);
+            return null;
+        }
+        long expireAt = buffer.getLong();
+        int delta = buffer.getInt();
+        byte[] encoded = new byte[bytes.length - HEADER_LENGTH];
+        buffer.get(encoded);
+        return new CachedEntry(jedisService.decodeValue(encoded), expireAt, delta);
+    }
+
+    private static Object waitFor(CompletableFuture<Object> loading) {
+        try {
+            return loading.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the loading", e);
+        }
+    }
+
+    /**
+     * Cached value with the metadata of early refresh.
+     */
+    private static final class CachedEntry {
+        private final Object value;
+        private final long expireAt;
+        private final int delta;
+
+        CachedEntry(Object value, long expireAt, int delta) {
+            this.value = value;
+            this.expireAt = expireAt;
+            this.delta = delta;
+        }
+
+        /**
+         * XFetch: now - delta * beta * ln(rand()) &gt;= expiry
+         */
+        boolean shouldRefresh() {
+            double rand = 1.0d - ThreadLocalRandom.current().nextDouble(); // (0, 1]
+            return currentTimeMillis() - Math.max(delta, 1) * DEFAULT_BETA * Math.log(rand) >= expireAt;
+        }
+    }
+
+    private static final short MAGIC = (short) 0xCA5E;
+    private static final int HEADER_LENGTH = 14;
+    private static final double DEFAULT_BETA = 1.0d;
+    private static final long DEFAULT_POLL_MS = 50L;
+    private static final String MUTEX_SUFFIX = ":__loading";
+    private static final String RELEASE_MUTEX_LUA = "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end";
+
+}
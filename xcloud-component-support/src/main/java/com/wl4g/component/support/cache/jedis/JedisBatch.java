@@ -0,0 +1,360 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis;
+
+import static com.wl4g.component.common.lang.Assert2.isTrue;
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static java.util.Objects.isNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import com.wl4g.component.support.cache.jedis.util.RedisSpecUtil;
+
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisRedirectionException;
+import redis.clients.jedis.params.SetParams;
+import redis.clients.jedis.util.JedisClusterCRC16;
+import redis.clients.jedis.util.SafeEncoder;
+
+/**
+ * Pipelined batch operations of {@link JedisClient}. </br>
+ *
+ * <p>
+ * The commands are collected and returned as typed futures, and flushed as
+ * pipelines on {@link #sync()}: directly in single mode, and one pipeline per
+ * node in cluster mode. The futures are completed after synchronized.
+ * </p>
+ *
+ * <font color=red>Note: the batch is not thread-safe, it should be used by a
+ * single thread.</font>
+ *
+ * <pre>
+ * JedisBatch batch = jedisClient.batch();
+ * CompletableFuture&lt;String&gt; v1 = batch.get("foo1");
+ * batch.setex("foo2", 60, "bar2");
+ * batch.sync();
+ * System.out.println(v1.join());
+ * </pre>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-14 v1.0.0
+ * @see
+ */
+public abstract class JedisBatch {
+
+    /** {@link JedisClient} used as the fallback of redirected commands. */
+    protected final JedisClient jedisClient;
+
+    /** Safety mode, validating storage key. */
+    protected final boolean safeMode;
+
+    /** Collected batch operations. */
+    private final List<BatchOperation<?>> operations = new ArrayList<>(16);
+
+    protected JedisBatch(JedisClient jedisClient, boolean safeMode) {
+        this.jedisClient = notNullOf(jedisClient, "jedisClient");
+        this.safeMode = safeMode;
+    }
+
+    // --- Basic ---
+
+    public CompletableFuture<String> get(final String key) {
+        return append(key, p -> p.get(key), c -> c.get(key));
+    }
+
+    public CompletableFuture<byte[]> get(final byte[] key) {
+        return append(key, p -> p.get(key), c -> c.get(key));
+    }
+
+    public CompletableFuture<String> set(final String key, final String value) {
+        return append(key, p -> p.set(key, value), c -> c.set(key, value));
+    }
+
+    public CompletableFuture<String> set(final String key, final String value, final SetParams params) {
+        return append(key, p -> p.set(key, value, params), c -> c.set(key, value, params));
+    }
+
+    public CompletableFuture<String> set(final byte[] key, final byte[] value) {
+        return append(key, p -> p.set(key, value), c -> c.set(key, value));
+    }
+
+    public CompletableFuture<String> set(final byte[] key, final byte[] value, final SetParams params) {
+        return append(key, p -> p.set(key, value, params), c -> c.set(key, value, params));
+    }
+
+    public CompletableFuture<String> setex(final String key, final long seconds, final String value) {
+        return append(key, p -> p.setex(key, seconds, value), c -> c.setex(key, seconds, value));
+    }
+
+    public CompletableFuture<String> setex(final byte[] key, final long seconds, final byte[] value) {
+        return append(key, p -> p.setex(key, seconds, value), c -> c.setex(key, seconds, value));
+    }
+
+    public CompletableFuture<String> psetex(final String key, final long milliseconds, final String value) {
+        return append(key, p -> p.psetex(key, milliseconds, value), c -> c.psetex(key, milliseconds, value));
+    }
+
+    public CompletableFuture<Long> del(final String key) {
+        return append(key, p -> p.del(key), c -> c.del(key));
+    }
+
+    public CompletableFuture<Long> del(final byte[] key) {
+        return append(key, p -> p.del(key), c -> c.del(key));
+    }
+
+    public CompletableFuture<Boolean> exists(final String key) {
+        return append(key, p -> p.exists(key), c -> c.exists(key));
+    }
+
+    public CompletableFuture<Long> expire(final String key, final long seconds) {
+        return append(key, p -> p.expire(key, seconds), c -> c.expire(key, seconds));
+    }
+
+    public CompletableFuture<Long> pexpire(final String key, final long milliseconds) {
+        return append(key, p -> p.pexpire(key, milliseconds), c -> c.pexpire(key, milliseconds));
+    }
+
+    public CompletableFuture<Long> pexpire(final byte[] key, final long milliseconds) {
+        return append(key, p -> p.pexpire(key, milliseconds), c -> c.pexpire(key, milliseconds));
+    }
+
+    public CompletableFuture<Long> pttl(final String key) {
+        return append(key, p -> p.pttl(key), c -> c.pttl(key));
+    }
+
+    public CompletableFuture<Long> incrBy(final String key, final long increment) {
+        return append(key, p -> p.incrBy(key, increment), c -> c.incrBy(key, increment));
+    }
+
+    // --- Hash ---
+
+    public CompletableFuture<String> hget(final String key, final String field) {
+        return append(key, p -> p.hget(key, field), c -> c.hget(key, field));
+    }
+
+    public CompletableFuture<Long> hset(final String key, final String field, final String value) {
+        return append(key, p -> p.hset(key, field, value), c -> c.hset(key, field, value));
+    }
+
+    public CompletableFuture<String> hmset(final String key, final Map<String, String> hash) {
+        return append(key, p -> p.hmset(key, hash), c -> c.hmset(key, hash));
+    }
+
+    public CompletableFuture<Map<String, String>> hgetAll(final String key) {
+        return append(key, p -> p.hgetAll(key), c -> c.hgetAll(key));
+    }
+
+    public CompletableFuture<Long> hdel(final String key, final String... fields) {
+        return append(key, p -> p.hdel(key, fields), c -> c.hdel(key, fields));
+    }
+
+    // --- List ---
+
+    public CompletableFuture<Long> rpush(final String key, final String... values) {
+        return append(key, p -> p.rpush(key, values), c -> c.rpush(key, values));
+    }
+
+    public CompletableFuture<List<String>> lrange(final String key, final long start, final long stop) {
+        return append(key, p -> p.lrange(key, start, stop), c -> c.lrange(key, start, stop));
+    }
+
+    // --- Set ---
+
+    public CompletableFuture<Long> sadd(final String key, final String... members) {
+        return append(key, p -> p.sadd(key, members), c -> c.sadd(key, members));
+    }
+
+    public CompletableFuture<Long> srem(final String key, final String... members) {
+        return append(key, p -> p.srem(key, members), c -> c.srem(key, members));
+    }
+
+    public CompletableFuture<Set<String>> smembers(final String key) {
+        return append(key, p -> p.smembers(key), c -> c.smembers(key));
+    }
+
+    // --- Sorted set ---
+
+    public CompletableFuture<Long> zadd(final String key, final double score, final String member) {
+        return append(key, p -> p.zadd(key, score, member), c -> c.zadd(key, score, member));
+    }
+
+    public CompletableFuture<Double> zscore(final String key, final String member) {
+        return append(key, p -> p.zscore(key, member), c -> c.zscore(key, member));
+    }
+
+    // --- Pub/Sub ---
+
+    /**
+     * Publish the message, the channel is not a key, so it's not checked in
+     * safe mode, and the messages of the same channel are pipelined to the
+     * same node in cluster mode.
+     *
+     * @param channel
+     * @param message
+     * @return
+     */
+    public CompletableFuture<Long> publish(final String channel, final String message) {
+        return append(new BatchOperation<>(JedisClusterCRC16.getSlot(channel), p -> p.publish(channel, message),
+                c -> c.publish(channel, message)));
+    }
+
+    // --- Scripting ---
+
+    /**
+     * Evaluate the script, the keys must be in the same slot (e.g. with the
+     * same hash tag).
+     *
+     * @param script
+     * @param keys
+     * @param args
+     * @return
+     */
+    public CompletableFuture<Object> eval(final String script, final List<String> keys, final List<String> args) {
+        isTrue(!isNull(keys) && !keys.isEmpty(), "The keys of script must not be empty");
+        if (safeMode) {
+            RedisSpecUtil.safeCheckKeys(keys);
+        }
+        return append(new BatchOperation<>(JedisClusterCRC16.getSlot(keys.get(0)), p -> p.eval(script, keys, args),
+                c -> c.eval(script, keys, args)));
+    }
+
+    /**
+     * Gets the number of collected (not yet synchronized) operations.
+     *
+     * @return
+     */
+    public int size() {
+        return operations.size();
+    }
+
+    /**
+     * Flush all collected operations as pipelines, and complete the futures.
+     */
+    public void sync() {
+        if (operations.isEmpty()) {
+            return;
+        }
+        List<BatchOperation<?>> ops = new ArrayList<>(operations);
+        operations.clear();
+        doSync(ops);
+    }
+
+    /**
+     * Do flush the operations as pipelines, implementations must complete all
+     * the operations through {@link BatchOperation#complete(JedisClient)},
+     * {@link BatchOperation#completeDirect(JedisClient)} or
+     * {@link BatchOperation#completeExceptionally(Throwable)}
+     *
+     * @param operations
+     */
+    protected abstract void doSync(List<BatchOperation<?>> operations);
+
+    protected <T> CompletableFuture<T> append(final String key, final Function<Pipeline, Response<T>> pipelined,
+            final Function<JedisClient, T> direct) {
+        if (safeMode) {
+            RedisSpecUtil.safeCheckKey(key);
+        }
+        return append(new BatchOperation<>(JedisClusterCRC16.getSlot(key), pipelined, direct));
+    }
+
+    protected <T> CompletableFuture<T> append(final byte[] key, final Function<Pipeline, Response<T>> pipelined,
+            final Function<JedisClient, T> direct) {
+        if (safeMode) { // The binary key is checked as string (UTF-8).
+            RedisSpecUtil.safeCheckKey(SafeEncoder.encode(key));
+        }
+        return append(new BatchOperation<>(JedisClusterCRC16.getSlot(key), pipelined, direct));
+    }
+
+    private <T> CompletableFuture<T> append(final BatchOperation<T> operation) {
+        operations.add(operation);
+        return operation.future;
+    }
+
+    /**
+     * Batch operation(command) wrapper.
+     */
+    public static final class BatchOperation<T> {
+        private final int slot;
+        private final Function<Pipeline, Response<T>> pipelined;
+        private final Function<JedisClient, T> direct;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private Response<T> response;
+
+        BatchOperation(int slot, Function<Pipeline, Response<T>> pipelined, Function<JedisClient, T> direct) {
+            this.slot = slot;
+            this.pipelined = pipelined;
+            this.direct = direct;
+        }
+
+        /**
+         * The cluster slot of the operation key.
+         *
+         * @return
+         */
+        public int getSlot() {
+            return slot;
+        }
+
+        /**
+         * Append the command to the pipeline.
+         *
+         * @param pipeline
+         */
+        public void appendTo(Pipeline pipeline) {
+            this.response = pipelined.apply(pipeline);
+        }
+
+        /**
+         * Complete with the pipelined response(must be synchronized), the
+         * command is re-executed directly when redirected(MOVED/ASK).
+         *
+         * @param client
+         */
+        public void complete(JedisClient client) {
+            try {
+                future.complete(response.get());
+            } catch (JedisRedirectionException e) {
+                completeDirect(client);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Complete with executed the command directly.
+         *
+         * @param client
+         */
+        public void completeDirect(JedisClient client) {
+            try {
+                future.complete(direct.apply(client));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        public void completeExceptionally(Throwable ex) {
+            future.completeExceptionally(ex);
+        }
+    }
+
+}
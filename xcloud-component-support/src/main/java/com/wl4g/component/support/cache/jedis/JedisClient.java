@@ -99,6 +99,15 @@ public interface JedisClient extends Closeable {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Create a pipelined batch operations, see: {@link JedisBatch}
+     * 
+     * @return
+     */
+    default JedisBatch batch() {
+        throw new UnsupportedOperationException();
+    }
+
     default AccessControlUser aclGetUser(byte[] name) {
         throw new UnsupportedOperationException();
     }
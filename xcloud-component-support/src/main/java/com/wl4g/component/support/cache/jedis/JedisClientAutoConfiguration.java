@@ -17,6 +17,8 @@ package com.wl4g.component.support.cache.jedis;
 
 import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
 import static com.wl4g.component.common.serialize.JacksonUtils.toJSONString;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static com.wl4g.component.support.constant.SupportConstant.KEY_SUPPORT_JEDIS_PREFIX;
 
 import java.io.Serializable;
@@ -31,9 +33,23 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 
 import com.wl4g.component.common.log.SmartLogger;
+import com.wl4g.component.support.cache.jedis.AsyncJedisClient.AsyncProperties;
+import com.wl4g.component.support.cache.jedis.cluster.ClusterReadRouter.ReadRoutingProperties;
+import com.wl4g.component.support.cache.jedis.metrics.JedisCommandHook;
+import com.wl4g.component.support.cache.jedis.metrics.JedisCommandMetrics;
+import com.wl4g.component.support.cache.jedis.metrics.JedisCommandMetrics.MetricsProperties;
+import com.wl4g.component.support.cache.jedis.near.NearCache;
+import com.wl4g.component.support.cache.jedis.near.NearCache.NearCacheProperties;
+import com.wl4g.component.support.cache.jedis.near.RedisNearCacheInvalidator;
+import com.wl4g.component.support.cache.jedis.serialize.JedisValueCodec;
+import com.wl4g.component.support.cache.jedis.serialize.JedisValueCodec.BuiltinSerializer;
+import com.wl4g.component.support.cache.jedis.serialize.JedisValueSerializer;
+import com.wl4g.component.support.cache.jedis.spring.JedisTwoLevelCacheManager;
+import com.wl4g.component.support.cache.jedis.spring.JedisTwoLevelCacheManager.TwoLevelCacheProperties;
 
 import static redis.clients.jedis.HostAndPort.parseString;
 import redis.clients.jedis.HostAndPort;
@@ -64,17 +80,61 @@ public class JedisClientAutoConfiguration {
 		return new JedisProperties();
 	}
 
+	// Optional
+	@Bean
+	@ConditionalOnProperty(name = KEY_SUPPORT_JEDIS_PREFIX + ".metrics.enabled", havingValue = "true")
+	public JedisCommandMetrics jedisCommandMetrics(@Autowired(required = false) JedisProperties config) {
+		return new JedisCommandMetrics(nonNull(config) ? config.getMetrics() : new MetricsProperties());
+	}
+
 	// Requires
 	@Bean
 	public JedisClientFactoryBean jedisClientFactoryBean(@Autowired(required = false) JedisProperties config,
-			@Autowired(required = false) JedisCluster jedisCluster, @Autowired(required = false) JedisPool jedisPool) {
-		return new JedisClientFactoryBean(config, jedisCluster, jedisPool);
+			@Autowired(required = false) JedisCluster jedisCluster, @Autowired(required = false) JedisPool jedisPool,
+			@Autowired(required = false) JedisCommandHook commandHook) {
+		JedisClientFactoryBean factory = new JedisClientFactoryBean(config, jedisCluster, jedisPool);
+		factory.setCommandHook(commandHook);
+		return factory;
+	}
+
+	// Optional
+	@Bean
+	@ConditionalOnProperty(name = KEY_SUPPORT_JEDIS_PREFIX + ".near-cache.enabled", havingValue = "true")
+	public NearCache jedisNearCache(@Autowired(required = false) JedisProperties config, JedisClientFactoryBean factory)
+			throws Exception {
+		NearCacheProperties nearCacheConfig = nonNull(config) ? config.getNearCache() : new NearCacheProperties();
+		return new NearCache(nearCacheConfig, new RedisNearCacheInvalidator(factory.getObject(), nearCacheConfig.getChannel()));
+	}
+
+	// Optional
+	@Bean
+	@ConditionalOnProperty(name = KEY_SUPPORT_JEDIS_PREFIX + ".async.enabled", havingValue = "true")
+	public AsyncJedisClient asyncJedisClient(@Autowired(required = false) JedisProperties config, JedisClientFactoryBean factory)
+			throws Exception {
+		return new AsyncJedisClient(factory.getObject(), nonNull(config) ? config.getAsync() : new AsyncProperties());
 	}
 
 	// Requires
 	@Bean(BEAN_NAME_REDIS)
-	public JedisService jedisService(JedisClientFactoryBean factory) throws Exception {
-		return new JedisService(factory.getObject());
+	public JedisService jedisService(@Autowired(required = false) JedisProperties config, JedisClientFactoryBean factory,
+			@Autowired(required = false) NearCache nearCache, @Autowired(required = false) JedisValueSerializer valueSerializer,
+			@Autowired(required = false) AsyncJedisClient asyncClient) throws Exception {
+		JedisProperties jedisConfig = nonNull(config) ? config : new JedisProperties();
+		if (isNull(valueSerializer)) {
+			valueSerializer = jedisConfig.getValueSerializer().getSerializer();
+		}
+		JedisValueCodec valueCodec = new JedisValueCodec(valueSerializer, jedisConfig.getValueCompressThreshold());
+		return new JedisService(factory.getObject(), nearCache, valueCodec, asyncClient);
+	}
+
+	// Optional
+	@Bean
+	@ConditionalOnProperty(name = KEY_SUPPORT_JEDIS_PREFIX + ".cache.enabled", havingValue = "true")
+	@ConditionalOnMissingBean(CacheManager.class)
+	public JedisTwoLevelCacheManager jedisTwoLevelCacheManager(@Autowired(required = false) JedisProperties config,
+			JedisClientFactoryBean factory, JedisService jedisService) throws Exception {
+		TwoLevelCacheProperties cacheConfig = nonNull(config) ? config.getCache() : new TwoLevelCacheProperties();
+		return new JedisTwoLevelCacheManager(factory.getObject(), cacheConfig, jedisService.getValueCodec());
 	}
 
 	/**
@@ -99,6 +159,40 @@ public class JedisClientAutoConfiguration {
 
 		private JedisPoolConfig poolConfig = new JedisPoolConfig();
 		private boolean safeMode = true;
+		private NearCacheProperties nearCache = new NearCacheProperties();
+
+		/**
+		 * The serializer of object values, the values of all built-in formats
+		 * are readable, so it can be switched by rolling deployment.
+		 */
+		private BuiltinSerializer valueSerializer = BuiltinSerializer.JDK;
+
+		/**
+		 * The minimum serialized length of object values to compress (snappy),
+		 * disabled if <= 0
+		 */
+		private int valueCompressThreshold = 0;
+
+		/**
+		 * The latency, redirections and hot keys metrics of cluster commands.
+		 */
+		private MetricsProperties metrics = new MetricsProperties();
+
+		/**
+		 * The async (automatic pipelining) client of jedis service.
+		 */
+		private AsyncProperties async = new AsyncProperties();
+
+		/**
+		 * The two-level (local and redis) spring cache manager.
+		 */
+		private TwoLevelCacheProperties cache = new TwoLevelCacheProperties();
+
+		/**
+		 * The read routing (e.g: read from replicas) of cluster read-only
+		 * commands.
+		 */
+		private ReadRoutingProperties readRouting = new ReadRoutingProperties();
 
 		public JedisProperties() {
 			// Default settings.
@@ -184,6 +278,62 @@ public class JedisClientAutoConfiguration {
 			this.safeMode = safeMode;
 		}
 
+		public NearCacheProperties getNearCache() {
+			return nearCache;
+		}
+
+		public void setNearCache(NearCacheProperties nearCache) {
+			this.nearCache = nearCache;
+		}
+
+		public BuiltinSerializer getValueSerializer() {
+			return valueSerializer;
+		}
+
+		public void setValueSerializer(BuiltinSerializer valueSerializer) {
+			this.valueSerializer = valueSerializer;
+		}
+
+		public int getValueCompressThreshold() {
+			return valueCompressThreshold;
+		}
+
+		public void setValueCompressThreshold(int valueCompressThreshold) {
+			this.valueCompressThreshold = valueCompressThreshold;
+		}
+
+		public MetricsProperties getMetrics() {
+			return metrics;
+		}
+
+		public void setMetrics(MetricsProperties metrics) {
+			this.metrics = metrics;
+		}
+
+		public AsyncProperties getAsync() {
+			return async;
+		}
+
+		public void setAsync(AsyncProperties async) {
+			this.async = async;
+		}
+
+		public TwoLevelCacheProperties getCache() {
+			return cache;
+		}
+
+		public void setCache(TwoLevelCacheProperties cache) {
+			this.cache = cache;
+		}
+
+		public ReadRoutingProperties getReadRouting() {
+			return readRouting;
+		}
+
+		public void setReadRouting(ReadRoutingProperties readRouting) {
+			this.readRouting = readRouting;
+		}
+
 		public final Set<HostAndPort> parseHostAndPort() throws Exception {
 			try {
 				Set<HostAndPort> haps = new HashSet<HostAndPort>();
@@ -35,6 +35,7 @@ import com.wl4g.component.common.log.SmartLogger;
 import com.wl4g.component.support.cache.jedis.JedisClientAutoConfiguration.JedisProperties;
 import com.wl4g.component.support.cache.jedis.cluster.ConfigurableJedisClusterJedisClient;
 import com.wl4g.component.support.cache.jedis.cluster.JedisClusterJedisClient;
+import com.wl4g.component.support.cache.jedis.metrics.JedisCommandHook;
 import com.wl4g.component.support.cache.jedis.single.SingleJedisClient;
 
 import redis.clients.jedis.HostAndPort;
@@ -67,6 +68,11 @@ public class JedisClientFactoryBean implements FactoryBean<JedisClient>, Initial
      */
     private JedisClient jedisClient;
 
+    /**
+     * {@link JedisCommandHook}
+     */
+    private JedisCommandHook commandHook;
+
     public JedisClientFactoryBean(@NotNull JedisCluster jedisCluster, @NotNull JedisPool jedisPool) {
         this.config = null;
         this.jedisCluster = notNullOf(jedisCluster, "jedisCluster");
@@ -86,6 +92,20 @@ public class JedisClientFactoryBean implements FactoryBean<JedisClient>, Initial
         this.jedisPool = jedisPool;
     }
 
+    public JedisCommandHook getCommandHook() {
+        return commandHook;
+    }
+
+    /**
+     * Sets the instrumentation hook of commands, only for the cluster client
+     * created via configuration.
+     * 
+     * @param commandHook
+     */
+    public void setCommandHook(@Nullable JedisCommandHook commandHook) {
+        this.commandHook = commandHook;
+    }
+
     @Override
     public JedisClient getObject() throws Exception {
         return jedisClient;
@@ -139,8 +159,12 @@ public class JedisClientFactoryBean implements FactoryBean<JedisClient>, Initial
         try {
             // Nodes size configuration is cluster?
             if (safeList(config.getNodes()).size() > 1) { // Cluster(Multi-nodes).
-                jedisClient = new ConfigurableJedisClusterJedisClient(nodes, config.getConnTimeout(), config.getSoTimeout(),
-                        config.getMaxAttempts(), config.getPasswd(), config.getPoolConfig(), config.isSafeMode());
+                ConfigurableJedisClusterJedisClient clusterClient = new ConfigurableJedisClusterJedisClient(nodes,
+                        config.getConnTimeout(), config.getSoTimeout(), config.getMaxAttempts(), config.getPasswd(),
+                        config.getPoolConfig(), config.isSafeMode());
+                clusterClient.setCommandHook(commandHook);
+                clusterClient.setReadRouting(config.getReadRouting());
+                jedisClient = clusterClient;
             } else { // Single
                 HostAndPort hap = nodes.iterator().next();
                 JedisPool pool = new JedisPool(config.getPoolConfig(), hap.getHost(), hap.getPort(), config.getConnTimeout(),
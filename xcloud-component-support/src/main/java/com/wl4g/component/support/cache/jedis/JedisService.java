@@ -16,20 +16,33 @@
 package com.wl4g.component.support.cache.jedis;
 
 import static com.wl4g.component.common.collection.CollectionUtils2.safeList;
+import static com.wl4g.component.common.crypto.digest.DigestUtils2.sha1Hex;
+import static com.wl4g.component.common.lang.Assert2.isTrue;
 import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static com.wl4g.component.common.lang.Assert2.state;
 import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
 import static com.wl4g.component.common.serialize.JacksonUtils.parseJSON;
 import static com.wl4g.component.common.serialize.JacksonUtils.toJSONString;
 import static com.wl4g.component.common.serialize.ProtostuffUtils.serialize;
+import static java.util.Collections.singletonList;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static java.util.stream.Collectors.toList;
 import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.startsWith;
 import static org.apache.commons.lang3.StringUtils.trimToEmpty;
 import static org.springframework.util.CollectionUtils.isEmpty;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
 
 import com.google.common.base.Charsets;
 import com.google.common.collect.Maps;
@@ -39,9 +52,18 @@ import com.wl4g.component.common.log.SmartLogger;
 import com.wl4g.component.common.serialize.JdkSerializeUtils;
 import com.wl4g.component.common.serialize.ProtostuffUtils;
 import com.wl4g.component.support.cache.jedis.ScanCursor.ClusterScanParams;
+import com.wl4g.component.support.cache.jedis.near.NearCache;
+import com.wl4g.component.support.cache.jedis.serialize.JedisValueCodec;
+
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
 
 /**
- * JEDIS adapter service template.
+ * JEDIS adapter service template. </br>
+ * 
+ * <font color=red>Note: the collection setters (e.g. setList, setMap) replace
+ * the existing collection instead of appending to it, and setMap/setObjectMap
+ * require redis 4.0 or later.</font>
  * 
  * @author Wangl.sir <wanglsir@gmail.com, 983708408@qq.com>
  * @version v1.0 2018年9月16日
@@ -55,23 +77,85 @@ public class JedisService {
      */
     protected final JedisClient jedisClient;
 
+    /**
+     * Optional {@link NearCache} of the reads of get, getObjectT,
+     * getObjectAsJson and getObject.
+     */
+    protected final NearCache nearCache;
+
+    /**
+     * {@link JedisValueCodec} of the object values of getObject/setObject,
+     * object set and object map.
+     */
+    protected final JedisValueCodec valueCodec;
+
+    /**
+     * Optional {@link AsyncJedisClient} of the async helpers, e.g:
+     * getAsync, setObjectAsync.
+     */
+    protected final AsyncJedisClient asyncClient;
+
+    /**
+     * {@link CacheAsideLoader} of getOrLoad.
+     */
+    private final CacheAsideLoader cacheAsideLoader = new CacheAsideLoader(this);
+
     public JedisService(JedisClient jedisClient) {
+        this(jedisClient, null);
+    }
+
+    public JedisService(JedisClient jedisClient, @Nullable NearCache nearCache) {
+        this(jedisClient, nearCache, null);
+    }
+
+    public JedisService(JedisClient jedisClient, @Nullable NearCache nearCache, @Nullable JedisValueCodec valueCodec) {
+        this(jedisClient, nearCache, valueCodec, null);
+    }
+
+    public JedisService(JedisClient jedisClient, @Nullable NearCache nearCache, @Nullable JedisValueCodec valueCodec,
+            @Nullable AsyncJedisClient asyncClient) {
         this.jedisClient = notNullOf(jedisClient, "jedisClient");
+        this.nearCache = nearCache;
+        this.valueCodec = isNull(valueCodec) ? JedisValueCodec.DEFAULT : valueCodec;
+        this.asyncClient = asyncClient;
+        if (nonNull(asyncClient)) {
+            isTrue(asyncClient.getJedisClient() == jedisClient, "The async client must be backed by the same jedis client");
+        }
     }
 
     public JedisClient getJedisClient() {
         return jedisClient;
     }
 
+    public NearCache getNearCache() {
+        return nearCache;
+    }
+
+    public JedisValueCodec getValueCodec() {
+        return valueCodec;
+    }
+
+    /**
+     * Gets the {@link AsyncJedisClient}
+     * 
+     * @return
+     * @throws IllegalStateException
+     *             If the async client is not enabled.
+     */
+    public AsyncJedisClient getAsyncClient() {
+        state(nonNull(asyncClient), "The async jedis client is not enabled");
+        return asyncClient;
+    }
+
     // --- Basic ---
 
     public String get(final String key) {
-        return doExecuteWithRedis(adapter -> {
+        return doGetWithNearCache(key, FORMAT_STRING, String.class, () -> doExecuteWithRedis(adapter -> {
             String value = adapter.get(key);
             value = !isBlank(value) && !"nil".equalsIgnoreCase(value) ? value : null;
             log.debug("get {} = {}", key, value);
             return value;
-        });
+        }));
     }
 
     public String set(final String key, final String value, final int cacheSeconds) {
@@ -82,6 +166,7 @@ public class JedisService {
             } else {
                 result = adapter.set(key, value);
             }
+            invalidateNearCache(key);
             log.debug("set {} = {} {}", key, value, cacheSeconds);
             return result;
         });
@@ -96,6 +181,7 @@ public class JedisService {
             } else {
                 result = adapter.set(key, value);
             }
+            invalidateNearCache(key);
             log.debug("set {} = {} {}", key, value, milliseconds);
             return result;
         });
@@ -111,6 +197,7 @@ public class JedisService {
     public Long del(final String key) {
         return doExecuteWithRedis(adapter -> {
             Long result = adapter.del(key);
+            invalidateNearCache(key);
             log.debug("del {}", key);
             return result;
         });
@@ -120,6 +207,7 @@ public class JedisService {
     public Long delObject(final String key) {
         return doExecuteWithRedis(adapter -> {
             long result = adapter.del(getBytesKey(key));
+            invalidateNearCache(key);
             log.debug("delObject {}", key);
             return result;
         });
@@ -128,6 +216,7 @@ public class JedisService {
     public Long expire(final String key, final long milliseconds) {
         return doExecuteWithRedis(adapter -> {
             long result = adapter.pexpire(key, milliseconds);
+            evictNearCache(key);
             log.debug("expire {} {}", key, milliseconds);
             return result;
         });
@@ -136,6 +225,7 @@ public class JedisService {
     public Long expire(final byte[] key, final long milliseconds) {
         return doExecuteWithRedis(adapter -> {
             long result = adapter.pexpire(key, milliseconds);
+            evictNearCache(StringUtils2.toString(key));
             log.debug("expire {} {}", key, milliseconds);
             return result;
         });
@@ -161,11 +251,11 @@ public class JedisService {
     // --- ObjectT ---
 
     public <T> T getObjectT(final String key, Class<T> clazz) {
-        return doExecuteWithRedis(adapter -> {
+        return doGetWithNearCache(key, FORMAT_PROTOSTUFF, clazz, () -> doExecuteWithRedis(adapter -> {
             T value = ProtostuffUtils.deserialize(adapter.get(getBytesKey(key)), clazz);
             log.debug("getObjectT {} = {}", key, value);
             return value;
-        });
+        }));
     }
 
     public <T> String setObjectT(final String key, final T value, final int cacheSeconds) {
@@ -174,10 +264,9 @@ public class JedisService {
             if (cacheSeconds > 0) {
                 result = adapter.setex(getBytesKey(key), cacheSeconds, serialize(value));
             } else {
-                byte[] serialize = serialize(value);
-                System.out.println(serialize.length);
-                result = adapter.set(getBytesKey(key), serialize);
+                result = adapter.set(getBytesKey(key), serialize(value));
             }
+            invalidateNearCache(key);
             log.debug("setObjectT {} = {}", key, value);
             return result;
         });
@@ -193,13 +282,14 @@ public class JedisService {
             } else {
                 result = adapter.set(key, toJSONString(value));
             }
+            invalidateNearCache(key);
             log.debug("setObjectAsJson {} = {}", key, value);
             return result;
         });
     }
 
     public <T> T getObjectAsJson(final String key, Class<T> clazz) {
-        return doExecuteWithRedis(adapter -> {
+        return doGetWithNearCache(key, FORMAT_JSON, clazz, () -> doExecuteWithRedis(adapter -> {
             String json = adapter.get(key);
             if (isBlank(json)) {
                 return null;
@@ -207,25 +297,28 @@ public class JedisService {
             T value = parseJSON(json, clazz);
             log.debug("getObjectAsJson {} = {}", key, value);
             return value;
-        });
+        }));
     }
 
     // --- get/set object ---
 
     public Object getObject(final String key) {
-        return doExecuteWithRedis(adapter -> {
-            Object value = toObject(adapter.get(getBytesKey(key)));
+        return doGetWithNearCache(key, FORMAT_OBJECT, Object.class, () -> doExecuteWithRedis(adapter -> {
+            Object value = decodeValue(adapter.get(getBytesKey(key)));
             log.debug("getObject {} = {}", key, value);
             return value;
-        });
+        }));
     }
 
     public String setObject(final String key, final Object value, final int cacheSeconds) {
         return doExecuteWithRedis(adapter -> {
-            String result = adapter.set(getBytesKey(key), toBytes(value));
-            if (cacheSeconds != 0) {
-                adapter.expire(key, cacheSeconds);
+            String result = null;
+            if (cacheSeconds > 0) {
+                result = adapter.setex(getBytesKey(key), cacheSeconds, encodeValue(value));
+            } else {
+                result = adapter.set(getBytesKey(key), encodeValue(value));
             }
+            invalidateNearCache(key);
             log.debug("setObject {} = {}", key, value);
             return result;
         });
@@ -241,12 +334,22 @@ public class JedisService {
         });
     }
 
+    /**
+     * Replace (not append to) the list cache atomically, the existing
+     * elements are removed. Use {@link #listAdd(String, String...)} to
+     * append.
+     * 
+     * @param key
+     * @param values
+     * @param cacheSeconds
+     *            Time-out, 0 is no time-out, the negative is ignored
+     * @return The length of list.
+     */
     public Long setList(final String key, final List<String> values, final int cacheSeconds) {
         return doExecuteWithRedis(adapter -> {
-            Long result = adapter.rpush(key, values.toArray(new String[] {}));
-            if (cacheSeconds > 0) {
-                adapter.expire(key, cacheSeconds);
-            }
+            List<byte[]> members = new ArrayList<>(safeList(values).size());
+            safeList(values).forEach(v -> members.add(getBytesKey(v)));
+            Long result = doReplaceCollection(adapter, CMD_RPUSH, key, members, Math.max(cacheSeconds, 0));
             log.debug("setList {} = {}", key, values);
             return result;
         });
@@ -286,16 +389,21 @@ public class JedisService {
         });
     }
 
+    /**
+     * Replace (not append to) the list cache (JSON elements) atomically, the
+     * existing elements are removed. Use {@link #listObjectAdd(String, Object...)}
+     * to append.
+     * 
+     * @param key
+     * @param values
+     * @param cacheSeconds
+     *            Time-out, 0 is no time-out, negative deletes the key
+     * @return The length of list.
+     */
     public <T> Long setObjectList(final String key, final List<T> values, final int cacheSeconds) {
         return doExecuteWithRedis(adapter -> {
-            Long result = 0L;
-            if (!isEmpty(values)) {
-                List<String> members = safeList(values).stream().map(v -> toJSONString(v)).collect(toList());
-                result = adapter.rpush(key, members.toArray(new String[] {}));
-            }
-            if (cacheSeconds != 0) {
-                adapter.expire(key, cacheSeconds);
-            }
+            List<byte[]> members = safeList(values).stream().map(v -> getBytesKey(toJSONString(v))).collect(toList());
+            Long result = doReplaceCollection(adapter, CMD_RPUSH, key, members, cacheSeconds);
             log.debug("setObjectList {} = {}", key, values);
             return result;
         });
@@ -328,18 +436,26 @@ public class JedisService {
 
     }
 
+    /**
+     * Replace (not add to) the set cache atomically, the existing members are
+     * removed. Use {@link #setSetAdd(String, String...)} to add.
+     * 
+     * @param key
+     * @param value
+     * @param cacheSeconds
+     *            Time-out, 0 is no time-out, negative deletes the key
+     * @return The number of members.
+     */
     public Long setSet(final String key, final Set<String> value, final int cacheSeconds) {
         return doExecuteWithRedis(adapter -> {
-            Long result = 0L;
-            if (value != null && !value.isEmpty())
-                result = adapter.sadd(key, value.toArray(new String[] {}));
-            if (cacheSeconds != 0)
-                adapter.expire(key, cacheSeconds);
-
+            List<byte[]> members = new ArrayList<>(isEmpty(value) ? 0 : value.size());
+            if (!isEmpty(value)) {
+                value.forEach(v -> members.add(getBytesKey(v)));
+            }
+            Long result = doReplaceCollection(adapter, CMD_SADD, key, members, cacheSeconds);
             log.debug("setSet {} = {}", key, value);
             return result;
         });
-
     }
 
     /**
@@ -384,7 +500,7 @@ public class JedisService {
             Set<T> value = Sets.newHashSet();
             Set<byte[]> set = adapter.smembers(getBytesKey(key));
             for (byte[] bs : set) {
-                value.add((T) toObject(bs));
+                value.add((T) decodeValue(bs));
             }
             log.debug("getObjectSet {} = {}", key, value);
             return value;
@@ -392,29 +508,22 @@ public class JedisService {
     }
 
     /**
-     * Set caching
+     * Replace (not add to) the set cache atomically, the existing members are
+     * removed. Use {@link #setSetObjectAdd(String, Object...)} to add.
      * 
      * @param key
      * @param value
      * @param cacheSeconds
-     *            Time-out, 0 is no time-out
-     * @return
+     *            Time-out, 0 is no time-out, negative deletes the key
+     * @return The number of members.
      */
     public Long setObjectSet(final String key, final Set<Object> value, final int cacheSeconds) {
         return doExecuteWithRedis(adapter -> {
-            Long result = 0L;
-            if (value != null && !value.isEmpty()) {
-                byte[][] members = new byte[value.size()][0];
-                int i = 0;
-                for (Object o : value) {
-                    members[i] = toBytes(o);
-                    ++i;
-                }
-                result = adapter.sadd(getBytesKey(key), members);
-            }
-            if (cacheSeconds != 0) {
-                adapter.expire(key, cacheSeconds);
+            List<byte[]> members = new ArrayList<>(isEmpty(value) ? 0 : value.size());
+            if (!isEmpty(value)) {
+                value.forEach(v -> members.add(encodeValue(v)));
             }
+            Long result = doReplaceCollection(adapter, CMD_SADD, key, members, cacheSeconds);
             log.debug("setObjectSet {} = {}", key, value);
             return result;
         });
@@ -434,7 +543,7 @@ public class JedisService {
                 byte[][] members = new byte[value.length][0];
                 int i = 0;
                 for (Object o : value) {
-                    members[i] = toBytes(o);
+                    members[i] = encodeValue(o);
                     ++i;
                 }
                 result = adapter.sadd(getBytesKey(key), members);
@@ -460,7 +569,7 @@ public class JedisService {
                 byte[][] members0 = new byte[members.length][0];
                 int i = 0;
                 for (Object o : members) {
-                    members0[i] = toBytes(o);
+                    members0[i] = encodeValue(o);
                     ++i;
                 }
                 result = adapter.srem(getBytesKey(key), members0);
@@ -488,22 +597,29 @@ public class JedisService {
     }
 
     /**
-     * Setting up Map Cache
+     * Replace (not put to) the Map cache atomically, the existing fields are
+     * removed. Use {@link #mapPut(String, Map)} to put. </br>
+     * <font color=red>Note: requires redis 4.0 or later (multi-field
+     * HSET).</font>
      * 
      * @param key
      * @param value
      * @param cacheSeconds
-     *            Time-out, 0 is no time-out
+     *            Time-out, 0 is no time-out, negative deletes the key
      * @return
      */
     public String setMap(final String key, final Map<String, String> value, final int cacheSeconds) {
         return doExecuteWithRedis(adapter -> {
-            String result = adapter.hmset(key, value);
-            if (cacheSeconds != 0) {
-                adapter.expire(key, cacheSeconds);
+            List<byte[]> fieldValues = new ArrayList<>(isEmpty(value) ? 0 : value.size() * 2);
+            if (!isEmpty(value)) {
+                value.forEach((k, v) -> {
+                    fieldValues.add(getBytesKey(k));
+                    fieldValues.add(getBytesKey(v));
+                });
             }
+            doReplaceCollection(adapter, CMD_HSET, key, fieldValues, cacheSeconds);
             log.debug("setMap {} = {}", key, value);
-            return result;
+            return STATUS_OK;
         });
     }
 
@@ -559,7 +675,7 @@ public class JedisService {
             Map<String, Object> value = Maps.newHashMap();
             Map<byte[], byte[]> map = adapter.hgetAll(getBytesKey(key));
             for (Map.Entry<byte[], byte[]> e : map.entrySet()) {
-                value.put(StringUtils2.toString(e.getKey()), toObject(e.getValue()));
+                value.put(StringUtils2.toString(e.getKey()), decodeValue(e.getValue()));
             }
             log.debug("getObjectMap {} = {}", key, value);
             return value;
@@ -567,26 +683,29 @@ public class JedisService {
     }
 
     /**
-     * Setting up Map Cache
+     * Replace (not put to) the Map cache atomically, the existing fields are
+     * removed. Use {@link #mapObjectPut(String, Map)} to put. </br>
+     * <font color=red>Note: requires redis 4.0 or later (multi-field
+     * HSET).</font>
      * 
      * @param key
      * @param value
      * @param cacheSeconds
-     *            Time-out, 0 is no time-out
+     *            Time-out, 0 is no time-out, negative deletes the key
      * @return
      */
     public String setObjectMap(final String key, final Map<String, Object> value, final int cacheSeconds) {
         return doExecuteWithRedis(adapter -> {
-            Map<byte[], byte[]> map = Maps.newHashMap();
-            for (Map.Entry<String, Object> e : value.entrySet()) {
-                map.put(getBytesKey(e.getKey()), toBytes(e.getValue()));
-            }
-            String result = adapter.hmset(getBytesKey(key), (Map<byte[], byte[]>) map);
-            if (cacheSeconds != 0) {
-                adapter.expire(key, cacheSeconds);
+            List<byte[]> fieldValues = new ArrayList<>(isEmpty(value) ? 0 : value.size() * 2);
+            if (!isEmpty(value)) {
+                value.forEach((k, v) -> {
+                    fieldValues.add(getBytesKey(k));
+                    fieldValues.add(encodeValue(v));
+                });
             }
+            doReplaceCollection(adapter, CMD_HSET, key, fieldValues, cacheSeconds);
             log.debug("setObjectMap {} = {}", key, value);
-            return result;
+            return STATUS_OK;
         });
     }
 
@@ -602,7 +721,7 @@ public class JedisService {
             String result = null;
             Map<byte[], byte[]> map = Maps.newHashMap();
             for (Map.Entry<String, Object> e : value.entrySet()) {
-                map.put(getBytesKey(e.getKey()), toBytes(e.getValue()));
+                map.put(getBytesKey(e.getKey()), encodeValue(e.getValue()));
             }
             result = adapter.hmset(getBytesKey(key), map);
             log.debug("mapObjectPut {} = {}", key, value);
@@ -627,6 +746,251 @@ public class JedisService {
         });
     }
 
+    // --- Batch ---
+
+    /**
+     * Create a pipelined batch operations, the collected commands are flushed
+     * on {@link JedisBatch#sync()}.
+     * 
+     * @return
+     */
+    public JedisBatch batch() {
+        return jedisClient.batch();
+    }
+
+    /**
+     * Collect the batch operations and flush them as pipelines, the returned
+     * futures of the batch operations are completed after this method returns.
+     * 
+     * @param collector
+     */
+    public void pipelined(final Consumer<JedisBatch> collector) {
+        doExecuteWithRedis(adapter -> {
+            JedisBatch batch = adapter.batch();
+            collector.accept(batch);
+            int size = batch.size();
+            batch.sync();
+            log.debug("pipelined {} operations", size);
+            return null;
+        });
+    }
+
+    // --- Cache-aside ---
+
+    /**
+     * Gets the cached object value, or load and cache it on cache miss, the
+     * concurrent loads of the same key in this process are coalesced, and the
+     * hot keys are refreshed early before expiry. The value is stored in the
+     * format of {@link CacheAsideLoader}, so the key must not be accessed by
+     * getObject/setObject.
+     * 
+     * @param key
+     * @param ttlMs
+     *            Expiration(ms) of the loaded value.
+     * @param loader
+     *            The null value is not cached.
+     * @return
+     * @see CacheAsideLoader
+     */
+    public <T> T getOrLoad(final String key, final long ttlMs, final Supplier<T> loader) {
+        return getOrLoad(key, ttlMs, 0L, loader);
+    }
+
+    /**
+     * Gets the cached object value, or load and cache it on cache miss, the
+     * concurrent loads of the same key are coalesced in this process, and
+     * across processes by the redis mutex of key.
+     * 
+     * @param key
+     * @param ttlMs
+     *            Expiration(ms) of the loaded value.
+     * @param mutexMs
+     *            Expiration(ms) of the loading mutex, i.e. the maximum
+     *            loading time, disabled if <= 0
+     * @param loader
+     *            The null value is not cached.
+     * @return
+     * @see CacheAsideLoader
+     */
+    public <T> T getOrLoad(final String key, final long ttlMs, final long mutexMs, final Supplier<T> loader) {
+        // The loader failures are logged by the loader.
+        try {
+            return cacheAsideLoader.getOrLoad(key, ttlMs, mutexMs, loader);
+        } catch (JedisException e) {
+            log.error("Redis processing fail.", e);
+            throw e;
+        }
+    }
+
+    // --- Async ---
+
+    public CompletableFuture<String> getAsync(final String key) {
+        return doGetWithNearCacheAsync(key, FORMAT_STRING, String.class, () -> getAsyncClient().get(key).thenApply(value -> {
+            value = !isBlank(value) && !"nil".equalsIgnoreCase(value) ? value : null;
+            log.debug("getAsync {} = {}", key, value);
+            return value;
+        }));
+    }
+
+    public CompletableFuture<String> setAsync(final String key, final String value, final long milliseconds) {
+        AsyncJedisClient async = getAsyncClient();
+        CompletableFuture<String> result = (milliseconds != 0) ? async.psetex(key, milliseconds, value) : async.set(key, value);
+        return doInvalidateNearCacheAsync(key, result).whenComplete((r, ex) -> {
+            log.debug("setAsync {} = {} {}", key, value, milliseconds);
+        });
+    }
+
+    public CompletableFuture<Long> delAsync(final String key) {
+        return doInvalidateNearCacheAsync(key, getAsyncClient().del(key)).whenComplete((r, ex) -> {
+            log.debug("delAsync {}", key);
+        });
+    }
+
+    public CompletableFuture<Boolean> existsAsync(final String key) {
+        return getAsyncClient().exists(key);
+    }
+
+    public CompletableFuture<Object> getObjectAsync(final String key) {
+        return doGetWithNearCacheAsync(key, FORMAT_OBJECT, Object.class,
+                () -> getAsyncClient().get(getBytesKey(key)).thenApply(bytes -> {
+                    Object value = decodeValue(bytes);
+                    log.debug("getObjectAsync {} = {}", key, value);
+                    return value;
+                }));
+    }
+
+    public CompletableFuture<String> setObjectAsync(final String key, final Object value, final int cacheSeconds) {
+        AsyncJedisClient async = getAsyncClient();
+        byte[] bytes = encodeValue(value);
+        CompletableFuture<String> result = (cacheSeconds > 0) ? async.setex(getBytesKey(key), cacheSeconds, bytes)
+                : async.set(getBytesKey(key), bytes);
+        return doInvalidateNearCacheAsync(key, result).whenComplete((r, ex) -> {
+            log.debug("setObjectAsync {} = {}", key, value);
+        });
+    }
+
+    public CompletableFuture<Long> delObjectAsync(final String key) {
+        return doInvalidateNearCacheAsync(key, getAsyncClient().del(getBytesKey(key))).whenComplete((r, ex) -> {
+            log.debug("delObjectAsync {}", key);
+        });
+    }
+
+    /**
+     * Replace the collection (list, set or hash) of key with the members and
+     * the expiration atomically in one round trip, the script is invoked by
+     * EVALSHA, and loaded by EVAL if it is not cached by redis (NOSCRIPT).
+     * 
+     * @param adapter
+     * @param command
+     *            The variadic write command, e.g: rpush, sadd, hset (the
+     *            multi-field HSET requires redis 4.0 or later)
+     * @param key
+     * @param members
+     *            The members, or the field-value pairs of hash.
+     * @param cacheSeconds
+     *            Time-out, 0 is no time-out, negative deletes the key
+     * @return The reply of rpush, or the sum of replies of sadd/hset.
+     */
+    private Long doReplaceCollection(JedisClient adapter, byte[] command, String key, List<byte[]> members,
+            int cacheSeconds) {
+        List<byte[]> args = new ArrayList<>(members.size() + 2);
+        args.add(command);
+        args.add(getBytesKey(String.valueOf(cacheSeconds * 1000L)));
+        args.addAll(members);
+        List<byte[]> keys = singletonList(getBytesKey(key));
+        try {
+            return (Long) adapter.evalsha(REPLACE_COLLECTION_SHA1, keys, args);
+        } catch (RuntimeException e) {
+            if (!isNoScript(e)) {
+                throw e;
+            }
+            return (Long) adapter.eval(REPLACE_COLLECTION_LUA, keys, args);
+        }
+    }
+
+    /**
+     * Check whether the script is not cached by redis, the exception may be
+     * wrapped by the jedis client.
+     * 
+     * @param e
+     * @return
+     */
+    private static boolean isNoScript(Throwable e) {
+        for (Throwable t = e; nonNull(t); t = (t.getCause() == t) ? null : t.getCause()) {
+            if (t instanceof JedisNoScriptException || startsWith(t.getMessage(), "NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Do get value with the near cache if enabled.
+     * 
+     * @param key
+     * @param format
+     * @param type
+     * @param loader
+     * @return
+     */
+    private <T> T doGetWithNearCache(String key, String format, Class<?> type, Supplier<T> loader) {
+        return isNull(nearCache) ? loader.get() : nearCache.getOrLoad(key, format, type, loader);
+    }
+
+    /**
+     * Do get value asynchronously with the near cache if enabled.
+     * 
+     * @param key
+     * @param format
+     * @param type
+     * @param loader
+     * @return
+     */
+    private <T> CompletableFuture<T> doGetWithNearCacheAsync(String key, String format, Class<?> type,
+            Supplier<CompletableFuture<T>> loader) {
+        return isNull(nearCache) ? loader.get() : nearCache.getOrLoadAsync(key, format, type, loader);
+    }
+
+    /**
+     * Invalidate the near cache of key if enabled, must be called after the
+     * value has been changed.
+     * 
+     * @param key
+     */
+    void invalidateNearCache(String key) {
+        if (nonNull(nearCache)) {
+            nearCache.invalidate(key);
+        }
+    }
+
+    /**
+     * Evict the near cache of key locally if enabled, must be called after the
+     * expiration has been changed.
+     * 
+     * @param key
+     */
+    void evictNearCache(String key) {
+        if (nonNull(nearCache)) {
+            nearCache.evict(key);
+        }
+    }
+
+    /**
+     * Invalidate the near cache of key after the async write completed, the
+     * invalidation publishing may block, so it's executed on the callback
+     * executor instead of the flusher thread of {@link AsyncJedisClient}.
+     * 
+     * @param key
+     * @param result
+     * @return The future completed after the invalidation.
+     */
+    private <T> CompletableFuture<T> doInvalidateNearCacheAsync(String key, CompletableFuture<T> result) {
+        if (isNull(nearCache)) {
+            return result;
+        }
+        return result.whenCompleteAsync((r, ex) -> invalidateNearCache(key), getAsyncClient().getCallbackExecutor());
+    }
+
     /**
      * Do execute with redis operations.
      * 
@@ -655,12 +1019,59 @@ public class JedisService {
         }
     }
 
+    /**
+     * Serialize the value as legacy JDK serialization.
+     *
+     * @param object
+     * @return
+     * @see #encodeValue(Object)
+     */
     public static byte[] toBytes(Object object) {
         return JdkSerializeUtils.serialize(object);
     }
 
+    /**
+     * Deserialize the value that is encoded by any known format of
+     * {@link JedisValueCodec} (including the legacy JDK serialization).
+     *
+     * @param bytes
+     * @return
+     * @see #decodeValue(byte[])
+     */
     public static Object toObject(byte[] bytes) {
-        return JdkSerializeUtils.unserialize(bytes);
+        return JedisValueCodec.DEFAULT.decode(bytes);
+    }
+
+    protected byte[] encodeValue(Object value) {
+        return valueCodec.encode(value);
+    }
+
+    protected Object decodeValue(byte[] bytes) {
+        return valueCodec.decode(bytes);
     }
 
+    /**
+     * The members are written in chunks, because the number of arguments of
+     * unpack() is limited by the lua stack. The negative time-out deletes
+     * the key, i.e. expired immediately.
+     */
+    private static final String REPLACE_COLLECTION_SCRIPT = "redis.call('del', KEYS[1]) local n = 0 "
+            + "for i = 3, #ARGV, 4000 do "
+            + "local res = redis.call(ARGV[1], KEYS[1], unpack(ARGV, i, math.min(i + 3999, #ARGV))) "
+            + "if ARGV[1] == 'rpush' then n = res else n = n + res end end "
+            + "local ttl = tonumber(ARGV[2]) if ttl > 0 then redis.call('pexpire', KEYS[1], ttl) "
+            + "elseif ttl < 0 then redis.call('del', KEYS[1]) end return n";
+    static final byte[] REPLACE_COLLECTION_LUA = getBytesKey(REPLACE_COLLECTION_SCRIPT);
+    static final byte[] REPLACE_COLLECTION_SHA1 = getBytesKey(sha1Hex(REPLACE_COLLECTION_SCRIPT));
+    private static final byte[] CMD_RPUSH = getBytesKey("rpush");
+    private static final byte[] CMD_SADD = getBytesKey("sadd");
+    private static final byte[] CMD_HSET = getBytesKey("hset");
+    private static final String STATUS_OK = "OK";
+
+    // Near cache value formats.
+    private static final String FORMAT_STRING = "string";
+    private static final String FORMAT_PROTOSTUFF = "protostuff";
+    private static final String FORMAT_JSON = "json";
+    private static final String FORMAT_OBJECT = "object";
+
 }
\ No newline at end of file
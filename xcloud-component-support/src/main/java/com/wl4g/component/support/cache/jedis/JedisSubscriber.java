@@ -0,0 +1,246 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis;
+
+import static com.wl4g.component.common.lang.Assert2.hasTextOf;
+import static com.wl4g.component.common.lang.Assert2.isTrue;
+import static com.wl4g.component.common.lang.Assert2.notEmptyOf;
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
+import static java.util.Objects.nonNull;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.wl4g.component.common.log.SmartLogger;
+
+import redis.clients.jedis.JedisPubSub;
+
+/**
+ * Long running subscription of channels (or patterns), the subscription is
+ * running on a daemon thread and is re-subscribed after delay when broken,
+ * the subscribed and message events are delivered to the listener. </br>
+ *
+ * <p>
+ * The {@link #close()} may race with the (re-)subscribing, e.g. closed after
+ * the subscribing started but before it is confirmed, which cannot be
+ * unsubscribed yet. So the subscribing is started under the same lock as
+ * {@link #close()}, the subscription confirmed after closed is unsubscribed
+ * immediately, and a closed subscriber is never restarted.
+ * </p>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-23 v1.0.0
+ * @see
+ */
+public class JedisSubscriber implements Closeable {
+    protected final SmartLogger log = getLogger(getClass());
+
+    private final JedisClient jedisClient;
+    private final String name;
+    private final JedisPubSub listener;
+    private final boolean pattern;
+    private final String[] channels;
+    private final long resubscribeDelayMs;
+
+    private volatile boolean running;
+    private volatile boolean closed;
+    private volatile boolean subscribed;
+    /** The current subscription, guarded by this. */
+    private Subscription subscription;
+    private Thread thread;
+
+    /**
+     * @param jedisClient
+     * @param name
+     *            The name of subscriber thread.
+     * @param listener
+     *            The listener of subscribed and message events.
+     * @param pattern
+     *            Whether to subscribe the patterns.
+     * @param resubscribeDelayMs
+     * @param channels
+     *            The channels (or patterns) to subscribe.
+     */
+    public JedisSubscriber(JedisClient jedisClient, String name, JedisPubSub listener, boolean pattern,
+            long resubscribeDelayMs, String... channels) {
+        this.jedisClient = notNullOf(jedisClient, "jedisClient");
+        this.name = hasTextOf(name, "name");
+        this.listener = notNullOf(listener, "listener");
+        this.pattern = pattern;
+        this.channels = notEmptyOf(channels, "channels");
+        isTrue(resubscribeDelayMs > 0, "resubscribeDelayMs must be > 0");
+        this.resubscribeDelayMs = resubscribeDelayMs;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Check whether the subscription is confirmed and not broken yet, the
+     * messages may be lost if not.
+     *
+     * @return
+     */
+    public boolean isSubscribed() {
+        return subscribed;
+    }
+
+    /**
+     * Start subscribing if not started.
+     *
+     * @return false if closed.
+     */
+    public boolean start() {
+        if (running || closed) {
+            return !closed;
+        }
+        synchronized (this) {
+            if (running || closed) {
+                return !closed;
+            }
+            running = true;
+            thread = new Thread(() -> doSubscribe(), name);
+            thread.setDaemon(true);
+            thread.start();
+            return true;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        running = false;
+        // The subscription that is not confirmed yet, will be unsubscribed
+        // when confirmed. see: #onSubscribed()
+        Subscription subscription = this.subscription;
+        if (nonNull(subscription) && subscription.isSubscribed()) {
+            try {
+                subscription.cancel();
+            } catch (Exception e) {
+                log.debug("Failed to unsubscribe '{}'. - {}", name, e.getMessage());
+            }
+        }
+        if (nonNull(thread)) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Called when the subscription was broken, before re-subscribing.
+     *
+     * @param e
+     */
+    protected void onBroken(Exception e) {
+    }
+
+    private void doSubscribe() {
+        while (true) {
+            Subscription subscription;
+            synchronized (this) {
+                if (!running) {
+                    return;
+                }
+                this.subscription = subscription = new Subscription();
+            }
+            try {
+                if (pattern) {
+                    jedisClient.psubscribe(subscription, channels); // Blocking
+                } else {
+                    jedisClient.subscribe(subscription, channels); // Blocking
+                }
+            } catch (Exception e) {
+                if (running) {
+                    log.warn("Subscription of '{}' was broken, re-subscribe later. - {}", name, e.getMessage());
+                    onBroken(e);
+                }
+            } finally {
+                subscribed = false;
+            }
+            if (running) {
+                try {
+                    Thread.sleep(resubscribeDelayMs);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Called on the subscriber thread when the subscription confirmed, the
+     * subscription is unsubscribed immediately if closed in the meantime.
+     *
+     * @param subscription
+     * @return false if closed.
+     */
+    private boolean onSubscribed(Subscription subscription) {
+        if (!running) {
+            subscription.cancel();
+            return false;
+        }
+        subscribed = true;
+        return true;
+    }
+
+    /**
+     * The subscription of once subscribing, delegates to the listener.
+     */
+    private final class Subscription extends JedisPubSub {
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+        @Override
+        public void onSubscribe(String channel, int subscribedChannels) {
+            if (onSubscribed(this)) {
+                listener.onSubscribe(channel, subscribedChannels);
+            }
+        }
+
+        @Override
+        public void onPSubscribe(String pattern, int subscribedChannels) {
+            if (onSubscribed(this)) {
+                listener.onPSubscribe(pattern, subscribedChannels);
+            }
+        }
+
+        @Override
+        public void onMessage(String channel, String message) {
+            listener.onMessage(channel, message);
+        }
+
+        @Override
+        public void onPMessage(String pattern, String channel, String message) {
+            listener.onPMessage(pattern, channel, message);
+        }
+
+        /**
+         * Unsubscribe at most once, both the closing thread and the
+         * subscriber thread may try.
+         */
+        void cancel() {
+            if (cancelled.compareAndSet(false, true)) {
+                if (pattern) {
+                    punsubscribe();
+                } else {
+                    unsubscribe();
+                }
+            }
+        }
+    }
+
+}
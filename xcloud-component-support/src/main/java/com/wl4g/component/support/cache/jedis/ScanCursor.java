@@ -23,8 +23,11 @@ import static com.wl4g.component.common.lang.Assert2.notNull;
 import static com.wl4g.component.common.lang.Assert2.notNullOf;
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static org.apache.commons.lang3.StringUtils.containsIgnoreCase;
 import static org.apache.commons.lang3.StringUtils.endsWithIgnoreCase;
 import static org.apache.commons.lang3.StringUtils.split;
@@ -35,10 +38,22 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
@@ -51,8 +66,11 @@ import com.wl4g.component.common.serialize.ProtostuffUtils;
 
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
 import redis.clients.jedis.ScanParams;
 import redis.clients.jedis.ScanResult;
+import redis.clients.jedis.exceptions.JedisRedirectionException;
 import redis.clients.jedis.util.SafeEncoder;
 
 /**
@@ -81,7 +99,10 @@ public class ScanCursor<E> implements Iterator<E> {
     private final Class<?> valueType;
     private final Deserializer deserializer;
     private final JedisClient jedisClient;
+    private final String topology;
     private final List<JedisPool> nodePools;
+    private final Set<JedisPool> masterPools;
+    private final List<NodeScanner> scanners;
 
     private volatile CursorSpec cursor;
     private volatile CursorState state;
@@ -155,7 +176,12 @@ public class ScanCursor<E> implements Iterator<E> {
         };
         this.jedisClient = jedisClient;
         this.params = params != null ? params : NONE_PARAMS;
-        this.nodePools = jedisClient.getClusterNodes().values().stream().map(n -> n).collect(toList());
+        // Sorted by node, so that the selection position is stable.
+        Map<String, JedisPool> nodes = new TreeMap<>(jedisClient.getClusterNodes());
+        this.topology = getTopology(nodes);
+        this.nodePools = new ArrayList<>(nodes.values());
+        this.masterPools = getMasterPools(nodes);
+        this.scanners = new ArrayList<>(Collections.nCopies(nodePools.size(), null));
         this.state = CursorState.READY;
         this.cursor = cursor;
         this.iter = new ScanIterable<>(cursor, emptyList());
@@ -174,6 +200,17 @@ public class ScanCursor<E> implements Iterator<E> {
         }
 
         state = CursorState.OPEN;
+        // Scan all master nodes concurrently, the current node is resumed
+        // from the cursor and the subsequent nodes are started from zero.
+        for (int pos = cursor.getSelectionPos(); pos < nodePools.size(); pos++) {
+            JedisPool pool = nodePools.get(pos);
+            if (masterPools.contains(pool)) {
+                NodeScanner scanner = new NodeScanner(pool,
+                        (pos == cursor.getSelectionPos()) ? cursor.getCursorString() : CursorSpec.STARTEND);
+                scanner.prefetch();
+                scanners.set(pos, scanner);
+            }
+        }
         nextScan();
         return (T) this;
     }
@@ -208,7 +245,7 @@ public class ScanCursor<E> implements Iterator<E> {
      * 
      * @see ScanCursor#next()
      */
-    public synchronized List<E> toValues() throws IOException {
+    public List<E> toValues() throws IOException {
         List<E> list = new ArrayList<>(64);
         while (hasNext()) {
             list.add(next());
@@ -219,22 +256,25 @@ public class ScanCursor<E> implements Iterator<E> {
     /**
      * Fetch the next value from the underlying {@link java.util.Iterable}.
      * mutual exclusion with {@link ScanCursor#toValues()} method (only one can
-     * be used)
+     * be used). </br>
+     * <font color=red>Note: the cursor is not thread-safe, it should be
+     * iterated by a single thread.</font>
      * 
      * @return
      */
     @SuppressWarnings("unchecked")
     @Override
-    public synchronized E next() {
+    public E next() {
         if (!hasNext()) {
             throw new NoSuchElementException("No more elements available for cursor " + cursor + ".");
         }
 
-        return (E) deserializer.deserialize(jedisClient.get(iter.iterator().next()), valueType);
+        iter.iterator().next();
+        return (E) deserializer.deserialize(iter.nextValue(), valueType);
     }
 
     @Override
-    public synchronized boolean hasNext() {
+    public boolean hasNext() {
         checkCursorState();
 
         // If the current 'iter' is fully traversed, you need to check whether
@@ -269,41 +309,90 @@ public class ScanCursor<E> implements Iterator<E> {
         if (resetCursorString) {
             cursor.setCursorString(CursorSpec.STARTEND);
         }
-        // cursor.setSelectionPos(nodePools.size() - 1);
+        // Discard the prefetching batches.
+        for (NodeScanner scanner : scanners) {
+            if (nonNull(scanner)) {
+                scanner.cancel();
+            }
+        }
     }
 
     /**
      * Next scan by cursor index.
      */
     protected void nextScan() {
-        // Select a node
-        try (Jedis jedis = nodePools.get(cursor.getSelectionPos()).getResource()) {
-            // Traverse only the primary node
-            if (containsIgnoreCase(jedis.info(REPLICATION), ROLE_MASTER)) {
-                processScanResult(doScanNode(jedis));
-            } else {
-                nextTo();
-            }
+        // Traverse only the primary node
+        NodeScanner scanner = scanners.get(cursor.getSelectionPos());
+        if (nonNull(scanner)) {
+            processScanResult(limitScanned(scanner.take()));
+        } else {
+            nextTo();
         }
     }
 
     /**
-     * Performs the actual scan command using the native client implementation.
+     * Performs the actual scan command using the native client implementation,
+     * and fetches the values of the scanned keys with one pipelined request.
      * The given {@literal options} are never {@code null}.
      * 
      * @param jedis
+     * @param cursorString
+     * @return
+     */
+    protected ScanIterable<byte[]> doScanNode(Jedis jedis, String cursorString) {
+        ScanResult<byte[]> res = jedis.scan(SafeEncoder.encode(cursorString), params.toScanParams());
+        List<byte[]> keys = Optional.ofNullable(res.getResult()).orElse(emptyList());
+        return new ScanIterable<byte[]>(new CursorSpec(0, res.getCursor()), keys, doFetchValues(jedis, keys));
+    }
+
+    /**
+     * Fetch the values of the scanned keys (of the same node) with one
+     * pipelined request, the keys that being migrated (MOVED/ASK) are fetched
+     * with redirection by {@link JedisClient}.
+     * 
+     * @param jedis
+     * @param keys
      * @return
      */
-    protected ScanIterable<byte[]> doScanNode(Jedis jedis) {
-        ScanResult<byte[]> res = jedis.scan(cursor.getCursorByteArray(), params.toScanParams());
+    protected List<byte[]> doFetchValues(Jedis jedis, List<byte[]> keys) {
+        if (keys.isEmpty()) {
+            return emptyList();
+        }
+        Pipeline pipeline = jedis.pipelined();
+        List<Response<byte[]>> responses = new ArrayList<>(keys.size());
+        for (byte[] key : keys) {
+            responses.add(pipeline.get(key));
+        }
+        pipeline.sync();
+
+        List<byte[]> values = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            try {
+                values.add(responses.get(i).get());
+            } catch (JedisRedirectionException e) {
+                // The slot is migrating, or the node may be demoted.
+                evictNodeRoles(topology);
+                values.add(jedisClient.get(keys.get(i)));
+            }
+        }
+        return values;
+    }
 
-        List<byte[]> keys = Optional.ofNullable(res.getResult()).get();
+    /**
+     * Limit the scanned batch with total count.
+     * 
+     * @param res
+     * @return
+     */
+    private ScanIterable<byte[]> limitScanned(ScanIterable<byte[]> res) {
+        List<byte[]> keys = res.getKeys();
+        List<byte[]> values = res.getValues();
 
         // Cumulative total count of scanned keys.
         int total = keysTotal.addAndGet(keys.size());
 
         // Latest cursor string of current node.
-        String cursorString = res.getCursor();
+        String cursorString = res.getCursor().getCursorString();
 
         // Check whether the total number is exceeded.
         int excess = total - params.getTotal();
@@ -314,12 +403,11 @@ public class ScanCursor<E> implements Iterator<E> {
 
             // Remove the last elements.
             int size = keys.size();
-            for (int i = size - 1; i >= size - excess; i--) {
-                keys.remove(i);
-            }
+            keys = keys.subList(0, size - excess);
+            values = values.subList(0, size - excess);
         }
 
-        return new ScanIterable<byte[]>(cursor.setCursorString(cursorString), keys);
+        return new ScanIterable<byte[]>(cursor.setCursorString(cursorString), keys, values);
     }
 
     /**
@@ -376,6 +464,164 @@ public class ScanCursor<E> implements Iterator<E> {
         }
     }
 
+    /**
+     * Gets the master node pools, the roles are cached per topology (the set
+     * of nodes) for {@link #NODE_ROLES_TTL_MS}, so they are not detected
+     * before every scanning. The cached roles are evicted when the scanning
+     * failed or redirected (e.g. after a failover that did not change the
+     * nodes of topology), and detected again by the next cursor.
+     * 
+     * @param nodes
+     * @return
+     */
+    public static Set<JedisPool> getMasterPools(Map<String, JedisPool> nodes) {
+        String topology = getTopology(nodes);
+        NodeRoles roles = nodeRolesCache.get(topology);
+        if (isNull(roles) || roles.isExpired()) {
+            Set<String> masters = new HashSet<>(nodes.size());
+            nodes.forEach((node, pool) -> {
+                try (Jedis jedis = pool.getResource()) {
+                    if (containsIgnoreCase(jedis.info(REPLICATION), ROLE_MASTER)) {
+                        masters.add(node);
+                    }
+                }
+            });
+            // Cleanup the roles of the previous topologies.
+            nodeRolesCache.values().removeIf(r -> r.isExpired());
+            nodeRolesCache.put(topology, roles = new NodeRoles(masters));
+        }
+        Set<String> masters = roles.masters;
+        return nodes.entrySet().stream().filter(e -> masters.contains(e.getKey())).map(e -> e.getValue()).collect(toSet());
+    }
+
+    /**
+     * Evict the cached node roles of topology.
+     * 
+     * @param nodes
+     */
+    public static void evictNodeRoles(Map<String, JedisPool> nodes) {
+        evictNodeRoles(getTopology(nodes));
+    }
+
+    /**
+     * Evict all the cached node roles.
+     */
+    public static void evictNodeRoles() {
+        nodeRolesCache.clear();
+    }
+
+    private static void evictNodeRoles(String topology) {
+        if (nonNull(nodeRolesCache.remove(topology))) {
+            LoggerFactory.getLogger(ScanCursor.class).info("Evicted the cached node roles of topology: {}", topology);
+        }
+    }
+
+    /**
+     * Gets the topology of nodes, i.e. the sorted node addresses.
+     * 
+     * @param nodes
+     * @return
+     */
+    private static String getTopology(Map<String, JedisPool> nodes) {
+        return new TreeSet<>(nodes.keySet()).toString();
+    }
+
+    /**
+     * Scanner of a single node, which keeps at most one batch prefetching while
+     * the current batch is consumed.
+     */
+    private final class NodeScanner {
+        private final JedisPool pool;
+        private String cursorString;
+        private CompletableFuture<ScanIterable<byte[]>> prefetching;
+
+        NodeScanner(JedisPool pool, String cursorString) {
+            this.pool = pool;
+            this.cursorString = cursorString;
+        }
+
+        void prefetch() {
+            String cursorString = this.cursorString;
+            this.prefetching = supplyAsync(() -> {
+                try (Jedis jedis = pool.getResource()) {
+                    return doScanNode(jedis, cursorString);
+                } catch (RuntimeException e) {
+                    // The node may be failed over.
+                    evictNodeRoles(topology);
+                    throw e;
+                }
+            }, scanExecutor);
+        }
+
+        ScanIterable<byte[]> take() {
+            ScanIterable<byte[]> res = null;
+            try {
+                res = prefetching.join();
+            } catch (CompletionException e) {
+                throw (e.getCause() instanceof RuntimeException) ? (RuntimeException) e.getCause() : e;
+            }
+            this.cursorString = res.getCursor().getCursorString();
+            // Prefetch the next batch of this node.
+            if (!CursorSpec.STARTEND.equals(cursorString)) {
+                prefetch();
+            } else {
+                prefetching = null;
+            }
+            return res;
+        }
+
+        void cancel() {
+            if (nonNull(prefetching)) {
+                prefetching.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Cached master nodes of topology.
+     */
+    private static final Map<String, NodeRoles> nodeRolesCache = new ConcurrentHashMap<>(4);
+
+    /**
+     * The expiration of the cached node roles.
+     */
+    private static final long NODE_ROLES_TTL_MS = 30_000L;
+
+    /**
+     * Cached master nodes of a topology.
+     */
+    private static final class NodeRoles {
+        private final Set<String> masters;
+        private final long expireAt;
+
+        NodeRoles(Set<String> masters) {
+            this.masters = masters;
+            this.expireAt = System.currentTimeMillis() + NODE_ROLES_TTL_MS;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expireAt;
+        }
+    }
+
+    /**
+     * Scan prefetching executor.
+     */
+    private static final ExecutorService scanExecutor;
+
+    static {
+        AtomicInteger counter = new AtomicInteger(0);
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "jedis-scan-prefetch-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        scanExecutor = executor;
+    }
+
     /**
      * Cursor state
      * 
@@ -557,6 +803,8 @@ public class ScanCursor<E> implements Iterator<E> {
         private final CursorSpec cursor;
         private final List<K> keys;
         private final Iterator<K> iter;
+        private final List<byte[]> values;
+        private final Iterator<byte[]> valueIter;
 
         /**
          * Scan iterable
@@ -582,9 +830,23 @@ public class ScanCursor<E> implements Iterator<E> {
          * @param keys
          */
         public ScanIterable(CursorSpec cursor, List<K> keys) {
+            this(cursor, keys, emptyList());
+        }
+
+        /**
+         * Scan iterable
+         * 
+         * @param cursor
+         * @param keys
+         * @param values
+         *            The values of keys(the same order).
+         */
+        public ScanIterable(CursorSpec cursor, List<K> keys, List<byte[]> values) {
             this.cursor = cursor;
             this.keys = (isEmpty(keys) ? emptyList() : new ArrayList<K>(keys));
             this.iter = this.keys.iterator();
+            this.values = (isEmpty(values) ? emptyList() : new ArrayList<byte[]>(values));
+            this.valueIter = this.values.iterator();
         }
 
         /**
@@ -605,6 +867,24 @@ public class ScanCursor<E> implements Iterator<E> {
             return keys;
         }
 
+        /**
+         * Get the values of items returned.
+         * 
+         * @return
+         */
+        public List<byte[]> getValues() {
+            return values;
+        }
+
+        /**
+         * Get the value of the last item returned by {@link #iterator()}.
+         * 
+         * @return
+         */
+        public byte[] nextValue() {
+            return valueIter.hasNext() ? valueIter.next() : null;
+        }
+
         /*
          * (non-Javadoc)
          * 
@@ -0,0 +1,490 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.cluster;
+
+import static com.wl4g.component.common.lang.Assert2.isTrue;
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableSet;
+import static java.util.Objects.isNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.Closeable;
+import java.io.Serializable;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.wl4g.component.common.log.SmartLogger;
+import com.wl4g.component.support.cache.jedis.cluster.ConfigurableJedisClusterCommand.ConfigurableJedisClusterConntionHandler;
+
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.util.SafeEncoder;
+
+/**
+ * Read-only commands router of redis cluster, which routes the reads to the
+ * replicas of slot by the {@link ReadPreference}. </br>
+ *
+ * <p>
+ * The slot replicas are refreshed periodically by CLUSTER SLOTS, and the
+ * replicas are excluded while lagging or unknown (by the replication offset
+ * and lag of master INFO) or down (connection failed), then the reads fall
+ * back to the master. The node latencies are the moving average of PING round
+ * trips.
+ * </p>
+ *
+ * <font color=red>Note: the reads from replicas may be stale (eventually
+ * consistent), i.e. a read after write may not see the write.</font>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-02 v1.0.0
+ * @see
+ */
+public class ClusterReadRouter implements Closeable {
+    protected final SmartLogger log = getLogger(getClass());
+
+    private final ConfigurableJedisClusterConntionHandler connectionHandler;
+    private final ReadRoutingProperties config;
+
+    /** Node states of "host:port", retained across refreshes. */
+    private final Map<String, NodeState> nodes = new ConcurrentHashMap<>();
+
+    /** The connections that have been set READONLY, and their sockets. */
+    private final Map<Jedis, Socket> readonlyConnections = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final ScheduledExecutorService refresher;
+
+    /** Slots topology, replaced when refreshed. */
+    private volatile Topology topology = new Topology(new NodeState[SLOTS], new NodeState[SLOTS][]);
+
+    ClusterReadRouter(ConfigurableJedisClusterConntionHandler connectionHandler, ReadRoutingProperties config) {
+        this.connectionHandler = notNullOf(connectionHandler, "connectionHandler");
+        this.config = notNullOf(config, "readRoutingProperties");
+        this.refresher = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "jedis-cluster-read-router-" + COUNTER.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        refresher.scheduleWithFixedDelay(() -> refresh(), 0L, config.getRefreshIntervalMs(), MILLISECONDS);
+    }
+
+    public ReadPreference getPreference() {
+        return config.getPreference();
+    }
+
+    /**
+     * Gets the connection of selected replica of slot.
+     *
+     * @param slot
+     * @return Null if the master should be read.
+     */
+    Jedis getReadConnection(int slot) {
+        NodeState node = select(slot);
+        if (isNull(node)) {
+            return null;
+        }
+        Jedis connection = null;
+        try {
+            connection = connectionHandler.getConnectionFromNode(node.hostAndPort);
+            // The replica connection must be READONLY to serve the reads.
+            Socket socket = connection.getClient().getSocket();
+            if (readonlyConnections.get(connection) != socket) {
+                connection.readonly();
+                readonlyConnections.put(connection, socket);
+            }
+            return connection;
+        } catch (JedisException e) {
+            log.warn("Failed to connect replica: {}, fallback to master. reason: {}", node.hostAndPort, e.getMessage());
+            node.markDown(config.getDownMs());
+            if (!isNull(connection)) {
+                connection.close();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Called when the command connection failed, the replica will be excluded
+     * for a while (the retry of command is routed to other node), the role is
+     * the latest refreshed one.
+     *
+     * @param node
+     *            host:port
+     */
+    void onConnectionFailure(String node) {
+        NodeState state = nodes.get(node);
+        if (!isNull(state) && state.replica) {
+            state.markDown(config.getDownMs());
+        }
+    }
+
+    /**
+     * Select the replica to read of slot.
+     *
+     * @param slot
+     * @return Null if the master is selected.
+     */
+    NodeState select(int slot) {
+        Topology topology = this.topology;
+        NodeState[] replicas = topology.replicas[slot];
+        if (isNull(replicas) || replicas.length == 0) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        switch (config.getPreference()) {
+        case REPLICA_PREFERRED:
+            int start = ThreadLocalRandom.current().nextInt(replicas.length);
+            for (int i = 0; i < replicas.length; i++) {
+                NodeState replica = replicas[(start + i) % replicas.length];
+                if (replica.isAvailable(now)) {
+                    return replica;
+                }
+            }
+            return null;
+        case NEAREST:
+            NodeState master = topology.masters[slot];
+            NodeState nearest = null;
+            long nearestLatency = isNull(master) ? Long.MAX_VALUE : master.latencyMicros;
+            for (NodeState replica : replicas) {
+                if (replica.isAvailable(now) && replica.latencyMicros < nearestLatency) {
+                    nearest = replica;
+                    nearestLatency = replica.latencyMicros;
+                }
+            }
+            return nearest;
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Refresh the slots topology and the states of nodes.
+     */
+    synchronized void refresh() {
+        try {
+            List<Object> slots;
+            Jedis connection = connectionHandler.getConnection();
+            try {
+                slots = connection.clusterSlots();
+            } finally {
+                connection.close();
+            }
+            NodeState[] masters = new NodeState[SLOTS];
+            NodeState[][] replicas = new NodeState[SLOTS][];
+            Map<NodeState, List<NodeState>> replicasOfMasters = new LinkedHashMap<>();
+            for (Object slot : slots) {
+                List<?> range = (List<?>) slot;
+                NodeState master = getNodeState((List<?>) range.get(2), false);
+                NodeState[] slotReplicas = new NodeState[range.size() - 3];
+                for (int i = 3; i < range.size(); i++) {
+                    slotReplicas[i - 3] = getNodeState((List<?>) range.get(i), true);
+                }
+                for (int i = ((Number) range.get(0)).intValue(), end = ((Number) range.get(1)).intValue(); i <= end; i++) {
+                    masters[i] = master;
+                    replicas[i] = slotReplicas;
+                }
+                replicasOfMasters.computeIfAbsent(master, m -> new ArrayList<>()).addAll(asList(slotReplicas));
+            }
+            for (Map.Entry<NodeState, List<NodeState>> ent : replicasOfMasters.entrySet()) {
+                checkReplication(ent.getKey(), new HashSet<>(ent.getValue()));
+            }
+            this.topology = new Topology(masters, replicas);
+        } catch (Exception e) {
+            log.warn("Failed to refresh cluster read routing topology. reason: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Check the replication lag of the replicas by the master INFO, and
+     * measure the latencies. The replicas of unknown replication state are
+     * excluded, i.e. never checked successfully, or not found in the INFO of
+     * master, and the previous states are kept if the INFO failed.
+     */
+    private void checkReplication(NodeState master, Set<NodeState> replicas) {
+        Map<String, Map<String, String>> replicaInfos = new HashMap<>();
+        long masterOffset = -1L;
+        boolean checked = false;
+        try {
+            Jedis connection = connectionHandler.getConnectionFromNode(master.hostAndPort);
+            try {
+                master.ping(connection);
+                // e.g: slave0:ip=10.0.0.2,port=6379,state=online,offset=1234,lag=0
+                for (String line : connection.info("replication").split("\r?\n")) {
+                    int index = line.indexOf(':');
+                    if (line.startsWith("slave") && index > 0) {
+                        Map<String, String> fields = new HashMap<>();
+                        for (String field : line.substring(index + 1).split(",")) {
+                            int eq = field.indexOf('=');
+                            if (eq > 0) {
+                                fields.put(field.substring(0, eq), field.substring(eq + 1));
+                            }
+                        }
+                        replicaInfos.put(fields.get("ip") + ":" + fields.get("port"), fields);
+                    } else if (line.startsWith("master_repl_offset:")) {
+                        masterOffset = Long.parseLong(line.substring(index + 1).trim());
+                    }
+                }
+            } finally {
+                connection.close();
+            }
+            checked = true;
+        } catch (Exception e) {
+            log.warn("Failed to check replication of master: {}. reason: {}", master.hostAndPort, e.getMessage());
+        }
+        for (NodeState replica : replicas) {
+            if (checked) {
+                Map<String, String> info = replicaInfos.get(replica.hostAndPort.toString());
+                if (isNull(info)) {
+                    // e.g. the announced address of replica differs.
+                    if (!replica.unmatched) {
+                        log.warn("Replica: {} is not found in the replication info of master: {}, the replicas: {}, exclude it.",
+                                replica.hostAndPort, master.hostAndPort, replicaInfos.keySet());
+                    }
+                    replica.unmatched = true;
+                    replica.lagging = true;
+                } else {
+                    replica.unmatched = false;
+                    replica.lagging = !"online".equals(info.get("state"))
+                            || (masterOffset - parseLong(info.get("offset"), 0L)) > config.getMaxLagBytes()
+                            || parseLong(info.get("lag"), 0L) > config.getMaxLagSeconds();
+                }
+            }
+            try {
+                Jedis connection = connectionHandler.getConnectionFromNode(replica.hostAndPort);
+                try {
+                    replica.ping(connection);
+                } finally {
+                    connection.close();
+                }
+            } catch (Exception e) {
+                replica.markDown(config.getDownMs());
+            }
+        }
+    }
+
+    private NodeState getNodeState(List<?> node, boolean replica) {
+        String host = SafeEncoder.encode((byte[]) node.get(0));
+        int port = ((Number) node.get(1)).intValue();
+        HostAndPort hostAndPort = new HostAndPort(host, port);
+        NodeState state = nodes.computeIfAbsent(hostAndPort.toString(), k -> new NodeState(hostAndPort));
+        // The role may be changed by failover.
+        state.replica = replica;
+        return state;
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+        try {
+            return isNull(value) ? defaultValue : Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Check whether the command is read-only, which can be routed to
+     * replicas.
+     *
+     * @param command
+     *            The command name, e.g: get, hgetAll
+     * @return
+     */
+    static boolean isReadOnlyCommand(String command) {
+        return READ_ONLY_COMMANDS.contains(command);
+    }
+
+    /**
+     * Mark the commands of current thread are read-only, until
+     * {@link #endRead()}
+     */
+    static void beginRead() {
+        READING.set(Boolean.TRUE);
+    }
+
+    static void endRead() {
+        READING.remove();
+    }
+
+    static boolean isReading() {
+        return READING.get() == Boolean.TRUE;
+    }
+
+    /**
+     * Immutable slots topology.
+     */
+    private static final class Topology {
+        private final NodeState[] masters;
+        private final NodeState[][] replicas;
+
+        Topology(NodeState[] masters, NodeState[][] replicas) {
+            this.masters = masters;
+            this.replicas = replicas;
+        }
+    }
+
+    /**
+     * Node state.
+     */
+    static final class NodeState {
+        final HostAndPort hostAndPort;
+        /** The latest refreshed role. */
+        volatile boolean replica;
+        /** Lagging or unknown (until the replication checked). */
+        volatile boolean lagging = true;
+        /** Not found in the replication info of master. */
+        volatile boolean unmatched;
+        volatile long downUntil;
+        /** Moving average of PING round trips(us), 0 if not measured. */
+        volatile long latencyMicros;
+
+        NodeState(HostAndPort hostAndPort) {
+            this.hostAndPort = hostAndPort;
+        }
+
+        boolean isAvailable(long now) {
+            return !lagging && now >= downUntil;
+        }
+
+        void markDown(long downMs) {
+            this.downUntil = System.currentTimeMillis() + downMs;
+        }
+
+        void ping(Jedis connection) {
+            long begin = System.nanoTime();
+            connection.ping();
+            long sample = Math.max((System.nanoTime() - begin) / 1000L, 1L);
+            long latency = latencyMicros;
+            this.latencyMicros = (latency == 0L) ? sample : (latency * 7 + sample) / 8;
+        }
+    }
+
+    /**
+     * Read preference of the read-only commands.
+     */
+    public static enum ReadPreference {
+
+        /** Read from master only (default). */
+        MASTER,
+
+        /** Read from the available replicas, fallback to master. */
+        REPLICA_PREFERRED,
+
+        /** Read from the node (master or available replicas) of lowest latency. */
+        NEAREST;
+
+    }
+
+    /**
+     * {@link ClusterReadRouter} properties.
+     */
+    public static class ReadRoutingProperties implements Serializable {
+        private static final long serialVersionUID = 3561748390175267734L;
+
+        /** Read preference of the read-only commands. */
+        private ReadPreference preference = ReadPreference.MASTER;
+
+        /** Interval(ms) of refreshing the topology and replication states. */
+        private long refreshIntervalMs = 5_000L;
+
+        /** Maximum replication offset lag(bytes) of the readable replicas. */
+        private long maxLagBytes = 1024 * 1024L;
+
+        /** Maximum replication lag(seconds) of the readable replicas. */
+        private long maxLagSeconds = 10L;
+
+        /** Exclusion time(ms) of the replica after connection failed. */
+        private long downMs = 10_000L;
+
+        public ReadPreference getPreference() {
+            return preference;
+        }
+
+        public void setPreference(ReadPreference preference) {
+            this.preference = notNullOf(preference, "preference");
+        }
+
+        public long getRefreshIntervalMs() {
+            return refreshIntervalMs;
+        }
+
+        public void setRefreshIntervalMs(long refreshIntervalMs) {
+            isTrue(refreshIntervalMs > 0, "refreshIntervalMs must > 0");
+            this.refreshIntervalMs = refreshIntervalMs;
+        }
+
+        public long getMaxLagBytes() {
+            return maxLagBytes;
+        }
+
+        public void setMaxLagBytes(long maxLagBytes) {
+            isTrue(maxLagBytes >= 0, "maxLagBytes must >= 0");
+            this.maxLagBytes = maxLagBytes;
+        }
+
+        public long getMaxLagSeconds() {
+            return maxLagSeconds;
+        }
+
+        public void setMaxLagSeconds(long maxLagSeconds) {
+            isTrue(maxLagSeconds >= 0, "maxLagSeconds must >= 0");
+            this.maxLagSeconds = maxLagSeconds;
+        }
+
+        public long getDownMs() {
+            return downMs;
+        }
+
+        public void setDownMs(long downMs) {
+            isTrue(downMs > 0, "downMs must > 0");
+            this.downMs = downMs;
+        }
+    }
+
+    private static final int SLOTS = 16384;
+    private static final AtomicInteger COUNTER = new AtomicInteger(0);
+    private static final ThreadLocal<Boolean> READING = new ThreadLocal<>();
+
+    /**
+     * The read-only commands (i.e. the method names of cluster client).
+     */
+    private static final Set<String> READ_ONLY_COMMANDS = unmodifiableSet(new HashSet<>(asList("get", "getrange", "substr",
+            "strlen", "exists", "type", "ttl", "pttl", "dump", "getbit", "bitcount", "bitpos", "hget", "hmget", "hgetAll",
+            "hkeys", "hvals", "hlen", "hexists", "hstrlen", "lrange", "llen", "lindex", "lpos", "smembers", "sismember",
+            "smismember", "scard", "srandmember", "zrange", "zrangeWithScores", "zrevrange", "zrevrangeWithScores",
+            "zrangeByScore", "zrangeByScoreWithScores", "zrevrangeByScore", "zrevrangeByScoreWithScores", "zrangeByLex",
+            "zrevrangeByLex", "zscore", "zmscore", "zcard", "zcount", "zlexcount", "zrank", "zrevrank", "geodist",
+            "geohash", "geopos", "georadiusReadonly", "georadiusByMemberReadonly", "xrange", "xrevrange", "xlen")));
+
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.cluster;
+
+import static com.wl4g.component.common.lang.Assert2.isTrue;
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
+import static java.util.Objects.isNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.wl4g.component.common.log.SmartLogger;
+import com.wl4g.component.support.cache.jedis.cluster.ConfigurableJedisClusterCommand.ConfigurableJedisClusterConntionHandler;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.exceptions.JedisRedirectionException;
+
+/**
+ * Multi-key commands fan-out executor of redis cluster. </br>
+ *
+ * <p>
+ * The keys are grouped by slot and owning node, each node receives one
+ * pipelined request (one command per slot, because redis cluster refuses
+ * CROSSSLOT commands even if the slots are on the same node), and the nodes
+ * are requested in parallel. When a node replies MOVED/ASK (e.g. during
+ * resharding) or is unreachable, the affected slot groups are re-executed
+ * with the redirection-aware {@link ConfigurableJedisClusterCommand}.
+ * </p>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-12 v1.0.0
+ * @see
+ */
+class ClusterSlotFanoutExecutor implements Closeable {
+    protected final SmartLogger log = getLogger(getClass());
+
+    /** {@link ConfigurableJedisClusterConntionHandler} */
+    private final ConfigurableJedisClusterConntionHandler connectionHandler;
+
+    /** Fan-out requests worker executor. */
+    private final ExecutorService executor;
+
+    ClusterSlotFanoutExecutor(ConfigurableJedisClusterConntionHandler connectionHandler, int parallelism) {
+        isTrue(parallelism > 0, "Fan-out parallelism must greater than 0");
+        this.connectionHandler = notNullOf(connectionHandler, "connectionHandler");
+        AtomicInteger counter = new AtomicInteger(0);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 60, SECONDS, new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "jedis-cluster-fanout-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        this.executor = executor;
+    }
+
+    /**
+     * Execution multi-key command with slot fan-out.
+     *
+     * @param slots
+     *            The slot of each key, in caller order.
+     * @param pipelined
+     *            Append the command of a slot group(key indexes) to the node
+     *            pipeline.
+     * @param direct
+     *            Execution the command of a slot group(key indexes) directly,
+     *            used as fallback when redirected or the node is unreachable.
+     * @return The results of each slot group.
+     */
+    <R> List<SlotResult<R>> execute(int[] slots, BiFunction<Pipeline, int[], Response<R>> pipelined,
+            Function<int[], R> direct) {
+        return executeDeferred(slots, (pipeline, indexes) -> pipelined.apply(pipeline, indexes)::get, direct);
+    }
+
+    /**
+     * Execution multi commands with slot fan-out, the result of each slot
+     * group is resolved lazily after the node pipeline has been synchronized.
+     *
+     * @param slots
+     *            The slot of each key(or command), in caller order.
+     * @param pipelined
+     *            Append the commands of a slot group(indexes) to the node
+     *            pipeline, and returns the result resolver that is called
+     *            after synchronized.
+     * @param direct
+     *            Execution the commands of a slot group(indexes) directly,
+     *            used as fallback when redirected or the node is unreachable.
+     * @return The results of each slot group.
+     */
+    <R> List<SlotResult<R>> executeDeferred(int[] slots, BiFunction<Pipeline, int[], Supplier<R>> pipelined,
+            Function<int[], R> direct) {
+        // Grouping by node pool.
+        Map<JedisPool, List<int[]>> nodeGroups = new LinkedHashMap<>(8);
+        List<int[]> orphanGroups = new ArrayList<>(2);
+        for (Entry<Integer, List<Integer>> ent : groupBySlot(slots).entrySet()) {
+            int[] indexes = ent.getValue().stream().mapToInt(i -> i).toArray();
+            JedisPool pool = connectionHandler.getSlotPool(ent.getKey());
+            if (isNull(pool)) {
+                orphanGroups.add(indexes);
+            } else {
+                nodeGroups.computeIfAbsent(pool, p -> new ArrayList<>(4)).add(indexes);
+            }
+        }
+
+        List<SlotResult<R>> results = new ArrayList<>(slots.length);
+        Iterator<Entry<JedisPool, List<int[]>>> it = nodeGroups.entrySet().iterator();
+        if (it.hasNext()) {
+            // The first node is requested in the caller thread.
+            Entry<JedisPool, List<int[]>> first = it.next();
+            List<Future<List<SlotResult<R>>>> futures = new ArrayList<>(nodeGroups.size());
+            while (it.hasNext()) {
+                Entry<JedisPool, List<int[]>> ent = it.next();
+                futures.add(executor.submit(() -> doExecutePipelined(ent.getKey(), ent.getValue(), pipelined, direct)));
+            }
+            results.addAll(doExecutePipelined(first.getKey(), first.getValue(), pipelined, direct));
+            for (Future<List<SlotResult<R>>> future : futures) {
+                results.addAll(waitFor(future));
+            }
+        }
+        // Slots not yet discovered.
+        for (int[] indexes : orphanGroups) {
+            results.add(new SlotResult<>(indexes, direct.apply(indexes)));
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Execution all slot groups of a node with one pipelined request.
+     *
+     * @param pool
+     * @param groups
+     * @param pipelined
+     * @param direct
+     * @return
+     */
+    private <R> List<SlotResult<R>> doExecutePipelined(JedisPool pool, List<int[]> groups,
+            BiFunction<Pipeline, int[], Supplier<R>> pipelined, Function<int[], R> direct) {
+        List<SlotResult<R>> results = new ArrayList<>(groups.size());
+        List<Supplier<R>> responses = new ArrayList<>(groups.size());
+        try (Jedis jedis = pool.getResource()) {
+            Pipeline pipeline = jedis.pipelined();
+            for (int[] indexes : groups) {
+                responses.add(pipelined.apply(pipeline, indexes));
+            }
+            pipeline.sync();
+        } catch (JedisConnectionException e) {
+            log.warn("Failed to pipelined fan-out of node, fallback to redirection command. - {}", e.getMessage());
+            connectionHandler.renewSlotCache();
+            for (int[] indexes : groups) {
+                results.add(new SlotResult<>(indexes, direct.apply(indexes)));
+            }
+            return results;
+        }
+
+        boolean redirected = false;
+        for (int i = 0; i < groups.size(); i++) {
+            int[] indexes = groups.get(i);
+            try {
+                results.add(new SlotResult<>(indexes, responses.get(i).get()));
+            } catch (JedisRedirectionException e) {
+                if (!redirected) {
+                    redirected = true;
+                    connectionHandler.renewSlotCache();
+                }
+                results.add(new SlotResult<>(indexes, direct.apply(indexes)));
+            }
+        }
+        return results;
+    }
+
+    private <R> List<SlotResult<R>> waitFor(Future<List<SlotResult<R>>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JedisException("Interrupted while waiting for cluster fan-out", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new JedisException(e.getCause());
+        }
+    }
+
+    /**
+     * Grouping key indexes by slot, the indexes order of each slot is the
+     * caller order.
+     *
+     * @param slots
+     * @return
+     */
+    static Map<Integer, List<Integer>> groupBySlot(int[] slots) {
+        Map<Integer, List<Integer>> slotIndexes = new LinkedHashMap<>(16);
+        for (int i = 0; i < slots.length; i++) {
+            slotIndexes.computeIfAbsent(slots[i], s -> new ArrayList<>(4)).add(i);
+        }
+        return slotIndexes;
+    }
+
+    /**
+     * Check whether all slots are the same(including empty).
+     *
+     * @param slots
+     * @return
+     */
+    static boolean isSingleSlot(int[] slots) {
+        for (int i = 1; i < slots.length; i++) {
+            if (slots[i] != slots[0]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The command result of a slot group.
+     */
+    static final class SlotResult<R> {
+        final int[] indexes;
+        final R result;
+
+        SlotResult(int[] indexes, R result) {
+            this.indexes = indexes;
+            this.result = result;
+        }
+    }
+
+}
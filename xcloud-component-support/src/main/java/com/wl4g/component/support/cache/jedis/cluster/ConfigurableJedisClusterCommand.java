@@ -17,16 +17,20 @@ package com.wl4g.component.support.cache.jedis.cluster;
 
 import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
 import static java.lang.String.format;
+import static java.util.Objects.isNull;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static redis.clients.jedis.HostAndPort.parseString;
 
+import java.lang.reflect.Method;
 import java.time.Duration;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 
 import com.wl4g.component.common.log.SmartLogger;
+import com.wl4g.component.support.cache.jedis.metrics.JedisCommandHook;
 
 import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.Jedis;
@@ -36,6 +40,7 @@ import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisSlotBasedConnectionHandler;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.exceptions.JedisMovedDataException;
 import redis.clients.jedis.exceptions.JedisNoReachableClusterNodeException;
 import redis.clients.jedis.exceptions.JedisRedirectionException;
 
@@ -50,33 +55,86 @@ import redis.clients.jedis.exceptions.JedisRedirectionException;
 abstract class ConfigurableJedisClusterCommand<T> extends JedisClusterCommand<T> {
     protected final SmartLogger log = getLogger(getClass());
 
+    /** Instrumentation hook of handler, null if disabled. */
+    private final JedisCommandHook hook;
+
+    /** Read-only commands router of handler, null if disabled. */
+    private final ClusterReadRouter router;
+
+    /** Number of executed attempts (including redirections). */
+    private int attempts;
+
     public ConfigurableJedisClusterCommand(JedisClusterConnectionHandler connectionHandler, int maxAttempts) {
         super(connectionHandler, maxAttempts);
+        this.hook = getCommandHook(connectionHandler);
+        this.router = getReadRouter(connectionHandler);
     }
 
     public ConfigurableJedisClusterCommand(JedisClusterConnectionHandler connectionHandler, int maxAttempts,
             Duration maxTotalRetriesDuration) {
         super(connectionHandler, maxAttempts, maxTotalRetriesDuration);
+        this.hook = getCommandHook(connectionHandler);
+        this.router = getReadRouter(connectionHandler);
+    }
+
+    @Override
+    public T run(String key) {
+        return (isNull(hook) && isNull(router)) ? super.run(key) : doRun(key, () -> super.run(key));
+    }
+
+    @Override
+    public T run(int keyCount, String... keys) {
+        return (isNull(hook) && isNull(router)) ? super.run(keyCount, keys)
+                : doRun((keyCount > 0 ? keys[0] : null), () -> super.run(keyCount, keys));
+    }
+
+    @Override
+    public T runBinary(byte[] key) {
+        return (isNull(hook) && isNull(router)) ? super.runBinary(key) : doRun(key, () -> super.runBinary(key));
+    }
+
+    @Override
+    public T runBinary(int keyCount, byte[]... keys) {
+        return (isNull(hook) && isNull(router)) ? super.runBinary(keyCount, keys)
+                : doRun((keyCount > 0 ? keys[0] : null), () -> super.runBinary(keyCount, keys));
+    }
+
+    @Override
+    public T runWithAnyNode() {
+        return isNull(hook) ? super.runWithAnyNode() : doRunWithHook(null, () -> super.runWithAnyNode());
     }
 
     @Override
     public T execute(Jedis connection) {
+        ++attempts;
+        long begin = isNull(hook) ? 0L : System.nanoTime();
+        JedisException error = null;
         try {
             return doExecute(connection);
         } catch (JedisException e) {
+            error = e;
             /**
              * {@link redis.clients.jedis.JedisClusterCommand#runWithRetries}
              */
             if ((e instanceof JedisRedirectionException) || (e instanceof JedisNoReachableClusterNodeException)) {
+                if (!isNull(hook) && (e instanceof JedisRedirectionException)) {
+                    hook.onRedirect(getCommandName(), getNode(connection), (e instanceof JedisMovedDataException));
+                }
                 throw e;
             }
             // Print details errors.
-            String node = connection.getClient().getHost() + ":" + connection.getClient().getPort();
-            String errmsg = format("Couldn't execution jedis command of node: %s", node);
+            String errmsg = format("Couldn't execution jedis command of node: %s", getNode(connection));
             if (e instanceof JedisConnectionException) {
+                if (!isNull(router)) { // The retry will be routed to others.
+                    router.onConnectionFailure(getNode(connection));
+                }
                 throw new JedisConnectionException(errmsg, e);
             }
             throw new JedisException(errmsg, e);
+        } finally {
+            if (!isNull(hook)) {
+                hook.onAttempt(getCommandName(), getNode(connection), System.nanoTime() - begin, error);
+            }
         }
     }
 
@@ -88,6 +146,80 @@ abstract class ConfigurableJedisClusterCommand<T> extends JedisClusterCommand<T>
      */
     public abstract T doExecute(Jedis connection);
 
+    /**
+     * Gets the command name, i.e. the name of the method that creates this
+     * command, e.g: get, hset
+     * 
+     * @return
+     */
+    protected String getCommandName() {
+        return COMMAND_NAMES.get(getClass());
+    }
+
+    private T doRun(Object key, Supplier<T> runner) {
+        boolean reading = !isNull(router) && ClusterReadRouter.isReadOnlyCommand(getCommandName());
+        if (reading) {
+            ClusterReadRouter.beginRead();
+        }
+        try {
+            return isNull(hook) ? runner.get() : doRunWithHook(key, runner);
+        } finally {
+            if (reading) {
+                ClusterReadRouter.endRead();
+            }
+        }
+    }
+
+    private T doRunWithHook(Object key, Supplier<T> runner) {
+        long begin = System.nanoTime();
+        T result = null;
+        RuntimeException error = null;
+        try {
+            return (result = runner.get());
+        } catch (RuntimeException e) {
+            throw (error = e);
+        } finally {
+            hook.onCompleted(getCommandName(), key, attempts, System.nanoTime() - begin, result, error);
+        }
+    }
+
+    private static String getNode(Jedis connection) {
+        return connection.getClient().getHost() + ":" + connection.getClient().getPort();
+    }
+
+    private static JedisCommandHook getCommandHook(JedisClusterConnectionHandler connectionHandler) {
+        if (connectionHandler instanceof ConfigurableJedisClusterConntionHandler) {
+            return ((ConfigurableJedisClusterConntionHandler) connectionHandler).getCommandHook();
+        }
+        return null;
+    }
+
+    private static ClusterReadRouter getReadRouter(JedisClusterConnectionHandler connectionHandler) {
+        if (connectionHandler instanceof ConfigurableJedisClusterConntionHandler) {
+            return ((ConfigurableJedisClusterConntionHandler) connectionHandler).getReadRouter();
+        }
+        return null;
+    }
+
+    /**
+     * The command names cache of anonymous command classes.
+     */
+    private static final ClassValue<String> COMMAND_NAMES = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            Method method = type.getEnclosingMethod();
+            if (isNull(method)) {
+                return type.getSimpleName();
+            }
+            // e.g: lambda$mget$3
+            String name = method.getName();
+            if (name.startsWith("lambda$") && name.indexOf('$', 7) > 7) {
+                return name.substring(7, name.indexOf('$', 7));
+            }
+            return name;
+        }
+    };
+
     /**
      * Configurable enhanced Jedis cluster connection handler.
      * 
@@ -98,16 +230,45 @@ abstract class ConfigurableJedisClusterCommand<T> extends JedisClusterCommand<T>
     static class ConfigurableJedisClusterConntionHandler extends JedisSlotBasedConnectionHandler {
         protected final SmartLogger log = getLogger(getClass());
 
+        /** Instrumentation hook of commands, null if disabled. */
+        private volatile JedisCommandHook commandHook;
+
+        /** Read-only commands router, null if disabled (read from masters). */
+        private volatile ClusterReadRouter readRouter;
+
         public ConfigurableJedisClusterConntionHandler(Set<HostAndPort> nodes, GenericObjectPoolConfig<Jedis> poolConfig,
                 int connectionTimeout, int soTimeout, String password) {
             super(nodes, poolConfig, connectionTimeout, soTimeout, password);
         }
 
+        public JedisCommandHook getCommandHook() {
+            return commandHook;
+        }
+
+        public void setCommandHook(JedisCommandHook commandHook) {
+            this.commandHook = commandHook;
+        }
+
+        public ClusterReadRouter getReadRouter() {
+            return readRouter;
+        }
+
+        public void setReadRouter(ClusterReadRouter readRouter) {
+            this.readRouter = readRouter;
+        }
+
         public Jedis getConnection() {
             return super.getConnection();
         }
 
         public Jedis getConnectionFromSlot(int slot) {
+            ClusterReadRouter router = readRouter;
+            if (!isNull(router) && ClusterReadRouter.isReading()) {
+                Jedis connection = router.getReadConnection(slot);
+                if (!isNull(connection)) {
+                    return connection;
+                }
+            }
             try {
                 return super.getConnectionFromSlot(slot);
             } catch (JedisException ex) {
@@ -132,6 +293,22 @@ abstract class ConfigurableJedisClusterCommand<T> extends JedisClusterCommand<T>
             }
         }
 
+        /**
+         * Gets the jedis pool of the node that owns the slot, the slots cache
+         * will be renewed once if the slot has not been discovered.
+         *
+         * @param slot
+         * @return Null if still not discovered after renewed.
+         */
+        public JedisPool getSlotPool(int slot) {
+            JedisPool pool = cache.getSlotPool(slot);
+            if (isNull(pool)) {
+                renewSlotCache();
+                pool = cache.getSlotPool(slot);
+            }
+            return pool;
+        }
+
         @Override
         public Jedis getConnectionFromNode(HostAndPort node) {
             try {
@@ -20,10 +20,13 @@ import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
+import static java.util.Objects.isNull;
+import static com.wl4g.component.support.cache.jedis.cluster.ClusterSlotFanoutExecutor.isSingleSlot;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -33,8 +36,13 @@ import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 
 import com.wl4g.component.common.log.SmartLogger;
 import com.wl4g.component.core.exception.framework.ParameterCanonicalException;
+import com.wl4g.component.support.cache.jedis.JedisBatch;
 import com.wl4g.component.support.cache.jedis.JedisClient;
+import com.wl4g.component.support.cache.jedis.cluster.ClusterSlotFanoutExecutor.SlotResult;
+import com.wl4g.component.support.cache.jedis.cluster.ClusterReadRouter.ReadPreference;
+import com.wl4g.component.support.cache.jedis.cluster.ClusterReadRouter.ReadRoutingProperties;
 import com.wl4g.component.support.cache.jedis.cluster.ConfigurableJedisClusterCommand.ConfigurableJedisClusterConntionHandler;
+import com.wl4g.component.support.cache.jedis.metrics.JedisCommandHook;
 import com.wl4g.component.support.cache.jedis.util.RedisSpecUtil;
 
 import redis.clients.jedis.BinaryJedisCluster;
@@ -77,6 +85,7 @@ import redis.clients.jedis.params.ZAddParams;
 import redis.clients.jedis.params.ZIncrByParams;
 import redis.clients.jedis.resps.KeyedListElement;
 import redis.clients.jedis.resps.KeyedZSetElement;
+import redis.clients.jedis.util.JedisClusterCRC16;
 import redis.clients.jedis.util.JedisClusterHashTagUtil;
 import redis.clients.jedis.util.KeyMergeUtil;
 import redis.clients.jedis.util.SafeEncoder;
@@ -95,6 +104,9 @@ public class ConfigurableJedisClusterJedisClient extends JedisCluster implements
     /** Safety mode, validating storage key. */
     protected final boolean safeMode;
 
+    /** Multi-key commands cross slots fan-out executor. */
+    private final ClusterSlotFanoutExecutor fanoutExecutor;
+
     public ConfigurableJedisClusterJedisClient(HostAndPort node, int connectionTimeout, int soTimeout, int maxAttempts,
             final GenericObjectPoolConfig<Jedis> poolConfig, boolean safeMode) {
         this(singleton(node), connectionTimeout, soTimeout, maxAttempts, null, poolConfig, safeMode);
@@ -109,9 +121,98 @@ public class ConfigurableJedisClusterJedisClient extends JedisCluster implements
             int maxAttempts, String password, final GenericObjectPoolConfig<Jedis> poolConfig, boolean safeMode) {
         super(emptySet(), connectionTimeout, soTimeout, maxAttempts, null, null);
         // Overly jedisCluster connection handler
-        this.connectionHandler = new ConfigurableJedisClusterConntionHandler(jedisClusterNode, poolConfig, connectionTimeout,
-                soTimeout, (isBlank(password) ? null : password));
+        ConfigurableJedisClusterConntionHandler handler = new ConfigurableJedisClusterConntionHandler(jedisClusterNode,
+                poolConfig, connectionTimeout, soTimeout, (isBlank(password) ? null : password));
+        this.connectionHandler = handler;
         this.safeMode = safeMode;
+        this.fanoutExecutor = new ClusterSlotFanoutExecutor(handler, DEFAULT_FANOUT_PARALLELISM);
+    }
+
+    /**
+     * Gets the instrumentation hook of commands.
+     * 
+     * @return Null if disabled.
+     */
+    public JedisCommandHook getCommandHook() {
+        return ((ConfigurableJedisClusterConntionHandler) connectionHandler).getCommandHook();
+    }
+
+    /**
+     * Sets the instrumentation hook of commands, e.g:
+     * {@link com.wl4g.component.support.cache.jedis.metrics.JedisCommandMetrics}
+     * 
+     * @param commandHook
+     *            Null means disabled.
+     */
+    public void setCommandHook(JedisCommandHook commandHook) {
+        ((ConfigurableJedisClusterConntionHandler) connectionHandler).setCommandHook(commandHook);
+    }
+
+    /**
+     * Gets the read-only commands router.
+     * 
+     * @return Null if disabled (read from masters).
+     */
+    public ClusterReadRouter getReadRouter() {
+        return ((ConfigurableJedisClusterConntionHandler) connectionHandler).getReadRouter();
+    }
+
+    /**
+     * Sets the read routing of the read-only commands, e.g: read from the
+     * replicas.
+     * 
+     * @param config
+     */
+    public synchronized void setReadRouting(ReadRoutingProperties config) {
+        ConfigurableJedisClusterConntionHandler handler = (ConfigurableJedisClusterConntionHandler) connectionHandler;
+        ClusterReadRouter old = handler.getReadRouter();
+        handler.setReadRouter((config.getPreference() == ReadPreference.MASTER) ? null : new ClusterReadRouter(handler, config));
+        if (!isNull(old)) {
+            old.close();
+        }
+    }
+
+    @Override
+    public JedisBatch batch() {
+        return new JedisBatch(this, safeMode) {
+            @Override
+            protected void doSync(List<BatchOperation<?>> operations) {
+                int[] slots = new int[operations.size()];
+                for (int i = 0; i < slots.length; i++) {
+                    slots[i] = operations.get(i).getSlot();
+                }
+                // One pipeline per node, resolved after synchronized.
+                fanoutExecutor.executeDeferred(slots, (pipeline, idx) -> {
+                    for (int i : idx) {
+                        operations.get(i).appendTo(pipeline);
+                    }
+                    return () -> {
+                        for (int i : idx) {
+                            operations.get(i).complete(jedisClient);
+                        }
+                        return null;
+                    };
+                }, idx -> {
+                    for (int i : idx) {
+                        operations.get(i).completeDirect(jedisClient);
+                    }
+                    return null;
+                });
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        try {
+            super.close();
+        } finally {
+            fanoutExecutor.close();
+            ClusterReadRouter router = getReadRouter();
+            if (!isNull(router)) {
+                router.close();
+            }
+        }
     }
 
     // ----------------------- JedisCluster ---------------------------
@@ -197,6 +298,11 @@ public class ConfigurableJedisClusterJedisClient extends JedisCluster implements
     @Override
     public Long exists(final String... keys) {
         checkArguments(keys);
+        int[] slots = getSlots(keys);
+        if (!isSingleSlot(slots)) {
+            return sumOf(fanoutExecutor.execute(slots, (p, idx) -> p.exists(select(keys, idx)),
+                    idx -> exists(select(keys, idx))));
+        }
         return new ConfigurableJedisClusterCommand<Long>(connectionHandler, maxAttempts, maxTotalRetriesDuration) {
             @Override
             public Long doExecute(Jedis connection) {
@@ -340,6 +446,11 @@ public class ConfigurableJedisClusterJedisClient extends JedisCluster implements
     @Override
     public Long touch(final String... keys) {
         checkArguments(keys);
+        int[] slots = getSlots(keys);
+        if (!isSingleSlot(slots)) {
+            return sumOf(fanoutExecutor.execute(slots, (p, idx) -> p.touch(select(keys, idx)),
+                    idx -> touch(select(keys, idx))));
+        }
         return new ConfigurableJedisClusterCommand<Long>(connectionHandler, maxAttempts, maxTotalRetriesDuration) {
             @Override
             public Long doExecute(Jedis connection) {
@@ -1677,6 +1788,11 @@ public class ConfigurableJedisClusterJedisClient extends JedisCluster implements
     @Override
     public Long unlink(final String... keys) {
         checkArguments(keys);
+        int[] slots = getSlots(keys);
+        if (!isSingleSlot(slots)) {
+            return sumOf(fanoutExecutor.execute(slots, (p, idx) -> p.unlink(select(keys, idx)),
+                    idx -> unlink(select(keys, idx))));
+        }
         return new ConfigurableJedisClusterCommand<Long>(connectionHandler, maxAttempts, maxTotalRetriesDuration) {
             @Override
             public Long doExecute(Jedis connection) {
@@ -1815,6 +1931,11 @@ public class ConfigurableJedisClusterJedisClient extends JedisCluster implements
     @Override
     public Long del(final String... keys) {
         checkArguments(keys);
+        int[] slots = getSlots(keys);
+        if (!isSingleSlot(slots)) {
+            return sumOf(fanoutExecutor.execute(slots, (p, idx) -> p.del(select(keys, idx)),
+                    idx -> del(select(keys, idx))));
+        }
         return new ConfigurableJedisClusterCommand<Long>(connectionHandler, maxAttempts, maxTotalRetriesDuration) {
             @Override
             public Long doExecute(Jedis connection) {
@@ -1962,6 +2083,17 @@ public class ConfigurableJedisClusterJedisClient extends JedisCluster implements
     @Override
     public List<String> mget(final String... keys) {
         checkArguments(keys);
+        int[] slots = getSlots(keys);
+        if (!isSingleSlot(slots)) {
+            String[] values = new String[keys.length];
+            for (SlotResult<List<String>> res : fanoutExecutor.execute(slots, (p, idx) -> p.mget(select(keys, idx)),
+                    idx -> mget(select(keys, idx)))) {
+                for (int i = 0; i < res.indexes.length; i++) {
+                    values[res.indexes[i]] = res.result.get(i);
+                }
+            }
+            return asList(values);
+        }
         return new ConfigurableJedisClusterCommand<List<String>>(connectionHandler, maxAttempts, maxTotalRetriesDuration) {
             @Override
             public List<String> doExecute(Jedis connection) {
@@ -1976,6 +2108,12 @@ public class ConfigurableJedisClusterJedisClient extends JedisCluster implements
         for (int keyIdx = 0; keyIdx < keys.length; keyIdx++) {
             keys[keyIdx] = keysvalues[keyIdx * 2];
         }
+        checkArguments(keys);
+        int[] slots = getSlots(keys);
+        if (!isSingleSlot(slots)) {
+            return statusOf(fanoutExecutor.execute(slots, (p, idx) -> p.mset(selectPairs(keysvalues, idx)),
+                    idx -> mset(selectPairs(keysvalues, idx))));
+        }
         return new ConfigurableJedisClusterCommand<String>(connectionHandler, maxAttempts, maxTotalRetriesDuration) {
             @Override
             public String doExecute(Jedis connection) {
@@ -3105,6 +3243,11 @@ public class ConfigurableJedisClusterJedisClient extends JedisCluster implements
     @Override
     public Long exists(final byte[]... keys) {
         checkBinaryArguments(keys);
+        int[] slots = getSlots(keys);
+        if (!isSingleSlot(slots)) {
+            return sumOf(fanoutExecutor.execute(slots, (p, idx) -> p.exists(select(keys, idx)),
+                    idx -> exists(select(keys, idx))));
+        }
         return new ConfigurableJedisClusterCommand<Long>(connectionHandler, maxAttempts, maxTotalRetriesDuration) {
             @Override
             public Long doExecute(Jedis connection) {
@@ -3259,6 +3402,11 @@ public class ConfigurableJedisClusterJedisClient extends JedisCluster implements
     @Override
     public Long touch(final byte[]... keys) {
         checkBinaryArguments(keys);
+        int[] slots = getSlots(keys);
+        if (!isSingleSlot(slots)) {
+            return sumOf(fanoutExecutor.execute(slots, (p, idx) -> p.touch(select(keys, idx)),
+                    idx -> touch(select(keys, idx))));
+        }
         return new ConfigurableJedisClusterCommand<Long>(connectionHandler, maxAttempts, maxTotalRetriesDuration) {
             @Override
             public Long doExecute(Jedis connection) {
@@ -4519,6 +4667,11 @@ public class ConfigurableJedisClusterJedisClient extends JedisCluster implements
     @Override
     public Long unlink(final byte[]... keys) {
         checkBinaryArguments(keys);
+        int[] slots = getSlots(keys);
+        if (!isSingleSlot(slots)) {
+            return sumOf(fanoutExecutor.execute(slots, (p, idx) -> p.unlink(select(keys, idx)),
+                    idx -> unlink(select(keys, idx))));
+        }
         return new ConfigurableJedisClusterCommand<Long>(connectionHandler, maxAttempts, maxTotalRetriesDuration) {
             @Override
             public Long doExecute(Jedis connection) {
@@ -4791,6 +4944,11 @@ public class ConfigurableJedisClusterJedisClient extends JedisCluster implements
     @Override
     public Long del(final byte[]... keys) {
         checkBinaryArguments(keys);
+        int[] slots = getSlots(keys);
+        if (!isSingleSlot(slots)) {
+            return sumOf(fanoutExecutor.execute(slots, (p, idx) -> p.del(select(keys, idx)),
+                    idx -> del(select(keys, idx))));
+        }
         return new ConfigurableJedisClusterCommand<Long>(connectionHandler, maxAttempts, maxTotalRetriesDuration) {
             @Override
             public Long doExecute(Jedis connection) {
@@ -4893,6 +5051,17 @@ public class ConfigurableJedisClusterJedisClient extends JedisCluster implements
     @Override
     public List<byte[]> mget(final byte[]... keys) {
         checkBinaryArguments(keys);
+        int[] slots = getSlots(keys);
+        if (!isSingleSlot(slots)) {
+            byte[][] values = new byte[keys.length][];
+            for (SlotResult<List<byte[]>> res : fanoutExecutor.execute(slots, (p, idx) -> p.mget(select(keys, idx)),
+                    idx -> mget(select(keys, idx)))) {
+                for (int i = 0; i < res.indexes.length; i++) {
+                    values[res.indexes[i]] = res.result.get(i);
+                }
+            }
+            return asList(values);
+        }
         return new ConfigurableJedisClusterCommand<List<byte[]>>(connectionHandler, maxAttempts, maxTotalRetriesDuration) {
             @Override
             public List<byte[]> doExecute(Jedis connection) {
@@ -4908,6 +5077,12 @@ public class ConfigurableJedisClusterJedisClient extends JedisCluster implements
         for (int keyIdx = 0; keyIdx < keys.length; keyIdx++) {
             keys[keyIdx] = keysvalues[keyIdx * 2];
         }
+        checkBinaryArguments(keys);
+        int[] slots = getSlots(keys);
+        if (!isSingleSlot(slots)) {
+            return statusOf(fanoutExecutor.execute(slots, (p, idx) -> p.mset(selectPairs(keysvalues, idx)),
+                    idx -> mset(selectPairs(keysvalues, idx))));
+        }
 
         return new ConfigurableJedisClusterCommand<String>(connectionHandler, maxAttempts, maxTotalRetriesDuration) {
             @Override
@@ -5947,6 +6122,73 @@ public class ConfigurableJedisClusterJedisClient extends JedisCluster implements
 
     // ----------------------- Function's ---------------------------
 
+    private static int[] getSlots(final String... keys) {
+        int[] slots = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            slots[i] = JedisClusterCRC16.getSlot(keys[i]);
+        }
+        return slots;
+    }
+
+    private static int[] getSlots(final byte[]... keys) {
+        int[] slots = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            slots[i] = JedisClusterCRC16.getSlot(keys[i]);
+        }
+        return slots;
+    }
+
+    /**
+     * Select the keys of the slot group.
+     * 
+     * @param keys
+     * @param indexes
+     * @return
+     */
+    private static <T> T[] select(final T[] keys, final int[] indexes) {
+        T[] selected = Arrays.copyOf(keys, indexes.length);
+        for (int i = 0; i < indexes.length; i++) {
+            selected[i] = keys[indexes[i]];
+        }
+        return selected;
+    }
+
+    /**
+     * Select the key-value pairs of the slot group.
+     * 
+     * @param keysvalues
+     * @param indexes
+     *            The indexes of keys(not pairs).
+     * @return
+     */
+    private static <T> T[] selectPairs(final T[] keysvalues, final int[] indexes) {
+        T[] selected = Arrays.copyOf(keysvalues, indexes.length * 2);
+        for (int i = 0; i < indexes.length; i++) {
+            selected[i * 2] = keysvalues[indexes[i] * 2];
+            selected[i * 2 + 1] = keysvalues[indexes[i] * 2 + 1];
+        }
+        return selected;
+    }
+
+    private static Long sumOf(final List<SlotResult<Long>> results) {
+        long sum = 0L;
+        for (SlotResult<Long> res : results) {
+            sum += (res.result != null ? res.result : 0L);
+        }
+        return sum;
+    }
+
+    private static String statusOf(final List<SlotResult<String>> results) {
+        String status = null;
+        for (SlotResult<String> res : results) {
+            status = res.result;
+            if (!"OK".equalsIgnoreCase(status)) {
+                break;
+            }
+        }
+        return status;
+    }
+
     /**
      * Check input argument names specification.
      * 
@@ -5978,7 +6220,9 @@ public class ConfigurableJedisClusterJedisClient extends JedisCluster implements
      * @throws ParameterCanonicalException
      */
     protected void checkArguments(final List<String> keys) throws ParameterCanonicalException {
-        checkArguments(keys.toArray(new String[0]));
+        if (safeMode) {
+            RedisSpecUtil.safeCheckKeys(keys);
+        }
     }
 
     /**
@@ -5989,7 +6233,7 @@ public class ConfigurableJedisClusterJedisClient extends JedisCluster implements
      */
     protected void checkArguments(final String... keys) throws ParameterCanonicalException {
         if (safeMode) {
-            RedisSpecUtil.safeCheckKeys(asList(keys));
+            RedisSpecUtil.safeCheckKeys(keys);
         }
     }
 
@@ -6021,6 +6265,9 @@ public class ConfigurableJedisClusterJedisClient extends JedisCluster implements
         }
     }
 
+    /** Default parallelism of multi-key commands fan-out. */
+    public static final int DEFAULT_FANOUT_PARALLELISM = Math.max(4, Runtime.getRuntime().availableProcessors());
+
     private static final Method PARAMS_MATCH;
     private static final Method PARAMS_BINARYMATCH;
 
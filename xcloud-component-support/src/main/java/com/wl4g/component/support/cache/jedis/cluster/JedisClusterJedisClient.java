@@ -15,14 +15,19 @@
  */
 package com.wl4g.component.support.cache.jedis.cluster;
 
+import static java.util.Objects.isNull;
 import static org.springframework.util.Assert.notNull;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
+import com.wl4g.component.support.cache.jedis.JedisBatch;
 import com.wl4g.component.support.cache.jedis.JedisClient;
 
 import redis.clients.jedis.BinaryJedisPubSub;
@@ -35,6 +40,7 @@ import redis.clients.jedis.JedisCluster;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPubSub;
 import redis.clients.jedis.ListPosition;
+import redis.clients.jedis.Pipeline;
 import redis.clients.jedis.ScanParams;
 import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.SortingParams;
@@ -46,6 +52,7 @@ import redis.clients.jedis.Tuple;
 import redis.clients.jedis.ZParams;
 import redis.clients.jedis.args.FlushMode;
 import redis.clients.jedis.args.ListDirection;
+import redis.clients.jedis.exceptions.JedisException;
 import redis.clients.jedis.params.GeoAddParams;
 import redis.clients.jedis.params.GeoRadiusParam;
 import redis.clients.jedis.params.GeoRadiusStoreParam;
@@ -87,6 +94,45 @@ public class JedisClusterJedisClient implements JedisClient {
         return jedisCluster.getClusterNodes();
     }
 
+    @Override
+    public JedisBatch batch() {
+        return new JedisBatch(this, false) {
+            @Override
+            protected void doSync(List<BatchOperation<?>> operations) {
+                // One pipeline per node.
+                Map<Integer, Pipeline> slotPipelines = new HashMap<>(16);
+                Map<String, Pipeline> nodePipelines = new LinkedHashMap<>(8);
+                List<Jedis> connections = new ArrayList<>(8);
+                try {
+                    for (BatchOperation<?> op : operations) {
+                        Pipeline pipeline = slotPipelines.get(op.getSlot());
+                        if (isNull(pipeline)) {
+                            Jedis jedis = jedisCluster.getConnectionFromSlot(op.getSlot());
+                            String node = jedis.getClient().getHost() + ":" + jedis.getClient().getPort();
+                            pipeline = nodePipelines.get(node);
+                            if (isNull(pipeline)) {
+                                connections.add(jedis);
+                                pipeline = jedis.pipelined();
+                                nodePipelines.put(node, pipeline);
+                            } else {
+                                jedis.close();
+                            }
+                            slotPipelines.put(op.getSlot(), pipeline);
+                        }
+                        op.appendTo(pipeline);
+                    }
+                    nodePipelines.values().forEach(Pipeline::sync);
+                } catch (JedisException e) {
+                    operations.forEach(op -> op.completeExceptionally(e));
+                    return;
+                } finally {
+                    connections.forEach(Jedis::close);
+                }
+                operations.forEach(op -> op.complete(jedisClient));
+            }
+        };
+    }
+
     @Override
     public void close() throws IOException {
         jedisCluster.close();
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.metrics;
+
+import javax.annotation.Nullable;
+
+/**
+ * Instrumentation hook of the jedis cluster commands, it's called by the
+ * command thread, so the implementations must be thread-safe and fast.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-25 v1.0.0
+ * @see JedisCommandMetrics
+ */
+public interface JedisCommandHook {
+
+    /**
+     * Called after each attempt of the command on a node.
+     *
+     * @param command
+     *            The command name, e.g: get
+     * @param node
+     *            The node address, e.g: 10.0.0.1:6379
+     * @param elapsedNanos
+     * @param error
+     *            The error of attempt (including redirection), null if
+     *            succeeded.
+     */
+    void onAttempt(String command, String node, long elapsedNanos, @Nullable Throwable error);
+
+    /**
+     * Called when the node replies redirection.
+     *
+     * @param command
+     * @param node
+     *            The node address that replies redirection.
+     * @param moved
+     *            MOVED if true, otherwise ASK.
+     */
+    void onRedirect(String command, String node, boolean moved);
+
+    /**
+     * Called after the command is completed (including retries).
+     *
+     * @param command
+     * @param key
+     *            The (first) key of command, String or byte[], null if keyless.
+     * @param attempts
+     * @param elapsedNanos
+     * @param result
+     * @param error
+     */
+    void onCompleted(String command, @Nullable Object key, int attempts, long elapsedNanos, @Nullable Object result,
+            @Nullable Throwable error);
+
+}
@@ -0,0 +1,405 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.metrics;
+
+import static com.wl4g.component.common.lang.Assert2.isTrue;
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+
+/**
+ * Metrics registry of the jedis cluster commands, which records: </br>
+ * <ul>
+ * <li>the latency histograms of each command (including retries) and each
+ * node (per attempt);</li>
+ * <li>the MOVED/ASK redirections of each node, and the retries and errors of
+ * each command;</li>
+ * <li>the sampled top-K hot keys, and the top-K big values (that the length
+ * of reply exceeds the threshold).</li>
+ * </ul>
+ * The histograms are bucketed by power of 2 microseconds, so the recording is
+ * lock-free and constant memory, and the percentiles are upper bounds of
+ * bucket (i.e. at most 2x).
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-25 v1.0.0
+ * @see
+ */
+public class JedisCommandMetrics implements JedisCommandHook {
+
+    private final MetricsProperties config;
+    private final Map<String, CommandStats> commands = new ConcurrentHashMap<>(64);
+    private final Map<String, NodeStats> nodes = new ConcurrentHashMap<>(16);
+    private final TopKTracker hotKeys;
+    private final TopKTracker bigValues;
+
+    public JedisCommandMetrics() {
+        this(new MetricsProperties());
+    }
+
+    public JedisCommandMetrics(MetricsProperties config) {
+        this.config = notNullOf(config, "metricsProperties");
+        // The keys with frequency > N/capacity are guaranteed to be retained.
+        this.hotKeys = new TopKTracker(Math.max(config.getTopK() * 8, 128), true);
+        this.bigValues = new TopKTracker(config.getTopK(), false);
+    }
+
+    public MetricsProperties getConfig() {
+        return config;
+    }
+
+    @Override
+    public void onAttempt(String command, String node, long elapsedNanos, @Nullable Throwable error) {
+        NodeStats stats = nodes.computeIfAbsent(node, n -> new NodeStats());
+        stats.latency.record(elapsedNanos);
+        if (!isNull(error)) {
+            stats.errors.increment();
+        }
+    }
+
+    @Override
+    public void onRedirect(String command, String node, boolean moved) {
+        NodeStats stats = nodes.computeIfAbsent(node, n -> new NodeStats());
+        (moved ? stats.moved : stats.asks).increment();
+    }
+
+    @Override
+    public void onCompleted(String command, @Nullable Object key, int attempts, long elapsedNanos, @Nullable Object result,
+            @Nullable Throwable error) {
+        CommandStats stats = commands.computeIfAbsent(command, c -> new CommandStats());
+        stats.latency.record(elapsedNanos);
+        if (attempts > 1) {
+            stats.retries.add(attempts - 1);
+        }
+        if (!isNull(error)) {
+            stats.errors.increment();
+        }
+        if (isNull(key)) {
+            return;
+        }
+        // Sampling of hot keys.
+        int sampleRate = config.getSampleRate();
+        if (sampleRate <= 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0) {
+            hotKeys.offer(keyToString(key), Math.max(sampleRate, 1));
+        }
+        long length = lengthOf(result);
+        if (length >= config.getBigValueThreshold()) {
+            bigValues.offer(keyToString(key), length);
+        }
+    }
+
+    /**
+     * Gets the snapshot of all metrics.
+     *
+     * @return
+     */
+    public MetricsSnapshot snapshot() {
+        MetricsSnapshot snapshot = new MetricsSnapshot();
+        for (Entry<String, CommandStats> ent : commands.entrySet()) {
+            CommandStats stats = ent.getValue();
+            LatencySnapshot latency = stats.latency.snapshot();
+            latency.errors = stats.errors.sum();
+            latency.retries = stats.retries.sum();
+            snapshot.commands.put(ent.getKey(), latency);
+        }
+        for (Entry<String, NodeStats> ent : nodes.entrySet()) {
+            NodeStats stats = ent.getValue();
+            LatencySnapshot latency = stats.latency.snapshot();
+            latency.errors = stats.errors.sum();
+            latency.moved = stats.moved.sum();
+            latency.asks = stats.asks.sum();
+            snapshot.nodes.put(ent.getKey(), latency);
+        }
+        snapshot.hotKeys = hotKeys.top(config.getTopK());
+        snapshot.bigValues = bigValues.top(config.getTopK());
+        return snapshot;
+    }
+
+    /**
+     * Reset all metrics.
+     */
+    public void reset() {
+        commands.clear();
+        nodes.clear();
+        hotKeys.reset();
+        bigValues.reset();
+    }
+
+    private static String keyToString(Object key) {
+        return (key instanceof byte[]) ? new String((byte[]) key, UTF_8) : key.toString();
+    }
+
+    /**
+     * Gets the approximate length of reply, e.g: the length of string or
+     * bytes, the size of collection or map.
+     *
+     * @param result
+     * @return
+     */
+    static long lengthOf(@Nullable Object result) {
+        if (result instanceof byte[]) {
+            return ((byte[]) result).length;
+        } else if (result instanceof String) {
+            return ((String) result).length();
+        } else if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        } else if (result instanceof Map) {
+            return ((Map<?, ?>) result).size();
+        }
+        return 0L;
+    }
+
+    private static class CommandStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder retries = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
+
+    private static class NodeStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final LongAdder moved = new LongAdder();
+        final LongAdder asks = new LongAdder();
+    }
+
+    /**
+     * Lock-free latency histogram, the bucket N contains the latencies in
+     * [2^(N-1), 2^N) microseconds.
+     */
+    static final class LatencyHistogram {
+        static final int BUCKETS = 32;
+
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder totalMicros = new LongAdder();
+        private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0L);
+
+        LatencyHistogram() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long elapsedNanos) {
+            long micros = NANOSECONDS.toMicros(Math.max(elapsedNanos, 0L));
+            buckets[Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKETS - 1)].increment();
+            totalMicros.add(micros);
+            maxMicros.accumulate(micros);
+        }
+
+        LatencySnapshot snapshot() {
+            long[] counts = new long[BUCKETS];
+            long count = 0L;
+            for (int i = 0; i < BUCKETS; i++) {
+                count += (counts[i] = buckets[i].sum());
+            }
+            LatencySnapshot snapshot = new LatencySnapshot();
+            snapshot.count = count;
+            if (count > 0) {
+                long max = maxMicros.get();
+                snapshot.meanMicros = totalMicros.sum() / count;
+                snapshot.maxMicros = max;
+                snapshot.p50Micros = Math.min(percentile(counts, count, 0.50d), max);
+                snapshot.p90Micros = Math.min(percentile(counts, count, 0.90d), max);
+                snapshot.p99Micros = Math.min(percentile(counts, count, 0.99d), max);
+                snapshot.p999Micros = Math.min(percentile(counts, count, 0.999d), max);
+            }
+            return snapshot;
+        }
+
+        /**
+         * Gets the upper bound(microseconds) of the bucket where the
+         * percentile is located.
+         */
+        static long percentile(long[] counts, long count, double percentile) {
+            long rank = (long) Math.ceil(count * percentile);
+            long cumulative = 0L;
+            for (int i = 0; i < counts.length; i++) {
+                cumulative += counts[i];
+                if (cumulative >= rank) {
+                    return 1L << i;
+                }
+            }
+            return 1L << (counts.length - 1);
+        }
+    }
+
+    /**
+     * Latency snapshot of a command or node.
+     */
+    public static class LatencySnapshot implements Serializable {
+        private static final long serialVersionUID = 4786131574386092453L;
+
+        private long count;
+        private long meanMicros;
+        private long maxMicros;
+        private long p50Micros;
+        private long p90Micros;
+        private long p99Micros;
+        private long p999Micros;
+        private long errors;
+        /** Retries of the command (attempts - 1) */
+        private long retries;
+        /** MOVED redirections replied by the node */
+        private long moved;
+        /** ASK redirections replied by the node */
+        private long asks;
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMeanMicros() {
+            return meanMicros;
+        }
+
+        public long getMaxMicros() {
+            return maxMicros;
+        }
+
+        public long getP50Micros() {
+            return p50Micros;
+        }
+
+        public long getP90Micros() {
+            return p90Micros;
+        }
+
+        public long getP99Micros() {
+            return p99Micros;
+        }
+
+        public long getP999Micros() {
+            return p999Micros;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getRetries() {
+            return retries;
+        }
+
+        public long getMoved() {
+            return moved;
+        }
+
+        public long getAsks() {
+            return asks;
+        }
+    }
+
+    /**
+     * Snapshot of {@link JedisCommandMetrics}
+     */
+    public static class MetricsSnapshot implements Serializable {
+        private static final long serialVersionUID = -2204466404513467310L;
+
+        private final Map<String, LatencySnapshot> commands = new LinkedHashMap<>(64);
+        private final Map<String, LatencySnapshot> nodes = new LinkedHashMap<>(16);
+        /** Estimated access counts of the hot keys, in descending order. */
+        private Map<String, Long> hotKeys;
+        /** Reply lengths of the big value keys, in descending order. */
+        private Map<String, Long> bigValues;
+
+        public Map<String, LatencySnapshot> getCommands() {
+            return commands;
+        }
+
+        public Map<String, LatencySnapshot> getNodes() {
+            return nodes;
+        }
+
+        public Map<String, Long> getHotKeys() {
+            return hotKeys;
+        }
+
+        public Map<String, Long> getBigValues() {
+            return bigValues;
+        }
+    }
+
+    /**
+     * Jedis command metrics properties.
+     */
+    public static class MetricsProperties implements Serializable {
+        private static final long serialVersionUID = -3190537806165376085L;
+
+        /** Whether to enable the metrics of cluster commands. */
+        private boolean enabled = false;
+
+        /** The hot keys are sampled once every N commands. */
+        private int sampleRate = 100;
+
+        /** Number of the top hot keys and big values. */
+        private int topK = 32;
+
+        /**
+         * The minimum reply length of big values, i.e. the length of string
+         * or bytes, and the size of collection or map.
+         */
+        private long bigValueThreshold = 64 * 1024;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(int sampleRate) {
+            isTrue(sampleRate > 0, "sampleRate must > 0");
+            this.sampleRate = sampleRate;
+        }
+
+        public int getTopK() {
+            return topK;
+        }
+
+        public void setTopK(int topK) {
+            isTrue(topK > 0, "topK must > 0");
+            this.topK = topK;
+        }
+
+        public long getBigValueThreshold() {
+            return bigValueThreshold;
+        }
+
+        public void setBigValueThreshold(long bigValueThreshold) {
+            isTrue(bigValueThreshold > 0, "bigValueThreshold must > 0");
+            this.bigValueThreshold = bigValueThreshold;
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.metrics;
+
+import static com.wl4g.component.common.lang.Assert2.isTrue;
+import static java.util.Objects.isNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Bounded top-K tracker of the (sampled) keys, it's the Space-Saving
+ * algorithm when accumulating (e.g: hot keys), or keeps the maximum value of
+ * each key otherwise (e.g: big values). When full, the new key replaces the
+ * minimum one, so the frequent/large keys are retained with bounded memory.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-25 v1.0.0
+ * @see
+ */
+public final class TopKTracker {
+
+    private final int capacity;
+    private final boolean accumulate;
+    private final Map<String, long[]> values;
+
+    public TopKTracker(int capacity, boolean accumulate) {
+        isTrue(capacity > 0, "capacity must greater than 0");
+        this.capacity = capacity;
+        this.accumulate = accumulate;
+        this.values = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Offer the value of key.
+     *
+     * @param key
+     * @param value
+     */
+    public synchronized void offer(String key, long value) {
+        long[] current = values.get(key);
+        if (!isNull(current)) {
+            current[0] = accumulate ? current[0] + value : Math.max(current[0], value);
+            return;
+        }
+        if (values.size() < capacity) {
+            values.put(key, new long[] { value });
+            return;
+        }
+        // Replace the minimum.
+        String minKey = null;
+        long[] min = null;
+        for (Entry<String, long[]> ent : values.entrySet()) {
+            if (isNull(min) || ent.getValue()[0] < min[0]) {
+                minKey = ent.getKey();
+                min = ent.getValue();
+            }
+        }
+        if (accumulate) { // Space-Saving, inherits the minimum count.
+            values.remove(minKey);
+            min[0] += value;
+            values.put(key, min);
+        } else if (value > min[0]) {
+            values.remove(minKey);
+            min[0] = value;
+            values.put(key, min);
+        }
+    }
+
+    /**
+     * Gets the top-K keys and values, in descending order.
+     *
+     * @param k
+     * @return
+     */
+    public synchronized Map<String, Long> top(int k) {
+        List<Entry<String, long[]>> entries = new ArrayList<>(values.entrySet());
+        entries.sort((e1, e2) -> Long.compare(e2.getValue()[0], e1.getValue()[0]));
+        Map<String, Long> top = new LinkedHashMap<>(Math.min(k, entries.size()) * 2);
+        Iterator<Entry<String, long[]>> it = entries.iterator();
+        while (it.hasNext() && top.size() < k) {
+            Entry<String, long[]> ent = it.next();
+            top.put(ent.getKey(), ent.getValue()[0]);
+        }
+        return top;
+    }
+
+    public synchronized void reset() {
+        values.clear();
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.near;
+
+import static com.wl4g.component.common.lang.Assert2.hasTextOf;
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static java.util.Objects.nonNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * JVM local in-memory {@link NearCacheInvalidator}, the invalidations are
+ * delivered synchronously to the other instances of the same channel, it's
+ * the stand-in of redis pub/sub for tests.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-21 v1.0.0
+ * @see
+ */
+public class LocalNearCacheInvalidator implements NearCacheInvalidator {
+
+    private final String channel;
+    private volatile InvalidationListener listener;
+
+    public LocalNearCacheInvalidator(String channel) {
+        this.channel = hasTextOf(channel, "channel");
+    }
+
+    @Override
+    public void start(InvalidationListener listener) {
+        this.listener = notNullOf(listener, "listener");
+        channels.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(this);
+    }
+
+    @Override
+    public void publish(String key) {
+        for (LocalNearCacheInvalidator subscriber : channels.getOrDefault(channel, emptySubscribers)) {
+            InvalidationListener l = subscriber.listener;
+            if (subscriber != this && nonNull(l)) {
+                l.onInvalidate(key);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        List<LocalNearCacheInvalidator> subscribers = channels.get(channel);
+        if (nonNull(subscribers)) {
+            subscribers.remove(this);
+        }
+    }
+
+    private static final Map<String, List<LocalNearCacheInvalidator>> channels = new ConcurrentHashMap<>();
+    private static final List<LocalNearCacheInvalidator> emptySubscribers = new CopyOnWriteArrayList<>();
+
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.near;
+
+import static com.wl4g.component.common.lang.Assert2.isTrue;
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.Closeable;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.wl4g.component.common.log.SmartLogger;
+import com.wl4g.component.support.cache.jedis.near.NearCacheInvalidator.InvalidationListener;
+
+/**
+ * Bounded client-side (L1) near cache of redis values, keyed by redis key.
+ * </br>
+ *
+ * <p>
+ * The decoded values are cached with the size and TTL limits, the writes of
+ * this instance invalidate the key locally and publish the invalidation to
+ * the other instances through {@link NearCacheInvalidator}, while the
+ * expiration changes only evict the key locally. A value loaded
+ * concurrently with an invalidation of the same key (stripe) is not cached,
+ * so the stale value will not overwrite the invalidation.
+ * </p>
+ *
+ * <font color=red>Note: the cached values are shared by callers, they must
+ * not be modified. The writes that bypass the near cache (e.g. other
+ * applications or pipelined batches) are visible only after expired.</font>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-21 v1.0.0
+ * @see
+ */
+public class NearCache implements InvalidationListener, Closeable {
+    protected final SmartLogger log = getLogger(getClass());
+
+    private final NearCacheProperties config;
+    private final NearCacheInvalidator invalidator;
+    private final Cache<String, CachedValue> cache;
+
+    /** Invalidation versions of key stripes. */
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    public NearCache(NearCacheProperties config, NearCacheInvalidator invalidator) {
+        this.config = notNullOf(config, "nearCacheProperties");
+        this.invalidator = notNullOf(invalidator, "invalidator");
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getExpireMs(), MILLISECONDS)
+                .recordStats()
+                .build();
+        invalidator.start(this);
+    }
+
+    /**
+     * Check whether the key is cacheable.
+     *
+     * @param key
+     * @return
+     */
+    public boolean isCacheable(String key) {
+        if (isNull(key)) {
+            return false;
+        }
+        List<String> prefixes = config.getKeyPrefixes();
+        if (prefixes.isEmpty()) {
+            return true;
+        }
+        for (int i = 0, size = prefixes.size(); i < size; i++) {
+            if (key.startsWith(prefixes.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the cached value or load it from redis.
+     *
+     * @param key
+     *            redis key
+     * @param format
+     *            The value decoding format (e.g. json), the cached value is
+     *            reused only when both the format and type matched.
+     * @param type
+     *            The value type.
+     * @param loader
+     *            Load and decode value from redis.
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getOrLoad(String key, String format, Class<?> type, Supplier<T> loader) {
+        if (!isCacheable(key)) {
+            return loader.get();
+        }
+        CachedValue cached = cache.getIfPresent(key);
+        if (nonNull(cached) && cached.matches(format, type)) {
+            return (T) cached.value;
+        }
+
+        int stripe = stripe(key);
+        long version = versions.get(stripe);
+        T value = loader.get();
+        if (nonNull(value)) {
+            cache.put(key, new CachedValue(format, type, value));
+            // Invalidated while loading, the loaded may be stale.
+            if (versions.get(stripe) != version) {
+                cache.invalidate(key);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Gets the cached value or load it from redis asynchronously.
+     *
+     * @param key
+     * @param format
+     * @param type
+     * @param loader
+     *            Load and decode value from redis asynchronously.
+     * @return
+     * @see #getOrLoad(String, String, Class, Supplier)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> getOrLoadAsync(String key, String format, Class<?> type,
+            Supplier<CompletableFuture<T>> loader) {
+        if (!isCacheable(key)) {
+            return loader.get();
+        }
+        CachedValue cached = cache.getIfPresent(key);
+        if (nonNull(cached) && cached.matches(format, type)) {
+            return CompletableFuture.completedFuture((T) cached.value);
+        }
+
+        int stripe = stripe(key);
+        long version = versions.get(stripe);
+        return loader.get().thenApply(value -> {
+            if (nonNull(value)) {
+                cache.put(key, new CachedValue(format, type, value));
+                // Invalidated while loading, the loaded may be stale.
+                if (versions.get(stripe) != version) {
+                    cache.invalidate(key);
+                }
+            }
+            return value;
+        });
+    }
+
+    /**
+     * Invalidate the key of local and other instances, it should be called
+     * after the redis value has been changed.
+     *
+     * @param key
+     */
+    public void invalidate(String key) {
+        if (isCacheable(key)) {
+            invalidateLocal(key);
+            try {
+                invalidator.publish(key);
+            } catch (Exception e) {
+                log.warn("Failed to publish near cache invalidation of '{}'. - {}", key, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Evict the key of local only, it should be called after the expiration
+     * of redis key has been changed, the value is unchanged, so the other
+     * instances are not notified.
+     *
+     * @param key
+     */
+    public void evict(String key) {
+        if (isCacheable(key)) {
+            invalidateLocal(key);
+        }
+    }
+
+    @Override
+    public void onInvalidate(String key) {
+        invalidateLocal(key);
+    }
+
+    @Override
+    public void onReset() {
+        for (int i = 0; i < VERSION_STRIPES; i++) {
+            versions.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void close() {
+        invalidator.close();
+        cache.invalidateAll();
+    }
+
+    private void invalidateLocal(String key) {
+        // The version must be changed before removed.
+        versions.incrementAndGet(stripe(key));
+        cache.invalidate(key);
+    }
+
+    private static int stripe(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (VERSION_STRIPES - 1);
+    }
+
+    private static final int VERSION_STRIPES = 64;
+
+    /**
+     * Cached decoded value.
+     */
+    private static final class CachedValue {
+        private final String format;
+        private final Class<?> type;
+        private final Object value;
+
+        CachedValue(String format, Class<?> type, Object value) {
+            this.format = format;
+            this.type = type;
+            this.value = value;
+        }
+
+        boolean matches(String format, Class<?> type) {
+            return this.type == type && this.format.equals(format);
+        }
+    }
+
+    /**
+     * {@link NearCache} properties.
+     */
+    public static class NearCacheProperties implements Serializable {
+        private static final long serialVersionUID = -6107264811906212418L;
+
+        /** Whether to enable the near cache of jedis service reads. */
+        private boolean enabled = false;
+
+        /** Maximum number of cached keys. */
+        private long maximumSize = 10_000L;
+
+        /** Expiration(ms) after cached. */
+        private long expireMs = 60_000L;
+
+        /** Cacheable key prefixes, empty means all keys. */
+        private List<String> keyPrefixes = new ArrayList<>();
+
+        /** Invalidation pub/sub channel. */
+        private String channel = DEFAULT_CHANNEL;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            isTrue(maximumSize > 0, "maximumSize must > 0");
+            this.maximumSize = maximumSize;
+        }
+
+        public long getExpireMs() {
+            return expireMs;
+        }
+
+        public void setExpireMs(long expireMs) {
+            isTrue(expireMs > 0, "expireMs must > 0");
+            this.expireMs = expireMs;
+        }
+
+        public List<String> getKeyPrefixes() {
+            return keyPrefixes;
+        }
+
+        public void setKeyPrefixes(List<String> keyPrefixes) {
+            this.keyPrefixes = notNullOf(keyPrefixes, "keyPrefixes");
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+
+        public static final String DEFAULT_CHANNEL = "__xcloud:jedis:near-cache:invalidation";
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.near;
+
+import java.io.Closeable;
+
+/**
+ * Invalidation messages transport of {@link NearCache}, the invalidations
+ * published by an instance are received by all the other instances.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-21 v1.0.0
+ * @see
+ */
+public interface NearCacheInvalidator extends Closeable {
+
+    /**
+     * Start receiving the invalidations of other instances.
+     *
+     * @param listener
+     */
+    void start(InvalidationListener listener);
+
+    /**
+     * Publish the invalidation of key to other instances.
+     *
+     * @param key
+     */
+    void publish(String key);
+
+    @Override
+    default void close() {
+    }
+
+    /**
+     * Listener of received invalidations.
+     */
+    public static interface InvalidationListener {
+
+        /**
+         * The key has been changed by other instance.
+         *
+         * @param key
+         */
+        void onInvalidate(String key);
+
+        /**
+         * The invalidations may have been lost (e.g. reconnected), all the
+         * cached entries should be discarded.
+         */
+        void onReset();
+    }
+
+}
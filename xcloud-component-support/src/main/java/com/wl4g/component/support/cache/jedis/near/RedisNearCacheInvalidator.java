@@ -0,0 +1,199 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.near;
+
+import static com.wl4g.component.common.lang.Assert2.hasTextOf;
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
+import static java.util.Objects.nonNull;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.wl4g.component.common.log.SmartLogger;
+import com.wl4g.component.support.cache.jedis.JedisBatch;
+import com.wl4g.component.support.cache.jedis.JedisClient;
+import com.wl4g.component.support.cache.jedis.JedisSubscriber;
+
+import redis.clients.jedis.JedisPubSub;
+
+/**
+ * Redis pub/sub {@link NearCacheInvalidator}, the message is
+ * '{instanceId}|{key}', the messages of self are ignored. The subscription is
+ * running on a daemon thread, and is re-subscribed when the connection is
+ * lost (the cached entries are discarded, because the invalidations in the
+ * meantime are lost). The invalidator is not restarted after closed.
+ *
+ * <p>
+ * The invalidations are published asynchronously by a daemon thread, the
+ * pending keys are deduplicated and pipelined in batches, so the writes are
+ * neither delayed nor failed by the publishing. The failed publishing is only
+ * logged, the other instances may read the stale entries until expired.
+ * </p>
+ *
+ * <font color=red>Note: jedis 3.x does not support the RESP3 client-side
+ * tracking, so the invalidations are published by the writers.</font>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-21 v1.0.0
+ * @see
+ */
+public class RedisNearCacheInvalidator implements NearCacheInvalidator {
+    protected final SmartLogger log = getLogger(getClass());
+
+    private final JedisClient jedisClient;
+    private final String channel;
+    private final String instanceId = UUID.randomUUID().toString().replace("-", "");
+
+    /** The pending keys to publish, guarded by itself. */
+    private final Set<String> pendingKeys = new LinkedHashSet<>(64);
+
+    /** The subscriber started, guarded by this. */
+    private JedisSubscriber subscriber;
+    private Thread publisher;
+    private volatile boolean closed;
+
+    public RedisNearCacheInvalidator(JedisClient jedisClient, String channel) {
+        this.jedisClient = notNullOf(jedisClient, "jedisClient");
+        this.channel = hasTextOf(channel, "channel");
+    }
+
+    @Override
+    public synchronized void start(InvalidationListener listener) {
+        notNullOf(listener, "listener");
+        if (closed || nonNull(subscriber)) {
+            return;
+        }
+        subscriber = new JedisSubscriber(jedisClient, "jedis-near-cache-invalidator", new JedisPubSub() {
+            @Override
+            public void onSubscribe(String channel, int subscribedChannels) {
+                log.info("Subscribed near cache invalidation of channel: {}", channel);
+                listener.onReset();
+            }
+
+            @Override
+            public void onMessage(String channel, String message) {
+                int index = message.indexOf(SEPARATOR);
+                if (index > 0 && !(index == instanceId.length() && message.startsWith(instanceId))) {
+                    listener.onInvalidate(message.substring(index + 1));
+                }
+            }
+        }, false, RESUBSCRIBE_DELAY_MS, channel) {
+            @Override
+            protected void onBroken(Exception e) {
+                // The invalidations are lost until re-subscribed.
+                listener.onReset();
+            }
+        };
+        subscriber.start();
+
+        publisher = new Thread(() -> doPublish(), "jedis-near-cache-publisher");
+        publisher.setDaemon(true);
+        publisher.start();
+    }
+
+    @Override
+    public void publish(String key) {
+        if (closed) {
+            return;
+        }
+        synchronized (pendingKeys) {
+            if (pendingKeys.size() >= MAX_PENDING_KEYS) {
+                log.warn("Dropped near cache invalidation of '{}', too many pending invalidations.", key);
+            } else if (pendingKeys.add(key)) {
+                pendingKeys.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Close the subscription, the pending invalidations are still published.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (nonNull(subscriber)) {
+            subscriber.close();
+        }
+        synchronized (pendingKeys) {
+            pendingKeys.notifyAll();
+        }
+    }
+
+    private void doPublish() {
+        List<String> keys = new ArrayList<>(MAX_BATCH_SIZE);
+        while (true) {
+            synchronized (pendingKeys) {
+                while (pendingKeys.isEmpty()) {
+                    if (closed) {
+                        return;
+                    }
+                    try {
+                        pendingKeys.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                Iterator<String> it = pendingKeys.iterator();
+                while (it.hasNext() && keys.size() < MAX_BATCH_SIZE) {
+                    keys.add(it.next());
+                    it.remove();
+                }
+            }
+            doPublish(keys);
+            keys.clear();
+        }
+    }
+
+    /**
+     * Publish the invalidations as one pipelined batch, the failures are only
+     * logged.
+     *
+     * @param keys
+     */
+    private void doPublish(List<String> keys) {
+        try {
+            JedisBatch batch = jedisClient.batch();
+            List<CompletableFuture<Long>> results = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                results.add(batch.publish(channel, instanceId.concat(SEPARATOR).concat(key)));
+            }
+            batch.sync();
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    results.get(i).join();
+                } catch (CompletionException e) {
+                    log.warn("Failed to publish near cache invalidation of '{}'. - {}", keys.get(i), e.getCause().getMessage());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to publish near cache invalidations of {} keys. - {}", keys.size(), e.getMessage());
+        }
+    }
+
+    private static final String SEPARATOR = "|";
+    private static final long RESUBSCRIBE_DELAY_MS = 3_000L;
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final int MAX_PENDING_KEYS = 65_536;
+
+}
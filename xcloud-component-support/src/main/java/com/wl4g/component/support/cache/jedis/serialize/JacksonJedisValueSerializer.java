@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.serialize;
+
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wl4g.component.common.serialize.JacksonUtils;
+
+/**
+ * Jackson (JSON) {@link JedisValueSerializer}, the data is the class name
+ * (2 bytes length and UTF-8) followed by the JSON of value. </br>
+ *
+ * <font color=red>Note: the value is restored as the declared types of its
+ * class, so it is suitable for the POJO values, the elements of raw
+ * collections or maps are restored as JSON types (e.g: LinkedHashMap).</font>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-22 v1.0.0
+ * @see
+ */
+public class JacksonJedisValueSerializer implements JedisValueSerializer {
+
+    public static final JacksonJedisValueSerializer INSTANCE = new JacksonJedisValueSerializer(
+            JacksonUtils.getDefaultObjectMapper());
+
+    private final ObjectMapper mapper;
+
+    public JacksonJedisValueSerializer(ObjectMapper mapper) {
+        this.mapper = notNullOf(mapper, "mapper");
+    }
+
+    @Override
+    public int getFormat() {
+        return FORMAT;
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        try {
+            byte[] type = value.getClass().getName().getBytes(UTF_8);
+            byte[] json = mapper.writeValueAsBytes(value);
+            byte[] data = new byte[2 + type.length + json.length];
+            data[0] = (byte) (type.length >>> 8);
+            data[1] = (byte) type.length;
+            System.arraycopy(type, 0, data, 2, type.length);
+            System.arraycopy(json, 0, data, 2 + type.length, json.length);
+            return data;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] data) {
+        int typeLength = ((data[0] & 0xff) << 8) | (data[1] & 0xff);
+        String typeName = new String(data, 2, typeLength, UTF_8);
+        try {
+            Class<?> type = Class.forName(typeName, false, getClassLoader());
+            return mapper.readValue(data, 2 + typeLength, data.length - 2 - typeLength, type);
+        } catch (ClassNotFoundException | IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ClassLoader getClassLoader() {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        return loader != null ? loader : JacksonJedisValueSerializer.class.getClassLoader();
+    }
+
+    public static final int FORMAT = 3;
+
+}
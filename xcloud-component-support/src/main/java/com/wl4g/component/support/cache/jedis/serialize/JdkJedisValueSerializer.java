@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.serialize;
+
+import com.wl4g.component.common.serialize.JdkSerializeUtils;
+
+/**
+ * JDK serialization {@link JedisValueSerializer}, the value must be
+ * {@link java.io.Serializable}. The uncompressed data is written without
+ * header, that is, the same as the legacy values.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-22 v1.0.0
+ * @see
+ */
+public class JdkJedisValueSerializer implements JedisValueSerializer {
+
+    public static final JdkJedisValueSerializer INSTANCE = new JdkJedisValueSerializer();
+
+    @Override
+    public int getFormat() {
+        return FORMAT;
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        return JdkSerializeUtils.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] data) {
+        return JdkSerializeUtils.unserialize(data);
+    }
+
+    public static final int FORMAT = 1;
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.serialize;
+
+import static com.wl4g.component.common.lang.Assert2.isTrue;
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static com.wl4g.component.common.lang.Assert2.state;
+import static java.util.Objects.isNull;
+import static org.springframework.util.ClassUtils.isPresent;
+
+import com.wl4g.component.common.codec.Compresss;
+import com.wl4g.component.common.serialize.JdkSerializeUtils;
+
+/**
+ * Object values codec of {@link com.wl4g.component.support.cache.jedis.JedisService}.
+ * </br>
+ *
+ * <p>
+ * The values are written by the configured {@link JedisValueSerializer} with
+ * a one-byte header: the low 4 bits are the format id, and the bit 0x10
+ * indicates the data is compressed with snappy (when the serialized length
+ * reaches the compress threshold and the compressed is smaller). The values
+ * of all built-in formats are readable, and the legacy JDK serialized values
+ * (without header) are recognized by the stream magic (0xACED, which never
+ * collides with the headers), so the serializer can be switched by rolling
+ * deployment.
+ * </p>
+ *
+ * <font color=red>Note: the compression requires the optional dependency of
+ * 'org.xerial.snappy:snappy-java'.</font>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-22 v1.0.0
+ * @see
+ */
+public final class JedisValueCodec {
+
+    /** Legacy compatible codec, that is JDK serialization without header. */
+    public static final JedisValueCodec DEFAULT = new JedisValueCodec(JdkJedisValueSerializer.INSTANCE, 0);
+
+    /** Writing serializer. */
+    private final JedisValueSerializer serializer;
+
+    /** Reading serializers, indexed by format id. */
+    private final JedisValueSerializer[] readers = new JedisValueSerializer[FORMAT_MASK + 1];
+
+    /** The minimum serialized length to compress, disabled if <= 0 */
+    private final int compressThreshold;
+
+    public JedisValueCodec(JedisValueSerializer serializer, int compressThreshold) {
+        this.serializer = notNullOf(serializer, "serializer");
+        int format = serializer.getFormat();
+        isTrue(format > 0 && format <= FORMAT_MASK, "Invalid jedis value format: %s, must be in range [1,%s]", format,
+                FORMAT_MASK);
+        if (compressThreshold > 0) {
+            state(isPresent(SNAPPY_CLASS, null), "Jedis value compression requires the dependency of snappy-java.");
+        }
+        this.compressThreshold = compressThreshold;
+        register(JdkJedisValueSerializer.INSTANCE);
+        register(ProtostuffJedisValueSerializer.INSTANCE);
+        register(JacksonJedisValueSerializer.INSTANCE);
+        register(serializer);
+    }
+
+    public JedisValueSerializer getSerializer() {
+        return serializer;
+    }
+
+    public int getCompressThreshold() {
+        return compressThreshold;
+    }
+
+    /**
+     * Encode the value as header and serialized data.
+     *
+     * @param value
+     * @return null if the value is null.
+     */
+    public byte[] encode(Object value) {
+        if (isNull(value)) {
+            return null;
+        }
+        byte[] data = serializer.serialize(value);
+        int header = serializer.getFormat();
+        if (compressThreshold > 0 && data.length >= compressThreshold) {
+            byte[] compressed = Compresss.snappyCompress(data);
+            if (compressed.length < data.length) {
+                data = compressed;
+                header |= FLAG_COMPRESSED;
+            }
+        }
+        // Keep the legacy format, readable by the older versions.
+        if (header == JdkJedisValueSerializer.FORMAT) {
+            return data;
+        }
+        byte[] encoded = new byte[data.length + 1];
+        encoded[0] = (byte) header;
+        System.arraycopy(data, 0, encoded, 1, data.length);
+        return encoded;
+    }
+
+    /**
+     * Decode the value that is encoded by any known format.
+     *
+     * @param bytes
+     * @return null if the bytes is null or empty.
+     * @throws IllegalStateException
+     *             If the format is unknown.
+     */
+    public Object decode(byte[] bytes) {
+        if (isNull(bytes) || bytes.length == 0) {
+            return null;
+        }
+        if (isLegacyJdk(bytes)) {
+            return JdkSerializeUtils.unserialize(bytes);
+        }
+        int header = bytes[0] & 0xff;
+        JedisValueSerializer reader = (header & ~(FORMAT_MASK | FLAG_COMPRESSED)) == 0 ? readers[header & FORMAT_MASK] : null;
+        if (isNull(reader)) {
+            throw new IllegalStateException(String.format("Unknown jedis value header: 0x%02x", header));
+        }
+        byte[] data = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 1, data, 0, data.length);
+        if ((header & FLAG_COMPRESSED) != 0) {
+            data = Compresss.snappyUnCompress(data);
+        }
+        return reader.deserialize(data);
+    }
+
+    private void register(JedisValueSerializer reader) {
+        readers[reader.getFormat()] = reader;
+    }
+
+    /**
+     * Check whether the bytes is JDK serialization stream (without header).
+     *
+     * @param bytes
+     * @return
+     */
+    static boolean isLegacyJdk(byte[] bytes) {
+        return bytes.length >= 2 && bytes[0] == (byte) 0xAC && bytes[1] == (byte) 0xED;
+    }
+
+    /** The bits of format id in header. */
+    static final int FORMAT_MASK = 0x0F;
+
+    /** The flag of snappy compressed in header. */
+    static final int FLAG_COMPRESSED = 0x10;
+
+    /**
+     * Built-in {@link JedisValueSerializer}s.
+     */
+    public static enum BuiltinSerializer {
+        JDK(JdkJedisValueSerializer.INSTANCE),
+
+        PROTOSTUFF(ProtostuffJedisValueSerializer.INSTANCE),
+
+        JACKSON(JacksonJedisValueSerializer.INSTANCE);
+
+        private final JedisValueSerializer serializer;
+
+        private BuiltinSerializer(JedisValueSerializer serializer) {
+            this.serializer = serializer;
+        }
+
+        public JedisValueSerializer getSerializer() {
+            return serializer;
+        }
+    }
+
+    private static final String SNAPPY_CLASS = "org.xerial.snappy.Snappy";
+
+}
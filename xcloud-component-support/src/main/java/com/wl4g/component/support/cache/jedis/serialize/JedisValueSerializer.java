@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.serialize;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Binary serializer SPI of the object values of
+ * {@link com.wl4g.component.support.cache.jedis.JedisService}. </br>
+ *
+ * <p>
+ * The serialized data is prefixed with a one-byte header (format id and
+ * flags) by {@link JedisValueCodec}, so the values written in any known format
+ * can be read regardless of the configured serializer.
+ * </p>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-22 v1.0.0
+ * @see JedisValueCodec
+ */
+public interface JedisValueSerializer {
+
+    /**
+     * The format id written in header, must be in range [1,15] and unique.
+     *
+     * @return
+     */
+    int getFormat();
+
+    /**
+     * Serialize the value, the value type must be restored by
+     * {@link #deserialize(byte[])}.
+     *
+     * @param value
+     * @return
+     */
+    byte[] serialize(@NotNull Object value);
+
+    /**
+     * Deserialize the data (without header).
+     *
+     * @param data
+     * @return
+     */
+    Object deserialize(@NotNull byte[] data);
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.serialize;
+
+import com.wl4g.component.common.serialize.ProtostuffUtils;
+
+/**
+ * Protostuff {@link JedisValueSerializer}, the value is wrapped as an object
+ * field so that the runtime schema writes its type (including the
+ * collections, maps and simple types), and the value type needs not be
+ * {@link java.io.Serializable}.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-22 v1.0.0
+ * @see
+ */
+public class ProtostuffJedisValueSerializer implements JedisValueSerializer {
+
+    public static final ProtostuffJedisValueSerializer INSTANCE = new ProtostuffJedisValueSerializer();
+
+    @Override
+    public int getFormat() {
+        return FORMAT;
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        ValueWrapper wrapper = new ValueWrapper();
+        wrapper.value = value;
+        return ProtostuffUtils.serialize(wrapper);
+    }
+
+    @Override
+    public Object deserialize(byte[] data) {
+        ValueWrapper wrapper = ProtostuffUtils.deserialize(data, ValueWrapper.class);
+        return wrapper.value;
+    }
+
+    public static final int FORMAT = 2;
+
+    /**
+     * Dynamic typed value wrapper of protostuff runtime schema.
+     */
+    public static final class ValueWrapper {
+        private Object value;
+    }
+
+}
@@ -25,6 +25,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.function.Function;
 
+import com.wl4g.component.support.cache.jedis.JedisBatch;
 import com.wl4g.component.support.cache.jedis.JedisClient;
 
 import redis.clients.jedis.AccessControlLogEntry;
@@ -42,6 +43,7 @@ import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPubSub;
 import redis.clients.jedis.ListPosition;
 import redis.clients.jedis.Module;
+import redis.clients.jedis.Pipeline;
 import redis.clients.jedis.ScanParams;
 import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.SortingParams;
@@ -106,6 +108,24 @@ public class SingleJedisClient implements JedisClient {
         return singletonMap("default", jedisPool);
     }
 
+    @Override
+    public JedisBatch batch() {
+        return new JedisBatch(this, safeMode) {
+            @Override
+            protected void doSync(List<BatchOperation<?>> operations) {
+                try (Jedis jedis = jedisPool.getResource()) {
+                    Pipeline pipeline = jedis.pipelined();
+                    operations.forEach(op -> op.appendTo(pipeline));
+                    pipeline.sync();
+                } catch (JedisException e) {
+                    operations.forEach(op -> op.completeExceptionally(e));
+                    return;
+                }
+                operations.forEach(op -> op.complete(jedisClient));
+            }
+        };
+    }
+
     @Override
     public void close() throws IOException {
         doExecuteWithRedis(jedis -> {
@@ -0,0 +1,333 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.spring;
+
+import static com.wl4g.component.common.lang.Assert2.hasTextOf;
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
+import static com.wl4g.component.support.cache.jedis.JedisService.getBytesKey;
+import static java.util.Objects.isNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.NullValue;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.wl4g.component.common.log.SmartLogger;
+import com.wl4g.component.support.cache.jedis.JedisClient;
+import com.wl4g.component.support.cache.jedis.ScanCursor;
+import com.wl4g.component.support.cache.jedis.serialize.JedisValueCodec;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+
+/**
+ * Two-level spring cache, the bounded in-process L1 cache over the redis L2
+ * cache. The values are read from L1 first, then L2 (and cached in L1), the
+ * changes are written to L2 first, then L1, and broadcast to the L1 caches of
+ * other instances by {@link JedisTwoLevelCacheManager}.
+ *
+ * <p>
+ * The redis key is: {keyPrefix}{cacheName}::{key}, the key is the
+ * {@link String#valueOf(Object)} of cache key (e.g. the
+ * {@link org.springframework.cache.interceptor.SimpleKey}).
+ * </p>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-28 v1.0.0
+ * @see JedisTwoLevelCacheManager
+ */
+public class JedisTwoLevelCache extends AbstractValueAdaptingCache {
+    protected final SmartLogger log = getLogger(getClass());
+
+    private final String name;
+    private final String keyPrefix;
+    private final long ttlMs;
+    private final JedisClient jedisClient;
+    private final JedisValueCodec valueCodec;
+    private final JedisTwoLevelCacheManager manager;
+    private final Cache<String, Object> l1Cache;
+
+    /**
+     * Invalidation versions of L1 key stripes, changed before the entries
+     * removed, so that the invalidations of other keys do not discard the
+     * concurrent loadings.
+     */
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    private final LongAdder l1Hits = new LongAdder();
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    JedisTwoLevelCache(String name, long ttlMs, JedisTwoLevelCacheManager manager) {
+        super(manager.getConfig().isAllowNullValues());
+        this.name = hasTextOf(name, "name");
+        this.manager = notNullOf(manager, "manager");
+        this.keyPrefix = manager.getConfig().getKeyPrefix().concat(name).concat(KEY_SEPARATOR);
+        this.ttlMs = ttlMs;
+        this.jedisClient = manager.getJedisClient();
+        this.valueCodec = manager.getValueCodec();
+        this.l1Cache = CacheBuilder.newBuilder()
+                .maximumSize(manager.getConfig().getL1MaximumSize())
+                .expireAfterWrite(Math.min(manager.getConfig().getL1ExpireMs(), (ttlMs > 0 ? ttlMs : Long.MAX_VALUE)),
+                        MILLISECONDS)
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return jedisClient;
+    }
+
+    /**
+     * Gets the expiration(ms) of L2 values, 0 is no time-out.
+     *
+     * @return
+     */
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String cacheKey = toCacheKey(key);
+        Object value = l1Cache.getIfPresent(cacheKey);
+        if (!isNull(value)) {
+            l1Hits.increment();
+            return value;
+        }
+        int stripe = stripe(cacheKey);
+        long version = versions.get(stripe);
+        value = doGetL2(cacheKey);
+        if (isNull(value)) {
+            misses.increment();
+            return null;
+        }
+        l2Hits.increment();
+        doPutL1(cacheKey, value, stripe, version);
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String cacheKey = toCacheKey(key);
+        Object cached = l1Cache.getIfPresent(cacheKey);
+        if (!isNull(cached)) {
+            l1Hits.increment();
+            return (T) fromStoreValue(cached);
+        }
+        int stripe = stripe(cacheKey);
+        long version = versions.get(stripe);
+        try {
+            // The concurrent loadings of the same key are coalesced.
+            Object value = l1Cache.get(cacheKey, () -> {
+                Object stored = doGetL2(cacheKey);
+                if (!isNull(stored)) {
+                    l2Hits.increment();
+                    return stored;
+                }
+                misses.increment();
+                stored = toStoreValue(valueLoader.call());
+                doPutL2(cacheKey, stored);
+                return stored;
+            });
+            if (versions.get(stripe) != version) {
+                l1Cache.invalidate(cacheKey);
+            }
+            return (T) fromStoreValue(value);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String cacheKey = toCacheKey(key);
+        Object stored = toStoreValue(value);
+        doPutL2(cacheKey, stored);
+        invalidateLocal(cacheKey);
+        l1Cache.put(cacheKey, stored);
+        manager.publish(name, cacheKey);
+    }
+
+    @Override
+    public void evict(Object key) {
+        String cacheKey = toCacheKey(key);
+        jedisClient.del(getBytesKey(keyPrefix.concat(cacheKey)));
+        evictions.increment();
+        invalidateLocal(cacheKey);
+        manager.publish(name, cacheKey);
+    }
+
+    /**
+     * Clear the L2 values by scanning the keys of cache on all master nodes,
+     * and the L1 caches of all instances.
+     */
+    @Override
+    public void clear() {
+        ScanParams params = new ScanParams().match(keyPrefix.concat("*")).count(DEFAULT_SCAN_COUNT);
+        for (JedisPool pool : ScanCursor.getMasterPools(jedisClient.getClusterNodes())) {
+            try (Jedis jedis = pool.getResource()) {
+                String cursor = ScanParams.SCAN_POINTER_START;
+                do {
+                    ScanResult<byte[]> res = jedis.scan(getBytesKey(cursor), params);
+                    List<byte[]> keys = res.getResult();
+                    if (!isNull(keys) && !keys.isEmpty()) {
+                        Pipeline pipeline = jedis.pipelined();
+                        keys.forEach(k -> pipeline.del(k));
+                        pipeline.sync();
+                    }
+                    cursor = res.getCursor();
+                } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+            }
+        }
+        invalidateLocalAll();
+        manager.publish(name, null);
+    }
+
+    /**
+     * Gets the snapshot of statistics.
+     *
+     * @return
+     */
+    public CacheStatsSnapshot getStats() {
+        CacheStatsSnapshot stats = new CacheStatsSnapshot();
+        stats.l1Hits = l1Hits.sum();
+        stats.l2Hits = l2Hits.sum();
+        stats.misses = misses.sum();
+        stats.puts = puts.sum();
+        stats.evictions = evictions.sum();
+        stats.l1Size = l1Cache.size();
+        return stats;
+    }
+
+    void invalidateLocal(String cacheKey) {
+        // The version must be changed before removed.
+        versions.incrementAndGet(stripe(cacheKey));
+        l1Cache.invalidate(cacheKey);
+    }
+
+    void invalidateLocalAll() {
+        for (int i = 0; i < VERSION_STRIPES; i++) {
+            versions.incrementAndGet(i);
+        }
+        l1Cache.invalidateAll();
+    }
+
+    private Object doGetL2(String cacheKey) {
+        byte[] bytes = jedisClient.get(getBytesKey(keyPrefix.concat(cacheKey)));
+        if (isNull(bytes)) {
+            return null;
+        }
+        return (bytes.length == 0) ? NullValue.INSTANCE : valueCodec.decode(bytes);
+    }
+
+    private void doPutL2(String cacheKey, Object stored) {
+        byte[] bytes = (stored == NullValue.INSTANCE) ? new byte[0] : valueCodec.encode(stored);
+        byte[] redisKey = getBytesKey(keyPrefix.concat(cacheKey));
+        if (ttlMs > 0) {
+            jedisClient.psetex(redisKey, ttlMs, bytes);
+        } else {
+            jedisClient.set(redisKey, bytes);
+        }
+        puts.increment();
+    }
+
+    private void doPutL1(String cacheKey, Object value, int stripe, long version) {
+        l1Cache.put(cacheKey, value);
+        // Invalidated while loading, the loaded may be stale.
+        if (versions.get(stripe) != version) {
+            l1Cache.invalidate(cacheKey);
+        }
+    }
+
+    private static String toCacheKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private static int stripe(String cacheKey) {
+        int h = cacheKey.hashCode();
+        return (h ^ (h >>> 16)) & (VERSION_STRIPES - 1);
+    }
+
+    /**
+     * Statistics snapshot of {@link JedisTwoLevelCache}
+     */
+    public static class CacheStatsSnapshot implements Serializable {
+        private static final long serialVersionUID = -3360917461036542437L;
+
+        private long l1Hits;
+        private long l2Hits;
+        private long misses;
+        private long puts;
+        private long evictions;
+        private long l1Size;
+
+        public long getL1Hits() {
+            return l1Hits;
+        }
+
+        public long getL2Hits() {
+            return l2Hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getPuts() {
+            return puts;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getL1Size() {
+            return l1Size;
+        }
+
+        public double getHitRate() {
+            long requests = l1Hits + l2Hits + misses;
+            return (requests == 0) ? 1.0d : (double) (l1Hits + l2Hits) / requests;
+        }
+    }
+
+    static final String KEY_SEPARATOR = "::";
+    private static final int DEFAULT_SCAN_COUNT = 500;
+    private static final int VERSION_STRIPES = 64;
+
+}
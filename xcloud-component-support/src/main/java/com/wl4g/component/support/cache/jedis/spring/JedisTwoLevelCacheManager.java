@@ -0,0 +1,290 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.spring;
+
+import static com.wl4g.component.common.lang.Assert2.hasTextOf;
+import static com.wl4g.component.common.lang.Assert2.isTrue;
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
+import static java.util.Collections.unmodifiableSet;
+import static java.util.Objects.isNull;
+
+import java.io.Closeable;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nullable;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import com.wl4g.component.common.log.SmartLogger;
+import com.wl4g.component.support.cache.jedis.JedisClient;
+import com.wl4g.component.support.cache.jedis.near.NearCacheInvalidator;
+import com.wl4g.component.support.cache.jedis.near.NearCacheInvalidator.InvalidationListener;
+import com.wl4g.component.support.cache.jedis.near.RedisNearCacheInvalidator;
+import com.wl4g.component.support.cache.jedis.serialize.JedisValueCodec;
+import com.wl4g.component.support.cache.jedis.spring.JedisTwoLevelCache.CacheStatsSnapshot;
+
+/**
+ * Two-level spring {@link CacheManager} of {@link JedisTwoLevelCache}, the
+ * changes of L2 are broadcast by redis pub/sub (see
+ * {@link RedisNearCacheInvalidator}), so the L1 caches of all instances are
+ * kept coherent, and they are discarded when the subscription is broken
+ * (invalidations may be lost).
+ *
+ * <pre>
+ * spring.xcloud.component.support.jedis.cache.enabled=true
+ * spring.xcloud.component.support.jedis.cache.defaultTtlMs=600000
+ * spring.xcloud.component.support.jedis.cache.ttls.dictionary=3600000
+ * </pre>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-28 v1.0.0
+ * @see JedisTwoLevelCache
+ */
+public class JedisTwoLevelCacheManager implements CacheManager, InvalidationListener, Closeable {
+    protected final SmartLogger log = getLogger(getClass());
+
+    private final JedisClient jedisClient;
+    private final TwoLevelCacheProperties config;
+    private final JedisValueCodec valueCodec;
+    private final NearCacheInvalidator invalidator;
+    private final ConcurrentMap<String, JedisTwoLevelCache> caches = new ConcurrentHashMap<>(16);
+
+    public JedisTwoLevelCacheManager(JedisClient jedisClient, TwoLevelCacheProperties config) {
+        this(jedisClient, config, null);
+    }
+
+    public JedisTwoLevelCacheManager(JedisClient jedisClient, TwoLevelCacheProperties config,
+            @Nullable JedisValueCodec valueCodec) {
+        this(jedisClient, config, valueCodec, new RedisNearCacheInvalidator(jedisClient, config.getChannel()));
+    }
+
+    public JedisTwoLevelCacheManager(JedisClient jedisClient, TwoLevelCacheProperties config,
+            @Nullable JedisValueCodec valueCodec, NearCacheInvalidator invalidator) {
+        this.jedisClient = notNullOf(jedisClient, "jedisClient");
+        this.config = notNullOf(config, "twoLevelCacheProperties");
+        this.valueCodec = isNull(valueCodec) ? JedisValueCodec.DEFAULT : valueCodec;
+        this.invalidator = notNullOf(invalidator, "invalidator");
+        // Pre-defined caches.
+        config.getTtls().keySet().forEach(name -> getCache(name));
+        invalidator.start(this);
+    }
+
+    public JedisClient getJedisClient() {
+        return jedisClient;
+    }
+
+    public TwoLevelCacheProperties getConfig() {
+        return config;
+    }
+
+    public JedisValueCodec getValueCodec() {
+        return valueCodec;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        JedisTwoLevelCache cache = caches.get(name);
+        if (isNull(cache)) {
+            if (!config.isDynamic() && !config.getTtls().containsKey(name)) {
+                return null;
+            }
+            cache = caches.computeIfAbsent(name,
+                    n -> new JedisTwoLevelCache(n, config.getTtls().getOrDefault(n, config.getDefaultTtlMs()), this));
+        }
+        return cache;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return unmodifiableSet(caches.keySet());
+    }
+
+    /**
+     * Gets the statistics snapshot of all caches.
+     *
+     * @return
+     */
+    public Map<String, CacheStatsSnapshot> getStats() {
+        Map<String, CacheStatsSnapshot> stats = new LinkedHashMap<>(caches.size());
+        caches.forEach((name, cache) -> stats.put(name, cache.getStats()));
+        return stats;
+    }
+
+    @Override
+    public void onInvalidate(String key) {
+        // e.g: {cacheName}::{cacheKey} or {cacheName}:: (cleared)
+        int index = key.indexOf(JedisTwoLevelCache.KEY_SEPARATOR);
+        if (index <= 0) {
+            return;
+        }
+        JedisTwoLevelCache cache = caches.get(key.substring(0, index));
+        if (!isNull(cache)) {
+            String cacheKey = key.substring(index + JedisTwoLevelCache.KEY_SEPARATOR.length());
+            if (key.endsWith(CLEARED_SUFFIX)) {
+                cache.invalidateLocalAll();
+            } else {
+                cache.invalidateLocal(cacheKey);
+            }
+        }
+    }
+
+    @Override
+    public void onReset() {
+        caches.values().forEach(cache -> cache.invalidateLocalAll());
+    }
+
+    @Override
+    public void close() {
+        invalidator.close();
+        onReset();
+    }
+
+    /**
+     * Publish the invalidation of L1 to other instances.
+     *
+     * @param name
+     * @param cacheKey
+     *            Null means cleared.
+     */
+    void publish(String name, @Nullable String cacheKey) {
+        invalidator.publish(name.concat(JedisTwoLevelCache.KEY_SEPARATOR)
+                .concat(isNull(cacheKey) ? CLEARED_SUFFIX : cacheKey));
+    }
+
+    /** The invalidation suffix of cleared cache (not a valid cache key). */
+    private static final String CLEARED_SUFFIX = "\u0000";
+
+    /**
+     * {@link JedisTwoLevelCacheManager} properties.
+     */
+    public static class TwoLevelCacheProperties implements Serializable {
+        private static final long serialVersionUID = 2086337512245735491L;
+
+        /** Whether to enable the two-level cache manager. */
+        private boolean enabled = false;
+
+        /** The redis key prefix of caches. */
+        private String keyPrefix = DEFAULT_KEY_PREFIX;
+
+        /** Default expiration(ms) of redis values, 0 is no time-out. */
+        private long defaultTtlMs = 600_000L;
+
+        /** Expiration(ms) of redis values of the caches, key is cache name. */
+        private Map<String, Long> ttls = new HashMap<>();
+
+        /** Whether to create the caches that are not defined in ttls. */
+        private boolean dynamic = true;
+
+        /** Whether to cache the null values. */
+        private boolean allowNullValues = true;
+
+        /** Maximum number of the L1 entries per cache. */
+        private long l1MaximumSize = 10_000L;
+
+        /** Maximum expiration(ms) of the L1 entries after cached. */
+        private long l1ExpireMs = 60_000L;
+
+        /** L1 invalidation pub/sub channel. */
+        private String channel = DEFAULT_CHANNEL;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getKeyPrefix() {
+            return keyPrefix;
+        }
+
+        public void setKeyPrefix(String keyPrefix) {
+            this.keyPrefix = hasTextOf(keyPrefix, "keyPrefix");
+        }
+
+        public long getDefaultTtlMs() {
+            return defaultTtlMs;
+        }
+
+        public void setDefaultTtlMs(long defaultTtlMs) {
+            isTrue(defaultTtlMs >= 0, "defaultTtlMs must >= 0");
+            this.defaultTtlMs = defaultTtlMs;
+        }
+
+        public Map<String, Long> getTtls() {
+            return ttls;
+        }
+
+        public void setTtls(Map<String, Long> ttls) {
+            this.ttls = notNullOf(ttls, "ttls");
+        }
+
+        public boolean isDynamic() {
+            return dynamic;
+        }
+
+        public void setDynamic(boolean dynamic) {
+            this.dynamic = dynamic;
+        }
+
+        public boolean isAllowNullValues() {
+            return allowNullValues;
+        }
+
+        public void setAllowNullValues(boolean allowNullValues) {
+            this.allowNullValues = allowNullValues;
+        }
+
+        public long getL1MaximumSize() {
+            return l1MaximumSize;
+        }
+
+        public void setL1MaximumSize(long l1MaximumSize) {
+            isTrue(l1MaximumSize > 0, "l1MaximumSize must > 0");
+            this.l1MaximumSize = l1MaximumSize;
+        }
+
+        public long getL1ExpireMs() {
+            return l1ExpireMs;
+        }
+
+        public void setL1ExpireMs(long l1ExpireMs) {
+            isTrue(l1ExpireMs > 0, "l1ExpireMs must > 0");
+            this.l1ExpireMs = l1ExpireMs;
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = hasTextOf(channel, "channel");
+        }
+
+        public static final String DEFAULT_KEY_PREFIX = "__xcloud:cache:";
+        public static final String DEFAULT_CHANNEL = "__xcloud:jedis:cache:invalidation";
+    }
+
+}
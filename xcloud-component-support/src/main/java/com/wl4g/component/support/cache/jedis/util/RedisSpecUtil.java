@@ -18,16 +18,12 @@ package com.wl4g.component.support.cache.jedis.util;
 import static com.wl4g.component.common.lang.Assert2.notNullOf;
 import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
 import static java.lang.String.format;
-import static java.lang.String.valueOf;
-import static java.util.Collections.singletonList;
-import static java.util.Collections.unmodifiableList;
 import static java.util.Objects.isNull;
 import static org.apache.commons.lang3.StringUtils.equalsIgnoreCase;
-import static org.apache.commons.lang3.StringUtils.isAlpha;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.StringUtils.isNumeric;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import javax.annotation.Nullable;
@@ -75,35 +71,87 @@ public abstract class RedisSpecUtil {
     public static void safeCheckKeys(@NotNull final List<?> keys) throws ParameterCanonicalException {
         notNullOf(keys, "jedis operation key");
         for (Object key : keys) {
-            char[] _key = null;
-            if (key instanceof String) {
-                _key = key.toString().toCharArray();
-            } else if (char.class.isAssignableFrom(key.getClass())) {
-                _key = new char[] { (char) key };
-            } else if (key instanceof char[]) {
-                _key = (char[]) key;
+            if (!doSafeCheckKey(key, keys)) {
+                return;
             }
+        }
+    }
 
-            if (isNull(_key)) {
-                continue;
+    /**
+     * Check input argument names specification, the batch variant of
+     * multi-key commands.
+     * 
+     * @param keys
+     * @throws ParameterNormativeException
+     */
+    public static void safeCheckKeys(@NotNull final String... keys) throws ParameterCanonicalException {
+        notNullOf(keys, "jedis operation key");
+        for (String key : keys) {
+            if (!doSafeCheckKey(key, keys)) {
+                return;
             }
+        }
+    }
 
-            // The check exclusion key contains special characters such
-            // as '-', '$', ' ' etc and so on.
-            for (char c : _key) {
-                String warning = format(
-                        "The operation redis keys: %s there are unsafe characters: '%s', Because of the binary safety mechanism of redis, it may not be got",
-                        keys, c);
-                if (!isInvalidCharacter(c)) {
-                    if (warnKeyChars.contains(c)) { // Warning key chars
-                        log.warn(warning);
-                        return;
-                    } else {
-                        throw new ParameterCanonicalException(warning);
-                    }
+    /**
+     * Check input argument name specification.
+     * 
+     * @param key
+     * @throws ParameterNormativeException
+     */
+    public static void safeCheckKey(@Nullable final String key) throws ParameterCanonicalException {
+        doSafeCheckKey(key, key);
+    }
+
+    /**
+     * Check the characters of key in place, the warning message is built only
+     * when there are unsafe characters.
+     * 
+     * @param key
+     *            The key of String, Character or char[], others are ignored.
+     * @param keys
+     *            All keys of the command, for the warning message.
+     * @return false if there are warning characters.
+     * @throws ParameterCanonicalException
+     *             If there are unsafe characters.
+     */
+    private static boolean doSafeCheckKey(final Object key, final Object keys) throws ParameterCanonicalException {
+        if (key instanceof String) {
+            String _key = (String) key;
+            for (int i = 0, len = _key.length(); i < len; i++) {
+                char c = _key.charAt(i);
+                int charClass = getCharClass(c);
+                if (charClass != CHAR_SAFE) {
+                    return doUnsafeCharacter(keys, c, charClass);
+                }
+            }
+        } else if (key instanceof Character) {
+            char c = (Character) key;
+            int charClass = getCharClass(c);
+            if (charClass != CHAR_SAFE) {
+                return doUnsafeCharacter(keys, c, charClass);
+            }
+        } else if (key instanceof char[]) {
+            for (char c : (char[]) key) {
+                int charClass = getCharClass(c);
+                if (charClass != CHAR_SAFE) {
+                    return doUnsafeCharacter(keys, c, charClass);
                 }
             }
         }
+        return true;
+    }
+
+    private static boolean doUnsafeCharacter(final Object keys, final char c, final int charClass)
+            throws ParameterCanonicalException {
+        String warning = format(
+                "The operation redis keys: %s there are unsafe characters: '%s', Because of the binary safety mechanism of redis, it may not be got",
+                (keys instanceof Object[]) ? Arrays.toString((Object[]) keys) : keys, c);
+        if (charClass == CHAR_WARN) { // Warning key chars
+            log.warn(warning);
+            return false;
+        }
+        throw new ParameterCanonicalException(warning);
     }
 
     /**
@@ -128,19 +176,20 @@ public abstract class RedisSpecUtil {
         if (isBlank(key)) {
             return key;
         }
-        safeCheckKeys(singletonList(safeChar));
+        doSafeCheckKey(safeChar, safeChar);
 
         // The check exclusion key contains special characters such
         // as '-', '$', ' ' etc and so on.
-        StringBuffer _key = new StringBuffer(key.length());
-        for (char c : key.toString().toCharArray()) {
-            if (isInvalidCharacter(c)) {
-                _key.append(c);
-            } else {
-                _key.append(safeChar);
+        char[] _key = null;
+        for (int i = 0, len = key.length(); i < len; i++) {
+            if (getCharClass(key.charAt(i)) != CHAR_SAFE) {
+                if (isNull(_key)) {
+                    _key = key.toCharArray();
+                }
+                _key[i] = safeChar;
             }
         }
-        return _key.toString();
+        return isNull(_key) ? key : new String(_key);
     }
 
     /**
@@ -150,36 +199,52 @@ public abstract class RedisSpecUtil {
      * @return
      */
     public static boolean isInvalidCharacter(final char c) {
-        return !isNull(c) && isNumeric(valueOf(c)) || isAlpha(valueOf(c)) || safeKeyChars.contains(c);
+        return getCharClass(c) == CHAR_SAFE;
+    }
+
+    /**
+     * Gets the class of redis arguments character, the ASCII characters are
+     * looked up with the precomputed table.
+     * 
+     * @param c
+     * @return
+     */
+    private static int getCharClass(final char c) {
+        if (c < ASCII_CHAR_CLASSES.length) {
+            return ASCII_CHAR_CLASSES[c];
+        }
+        return (Character.isDigit(c) || Character.isLetter(c)) ? CHAR_SAFE : CHAR_UNSAFE;
     }
 
     /**
      * Redis key-name safe characters.
      */
-    private static final List<Character> safeKeyChars = unmodifiableList(new ArrayList<Character>(4) {
-        private static final long serialVersionUID = -7144798722787955277L;
-        {
-            add(':');
-            add('_');
-            add('.');
-            add('@');
+    private static final String safeKeyChars = ":_.@"
             // @see:JedisClusterCRC16#getSlot(byte[]), support user tag
             // slot.
-            add('{');
-            add('}');
-        }
-    });
+            + "{}";
 
     /**
-     * Redis key-name safe characters.
+     * Redis key-name warning characters.
      */
-    private static final List<Character> warnKeyChars = unmodifiableList(new ArrayList<Character>(4) {
-        private static final long serialVersionUID = -7144798722787955277L;
-        {
-            add('&');
-            add('!');
-            add('*');
+    private static final String warnKeyChars = "&!*";
+
+    /** Character classes of redis arguments. */
+    private static final byte CHAR_SAFE = 0, CHAR_WARN = 1, CHAR_UNSAFE = 2;
+
+    /** Precomputed character classes of ASCII. */
+    private static final byte[] ASCII_CHAR_CLASSES = new byte[128];
+
+    static {
+        for (char c = 0; c < ASCII_CHAR_CLASSES.length; c++) {
+            if (Character.isDigit(c) || Character.isLetter(c) || safeKeyChars.indexOf(c) >= 0) {
+                ASCII_CHAR_CLASSES[c] = CHAR_SAFE;
+            } else if (warnKeyChars.indexOf(c) >= 0) {
+                ASCII_CHAR_CLASSES[c] = CHAR_WARN;
+            } else {
+                ASCII_CHAR_CLASSES[c] = CHAR_UNSAFE;
+            }
         }
-    });
+    }
 
-}
\ No newline at end of file
+}
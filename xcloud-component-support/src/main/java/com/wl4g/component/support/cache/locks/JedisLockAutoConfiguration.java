@@ -19,12 +19,18 @@
  */
 package com.wl4g.component.support.cache.locks;
 
+import static com.wl4g.component.support.constant.SupportConstant.KEY_SUPPORT_JEDIS_PREFIX;
+
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 
+import com.wl4g.component.common.task.ScheduleCoordinator;
 import com.wl4g.component.support.cache.jedis.JedisClientAutoConfiguration;
 import com.wl4g.component.support.cache.jedis.JedisService;
+import com.wl4g.component.support.cache.locks.JedisLockManager.JedisLockProperties;
 
 /**
  * {@link JedisLockAutoConfiguration}
@@ -39,8 +45,20 @@ import com.wl4g.component.support.cache.jedis.JedisService;
 public class JedisLockAutoConfiguration {
 
     @Bean
-    public JedisLockManager jedisLockManager(JedisService jedisService) {
-        return new JedisLockManager(jedisService);
+    @ConfigurationProperties(prefix = KEY_SUPPORT_JEDIS_PREFIX + ".lock")
+    public JedisLockProperties jedisLockProperties() {
+        return new JedisLockProperties();
+    }
+
+    @Bean
+    public JedisLockManager jedisLockManager(JedisService jedisService, JedisLockProperties config) {
+        return new JedisLockManager(jedisService, config);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(ScheduleCoordinator.class)
+    public JedisScheduleCoordinator jedisScheduleCoordinator(JedisService jedisService) {
+        return new JedisScheduleCoordinator(jedisService.getJedisClient());
     }
 
 }
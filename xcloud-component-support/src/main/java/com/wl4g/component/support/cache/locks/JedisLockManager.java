@@ -16,62 +16,113 @@
 package com.wl4g.component.support.cache.locks;
 
 import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static com.wl4g.component.common.lang.SystemUtils2.GLOBAL_PROCESS_SERIAL;
 import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
 import static java.lang.String.format;
 import static java.lang.Thread.currentThread;
+import static java.lang.String.valueOf;
 import static java.lang.Thread.interrupted;
-import static java.lang.Thread.sleep;
+import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.springframework.util.Assert.hasText;
 import static org.springframework.util.Assert.isTrue;
 import static org.springframework.util.Assert.notNull;
 
+import java.io.Closeable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.google.common.annotations.Beta;
 import com.wl4g.component.common.log.SmartLogger;
 import com.wl4g.component.support.cache.jedis.JedisService;
 
-import redis.clients.jedis.params.SetParams;
-
 /**
- * JEDIS locks manager.
+ * JEDIS locks manager. </br>
+ *
+ * <p>
+ * The waiters of a lock are woken up by the unlock notification (see
+ * {@link JedisLockNotifier}) instead of polling, and wait at most the
+ * remaining lease of holder or {@link JedisLockProperties#getMaxWaitMs()} as
+ * fallback. The leases of the holding locks without an explicit lease (i.e.
+ * {@link #getLock(String)}) are renewed by {@link JedisLockWatchdog} if
+ * enabled, the explicit leases are always respected.
+ * </p>
+ *
+ * <p>
+ * The threads of this process are queued by a local lock of each lock name,
+ * so only one thread per process competes remotely (the remote lock is owned
+ * by the process), and a held lock is handed off to the local waiters without
+ * redis round trip up to {@link JedisLockProperties#getMaxLocalHandoffs()}
+ * times, then released to the other processes.
+ * </p>
  *
  * @author wangl.sir
  * @version v1.0 2019年3月19日
  * @since
  */
-public class JedisLockManager {
+public class JedisLockManager implements Closeable {
     protected static final String NAMESPACE = "reentrantUnfairLock.";
+    protected static final String RATE_LIMITER_NAMESPACE = "rateLimiter.";
+    protected static final String SEMAPHORE_NAMESPACE = "semaphore.";
     protected static final String NXXX = "NX";
     protected static final String EXPX = "PX";
-    protected static final long FRAME_INTERVAL_MS = 50L;
-    protected static final String UNLOCK_LUA = "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end";
+    protected static final long FRAME_INTERVAL_MS = JedisLockNotifier.FRAME_INTERVAL_MS;
+    protected static final String ACQUIRE_LUA = "local v = redis.call('get', KEYS[1]) "
+            + "if v == ARGV[1] then redis.call('pexpire', KEYS[1], ARGV[2]) return 'REENTERED' end "
+            + "if not v then redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2]) return 'OK' end "
+            + "return redis.call('pttl', KEYS[1])";
+    protected static final String RENEW_LUA = "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end";
+    protected static final String UNLOCK_LUA = "if redis.call('get', KEYS[1]) == ARGV[1] then "
+            + "local res = redis.call('del', KEYS[1]) redis.call('publish', ARGV[2], ARGV[1]) return res else return 0 end";
     protected final SmartLogger log = getLogger(getClass());
 
     protected final JedisService jedisService;
+    protected final JedisLockProperties config;
+    protected final JedisLockNotifier notifier;
+    protected final JedisLockWatchdog watchdog;
+
+    /** The remote lock owner ID of this manager(process). */
+    protected final String ownerId = GLOBAL_PROCESS_SERIAL.concat("-") + ownerSequence.incrementAndGet();
+
+    /** The local lock entries of the acquiring or holding lock names. */
+    private final ConcurrentMap<String, LocalLockEntry> localEntries = new ConcurrentHashMap<>(16);
 
     public JedisLockManager(JedisService jedisService) {
+        this(jedisService, new JedisLockProperties());
+    }
+
+    public JedisLockManager(JedisService jedisService, JedisLockProperties config) {
         notNullOf(jedisService, "jedisService");
         this.jedisService = jedisService;
+        this.config = notNullOf(config, "jedisLockProperties");
+        this.notifier = new JedisLockNotifier(jedisService.getJedisClient(), config.getChannelPrefix());
+        this.watchdog = config.isWatchdogEnabled() ? new JedisLockWatchdog(jedisService.getJedisClient()) : null;
     }
 
     /**
-     * Get and create {@link FastReentrantUnfairDistributedRedLock} with name.
+     * Get and create {@link FastReentrantUnfairDistributedRedLock} with name,
+     * the default lease is renewed by {@link JedisLockWatchdog} if enabled.
      * 
      * @param name
      * @return
      */
     public Lock getLock(String name) {
-        return getLock(name, 10, TimeUnit.SECONDS);
+        hasText(name, "Lock name must not be empty.");
+        return new FastReentrantUnfairDistributedRedLock(name, DEFAULT_LEASE_MS, true);
     }
 
     /**
-     * Get and create {@link FastReentrantUnfairDistributedRedLock} with name.
+     * Get and create {@link FastReentrantUnfairDistributedRedLock} with name,
+     * the explicit lease is never renewed.
      * 
      * @param name
      * @param expiredAt
@@ -82,7 +133,85 @@ public class JedisLockManager {
         hasText(name, "Lock name must not be empty.");
         isTrue(expiredAt > 0, "Lock expiredAt must greater than 0");
         notNull(unit, "TimeUnit must not be null.");
-        return new FastReentrantUnfairDistributedRedLock(name, unit.toMillis(expiredAt));
+        return new FastReentrantUnfairDistributedRedLock(name, unit.toMillis(expiredAt), false);
+    }
+
+    /**
+     * Get and create {@link JedisTokenBucketRateLimiter} with name.
+     * 
+     * @param name
+     * @param permitsPerSecond
+     *            The refill rate of bucket.
+     * @param capacity
+     *            The capacity of bucket (burst permits).
+     * @return
+     */
+    public JedisRateLimiter getTokenBucketRateLimiter(String name, double permitsPerSecond, long capacity) {
+        hasText(name, "RateLimiter name must not be empty.");
+        return new JedisTokenBucketRateLimiter(jedisService.getJedisClient(), RATE_LIMITER_NAMESPACE + name, permitsPerSecond,
+                capacity);
+    }
+
+    /**
+     * Get and create {@link JedisSlidingWindowRateLimiter} with name.
+     * 
+     * @param name
+     * @param limit
+     *            The maximum permits of any window.
+     * @param window
+     * @param unit
+     * @return
+     */
+    public JedisRateLimiter getSlidingWindowRateLimiter(String name, long limit, long window, TimeUnit unit) {
+        hasText(name, "RateLimiter name must not be empty.");
+        notNull(unit, "TimeUnit must not be null.");
+        return new JedisSlidingWindowRateLimiter(jedisService.getJedisClient(), RATE_LIMITER_NAMESPACE + name, limit,
+                unit.toMillis(window));
+    }
+
+    /**
+     * Get and create {@link JedisSemaphore} with name.
+     * 
+     * @param name
+     * @param permits
+     *            The total permits.
+     * @param lease
+     *            The lease of acquired permits.
+     * @param unit
+     * @return
+     */
+    public JedisSemaphore getSemaphore(String name, long permits, long lease, TimeUnit unit) {
+        hasText(name, "Semaphore name must not be empty.");
+        notNull(unit, "TimeUnit must not be null.");
+        return new JedisSemaphore(jedisService.getJedisClient(), notifier, SEMAPHORE_NAMESPACE + name, permits,
+                unit.toMillis(lease), config.getMaxWaitMs());
+    }
+
+    /**
+     * Retain the local lock entry of name, must be released by
+     * {@link #releaseLocalEntry(String)}.
+     * 
+     * @param name
+     * @return
+     */
+    private LocalLockEntry retainLocalEntry(String name) {
+        return localEntries.compute(name, (n, e) -> {
+            e = nonNull(e) ? e : new LocalLockEntry();
+            ++e.refs;
+            return e;
+        });
+    }
+
+    private void releaseLocalEntry(String name) {
+        localEntries.computeIfPresent(name, (n, e) -> --e.refs <= 0 ? null : e);
+    }
+
+    @Override
+    public void close() {
+        notifier.close();
+        if (nonNull(watchdog)) {
+            watchdog.close();
+        }
     }
 
     /**
@@ -117,25 +246,12 @@ public class JedisLockManager {
     private final class FastReentrantUnfairDistributedRedLock extends AbstractDistributedLock {
         private static final long serialVersionUID = -1909894475263151824L;
 
-        /**
-         * Current locker reentrant counter.</br>
-         * <font color=red>Special Note: assuming that the situation of retry to
-         * obtain lock occurs, it must be in the same JVM process.</font>
-         */
-        final protected AtomicLong counter;
-
-        public FastReentrantUnfairDistributedRedLock(String name, long expiredMs) {
-            this(name, expiredMs, 0L);
-        }
-
-        public FastReentrantUnfairDistributedRedLock(String name, long expiredMs, long counterValue) {
-            this(name, expiredMs, new AtomicLong(counterValue));
-        }
+        /** Whether the lease is renewed by watchdog. */
+        private final boolean renewable;
 
-        public FastReentrantUnfairDistributedRedLock(String name, long expiredMs, AtomicLong counter) {
-            super((NAMESPACE + name), getThreadCurrentProcessId(), expiredMs);
-            isTrue(counter.get() >= 0, "Lock count must greater than 0");
-            this.counter = counter;
+        public FastReentrantUnfairDistributedRedLock(String name, long expiredMs, boolean renewable) {
+            super((NAMESPACE + name), ownerId, expiredMs);
+            this.renewable = renewable;
         }
 
         @Override
@@ -151,53 +267,57 @@ public class JedisLockManager {
         public void lockInterruptibly() throws InterruptedException {
             if (interrupted())
                 throw new InterruptedException();
-            while (true) {
-                if (doTryAcquire())
-                    break;
-                sleep(FRAME_INTERVAL_MS);
-            }
+            doAcquire(-1L);
         }
 
         @Override
         public boolean tryLock() {
-            return doTryAcquire();
+            try {
+                return doAcquire(0L);
+            } catch (InterruptedException e) {
+                currentThread().interrupt();
+                return false;
+            }
         }
 
         @Override
         public boolean tryLock(long tryTimeout, TimeUnit unit) throws InterruptedException {
             notNull(unit, "TimeUnit must not be null.");
             isTrue((tryTimeout > 0 && tryTimeout <= expiredMs), "TryTimeout must be > 0 && <= " + expiredMs);
-            long t = unit.toMillis(tryTimeout) / FRAME_INTERVAL_MS, c = 0;
-            while (t > ++c) {
-                if (doTryAcquire())
-                    return true;
-                sleep(FRAME_INTERVAL_MS);
-            }
-            return false;
+            return doAcquire(unit.toMillis(tryTimeout));
         }
 
         @Override
         public void unlock() {
-            // Obtain locked processId.
-            String acquiredProcessId = jedisService.getJedisClient().get(name);
+            LocalLockEntry entry = localEntries.get(name);
             // Current thread is holder?
-            if (!requestId.equals(acquiredProcessId)) {
-                log.debug("No need to unlock of requestId: {}, acquiredProcessId: {}, counter: {}", requestId, acquiredProcessId,
-                        counter);
+            if (isNull(entry) || !entry.local.isHeldByCurrentThread()) {
+                log.debug("No need to unlock of non-holder thread, requestId: {}, name: {}", requestId, name);
                 return;
             }
-
-            // Obtain lock record once decrement.
-            counter.decrementAndGet();
-            log.debug("No need to unlock and reenter the stack lock layer, counter: {}", counter);
-
-            if (counter.longValue() == 0L) { // All thread stack layers exited?
-                Object res = jedisService.getJedisClient().eval(UNLOCK_LUA, singletonList(name), singletonList(requestId));
-                if (!assertValidity(res)) {
-                    log.debug("Failed to unlock for %{}@{}", requestId, name);
-                } else {
-                    log.debug("Unlock successful for %{}@{}", requestId, name);
+            boolean handedOff = false;
+            try {
+                if (entry.local.getHoldCount() > 1) { // Reentered
+                    log.debug("No need to unlock and reenter the stack lock layer, counter: {}", entry.local.getHoldCount());
+                    return;
+                }
+                if (entry.remoteHeld) {
+                    if (entry.local.hasQueuedThreads() && entry.handoffs < config.getMaxLocalHandoffs()) {
+                        // Hand off to the local waiter without releasing.
+                        ++entry.handoffs;
+                        handedOff = true;
+                        log.debug("Hand off lock to local waiter for %{}@{}, handoffs: {}", requestId, name, entry.handoffs);
+                    } else {
+                        doReleaseRemote(entry);
+                    }
+                }
+            } finally {
+                entry.local.unlock();
+                // The waiters may be timeout or interrupted in the meantime.
+                if (handedOff && !entry.local.hasQueuedThreads()) {
+                    doReleaseOrphanRemote(entry);
                 }
+                releaseLocalEntry(name);
             }
         }
 
@@ -207,34 +327,170 @@ public class JedisLockManager {
         }
 
         /**
-         * Execution try acquire locker by reentrant info.</br>
+         * Acquire the lock, the threads of this process are queued by the
+         * local lock first, so only the local holder competes remotely.
          * 
-         * @see JedisLockManager.java
+         * @param timeoutMs
+         *            Wait timeout, wait forever if < 0, try once if 0
          * @return
+         * @throws InterruptedException
          */
-        private final boolean doTryAcquire() {
-            String acquiredProcessId = jedisService.getJedisClient().get(name); // Locked-processId.
-            if (requestId.equals(acquiredProcessId)) {
-                // Obtain lock record once cumulatively.
-                counter.incrementAndGet();
-                log.debug("Reuse acquire lock for name: {}, acquiredProcessId: {}, counter: {}", name, acquiredProcessId,
-                        counter);
+        private final boolean doAcquire(long timeoutMs) throws InterruptedException {
+            long deadline = timeoutMs < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + timeoutMs;
+            LocalLockEntry entry = retainLocalEntry(name);
+            boolean localLocked = false, acquired = false;
+            try {
+                if (timeoutMs < 0) {
+                    entry.local.lockInterruptibly();
+                    localLocked = true;
+                } else if (timeoutMs == 0) {
+                    localLocked = entry.local.tryLock();
+                } else {
+                    localLocked = entry.local.tryLock(timeoutMs, MILLISECONDS);
+                }
+                if (!localLocked) {
+                    return false;
+                }
+                if (entry.local.getHoldCount() > 1) { // Reentered
+                    return (acquired = true);
+                }
+                if (entry.remoteHeld && doResumeRemote(entry)) { // Handed off
+                    return (acquired = true);
+                }
+                entry.remoteHeld = false;
+                entry.handoffs = 0;
+                if (doAcquireRemote(entry, deadline)) {
+                    entry.remoteHeld = true;
+                    startRenewal(entry);
+                    return (acquired = true);
+                }
+                return false;
+            } finally {
+                if (!acquired) {
+                    if (localLocked) {
+                        entry.local.unlock();
+                    } else {
+                        doReleaseOrphanRemote(entry);
+                    }
+                    releaseLocalEntry(name);
+                }
+            }
+        }
+
+        /**
+         * Acquire the remote lock, waiting for the unlock notifications.
+         * 
+         * @param entry
+         * @param deadline
+         * @return
+         * @throws InterruptedException
+         */
+        private final boolean doAcquireRemote(LocalLockEntry entry, long deadline) throws InterruptedException {
+            // Uncontended fast path.
+            if (doTryAcquireRemote() == ACQUIRED) {
                 return true;
-            } else {
-                // Not currently locked? Lock expired? Local counter reset.
-                counter.set(0L);
             }
+            // No wait allowed (e.g. tryLock()), no need to subscribe.
+            if (deadline <= System.currentTimeMillis()) {
+                return false;
+            }
+            // Wait for unlock notification, or the lease expired.
+            return notifier.awaitAcquire(name, deadline, config.getMaxWaitMs(), () -> {
+                long leaseMs = doTryAcquireRemote();
+                return (leaseMs == ACQUIRED) ? 0L : leaseMs + 1;
+            });
+        }
+
+        /**
+         * Execution try acquire remote locker.</br>
+         * 
+         * @see JedisLockManager.java
+         * @return {@link #ACQUIRED} if acquired, otherwise the remaining lease
+         *         of the holder (ms).
+         */
+        private final long doTryAcquireRemote() {
+            Object res = jedisService.getJedisClient().eval(ACQUIRE_LUA, singletonList(name),
+                    asList(requestId, valueOf(expiredMs)));
+            if ("OK".equals(res) || "REENTERED".equals(res)) {
+                return ACQUIRED;
+            }
+            // The remaining lease of holder, unknown if no expiration.
+            long leaseMs = (res instanceof Number) ? ((Number) res).longValue() : -1L;
+            return leaseMs >= 0 ? leaseMs : config.getMaxWaitMs();
+        }
 
-            // Try to acquire a new lock from the server.
-            SetParams params = SetParams.setParams().nx().px(expiredMs);
-            if (assertValidity(jedisService.getJedisClient().set(name, requestId, params))) {
-                // Obtain lock record once cumulatively.
-                counter.incrementAndGet();
+        /**
+         * Resume the remote lock that is handed off by the previous local
+         * holder, it's free while the watchdog is still renewing, otherwise
+         * the lease of this lock is applied.
+         * 
+         * @param entry
+         * @return
+         */
+        private final boolean doResumeRemote(LocalLockEntry entry) {
+            if (renewable && nonNull(entry.renewal) && !entry.renewal.isDone()) {
+                return true;
+            }
+            Object res = jedisService.getJedisClient().eval(RENEW_LUA, singletonList(name),
+                    asList(requestId, valueOf(expiredMs)));
+            if (assertValidity(res)) {
+                startRenewal(entry);
                 return true;
             }
             return false;
         }
 
+        /**
+         * Release the remote lock and notify the waiters, must be called by
+         * the local holder.
+         * 
+         * @param entry
+         */
+        private final void doReleaseRemote(LocalLockEntry entry) {
+            stopRenewal(entry);
+            entry.remoteHeld = false;
+            entry.handoffs = 0;
+            Object res = jedisService.getJedisClient().eval(UNLOCK_LUA, singletonList(name),
+                    asList(requestId, notifier.getChannel(name)));
+            if (!assertValidity(res)) {
+                log.debug("Failed to unlock for %{}@{}", requestId, name);
+            } else {
+                log.debug("Unlock successful for %{}@{}", requestId, name);
+            }
+        }
+
+        /**
+         * Release the remote lock that was handed off to the local waiters
+         * which are all timeout or interrupted.
+         * 
+         * @param entry
+         */
+        private final void doReleaseOrphanRemote(LocalLockEntry entry) {
+            if (entry.local.tryLock()) {
+                try {
+                    if (entry.remoteHeld && entry.local.getHoldCount() == 1 && !entry.local.hasQueuedThreads()) {
+                        doReleaseRemote(entry);
+                    }
+                } finally {
+                    entry.local.unlock();
+                }
+            }
+        }
+
+        private final void startRenewal(LocalLockEntry entry) {
+            stopRenewal(entry);
+            if (renewable && nonNull(watchdog)) {
+                entry.renewal = watchdog.watch(name, requestId, expiredMs);
+            }
+        }
+
+        private final void stopRenewal(LocalLockEntry entry) {
+            if (nonNull(entry.renewal)) {
+                entry.renewal.cancel(false);
+                entry.renewal = null;
+            }
+        }
+
         /**
          * Assertion validate lock result is acquired/UnAcquired success?
          * 
@@ -259,4 +515,96 @@ public class JedisLockManager {
 
     }
 
+    /** The acquired state of lock. */
+    private static final long ACQUIRED = -1L;
+
+    /** The default lease of the locks without an explicit lease. */
+    private static final long DEFAULT_LEASE_MS = 10_000L;
+
+    /** The sequence of managers in this process. */
+    private static final AtomicLong ownerSequence = new AtomicLong(0);
+
+    /**
+     * The process local lock of a lock name, the threads of this process
+     * compete for the remote lock through it.
+     */
+    private static final class LocalLockEntry {
+        final ReentrantLock local = new ReentrantLock();
+        /** The retained acquirers and holders, guarded by the entries map. */
+        int refs;
+        /** The remote lock is held by this process, guarded by local lock. */
+        boolean remoteHeld;
+        /** The consecutive local hand-offs, guarded by local lock. */
+        int handoffs;
+        /** The lease renewal of watchdog, guarded by local lock. */
+        ScheduledFuture<?> renewal;
+    }
+
+    /**
+     * {@link JedisLockManager} properties.
+     */
+    public static class JedisLockProperties {
+
+        /**
+         * Renew the leases of holding locks without an explicit lease in
+         * background.
+         */
+        private boolean watchdogEnabled = false;
+
+        /**
+         * The maximum consecutive hand-offs of a held lock between the local
+         * waiters before releasing it to the other processes, 0 means always
+         * release.
+         */
+        private int maxLocalHandoffs = 8;
+
+        /**
+         * The maximum wait of a lock waiter before retrying, as fallback of
+         * the lost unlock notifications.
+         */
+        private long maxWaitMs = 1_000L;
+
+        /**
+         * The unlock notifications channel prefix.
+         */
+        private String channelPrefix = DEFAULT_CHANNEL_PREFIX;
+
+        public boolean isWatchdogEnabled() {
+            return watchdogEnabled;
+        }
+
+        public void setWatchdogEnabled(boolean watchdogEnabled) {
+            this.watchdogEnabled = watchdogEnabled;
+        }
+
+        public int getMaxLocalHandoffs() {
+            return maxLocalHandoffs;
+        }
+
+        public void setMaxLocalHandoffs(int maxLocalHandoffs) {
+            isTrue(maxLocalHandoffs >= 0, "maxLocalHandoffs must greater than or equal to 0");
+            this.maxLocalHandoffs = maxLocalHandoffs;
+        }
+
+        public long getMaxWaitMs() {
+            return maxWaitMs;
+        }
+
+        public void setMaxWaitMs(long maxWaitMs) {
+            isTrue(maxWaitMs > 0, "maxWaitMs must greater than 0");
+            this.maxWaitMs = maxWaitMs;
+        }
+
+        public String getChannelPrefix() {
+            return channelPrefix;
+        }
+
+        public void setChannelPrefix(String channelPrefix) {
+            hasText(channelPrefix, "channelPrefix must not be empty.");
+            this.channelPrefix = channelPrefix;
+        }
+
+        public static final String DEFAULT_CHANNEL_PREFIX = "__xcloud:jedis:lock:unlock:";
+    }
+
 }
\ No newline at end of file
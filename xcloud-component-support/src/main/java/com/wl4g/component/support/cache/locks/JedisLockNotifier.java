@@ -0,0 +1,225 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.locks;
+
+import static com.wl4g.component.common.lang.Assert2.hasTextOf;
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
+import static java.util.Objects.nonNull;
+
+import java.io.Closeable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+import com.wl4g.component.common.log.SmartLogger;
+import com.wl4g.component.support.cache.jedis.JedisClient;
+import com.wl4g.component.support.cache.jedis.JedisSubscriber;
+
+import redis.clients.jedis.JedisPubSub;
+
+/**
+ * Unlock notifications of {@link JedisLockManager} locks. </br>
+ *
+ * <p>
+ * The unlock publishes to the per-lock channel '{channelPrefix}{lockName}',
+ * and the local waiters of the lock are woken up by the pattern subscription
+ * '{channelPrefix}*', which is running on a daemon thread and started lazily
+ * by the first waiter. The waiters must still wait with timeout, because the
+ * expired locks (e.g. the holder process crashed) are not notified, and the
+ * notifications are lost while re-subscribing. The notifier is not restarted
+ * after closed, the waiters fallback to polling.
+ * </p>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-23 v1.0.0
+ * @see
+ */
+public class JedisLockNotifier implements Closeable {
+    protected final SmartLogger log = getLogger(getClass());
+
+    private final String channelPrefix;
+
+    /** The local waiters of lock names. */
+    private final ConcurrentMap<String, LockWaiters> waiters = new ConcurrentHashMap<>(16);
+
+    private final JedisSubscriber subscriber;
+
+    public JedisLockNotifier(JedisClient jedisClient, String channelPrefix) {
+        notNullOf(jedisClient, "jedisClient");
+        this.channelPrefix = hasTextOf(channelPrefix, "channelPrefix");
+        this.subscriber = new JedisSubscriber(jedisClient, "jedis-lock-notifier", new JedisPubSub() {
+            @Override
+            public void onPSubscribe(String pattern, int subscribedChannels) {
+                log.info("Subscribed lock notifications of pattern: {}", pattern);
+                // The unlocks may be missed before subscribed.
+                signalAll();
+            }
+
+            @Override
+            public void onPMessage(String pattern, String channel, String message) {
+                if (channel.startsWith(channelPrefix)) {
+                    LockWaiters w = waiters.get(channel.substring(channelPrefix.length()));
+                    if (nonNull(w)) {
+                        w.signalAll();
+                    }
+                }
+            }
+        }, true, RESUBSCRIBE_DELAY_MS, channelPrefix.concat("*"));
+    }
+
+    /**
+     * Gets the unlock notification channel of lock.
+     *
+     * @param lockName
+     * @return
+     */
+    public String getChannel(String lockName) {
+        return channelPrefix.concat(lockName);
+    }
+
+    /**
+     * Check whether the notifications are subscribed, the waiters should
+     * fallback to polling if not.
+     *
+     * @return
+     */
+    public boolean isSubscribed() {
+        return subscriber.isSubscribed();
+    }
+
+    /**
+     * Register a waiter of lock, must be unregistered with
+     * {@link #unregister(String)} after waiting.
+     *
+     * @param lockName
+     * @return
+     */
+    public LockWaiters register(String lockName) {
+        if (!subscriber.isRunning()) {
+            subscriber.start();
+        }
+        return waiters.compute(lockName, (name, w) -> {
+            w = nonNull(w) ? w : new LockWaiters();
+            w.refs++;
+            return w;
+        });
+    }
+
+    public void unregister(String lockName) {
+        waiters.computeIfPresent(lockName, (name, w) -> --w.refs <= 0 ? null : w);
+    }
+
+    /**
+     * Try acquire until acquired or the deadline, the acquiring is retried
+     * after notified or the retry delay (e.g. the earliest lease expired),
+     * waiting at most maxWaitMs, or {@link #FRAME_INTERVAL_MS} if not
+     * subscribed.
+     *
+     * @param lockName
+     * @param deadline
+     *            The epoch milliseconds of timeout.
+     * @param maxWaitMs
+     * @param acquirer
+     *            Try acquire, returns 0 if acquired, otherwise the retry
+     *            delay(ms).
+     * @return true if acquired.
+     * @throws InterruptedException
+     */
+    public boolean awaitAcquire(String lockName, long deadline, long maxWaitMs, LongSupplier acquirer)
+            throws InterruptedException {
+        LockWaiters w = register(lockName);
+        try {
+            while (true) {
+                long signals = w.getSignals();
+                long retryMs = acquirer.getAsLong();
+                if (retryMs == 0L) {
+                    return true;
+                }
+                long remainingMs = deadline - System.currentTimeMillis();
+                if (remainingMs <= 0) {
+                    return false;
+                }
+                long waitMs = Math.min(Math.min(remainingMs, retryMs), maxWaitMs);
+                if (!isSubscribed()) {
+                    waitMs = Math.min(waitMs, FRAME_INTERVAL_MS);
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                w.await(signals, waitMs);
+            }
+        } finally {
+            unregister(lockName);
+        }
+    }
+
+    @Override
+    public void close() {
+        subscriber.close();
+        signalAll();
+    }
+
+    private void signalAll() {
+        waiters.values().forEach(w -> w.signalAll());
+    }
+
+    /**
+     * The local waiters of a lock.
+     */
+    public static final class LockWaiters {
+        /** Registered waiters, guarded by the waiters map. */
+        private int refs;
+        /** Notified signals, guarded by this. */
+        private long signals;
+
+        /**
+         * Gets the current signals, should be read before trying to acquire
+         * the lock, so that the notification in the meantime is not lost.
+         *
+         * @return
+         */
+        public synchronized long getSignals() {
+            return signals;
+        }
+
+        /**
+         * Wait until signaled after the signals read, or timeout.
+         *
+         * @param signals
+         * @param timeoutMs
+         * @throws InterruptedException
+         */
+        public synchronized void await(long signals, long timeoutMs) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMs;
+            long remaining = timeoutMs;
+            while (this.signals == signals && remaining > 0) {
+                wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+        }
+
+        synchronized void signalAll() {
+            ++signals;
+            notifyAll();
+        }
+    }
+
+    /** Polling interval(ms) of the waiters if not subscribed. */
+    public static final long FRAME_INTERVAL_MS = 50L;
+    private static final long RESUBSCRIBE_DELAY_MS = 3_000L;
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.locks;
+
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
+import static java.lang.String.valueOf;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.Closeable;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import com.wl4g.component.common.log.SmartLogger;
+import com.wl4g.component.support.cache.jedis.JedisClient;
+
+/**
+ * Lease watchdog of {@link JedisLockManager} locks, the leases of the holding
+ * locks are renewed at 1/3 of the expiration, so the expiration of long
+ * running holders need not be padded. The renewal stops after unlocked, or
+ * the lock is no longer held (e.g. expired during a long GC pause), and the
+ * lock expires naturally when the holder process crashed. </br>
+ *
+ * <font color=red>Note: only the locks without an explicit lease (i.e.
+ * {@link JedisLockManager#getLock(String)}) are renewed, the explicit leases
+ * are always respected.</font>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-23 v1.0.0
+ * @see
+ */
+public class JedisLockWatchdog implements Closeable {
+    protected final SmartLogger log = getLogger(getClass());
+
+    private final JedisClient jedisClient;
+    private final ScheduledThreadPoolExecutor executor;
+
+    public JedisLockWatchdog(JedisClient jedisClient) {
+        this.jedisClient = notNullOf(jedisClient, "jedisClient");
+        this.executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "jedis-lock-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Start renewing the lease of the holding lock.
+     *
+     * @param name
+     * @param requestId
+     * @param expiredMs
+     * @return The renewal future, should be cancelled after unlocked.
+     */
+    public ScheduledFuture<?> watch(String name, String requestId, long expiredMs) {
+        long intervalMs = Math.max(expiredMs / 3, MIN_INTERVAL_MS);
+        RenewalTask task = new RenewalTask(name, requestId, expiredMs);
+        ScheduledFuture<?> future = executor.scheduleWithFixedDelay(task, intervalMs, intervalMs, MILLISECONDS);
+        task.future = future;
+        // Stopped before the future assigned.
+        if (task.stopped) {
+            future.cancel(false);
+        }
+        return future;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private class RenewalTask implements Runnable {
+        private final String name;
+        private final String requestId;
+        private final long expiredMs;
+        private volatile ScheduledFuture<?> future;
+        private volatile boolean stopped;
+
+        RenewalTask(String name, String requestId, long expiredMs) {
+            this.name = name;
+            this.requestId = requestId;
+            this.expiredMs = expiredMs;
+        }
+
+        @Override
+        public void run() {
+            if (stopped) {
+                return;
+            }
+            try {
+                Object res = jedisClient.eval(JedisLockManager.RENEW_LUA, singletonList(name), asList(requestId, valueOf(expiredMs)));
+                if (!(res instanceof Number) || ((Number) res).longValue() < 1L) {
+                    log.warn("Lock is no longer held, stop renewing of %{}@{}", requestId, name);
+                    stop();
+                }
+            } catch (Exception e) {
+                // Retry at next interval, the lease is still valid.
+                log.warn("Failed to renew lock of %{}@{}. - {}", requestId, name, e.getMessage());
+            }
+        }
+
+        /**
+         * Stop renewing, the future may not be assigned yet if the first
+         * renewal is executed before {@link #watch(String, String, long)}
+         * returned, then it's cancelled by the latter.
+         */
+        private void stop() {
+            stopped = true;
+            ScheduledFuture<?> f = future;
+            if (nonNull(f)) {
+                f.cancel(false);
+            }
+        }
+    }
+
+    private static final long MIN_INTERVAL_MS = 10L;
+
+}
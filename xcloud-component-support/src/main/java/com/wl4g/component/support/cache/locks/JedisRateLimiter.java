@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.locks;
+
+import static java.lang.Thread.sleep;
+import static org.springframework.util.Assert.isTrue;
+import static org.springframework.util.Assert.notNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distributed rate limiter based on redis, the permits are acquired by an
+ * atomic lua script in one round trip, and the time is taken from redis
+ * (TIME) so that the clocks of clients do not drift.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-24 v1.0.0
+ * @see JedisTokenBucketRateLimiter
+ * @see JedisSlidingWindowRateLimiter
+ */
+public interface JedisRateLimiter {
+
+    /**
+     * Try acquire the permits atomically (all or none).
+     *
+     * @param permits
+     * @return 0 if acquired, otherwise the estimated wait (ms) until the
+     *         permits may be available, or -1 if the permits exceed the
+     *         limit (never available).
+     */
+    long tryAcquireWait(int permits);
+
+    default boolean tryAcquire() {
+        return tryAcquire(1);
+    }
+
+    default boolean tryAcquire(int permits) {
+        return tryAcquireWait(permits) == 0L;
+    }
+
+    /**
+     * Try acquire the permits atomically (all or none), waiting at most the
+     * timeout.
+     *
+     * @param permits
+     * @param timeout
+     * @param unit
+     * @return
+     * @throws InterruptedException
+     */
+    default boolean tryAcquire(int permits, long timeout, TimeUnit unit) throws InterruptedException {
+        notNull(unit, "TimeUnit must not be null.");
+        isTrue(timeout >= 0, "Timeout must not be negative");
+        long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+        while (true) {
+            long waitMs = tryAcquireWait(permits);
+            if (waitMs == 0L) {
+                return true;
+            }
+            long remainingMs = deadline - System.currentTimeMillis();
+            if (waitMs < 0 || waitMs > remainingMs) {
+                return false;
+            }
+            sleep(waitMs);
+        }
+    }
+
+    /**
+     * Redis time (ms) of lua scripts, the effects replication is required by
+     * redis before 5.0 when using TIME. It is shared by the scripts of locks
+     * and queues.
+     */
+    static final String LUA_NOW = "redis.replicate_commands() local t = redis.call('TIME') "
+            + "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000) ";
+
+}
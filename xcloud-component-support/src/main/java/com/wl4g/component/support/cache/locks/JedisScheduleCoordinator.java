@@ -0,0 +1,66 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.locks;
+
+import static com.wl4g.component.common.lang.Assert2.hasTextOf;
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static com.wl4g.component.common.lang.SystemUtils2.GLOBAL_PROCESS_SERIAL;
+
+import com.wl4g.component.common.task.SafeScheduledTaskPoolExecutor;
+import com.wl4g.component.common.task.ScheduleCoordinator;
+import com.wl4g.component.support.cache.jedis.JedisClient;
+
+import redis.clients.jedis.params.SetParams;
+
+/**
+ * Redis based {@link ScheduleCoordinator}, the fire of job is claimed by SET
+ * NX of the per fire time key, which expires after the lease. </br>
+ *
+ * <pre>
+ * executor.setCoordinator(new JedisScheduleCoordinator(jedisClient));
+ * executor.scheduleAtFixedRateSingleton("order-reconcile", () -&gt; reconcile(), 1, TimeUnit.MINUTES);
+ * </pre>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-01 v1.0.0
+ * @see SafeScheduledTaskPoolExecutor#scheduleAtFixedRateSingleton(String,
+ *      Runnable, long, java.util.concurrent.TimeUnit)
+ */
+public class JedisScheduleCoordinator implements ScheduleCoordinator {
+
+    private final JedisClient jedisClient;
+    private final String keyPrefix;
+
+    public JedisScheduleCoordinator(JedisClient jedisClient) {
+        this(jedisClient, DEFAULT_KEY_PREFIX);
+    }
+
+    public JedisScheduleCoordinator(JedisClient jedisClient, String keyPrefix) {
+        this.jedisClient = notNullOf(jedisClient, "jedisClient");
+        this.keyPrefix = hasTextOf(keyPrefix, "keyPrefix");
+    }
+
+    @Override
+    public boolean tryClaim(String jobName, long fireTime, long leaseMs) {
+        String key = keyPrefix.concat(hasTextOf(jobName, "jobName")).concat(":") + fireTime;
+        // Retain the claim for a while, so that the skewed nodes can see it.
+        String res = jedisClient.set(key, GLOBAL_PROCESS_SERIAL, SetParams.setParams().nx().px(Math.max(leaseMs * 2, 1000L)));
+        return "OK".equalsIgnoreCase(res);
+    }
+
+    public static final String DEFAULT_KEY_PREFIX = "__xcloud:schedule:";
+
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.locks;
+
+import static com.wl4g.component.common.lang.Assert2.hasTextOf;
+import static com.wl4g.component.common.lang.Assert2.isTrue;
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static com.wl4g.component.common.lang.SystemUtils2.GLOBAL_PROCESS_SERIAL;
+import static java.lang.String.valueOf;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.wl4g.component.support.cache.jedis.JedisClient;
+
+/**
+ * Distributed counting semaphore with leases based on redis. </br>
+ *
+ * <p>
+ * The acquired permits are stored as the members of a sorted set scored by
+ * the lease expiration, so the permits of crashed holders are reclaimed after
+ * expired. Acquire N permits is atomic (all or none) in one round trip, the
+ * release notifies the waiters through {@link JedisLockNotifier}.
+ * </p>
+ *
+ * <pre>
+ * String permitId = semaphore.tryAcquire(2, 1, TimeUnit.SECONDS);
+ * if (permitId != null) {
+ *     try {
+ *         // ...
+ *     } finally {
+ *         semaphore.release(permitId, 2);
+ *     }
+ * }
+ * </pre>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-24 v1.0.0
+ * @see
+ */
+public class JedisSemaphore {
+
+    private final JedisClient jedisClient;
+    private final JedisLockNotifier notifier;
+    private final String name;
+    private final long permits;
+    private final long leaseMs;
+    private final long maxWaitMs;
+
+    public JedisSemaphore(JedisClient jedisClient, JedisLockNotifier notifier, String name, long permits, long leaseMs,
+            long maxWaitMs) {
+        isTrue(permits > 0, "permits must greater than 0");
+        isTrue(leaseMs > 0, "leaseMs must greater than 0");
+        isTrue(maxWaitMs > 0, "maxWaitMs must greater than 0");
+        this.jedisClient = notNullOf(jedisClient, "jedisClient");
+        this.notifier = notNullOf(notifier, "notifier");
+        this.name = hasTextOf(name, "name");
+        this.permits = permits;
+        this.leaseMs = leaseMs;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Try acquire the permits atomically (all or none).
+     *
+     * @param acquires
+     * @return The permit ID if acquired (for release or renew), otherwise
+     *         null.
+     */
+    public String tryAcquire(int acquires) {
+        isTrue(acquires > 0, "acquires must greater than 0");
+        if (acquires > permits) {
+            return null;
+        }
+        String permitId = nextPermitId();
+        return doTryAcquire(permitId, acquires) == 0L ? permitId : null;
+    }
+
+    /**
+     * Try acquire the permits atomically (all or none), waiting at most the
+     * timeout.
+     *
+     * @param acquires
+     * @param timeout
+     * @param unit
+     * @return The permit ID if acquired (for release or renew), otherwise
+     *         null.
+     * @throws InterruptedException
+     */
+    public String tryAcquire(int acquires, long timeout, TimeUnit unit) throws InterruptedException {
+        isTrue(acquires > 0, "acquires must greater than 0");
+        notNullOf(unit, "unit");
+        if (acquires > permits) {
+            return null;
+        }
+        long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+        String permitId = nextPermitId();
+        if (doTryAcquire(permitId, acquires) == 0L) {
+            return permitId;
+        }
+        // Wait for release notification, or the earliest lease expired.
+        return notifier.awaitAcquire(name, deadline, maxWaitMs, () -> doTryAcquire(permitId, acquires)) ? permitId
+                : null;
+    }
+
+    /**
+     * Release the acquired permits.
+     *
+     * @param permitId
+     * @param acquires
+     *            The acquires of permit ID.
+     * @return The released permits, less than acquires if expired.
+     */
+    public long release(String permitId, int acquires) {
+        hasTextOf(permitId, "permitId");
+        isTrue(acquires > 0, "acquires must greater than 0");
+        Object res = jedisClient.eval(RELEASE_LUA, singletonList(name),
+                asList(permitId, valueOf(acquires), notifier.getChannel(name)));
+        return ((Number) res).longValue();
+    }
+
+    /**
+     * Renew the leases of the acquired permits.
+     *
+     * @param permitId
+     * @param acquires
+     *            The acquires of permit ID.
+     * @return false if the permits are expired.
+     */
+    public boolean renew(String permitId, int acquires) {
+        hasTextOf(permitId, "permitId");
+        isTrue(acquires > 0, "acquires must greater than 0");
+        Object res = jedisClient.eval(RENEW_LUA, singletonList(name),
+                asList(permitId, valueOf(acquires), valueOf(leaseMs)));
+        return ((Number) res).longValue() == acquires;
+    }
+
+    /**
+     * Gets the available permits.
+     *
+     * @return
+     */
+    public long availablePermits() {
+        Object res = jedisClient.eval(AVAILABLE_LUA, singletonList(name), singletonList(valueOf(permits)));
+        return ((Number) res).longValue();
+    }
+
+    /**
+     * Execution try acquire the permits.
+     *
+     * @param permitId
+     * @param acquires
+     * @return 0 if acquired, otherwise the remaining lease (ms) of the
+     *         earliest expired permit.
+     */
+    private long doTryAcquire(String permitId, int acquires) {
+        Object res = jedisClient.eval(ACQUIRE_LUA, singletonList(name),
+                asList(valueOf(permits), valueOf(leaseMs), valueOf(acquires), permitId));
+        return ((Number) res).longValue();
+    }
+
+    private static String nextPermitId() {
+        return GLOBAL_PROCESS_SERIAL.concat("-") + sequence.incrementAndGet();
+    }
+
+    private static final AtomicLong sequence = new AtomicLong(0);
+
+    static final String ACQUIRE_LUA = JedisRateLimiter.LUA_NOW
+            + "local permits = tonumber(ARGV[1]) local lease = tonumber(ARGV[2]) local acquires = tonumber(ARGV[3]) "
+            + "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now) "
+            + "local count = redis.call('ZCARD', KEYS[1]) "
+            + "if count + acquires > permits then "
+            + "local e = redis.call('ZRANGE', KEYS[1], 0, 0, 'WITHSCORES') "
+            + "return math.max(1, tonumber(e[2]) - now) end "
+            + "for i = 1, acquires do redis.call('ZADD', KEYS[1], now + lease, ARGV[4] .. ':' .. i) end "
+            + "local ttl = redis.call('PTTL', KEYS[1]) "
+            + "if ttl < lease then redis.call('PEXPIRE', KEYS[1], lease) end "
+            + "return 0";
+
+    static final String RELEASE_LUA = "local n = 0 "
+            + "for i = 1, tonumber(ARGV[2]) do n = n + redis.call('ZREM', KEYS[1], ARGV[1] .. ':' .. i) end "
+            + "if n > 0 then redis.call('publish', ARGV[3], ARGV[1]) end "
+            + "return n";
+
+    private static final String RENEW_LUA = JedisRateLimiter.LUA_NOW
+            + "local n = 0 local expiration = now + tonumber(ARGV[3]) "
+            + "for i = 1, tonumber(ARGV[2]) do "
+            + "local member = ARGV[1] .. ':' .. i "
+            + "local s = redis.call('ZSCORE', KEYS[1], member) "
+            + "if s and tonumber(s) > now then redis.call('ZADD', KEYS[1], expiration, member) n = n + 1 end end "
+            + "local ttl = redis.call('PTTL', KEYS[1]) "
+            + "if n > 0 and ttl < tonumber(ARGV[3]) then redis.call('PEXPIRE', KEYS[1], ARGV[3]) end "
+            + "return n";
+
+    static final String AVAILABLE_LUA = JedisRateLimiter.LUA_NOW
+            + "local n = redis.call('ZCOUNT', KEYS[1], '(' .. now, '+inf') "
+            + "return math.max(0, tonumber(ARGV[1]) - n)";
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.locks;
+
+import static com.wl4g.component.common.lang.Assert2.hasTextOf;
+import static com.wl4g.component.common.lang.Assert2.isTrue;
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static com.wl4g.component.common.lang.SystemUtils2.GLOBAL_PROCESS_SERIAL;
+import static java.lang.String.valueOf;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.wl4g.component.support.cache.jedis.JedisClient;
+
+/**
+ * Sliding window (log) {@link JedisRateLimiter}, at most limit permits are
+ * acquired in any window, the acquired permits are stored as the members of a
+ * sorted set scored by the acquired time.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-24 v1.0.0
+ * @see
+ */
+public class JedisSlidingWindowRateLimiter implements JedisRateLimiter {
+
+    private final JedisClient jedisClient;
+    private final String name;
+    private final long limit;
+    private final long windowMs;
+
+    public JedisSlidingWindowRateLimiter(JedisClient jedisClient, String name, long limit, long windowMs) {
+        isTrue(limit > 0, "limit must greater than 0");
+        isTrue(windowMs > 0, "windowMs must greater than 0");
+        this.jedisClient = notNullOf(jedisClient, "jedisClient");
+        this.name = hasTextOf(name, "name");
+        this.limit = limit;
+        this.windowMs = windowMs;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long tryAcquireWait(int permits) {
+        isTrue(permits > 0, "permits must greater than 0");
+        if (permits > limit) {
+            return -1L;
+        }
+        String permitId = GLOBAL_PROCESS_SERIAL.concat("-") + sequence.incrementAndGet();
+        Object res = jedisClient.eval(ACQUIRE_LUA, singletonList(name),
+                asList(valueOf(windowMs), valueOf(limit), valueOf(permits), permitId));
+        return ((Number) res).longValue();
+    }
+
+    private static final AtomicLong sequence = new AtomicLong(0);
+
+    static final String ACQUIRE_LUA = LUA_NOW
+            + "local window = tonumber(ARGV[1]) local limit = tonumber(ARGV[2]) local permits = tonumber(ARGV[3]) "
+            + "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - window) "
+            + "local count = redis.call('ZCARD', KEYS[1]) "
+            + "if count + permits > limit then "
+            // The permits are available when the oldest ones slide out.
+            + "local i = count + permits - limit - 1 "
+            + "local e = redis.call('ZRANGE', KEYS[1], i, i, 'WITHSCORES') "
+            + "if e[2] == nil then return -1 end "
+            + "return math.max(1, tonumber(e[2]) + window - now + 1) end "
+            + "for i = 1, permits do redis.call('ZADD', KEYS[1], now, ARGV[4] .. ':' .. i) end "
+            + "redis.call('PEXPIRE', KEYS[1], window) "
+            + "return 0";
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.locks;
+
+import static com.wl4g.component.common.lang.Assert2.hasTextOf;
+import static com.wl4g.component.common.lang.Assert2.isTrue;
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static java.lang.String.valueOf;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+
+import com.wl4g.component.support.cache.jedis.JedisClient;
+
+/**
+ * Token bucket {@link JedisRateLimiter}, the bucket is refilled at the rate
+ * of permits per second up to the capacity (burst), and stored as a hash of
+ * (tokens, ts) which expires after full refilled.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-24 v1.0.0
+ * @see
+ */
+public class JedisTokenBucketRateLimiter implements JedisRateLimiter {
+
+    private final JedisClient jedisClient;
+    private final String name;
+    private final double permitsPerSecond;
+    private final long capacity;
+
+    public JedisTokenBucketRateLimiter(JedisClient jedisClient, String name, double permitsPerSecond, long capacity) {
+        isTrue(permitsPerSecond > 0, "permitsPerSecond must greater than 0");
+        isTrue(capacity > 0, "capacity must greater than 0");
+        this.jedisClient = notNullOf(jedisClient, "jedisClient");
+        this.name = hasTextOf(name, "name");
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = capacity;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long tryAcquireWait(int permits) {
+        isTrue(permits > 0, "permits must greater than 0");
+        if (permits > capacity) {
+            return -1L;
+        }
+        Object res = jedisClient.eval(ACQUIRE_LUA, singletonList(name),
+                asList(valueOf(permitsPerSecond), valueOf(capacity), valueOf(permits)));
+        return ((Number) res).longValue();
+    }
+
+    static final String ACQUIRE_LUA = LUA_NOW
+            + "local rate = tonumber(ARGV[1]) local capacity = tonumber(ARGV[2]) local requested = tonumber(ARGV[3]) "
+            + "local b = redis.call('HMGET', KEYS[1], 'tokens', 'ts') "
+            + "local tokens = tonumber(b[1]) local ts = tonumber(b[2]) "
+            + "if tokens == nil or ts == nil then tokens = capacity ts = now end "
+            + "tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate / 1000) "
+            + "local wait = 0 "
+            + "if tokens >= requested then tokens = tokens - requested "
+            + "else wait = math.ceil((requested - tokens) * 1000 / rate) end "
+            + "redis.call('HMSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now) "
+            + "redis.call('PEXPIRE', KEYS[1], math.ceil(capacity * 1000 / rate) + 1000) "
+            + "return wait";
+
+}
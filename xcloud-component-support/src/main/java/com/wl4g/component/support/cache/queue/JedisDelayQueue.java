@@ -0,0 +1,512 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.queue;
+
+import static com.wl4g.component.common.lang.Assert2.hasTextOf;
+import static com.wl4g.component.common.lang.Assert2.isTrue;
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static java.lang.String.valueOf;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Objects.isNull;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.wl4g.component.support.cache.jedis.JedisBatch;
+import com.wl4g.component.support.cache.jedis.JedisClient;
+import com.wl4g.component.support.cache.locks.JedisRateLimiter;
+
+/**
+ * Delayed job queue of redis sorted sets. </br>
+ *
+ * <p>
+ * The jobs are sharded by hash tag (i.e. the keys of a shard are in the same
+ * slot, and the shards are spread over the slots of all masters), each shard
+ * consists of:
+ * <ul>
+ * <li>{prefix}{name:N}:delayed - the sorted set of job ids, scored by the
+ * fire time(ms);</li>
+ * <li>{prefix}{name:N}:inflight - the sorted set of claimed job ids, scored
+ * by the visibility deadline(ms);</li>
+ * <li>{prefix}{name:N}:jobs and :attempts - the hashes of payloads and
+ * delivery attempts.</li>
+ * </ul>
+ * The earliest fire times of all shards are peeked in batch (i.e. one
+ * pipeline per master in cluster mode), and the due jobs of the due shards are
+ * claimed in batch by a lua script that moves them into the inflight set
+ * atomically, the claimed jobs must be acknowledged before the visibility
+ * deadline, otherwise they will be re-delivered (at-least-once).
+ * The times are of the redis server clock, so the consumers clock skew does
+ * not matter.
+ * </p>
+ *
+ * <pre>
+ * JedisDelayQueue queue = new JedisDelayQueue(jedisClient, "orders");
+ * queue.offer("order-1001", 30_000);
+ * for (DelayJob job : queue.take(100, 1000)) {
+ *     process(job.getPayload());
+ *     queue.ack(job);
+ * }
+ * </pre>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-29 v1.0.0
+ * @see
+ */
+public class JedisDelayQueue {
+
+    private final JedisClient jedisClient;
+    private final String name;
+    private final DelayQueueProperties config;
+
+    /** Offering shard selector. */
+    private final AtomicInteger offerCounter = new AtomicInteger(0);
+
+    /** Wake up the local takers when offered. */
+    private final ReentrantLock takeLock = new ReentrantLock();
+    private final Condition offered = takeLock.newCondition();
+
+    public JedisDelayQueue(JedisClient jedisClient, String name) {
+        this(jedisClient, name, new DelayQueueProperties());
+    }
+
+    public JedisDelayQueue(JedisClient jedisClient, String name, DelayQueueProperties config) {
+        this.jedisClient = notNullOf(jedisClient, "jedisClient");
+        this.name = hasTextOf(name, "name");
+        this.config = notNullOf(config, "delayQueueProperties");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Offer the job that fires after the delay.
+     *
+     * @param payload
+     * @param delayMs
+     * @return The job id.
+     */
+    public String offer(String payload, long delayMs) {
+        return doOffer(payload, Math.max(delayMs, 0L), true);
+    }
+
+    /**
+     * Offer the job that fires at the time.
+     *
+     * @param payload
+     * @param fireAtMs
+     *            The epoch milliseconds to fire.
+     * @return The job id.
+     */
+    public String offerAt(String payload, long fireAtMs) {
+        return doOffer(payload, fireAtMs, false);
+    }
+
+    /**
+     * Cancel the job that is not yet claimed.
+     *
+     * @param jobId
+     * @return false if the job does not exist or has been claimed.
+     */
+    public boolean cancel(String jobId) {
+        int shard = parseShard(jobId);
+        Object res = jedisClient.eval(CANCEL_LUA, asList(key(shard, DELAYED), key(shard, JOBS), key(shard, ATTEMPTS)),
+                asList(jobId));
+        return ((Number) res).longValue() > 0;
+    }
+
+    /**
+     * Claim the due jobs (at most maxJobs) of all shards without waiting.
+     *
+     * @param maxJobs
+     * @return
+     */
+    public List<DelayJob> poll(int maxJobs) {
+        return doPoll(maxJobs, new long[] { Long.MAX_VALUE });
+    }
+
+    /**
+     * Claim the due jobs (at most maxJobs), waiting until any job fires or
+     * timeout.
+     *
+     * @param maxJobs
+     * @param timeoutMs
+     * @return Empty if timeout.
+     * @throws InterruptedException
+     */
+    public List<DelayJob> take(int maxJobs, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        long[] nextWaitMs = new long[1];
+        for (;;) {
+            nextWaitMs[0] = Long.MAX_VALUE;
+            List<DelayJob> jobs = doPoll(maxJobs, nextWaitMs);
+            long remaining = deadline - System.currentTimeMillis();
+            if (!jobs.isEmpty() || remaining <= 0) {
+                return jobs;
+            }
+            // Wait until the earliest job of all shards fires, and peek the
+            // shards at least every maxIdleMs for the jobs offered by other
+            // instances.
+            long waitMs = Math.max(1L, Math.min(Math.min(nextWaitMs[0], config.getMaxIdleMs()), remaining));
+            takeLock.lockInterruptibly();
+            try {
+                offered.await(waitMs, TimeUnit.MILLISECONDS);
+            } finally {
+                takeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Acknowledge the job has been processed.
+     *
+     * @param job
+     * @return false if the visibility deadline has passed and the job may
+     *         have been claimed again.
+     */
+    public boolean ack(DelayJob job) {
+        int shard = job.getShard();
+        Object res = jedisClient.eval(ACK_LUA, asList(key(shard, INFLIGHT), key(shard, JOBS), key(shard, ATTEMPTS)),
+                asList(job.getId(), valueOf(job.getDeadline())));
+        return ((Number) res).longValue() > 0;
+    }
+
+    /**
+     * Return the claimed job to the queue, which fires again after the delay.
+     *
+     * @param job
+     * @param delayMs
+     * @return false if the visibility deadline has passed and the job may
+     *         have been claimed again.
+     */
+    public boolean nack(DelayJob job, long delayMs) {
+        int shard = job.getShard();
+        Object res = jedisClient.eval(NACK_LUA, asList(key(shard, DELAYED), key(shard, INFLIGHT)),
+                asList(job.getId(), valueOf(job.getDeadline()), valueOf(Math.max(delayMs, 0L))));
+        return ((Number) res).longValue() > 0;
+    }
+
+    /**
+     * Gets the number of jobs (including the delayed and inflight).
+     *
+     * @return
+     */
+    public long size() {
+        long size = 0L;
+        for (int shard = 0; shard < config.getShards(); shard++) {
+            Long len = jedisClient.hlen(key(shard, JOBS));
+            size += isNull(len) ? 0L : len;
+        }
+        return size;
+    }
+
+    private String doOffer(String payload, long time, boolean relative) {
+        notNullOf(payload, "payload");
+        int shard = Math.floorMod(offerCounter.getAndIncrement(), config.getShards());
+        String jobId = shard + ID_SEPARATOR + UUID.randomUUID().toString().replace("-", "");
+        jedisClient.eval(OFFER_LUA, asList(key(shard, DELAYED), key(shard, JOBS)),
+                asList(jobId, payload, valueOf(time), (relative ? "1" : "0")));
+        // Wake up the local takers to re-calculate the waiting time.
+        takeLock.lock();
+        try {
+            offered.signalAll();
+        } finally {
+            takeLock.unlock();
+        }
+        return jobId;
+    }
+
+    /**
+     * Claim the due jobs of the due shards, starting from a random shard so
+     * that the consumers are balanced.
+     *
+     * @param maxJobs
+     * @param nextWaitMs
+     *            The minimum waiting time(ms) until the next job fires.
+     * @return
+     */
+    private List<DelayJob> doPoll(int maxJobs, long[] nextWaitMs) {
+        isTrue(maxJobs > 0, "maxJobs must > 0");
+        List<Integer> dueShards = peekDueShards(nextWaitMs);
+        List<DelayJob> jobs = emptyList();
+        if (dueShards.isEmpty()) {
+            return jobs;
+        }
+        int start = ThreadLocalRandom.current().nextInt(dueShards.size());
+        for (int i = 0; i < dueShards.size() && jobs.size() < maxJobs; i++) {
+            int shard = dueShards.get((start + i) % dueShards.size());
+            List<?> res = (List<?>) jedisClient.eval(CLAIM_LUA,
+                    asList(key(shard, DELAYED), key(shard, INFLIGHT), key(shard, JOBS), key(shard, ATTEMPTS)),
+                    asList(valueOf(maxJobs - jobs.size()), valueOf(config.getVisibilityMs())));
+            // {now, deadline, nextAt, id1, payload1, attempts1, ...}
+            long now = toLong(res.get(0));
+            long deadline = toLong(res.get(1));
+            long nextAt = toLong(res.get(2));
+            if (nextAt >= 0) {
+                nextWaitMs[0] = Math.min(nextWaitMs[0], Math.max(nextAt - now, 0L));
+            }
+            for (int j = 3; j + 2 < res.size(); j += 3) {
+                if (jobs.isEmpty()) {
+                    jobs = new ArrayList<>(maxJobs);
+                }
+                jobs.add(new DelayJob((String) res.get(j), (String) res.get(j + 1), shard, deadline,
+                        (int) toLong(res.get(j + 2))));
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * Peek the earliest fire times (of the delayed and the expired inflight
+     * jobs) of all shards in batch, so that the idle consumers do not claim
+     * the shards one by one.
+     *
+     * @param nextWaitMs
+     *            The minimum waiting time(ms) until the next job fires.
+     * @return The shards that have due jobs.
+     */
+    private List<Integer> peekDueShards(long[] nextWaitMs) {
+        int shards = config.getShards();
+        JedisBatch batch = jedisClient.batch();
+        List<CompletableFuture<Object>> peeks = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            peeks.add(batch.eval(PEEK_LUA, asList(key(shard, DELAYED), key(shard, INFLIGHT)), emptyList()));
+        }
+        batch.sync();
+        List<Integer> dueShards = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            // {now, nextAt}
+            List<?> res = (List<?>) waitFor(peeks.get(shard));
+            long now = toLong(res.get(0));
+            long nextAt = toLong(res.get(1));
+            if (nextAt < 0) {
+                continue;
+            }
+            if (nextAt <= now) {
+                dueShards.add(shard);
+            } else {
+                nextWaitMs[0] = Math.min(nextWaitMs[0], nextAt - now);
+            }
+        }
+        return dueShards;
+    }
+
+    private String key(int shard, String type) {
+        return config.getKeyPrefix() + "{" + name + ":" + shard + "}" + type;
+    }
+
+    private int parseShard(String jobId) {
+        int index = hasTextOf(jobId, "jobId").indexOf(ID_SEPARATOR);
+        isTrue(index > 0, "Invalid job id: %s", jobId);
+        int shard = Integer.parseInt(jobId.substring(0, index));
+        isTrue(shard >= 0 && shard < config.getShards(), "Invalid job id: %s", jobId);
+        return shard;
+    }
+
+    private static Object waitFor(CompletableFuture<Object> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static long toLong(Object value) {
+        return (value instanceof Number) ? ((Number) value).longValue() : Long.parseLong(valueOf(value));
+    }
+
+    /**
+     * The claimed job.
+     */
+    public static class DelayJob implements Serializable {
+        private static final long serialVersionUID = -7429154802378613563L;
+
+        private final String id;
+        private final String payload;
+        private final int shard;
+        private final long deadline;
+        private final int attempts;
+
+        DelayJob(String id, String payload, int shard, long deadline, int attempts) {
+            this.id = id;
+            this.payload = payload;
+            this.shard = shard;
+            this.deadline = deadline;
+            this.attempts = attempts;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getPayload() {
+            return payload;
+        }
+
+        public int getShard() {
+            return shard;
+        }
+
+        /**
+         * The visibility deadline (epoch ms of redis server), the job must be
+         * acknowledged before it.
+         */
+        public long getDeadline() {
+            return deadline;
+        }
+
+        /**
+         * The delivery attempts, starting from 1.
+         */
+        public int getAttempts() {
+            return attempts;
+        }
+
+        @Override
+        public String toString() {
+            return "DelayJob [id=" + id + ", shard=" + shard + ", deadline=" + deadline + ", attempts=" + attempts + "]";
+        }
+    }
+
+    /**
+     * {@link JedisDelayQueue} properties.
+     */
+    public static class DelayQueueProperties implements Serializable {
+        private static final long serialVersionUID = 5830937451634106263L;
+
+        /** The redis key prefix of queues. */
+        private String keyPrefix = "__xcloud:delayqueue:";
+
+        /**
+         * Number of shards, should be several times the number of masters so
+         * that the shards are spread over all masters. It must not be changed
+         * while the queue is not empty.
+         */
+        private int shards = 16;
+
+        /** The visibility timeout(ms) of claimed jobs. */
+        private long visibilityMs = 30_000L;
+
+        /**
+         * Maximum interval(ms) of peeking the shards while taking, i.e. the
+         * maximum latency of the jobs offered by other instances that fire
+         * earlier than the known jobs.
+         */
+        private long maxIdleMs = 100L;
+
+        public String getKeyPrefix() {
+            return keyPrefix;
+        }
+
+        public void setKeyPrefix(String keyPrefix) {
+            this.keyPrefix = hasTextOf(keyPrefix, "keyPrefix");
+        }
+
+        public int getShards() {
+            return shards;
+        }
+
+        public void setShards(int shards) {
+            isTrue(shards > 0, "shards must > 0");
+            this.shards = shards;
+        }
+
+        public long getVisibilityMs() {
+            return visibilityMs;
+        }
+
+        public void setVisibilityMs(long visibilityMs) {
+            isTrue(visibilityMs > 0, "visibilityMs must > 0");
+            this.visibilityMs = visibilityMs;
+        }
+
+        public long getMaxIdleMs() {
+            return maxIdleMs;
+        }
+
+        public void setMaxIdleMs(long maxIdleMs) {
+            isTrue(maxIdleMs > 0, "maxIdleMs must > 0");
+            this.maxIdleMs = maxIdleMs;
+        }
+    }
+
+    private static final String DELAYED = ":delayed";
+    private static final String INFLIGHT = ":inflight";
+    private static final String JOBS = ":jobs";
+    private static final String ATTEMPTS = ":attempts";
+    private static final String ID_SEPARATOR = "-";
+
+    static final String OFFER_LUA = JedisRateLimiter.LUA_NOW + "local at = tonumber(ARGV[3]) if ARGV[4] == '1' then at = now + at end "
+            + "redis.call('HSET', KEYS[2], ARGV[1], ARGV[2]) redis.call('ZADD', KEYS[1], at, ARGV[1]) return at";
+
+    /**
+     * The earliest fire time of the delayed and inflight jobs (read-only).
+     */
+    static final String PEEK_LUA = "local t = redis.call('TIME') "
+            + "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000) local res = { now, -1 } "
+            + "local d = redis.call('ZRANGE', KEYS[1], 0, 0, 'WITHSCORES') "
+            + "local f = redis.call('ZRANGE', KEYS[2], 0, 0, 'WITHSCORES') "
+            + "if d[2] then res[2] = tonumber(d[2]) end "
+            + "if f[2] and (res[2] < 0 or tonumber(f[2]) < res[2]) then res[2] = tonumber(f[2]) end "
+            + "return res";
+
+    /**
+     * Re-queue the expired inflight jobs, then move the due jobs into the
+     * inflight set.
+     */
+    static final String CLAIM_LUA = JedisRateLimiter.LUA_NOW
+            + "local max = tonumber(ARGV[1]) local deadline = now + tonumber(ARGV[2]) "
+            + "local expired = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', now, 'LIMIT', 0, max) "
+            + "for _, id in ipairs(expired) do redis.call('ZREM', KEYS[2], id) redis.call('ZADD', KEYS[1], now, id) end "
+            + "local res = { now, deadline, -1 } "
+            + "local ids = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', now, 'LIMIT', 0, max) "
+            + "for _, id in ipairs(ids) do redis.call('ZREM', KEYS[1], id) "
+            + "local payload = redis.call('HGET', KEYS[3], id) "
+            + "if payload then redis.call('ZADD', KEYS[2], deadline, id) "
+            + "local attempts = redis.call('HINCRBY', KEYS[4], id, 1) "
+            + "res[#res + 1] = id res[#res + 1] = payload res[#res + 1] = attempts end end "
+            + "local d = redis.call('ZRANGE', KEYS[1], 0, 0, 'WITHSCORES') "
+            + "local f = redis.call('ZRANGE', KEYS[2], 0, 0, 'WITHSCORES') "
+            + "if d[2] then res[3] = tonumber(d[2]) end "
+            + "if f[2] and (res[3] < 0 or tonumber(f[2]) < res[3]) then res[3] = tonumber(f[2]) end "
+            + "return res";
+
+    static final String ACK_LUA = "local s = redis.call('ZSCORE', KEYS[1], ARGV[1]) "
+            + "if s and tonumber(s) == tonumber(ARGV[2]) then redis.call('ZREM', KEYS[1], ARGV[1]) "
+            + "redis.call('HDEL', KEYS[2], ARGV[1]) redis.call('HDEL', KEYS[3], ARGV[1]) return 1 end return 0";
+
+    private static final String NACK_LUA = JedisRateLimiter.LUA_NOW + "local s = redis.call('ZSCORE', KEYS[2], ARGV[1]) "
+            + "if s and tonumber(s) == tonumber(ARGV[2]) then redis.call('ZREM', KEYS[2], ARGV[1]) "
+            + "redis.call('ZADD', KEYS[1], now + tonumber(ARGV[3]), ARGV[1]) return 1 end return 0";
+
+    private static final String CANCEL_LUA = "if redis.call('ZREM', KEYS[1], ARGV[1]) > 0 then "
+            + "redis.call('HDEL', KEYS[2], ARGV[1]) redis.call('HDEL', KEYS[3], ARGV[1]) return 1 end return 0";
+
+}
@@ -0,0 +1,632 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.queue;
+
+import static com.wl4g.component.common.lang.Assert2.hasTextOf;
+import static com.wl4g.component.common.lang.Assert2.isTrue;
+import static com.wl4g.component.common.lang.Assert2.notNullOf;
+import static com.wl4g.component.common.log.SmartLoggerFactory.getLogger;
+import static java.util.Collections.singletonMap;
+import static java.util.Objects.isNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.Closeable;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.wl4g.component.common.log.SmartLogger;
+import com.wl4g.component.support.cache.jedis.JedisClient;
+
+import redis.clients.jedis.StreamEntry;
+import redis.clients.jedis.StreamEntryID;
+import redis.clients.jedis.StreamPendingEntry;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.params.XAddParams;
+import redis.clients.jedis.params.XReadGroupParams;
+import redis.clients.jedis.util.SafeEncoder;
+
+/**
+ * At-least-once message queue of redis streams and consumer groups. </br>
+ *
+ * <p>
+ * The messages are published to the hash-tagged shard streams in turn (i.e.
+ * {prefix}{name:N}), which are trimmed approximately to the maximum length.
+ * A subscription reads each shard with a dedicated reader thread by blocking
+ * XREADGROUP in batch, and dispatches the messages to the consumer threads,
+ * the number of unacknowledged messages is limited (backpressure). The
+ * handled messages are acknowledged by XACK in batch, the failed messages and
+ * the pending messages of dead consumers are claimed again after idle, and
+ * moved to the dead-letter stream ({prefix}{name:N}:dead) after too many
+ * deliveries.
+ * </p>
+ *
+ * <pre>
+ * JedisStreamQueue queue = new JedisStreamQueue(jedisClient, "orders");
+ * queue.createGroup("billing");
+ * StreamSubscription sub = queue.subscribe("billing", "billing-" + hostname, msg -&gt; process(msg.getPayload()));
+ * queue.publish("order-1001");
+ * </pre>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-30 v1.0.0
+ * @see
+ */
+public class JedisStreamQueue {
+    protected final SmartLogger log = getLogger(getClass());
+
+    private final JedisClient jedisClient;
+    private final String name;
+    private final StreamQueueProperties config;
+    private final String[] keys;
+
+    /** Publishing shard selector. */
+    private final AtomicInteger publishCounter = new AtomicInteger(0);
+
+    public JedisStreamQueue(JedisClient jedisClient, String name) {
+        this(jedisClient, name, new StreamQueueProperties());
+    }
+
+    public JedisStreamQueue(JedisClient jedisClient, String name, StreamQueueProperties config) {
+        this.jedisClient = notNullOf(jedisClient, "jedisClient");
+        this.name = hasTextOf(name, "name");
+        this.config = notNullOf(config, "streamQueueProperties");
+        // Otherwise a full batch of idle pending messages is never reclaimed.
+        isTrue(config.getMaxInflight() >= config.getBatchSize(), "maxInflight(%s) must >= batchSize(%s)",
+                config.getMaxInflight(), config.getBatchSize());
+        this.keys = new String[config.getShards()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = config.getKeyPrefix() + "{" + name + ":" + i + "}";
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Publish the message with the single field of payload.
+     *
+     * @param payload
+     * @return
+     */
+    public StreamEntryID publish(String payload) {
+        return publish(singletonMap(FIELD_PAYLOAD, notNullOf(payload, "payload")));
+    }
+
+    /**
+     * Publish the message fields.
+     *
+     * @param fields
+     * @return
+     */
+    public StreamEntryID publish(Map<String, String> fields) {
+        isTrue(!isNull(fields) && !fields.isEmpty(), "fields must not be empty");
+        int shard = Math.floorMod(publishCounter.getAndIncrement(), keys.length);
+        return jedisClient.xadd(keys[shard], fields, trimParams());
+    }
+
+    /**
+     * Create the consumer group (if not exists) of all shards, which consumes
+     * from the earliest retained messages.
+     *
+     * @param group
+     */
+    public void createGroup(String group) {
+        hasTextOf(group, "group");
+        for (String key : keys) {
+            try {
+                jedisClient.xgroupCreate(key, group, new StreamEntryID(), true);
+            } catch (JedisDataException e) {
+                if (isNull(e.getMessage()) || !e.getMessage().startsWith("BUSYGROUP")) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of retained messages (including the acknowledged).
+     *
+     * @return
+     */
+    public long size() {
+        long size = 0L;
+        for (String key : keys) {
+            Long len = jedisClient.xlen(key);
+            size += isNull(len) ? 0L : len;
+        }
+        return size;
+    }
+
+    /**
+     * Subscribe the messages of the consumer group, the group must have been
+     * created.
+     *
+     * @param group
+     * @param consumer
+     *            The consumer name, which should be unique and stable of the
+     *            instance, e.g. the host name.
+     * @param handler
+     * @return The started subscription.
+     */
+    public StreamSubscription subscribe(String group, String consumer, StreamHandler handler) {
+        return new StreamSubscription(group, consumer, handler);
+    }
+
+    private XAddParams trimParams() {
+        return XAddParams.xAddParams().maxLen(config.getMaxLen()).approximateTrimming();
+    }
+
+    /**
+     * Message handler of subscription, the message is acknowledged after
+     * returned normally, and will be redelivered if throws.
+     */
+    @FunctionalInterface
+    public static interface StreamHandler {
+        void onMessage(StreamMessage message) throws Exception;
+    }
+
+    /**
+     * The delivered message.
+     */
+    public static class StreamMessage {
+        private final String stream;
+        private final StreamEntryID id;
+        private final Map<String, String> fields;
+        private final long deliveries;
+
+        StreamMessage(String stream, StreamEntryID id, Map<String, String> fields, long deliveries) {
+            this.stream = stream;
+            this.id = id;
+            this.fields = fields;
+            this.deliveries = deliveries;
+        }
+
+        public String getStream() {
+            return stream;
+        }
+
+        public StreamEntryID getId() {
+            return id;
+        }
+
+        public Map<String, String> getFields() {
+            return fields;
+        }
+
+        public String getPayload() {
+            return fields.get(FIELD_PAYLOAD);
+        }
+
+        /**
+         * The delivery count, starting from 1.
+         */
+        public long getDeliveries() {
+            return deliveries;
+        }
+
+        @Override
+        public String toString() {
+            return "StreamMessage [stream=" + stream + ", id=" + id + ", deliveries=" + deliveries + "]";
+        }
+    }
+
+    /**
+     * The consuming of a consumer group, which is started when created.
+     */
+    public class StreamSubscription implements Closeable {
+        private final String group;
+        private final byte[] groupBytes;
+        private final String consumer;
+        private final StreamHandler handler;
+
+        /** Unacknowledged messages limit. */
+        private final Semaphore inflight;
+        private final ThreadPoolExecutor workers;
+        private final Thread[] readers;
+
+        /** Handled message ids to be acknowledged, per shard. */
+        private final List<ConcurrentLinkedQueue<StreamEntryID>> acks;
+
+        private volatile boolean running = true;
+
+        StreamSubscription(String group, String consumer, StreamHandler handler) {
+            this.group = hasTextOf(group, "group");
+            this.groupBytes = SafeEncoder.encode(group);
+            this.consumer = hasTextOf(consumer, "consumer");
+            this.handler = notNullOf(handler, "handler");
+            this.inflight = new Semaphore(config.getMaxInflight());
+            AtomicInteger counter = new AtomicInteger(0);
+            this.workers = new ThreadPoolExecutor(config.getConsumerThreads(), config.getConsumerThreads(), 0L, MILLISECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                        Thread t = new Thread(r, "jedis-stream-" + name + "-worker-" + counter.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+            this.acks = new ArrayList<>(keys.length);
+            this.readers = new Thread[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                final int shard = i;
+                acks.add(new ConcurrentLinkedQueue<>());
+                readers[i] = new Thread(() -> readLoop(shard), "jedis-stream-" + name + "-reader-" + i);
+                readers[i].setDaemon(true);
+                readers[i].start();
+            }
+        }
+
+        public String getGroup() {
+            return group;
+        }
+
+        public String getConsumer() {
+            return consumer;
+        }
+
+        /**
+         * Stop reading, wait for the dispatched messages to be handled and
+         * acknowledged.
+         */
+        @Override
+        public void close() {
+            if (!running) {
+                return;
+            }
+            running = false;
+            workers.shutdown();
+            try {
+                if (!workers.awaitTermination(config.getCloseTimeoutMs(), MILLISECONDS)) {
+                    log.warn("Timeout waiting for stream consumers of '{}' to complete", name);
+                }
+                // The blocking reads are completed within blockMs.
+                for (Thread reader : readers) {
+                    reader.join(config.getBlockMs() + config.getCloseTimeoutMs());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (int shard = 0; shard < keys.length; shard++) {
+                flushAcks(shard);
+            }
+        }
+
+        private void readLoop(int shard) {
+            long nextReclaimAt = 0L;
+            while (running) {
+                try {
+                    flushAcks(shard);
+                    long now = System.currentTimeMillis();
+                    if (now >= nextReclaimAt) {
+                        reclaim(shard);
+                        nextReclaimAt = now + config.getReclaimIntervalMs();
+                    }
+                    int permits = acquirePermits();
+                    if (permits == 0) {
+                        continue;
+                    }
+                    List<StreamEntry> entries = read(shard, permits);
+                    inflight.release(permits - entries.size());
+                    for (StreamEntry entry : entries) {
+                        dispatch(new StreamMessage(keys[shard], entry.getID(), entry.getFields(), 1L), shard);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception e) {
+                    log.error(String.format("Failed to read stream '%s' of group '%s'", keys[shard], group), e);
+                    try {
+                        Thread.sleep(config.getBlockMs());
+                    } catch (InterruptedException e2) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            flushAcks(shard);
+        }
+
+        /**
+         * Acquire the permits of read (at most batchSize), waiting at most
+         * blockMs if all permits are in use.
+         */
+        private int acquirePermits() throws InterruptedException {
+            if (!inflight.tryAcquire(config.getBlockMs(), MILLISECONDS)) {
+                return 0;
+            }
+            int extra = Math.min(inflight.availablePermits(), config.getBatchSize() - 1);
+            if (extra > 0 && inflight.tryAcquire(extra)) {
+                return 1 + extra;
+            }
+            return 1;
+        }
+
+        private List<StreamEntry> read(int shard, int count) {
+            XReadGroupParams params = XReadGroupParams.xReadGroupParams().count(count).block((int) config.getBlockMs());
+            List<Entry<String, List<StreamEntry>>> res = jedisClient.xreadGroup(group, consumer, params,
+                    singletonMap(keys[shard], StreamEntryID.UNRECEIVED_ENTRY));
+            List<StreamEntry> entries = new ArrayList<>();
+            if (!isNull(res)) {
+                for (Entry<String, List<StreamEntry>> ent : res) {
+                    if (!isNull(ent.getValue())) {
+                        entries.addAll(ent.getValue());
+                    }
+                }
+            }
+            return entries;
+        }
+
+        /**
+         * Claim the pending messages that have been idle for minIdleMs (i.e.
+         * failed or the consumer is dead), the messages delivered too many
+         * times are moved to the dead-letter stream.
+         */
+        private void reclaim(int shard) throws InterruptedException {
+            List<StreamPendingEntry> pending = jedisClient.xpending(keys[shard], group, MIN_ID, MAX_ID, config.getBatchSize(),
+                    null);
+            if (isNull(pending) || pending.isEmpty()) {
+                return;
+            }
+            List<StreamEntryID> ids = new ArrayList<>(pending.size());
+            for (StreamPendingEntry p : pending) {
+                if (p.getIdleTime() >= config.getMinIdleMs()) {
+                    ids.add(p.getID());
+                }
+            }
+            if (ids.isEmpty() || !inflight.tryAcquire(ids.size(), config.getBlockMs(), MILLISECONDS)) {
+                return;
+            }
+            // The acquired permits not yet handed over to the messages.
+            int permits = ids.size();
+            try {
+                List<StreamEntry> claimed = jedisClient.xclaim(keys[shard], group, consumer, config.getMinIdleMs(), 0L, 0,
+                        false, ids.toArray(new StreamEntryID[0]));
+                if (isNull(claimed)) {
+                    return;
+                }
+                for (StreamEntry entry : claimed) {
+                    long deliveries = 1L;
+                    for (StreamPendingEntry p : pending) {
+                        if (p.getID().equals(entry.getID())) {
+                            deliveries = p.getDeliveredTimes() + 1;
+                            break;
+                        }
+                    }
+                    --permits;
+                    if (deliveries > config.getMaxDeliveries()) {
+                        log.warn("Moving stream message {} of '{}' to dead-letter after {} deliveries", entry.getID(),
+                                keys[shard], deliveries - 1);
+                        try {
+                            jedisClient.xadd(keys[shard] + DEAD_SUFFIX, entry.getFields(), trimParams());
+                            acks.get(shard).offer(entry.getID());
+                        } finally {
+                            inflight.release();
+                        }
+                    } else {
+                        dispatch(new StreamMessage(keys[shard], entry.getID(), entry.getFields(), deliveries), shard);
+                    }
+                }
+            } finally {
+                // The messages not claimed or not processed (failed) are left
+                // pending, and will be claimed again.
+                inflight.release(permits);
+            }
+        }
+
+        private void dispatch(StreamMessage message, int shard) {
+            try {
+                workers.execute(() -> {
+                    try {
+                        handler.onMessage(message);
+                        acks.get(shard).offer(message.getId());
+                    } catch (Throwable e) {
+                        log.warn(String.format("Failed to handle %s, it will be redelivered after %sms", message,
+                                config.getMinIdleMs()), e);
+                    } finally {
+                        inflight.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) { // Closed, left pending.
+                inflight.release();
+            }
+        }
+
+        private void flushAcks(int shard) {
+            ConcurrentLinkedQueue<StreamEntryID> queue = acks.get(shard);
+            List<byte[]> ids = new ArrayList<>();
+            StreamEntryID id;
+            while (!isNull(id = queue.poll())) {
+                ids.add(SafeEncoder.encode(id.toString()));
+                if (ids.size() >= MAX_ACK_BATCH) {
+                    doAck(shard, ids);
+                }
+            }
+            doAck(shard, ids);
+        }
+
+        private void doAck(int shard, List<byte[]> ids) {
+            if (ids.isEmpty()) {
+                return;
+            }
+            try {
+                jedisClient.xack(SafeEncoder.encode(keys[shard]), groupBytes, ids.toArray(new byte[0][]));
+            } catch (Exception e) { // Will be redelivered.
+                log.error(String.format("Failed to ack %s messages of stream '%s'", ids.size(), keys[shard]), e);
+            }
+            ids.clear();
+        }
+    }
+
+    /**
+     * {@link JedisStreamQueue} properties.
+     */
+    public static class StreamQueueProperties implements Serializable {
+        private static final long serialVersionUID = -2184590316207543516L;
+
+        /** The redis key prefix of streams. */
+        private String keyPrefix = "__xcloud:stream:";
+
+        /**
+         * Number of shard streams, should be several times the number of
+         * masters. It must not be changed while there are pending messages.
+         */
+        private int shards = 4;
+
+        /** Approximate maximum length of each shard stream. */
+        private long maxLen = 1_000_000L;
+
+        /** Maximum number of messages per read. */
+        private int batchSize = 256;
+
+        /** Maximum blocking time(ms) per read. */
+        private long blockMs = 1_000L;
+
+        /** Number of consumer threads per subscription. */
+        private int consumerThreads = 8;
+
+        /**
+         * Maximum number of unacknowledged messages per subscription, which
+         * must not be less than batchSize.
+         */
+        private int maxInflight = 1024;
+
+        /** Idle time(ms) of pending messages before claimed again. */
+        private long minIdleMs = 60_000L;
+
+        /** Interval(ms) of claiming the idle pending messages. */
+        private long reclaimIntervalMs = 10_000L;
+
+        /** Maximum deliveries before moved to the dead-letter stream. */
+        private int maxDeliveries = 16;
+
+        /** Maximum waiting time(ms) of closing subscriptions. */
+        private long closeTimeoutMs = 10_000L;
+
+        public String getKeyPrefix() {
+            return keyPrefix;
+        }
+
+        public void setKeyPrefix(String keyPrefix) {
+            this.keyPrefix = hasTextOf(keyPrefix, "keyPrefix");
+        }
+
+        public int getShards() {
+            return shards;
+        }
+
+        public void setShards(int shards) {
+            isTrue(shards > 0, "shards must > 0");
+            this.shards = shards;
+        }
+
+        public long getMaxLen() {
+            return maxLen;
+        }
+
+        public void setMaxLen(long maxLen) {
+            isTrue(maxLen > 0, "maxLen must > 0");
+            this.maxLen = maxLen;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            isTrue(batchSize > 0, "batchSize must > 0");
+            this.batchSize = batchSize;
+        }
+
+        public long getBlockMs() {
+            return blockMs;
+        }
+
+        public void setBlockMs(long blockMs) {
+            isTrue(blockMs > 0 && blockMs <= Integer.MAX_VALUE, "blockMs must > 0");
+            this.blockMs = blockMs;
+        }
+
+        public int getConsumerThreads() {
+            return consumerThreads;
+        }
+
+        public void setConsumerThreads(int consumerThreads) {
+            isTrue(consumerThreads > 0, "consumerThreads must > 0");
+            this.consumerThreads = consumerThreads;
+        }
+
+        public int getMaxInflight() {
+            return maxInflight;
+        }
+
+        public void setMaxInflight(int maxInflight) {
+            isTrue(maxInflight > 0, "maxInflight must > 0");
+            this.maxInflight = maxInflight;
+        }
+
+        public long getMinIdleMs() {
+            return minIdleMs;
+        }
+
+        public void setMinIdleMs(long minIdleMs) {
+            isTrue(minIdleMs > 0, "minIdleMs must > 0");
+            this.minIdleMs = minIdleMs;
+        }
+
+        public long getReclaimIntervalMs() {
+            return reclaimIntervalMs;
+        }
+
+        public void setReclaimIntervalMs(long reclaimIntervalMs) {
+            isTrue(reclaimIntervalMs > 0, "reclaimIntervalMs must > 0");
+            this.reclaimIntervalMs = reclaimIntervalMs;
+        }
+
+        public int getMaxDeliveries() {
+            return maxDeliveries;
+        }
+
+        public void setMaxDeliveries(int maxDeliveries) {
+            isTrue(maxDeliveries > 0, "maxDeliveries must > 0");
+            this.maxDeliveries = maxDeliveries;
+        }
+
+        public long getCloseTimeoutMs() {
+            return closeTimeoutMs;
+        }
+
+        public void setCloseTimeoutMs(long closeTimeoutMs) {
+            isTrue(closeTimeoutMs > 0, "closeTimeoutMs must > 0");
+            this.closeTimeoutMs = closeTimeoutMs;
+        }
+    }
+
+    /** The field name of single payload message. */
+    public static final String FIELD_PAYLOAD = "payload";
+
+    private static final String DEAD_SUFFIX = ":dead";
+    private static final int MAX_ACK_BATCH = 1000;
+    private static final StreamEntryID MIN_ID = new StreamEntryID(0L, 0L);
+    private static final StreamEntryID MAX_ID = new StreamEntryID(Long.MAX_VALUE, Long.MAX_VALUE);
+
+}
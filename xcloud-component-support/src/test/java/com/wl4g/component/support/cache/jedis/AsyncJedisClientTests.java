@@ -0,0 +1,160 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.wl4g.component.core.exception.framework.ParameterCanonicalException;
+import com.wl4g.component.support.cache.jedis.near.LocalNearCacheInvalidator;
+import com.wl4g.component.support.cache.jedis.near.NearCache;
+import com.wl4g.component.support.cache.jedis.near.NearCache.NearCacheProperties;
+
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+/**
+ * {@link AsyncJedisClientTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-26 v1.0.0
+ * @see v1.0.0
+ */
+public class AsyncJedisClientTests {
+
+    @Test
+    public void flushInSubmissionOrderCase1() throws Exception {
+        try (AsyncJedisClient async = new AsyncJedisClient(new InMemoryJedisClient())) {
+            List<CompletableFuture<String>> gets = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                async.set("foo", "bar" + i);
+                gets.add(async.get("foo"));
+            }
+            for (int i = 0; i < gets.size(); i++) {
+                assert ("bar" + i).equals(gets.get(i).get());
+            }
+        }
+    }
+
+    @Test
+    public void rejectAfterClosedCase2() throws Exception {
+        AsyncJedisClient async = new AsyncJedisClient(new InMemoryJedisClient());
+        CompletableFuture<String> set = async.set("foo", "bar");
+        async.close();
+        assert "OK".equals(set.get());
+        try {
+            async.get("foo").get();
+            assert false;
+        } catch (ExecutionException e) {
+            assert e.getCause() instanceof redis.clients.jedis.exceptions.JedisException;
+        }
+    }
+
+    @Test
+    public void nearCacheInvalidationNotBlockFlusherCase3() throws Exception {
+        InMemoryJedisClient jedisClient = new InMemoryJedisClient();
+        CountDownLatch published = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Blocking publish, e.g. redis is slow.
+        NearCache nearCache = new NearCache(new NearCacheProperties(), new LocalNearCacheInvalidator("testAsyncChannel3") {
+            @Override
+            public void publish(String key) {
+                published.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.publish(key);
+            }
+        });
+        try (AsyncJedisClient async = new AsyncJedisClient(jedisClient)) {
+            JedisService jedisService = new JedisService(jedisClient, nearCache, null, async);
+            CompletableFuture<String> set = jedisService.setAsync("foo", "bar", 0);
+            assert published.await(5, SECONDS);
+
+            // The flusher still flushes the following commands.
+            assert "bar".equals(async.get("foo").get(5, SECONDS));
+            assert !set.isDone();
+
+            release.countDown();
+            assert "OK".equals(set.get(5, SECONDS));
+        } finally {
+            release.countDown();
+            nearCache.close();
+        }
+    }
+
+    @Test
+    public void completeIfBatchFailedCase4() throws Exception {
+        AtomicInteger batches = new AtomicInteger(0);
+        InMemoryJedisClient jedisClient = new InMemoryJedisClient() {
+            @Override
+            public JedisBatch batch() {
+                if (batches.incrementAndGet() == 1) {
+                    throw new JedisConnectionException("Could not get a resource from the pool");
+                }
+                return super.batch();
+            }
+        };
+        try (AsyncJedisClient async = new AsyncJedisClient(jedisClient)) {
+            CompletableFuture<String> set = async.set("foo", "bar");
+            try {
+                set.get(5, SECONDS);
+                assert false;
+            } catch (ExecutionException e) {
+                assert e.getCause() instanceof JedisConnectionException;
+            }
+            // The following batches are still flushed.
+            assert "OK".equals(async.set("foo", "bar").get(5, SECONDS));
+        }
+    }
+
+    @Test
+    public void rejectBadCommandOnlyCase5() throws Exception {
+        InMemoryJedisClient jedisClient = new InMemoryJedisClient() {
+            @Override
+            public JedisBatch batch() {
+                return new JedisBatch(this, true) { // Safe mode
+                    @Override
+                    protected void doSync(List<BatchOperation<?>> operations) {
+                        operations.forEach(op -> op.completeDirect(jedisClient));
+                    }
+                };
+            }
+        };
+        try (AsyncJedisClient async = new AsyncJedisClient(jedisClient)) {
+            CompletableFuture<String> good1 = async.set("foo:bar", "bar1");
+            CompletableFuture<String> bad = async.get("foo-bar");
+            CompletableFuture<String> good2 = async.get("foo:bar");
+            try {
+                bad.get(5, SECONDS);
+                assert false;
+            } catch (ExecutionException e) {
+                assert e.getCause() instanceof ParameterCanonicalException;
+            }
+            assert "OK".equals(good1.get(5, SECONDS)) && "bar1".equals(good2.get(5, SECONDS));
+        }
+    }
+
+}
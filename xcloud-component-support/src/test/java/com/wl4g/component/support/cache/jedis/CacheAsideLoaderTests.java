@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * {@link CacheAsideLoaderTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-27 v1.0.0
+ * @see v1.0.0
+ */
+public class CacheAsideLoaderTests {
+
+    @Test
+    public void coalesceConcurrentLoadsCase1() throws Exception {
+        JedisService jedisService = new JedisService(newJedisClient());
+        AtomicInteger loads = new AtomicInteger(0);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return jedisService.getOrLoad("foo", 60_000L, 1_000L, () -> {
+                        loads.incrementAndGet();
+                        sleep(100L);
+                        return "bar";
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<String> future : futures) {
+                assert "bar".equals(future.get());
+            }
+            assert loads.get() == 1;
+            // Cached
+            assert "bar".equals(jedisService.getOrLoad("foo", 60_000L, () -> "bar2"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void nullValueNotCachedCase2() {
+        JedisService jedisService = new JedisService(newJedisClient());
+        assert jedisService.getOrLoad("foo", 60_000L, () -> null) == null;
+        assert "bar".equals(jedisService.getOrLoad("foo", 60_000L, () -> "bar"));
+    }
+
+    @Test
+    public void ignoreValueNotWrittenByLoaderCase3() {
+        JedisClient jedisClient = newJedisClient();
+        JedisService jedisService = new JedisService(jedisClient);
+        // e.g. written by setObject
+        jedisClient.set("foo".getBytes(UTF_8), "not-framed-value".getBytes(UTF_8));
+        assert "bar".equals(jedisService.getOrLoad("foo", 60_000L, () -> "bar"));
+        assert "bar".equals(jedisService.getOrLoad("foo", 60_000L, () -> "bar2"));
+    }
+
+    @Test
+    public void loaderFailureNotCachedCase4() {
+        JedisService jedisService = new JedisService(newJedisClient());
+        try {
+            jedisService.getOrLoad("foo", 60_000L, () -> {
+                throw new IllegalStateException("Failed to query");
+            });
+            assert false;
+        } catch (IllegalStateException e) {
+            assert "Failed to query".equals(e.getMessage());
+        }
+        assert "bar".equals(jedisService.getOrLoad("foo", 60_000L, () -> "bar"));
+    }
+
+    /**
+     * In-memory {@link JedisClient} that evaluates the mutex releasing script
+     * (compare and delete).
+     */
+    private static JedisClient newJedisClient() {
+        return new InMemoryJedisClient() {
+            @Override
+            public Object eval(String script, List<String> keys, List<String> args) {
+                return data.remove(keys.get(0), args.get(0)) ? 1L : 0L;
+            }
+        };
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import redis.clients.jedis.params.SetParams;
+
+/**
+ * In-memory {@link JedisClient} test fixture (without expiration), the string
+ * and binary keys share the same data map, and the batch operations are
+ * completed directly. The scripting is not supported, the tests override
+ * {@link #eval(String, List, List)} as needed.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-03 v1.0.0
+ * @see v1.0.0
+ */
+public class InMemoryJedisClient implements JedisClient {
+
+    /** The values (String or byte[]) of keys. */
+    public final Map<String, Object> data = new ConcurrentHashMap<>();
+
+    @Override
+    public String get(String key) {
+        return (String) data.get(key);
+    }
+
+    @Override
+    public byte[] get(byte[] key) {
+        return (byte[]) data.get(new String(key));
+    }
+
+    @Override
+    public String set(String key, String value) {
+        data.put(key, value);
+        return "OK";
+    }
+
+    /**
+     * Note: the params are always treated as NX.
+     */
+    @Override
+    public String set(String key, String value, SetParams params) {
+        return (data.putIfAbsent(key, value) == null) ? "OK" : null;
+    }
+
+    @Override
+    public String set(byte[] key, byte[] value) {
+        data.put(new String(key), value);
+        return "OK";
+    }
+
+    @Override
+    public String psetex(byte[] key, long milliseconds, byte[] value) {
+        return set(key, value);
+    }
+
+    @Override
+    public Long del(String key) {
+        return (data.remove(key) != null) ? 1L : 0L;
+    }
+
+    @Override
+    public Long del(byte[] key) {
+        return del(new String(key));
+    }
+
+    @Override
+    public Boolean exists(String key) {
+        return data.containsKey(key);
+    }
+
+    @Override
+    public JedisBatch batch() {
+        return new JedisBatch(this, false) {
+            @Override
+            protected void doSync(List<BatchOperation<?>> operations) {
+                operations.forEach(op -> op.completeDirect(jedisClient));
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Test;
+
+import com.wl4g.component.core.exception.framework.ParameterCanonicalException;
+
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+/**
+ * {@link JedisBatchTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-04 v1.0.0
+ * @see v1.0.0
+ */
+public class JedisBatchTests {
+
+    @Test
+    public void syncCompletesFuturesCase1() {
+        JedisBatch batch = new InMemoryJedisClient().batch();
+        CompletableFuture<String> set = batch.set("foo", "bar");
+        CompletableFuture<String> get = batch.get("foo");
+        assert batch.size() == 2 && !set.isDone() && !get.isDone();
+
+        batch.sync();
+        assert batch.size() == 0;
+        assert "OK".equals(set.join()) && "bar".equals(get.join());
+        batch.sync(); // Nothing to flush
+    }
+
+    @Test
+    public void safeModeCheckKeysCase2() {
+        JedisBatch batch = newDirectBatch(new InMemoryJedisClient(), true);
+        batch.get("foo:bar");
+        batch.get("foo:bar".getBytes(UTF_8));
+        try {
+            batch.get("foo-bar");
+            assert false;
+        } catch (ParameterCanonicalException e) {
+            // Expected
+        }
+        try {
+            batch.get("foo-bar".getBytes(UTF_8));
+            assert false;
+        } catch (ParameterCanonicalException e) {
+            // Expected
+        }
+        assert batch.size() == 2;
+
+        // Unchecked if not safe mode.
+        batch = newDirectBatch(new InMemoryJedisClient(), false);
+        batch.get("foo-bar");
+        batch.get("foo-bar".getBytes(UTF_8));
+        assert batch.size() == 2;
+    }
+
+    @Test
+    public void completeExceptionallyCase3() {
+        InMemoryJedisClient jedisClient = new InMemoryJedisClient() {
+            @Override
+            public String get(String key) {
+                throw new JedisConnectionException("Unexpected end of stream.");
+            }
+        };
+        JedisBatch batch = newDirectBatch(jedisClient, false);
+        CompletableFuture<String> set = batch.set("foo", "bar");
+        CompletableFuture<String> get = batch.get("foo");
+        batch.sync();
+        assert "OK".equals(set.join());
+        assert get.isCompletedExceptionally();
+    }
+
+    private static JedisBatch newDirectBatch(JedisClient jedisClient, boolean safeMode) {
+        return new JedisBatch(jedisClient, safeMode) {
+            @Override
+            protected void doSync(List<BatchOperation<?>> operations) {
+                operations.forEach(op -> op.completeDirect(jedisClient));
+            }
+        };
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis;
+
+import static com.wl4g.component.common.crypto.digest.DigestUtils2.sha1Hex;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+
+/**
+ * {@link JedisServiceTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-04 v1.0.0
+ * @see v1.0.0
+ */
+public class JedisServiceTests {
+
+    @Test
+    public void replaceCollectionByEvalshaCase1() {
+        ScriptingJedisClient jedisClient = new ScriptingJedisClient();
+        JedisService jedisService = new JedisService(jedisClient);
+
+        assert jedisService.setList("foo", asList("a", "b"), 60) == 2L;
+        assert jedisClient.evals.get() == 1 && jedisClient.evalshas.get() == 1; // NOSCRIPT, then loaded
+
+        assert jedisService.setList("foo", asList("c"), 60) == 1L;
+        assert jedisClient.evals.get() == 1 && jedisClient.evalshas.get() == 2;
+        assert jedisClient.members("foo").size() == 1 && jedisClient.ttls.get("foo") == 60_000L;
+    }
+
+    @Test
+    public void negativeTimeoutDeletesKeyCase2() {
+        ScriptingJedisClient jedisClient = new ScriptingJedisClient();
+        JedisService jedisService = new JedisService(jedisClient);
+
+        jedisService.setSet("foo", singleton("a"), 60);
+        assert jedisClient.data.containsKey("foo");
+        jedisService.setSet("foo", singleton("a"), -1);
+        assert !jedisClient.data.containsKey("foo");
+
+        // The negative time-out of list is ignored.
+        jedisService.setList("bar", asList("a"), -1);
+        assert jedisClient.data.containsKey("bar") && !jedisClient.ttls.containsKey("bar");
+    }
+
+    @Test
+    public void notFallbackOtherErrorsCase3() {
+        ScriptingJedisClient jedisClient = new ScriptingJedisClient() {
+            @Override
+            public Object evalsha(byte[] sha1, List<byte[]> keys, List<byte[]> args) {
+                evalshas.incrementAndGet();
+                throw new JedisDataException("ERR Error running script");
+            }
+        };
+        JedisService jedisService = new JedisService(jedisClient);
+        try {
+            jedisService.setList("foo", asList("a"), 60);
+            assert false;
+        } catch (JedisDataException e) {
+            assert jedisClient.evals.get() == 0 && jedisClient.evalshas.get() == 1;
+        }
+    }
+
+    /**
+     * In-memory {@link InMemoryJedisClient} that evaluates the collection
+     * replacing script, and caches the loaded scripts by SHA1 like redis.
+     */
+    static class ScriptingJedisClient extends InMemoryJedisClient {
+        final AtomicInteger evals = new AtomicInteger(0);
+        final AtomicInteger evalshas = new AtomicInteger(0);
+        final Map<String, Long> ttls = new ConcurrentHashMap<>();
+        private final Set<String> scripts = ConcurrentHashMap.newKeySet();
+
+        @SuppressWarnings("unchecked")
+        List<String> members(String key) {
+            return (List<String>) data.get(key);
+        }
+
+        @Override
+        public Object eval(byte[] script, List<byte[]> keys, List<byte[]> args) {
+            evals.incrementAndGet();
+            scripts.add(sha1Hex(script));
+            return doReplace(keys, args);
+        }
+
+        @Override
+        public Object evalsha(byte[] sha1, List<byte[]> keys, List<byte[]> args) {
+            evalshas.incrementAndGet();
+            if (!scripts.contains(new String(sha1, UTF_8))) {
+                // Wrapped, e.g. by SingleJedisClient
+                throw new JedisException("Errors jedis processing.",
+                        new JedisNoScriptException("NOSCRIPT No matching script. Please use EVAL."));
+            }
+            return doReplace(keys, args);
+        }
+
+        private Object doReplace(List<byte[]> keys, List<byte[]> args) {
+            String key = new String(keys.get(0), UTF_8);
+            long ttlMs = Long.parseLong(new String(args.get(1), UTF_8));
+            List<String> members = new ArrayList<>();
+            for (byte[] member : args.subList(2, args.size())) {
+                members.add(new String(member, UTF_8));
+            }
+            data.put(key, members);
+            ttls.remove(key);
+            if (ttlMs > 0) {
+                ttls.put(key, ttlMs);
+            } else if (ttlMs < 0) {
+                data.remove(key);
+            }
+            return (long) members.size();
+        }
+    }
+
+}
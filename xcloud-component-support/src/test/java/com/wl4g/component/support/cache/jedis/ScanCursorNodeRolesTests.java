@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis;
+
+import static java.util.Collections.singleton;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+
+/**
+ * {@link ScanCursorNodeRolesTests}
+ * 
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-12 v1.0.0
+ * @see v1.0.0
+ */
+public class ScanCursorNodeRolesTests {
+
+    @Test
+    public void cachedRolesPerTopologyCase1() {
+        RoleJedisPool node1 = new RoleJedisPool("master");
+        RoleJedisPool node2 = new RoleJedisPool("slave");
+        Map<String, JedisPool> nodes = newNodes("10.0.0.1:6379", node1, "10.0.0.1:6380", node2);
+        try {
+            assert ScanCursor.getMasterPools(nodes).equals(singleton(node1));
+            assert ScanCursor.getMasterPools(nodes).equals(singleton(node1));
+            // Detected only once.
+            assert node1.infos.get() == 1 && node2.infos.get() == 1;
+
+            // The same topology regardless of the order.
+            Map<String, JedisPool> reordered = newNodes("10.0.0.1:6380", node2, "10.0.0.1:6379", node1);
+            assert ScanCursor.getMasterPools(reordered).equals(singleton(node1));
+            assert node1.infos.get() == 1;
+        } finally {
+            ScanCursor.evictNodeRoles(nodes);
+        }
+    }
+
+    @Test
+    public void refreshRolesAfterEvictedCase2() {
+        RoleJedisPool node1 = new RoleJedisPool("master");
+        RoleJedisPool node2 = new RoleJedisPool("slave");
+        Map<String, JedisPool> nodes = newNodes("10.0.0.2:6379", node1, "10.0.0.2:6380", node2);
+        try {
+            assert ScanCursor.getMasterPools(nodes).equals(singleton(node1));
+
+            // Failover without changing the nodes of topology.
+            node1.role = "slave";
+            node2.role = "master";
+            assert ScanCursor.getMasterPools(nodes).equals(singleton(node1)); // Cached
+
+            ScanCursor.evictNodeRoles(nodes);
+            assert ScanCursor.getMasterPools(nodes).equals(singleton(node2));
+            assert node1.infos.get() == 2 && node2.infos.get() == 2;
+        } finally {
+            ScanCursor.evictNodeRoles(nodes);
+        }
+    }
+
+    @Test
+    public void failedDetectionNotCachedCase3() {
+        RoleJedisPool node1 = new RoleJedisPool("master");
+        RoleJedisPool node2 = new RoleJedisPool(null); // Unreachable
+        Map<String, JedisPool> nodes = newNodes("10.0.0.3:6379", node1, "10.0.0.3:6380", node2);
+        try {
+            try {
+                ScanCursor.getMasterPools(nodes);
+                assert false;
+            } catch (IllegalStateException e) {
+            }
+            node2.role = "master";
+            assert ScanCursor.getMasterPools(nodes).size() == 2;
+        } finally {
+            ScanCursor.evictNodeRoles(nodes);
+        }
+    }
+
+    private static Map<String, JedisPool> newNodes(String addr1, JedisPool node1, String addr2, JedisPool node2) {
+        Map<String, JedisPool> nodes = new HashMap<>();
+        nodes.put(addr1, node1);
+        nodes.put(addr2, node2);
+        return nodes;
+    }
+
+    /**
+     * {@link JedisPool} of the fake node that replies INFO REPLICATION with the
+     * role, fails if the role is null.
+     */
+    private static class RoleJedisPool extends JedisPool {
+        final AtomicInteger infos = new AtomicInteger(0);
+        volatile String role;
+
+        RoleJedisPool(String role) {
+            this.role = role;
+        }
+
+        @Override
+        public Jedis getResource() {
+            return new Jedis() {
+                @Override
+                public String info(String section) {
+                    infos.incrementAndGet();
+                    if (role == null) {
+                        throw new IllegalStateException("Connection refused");
+                    }
+                    return "# Replication\r\nrole:" + role + "\r\nconnected_slaves:0\r\n";
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+    }
+
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.cluster;
+
+import static com.wl4g.component.support.cache.jedis.cluster.ClusterReadRouter.isReadOnlyCommand;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.Test;
+
+import com.wl4g.component.support.cache.jedis.cluster.ClusterReadRouter.NodeState;
+import com.wl4g.component.support.cache.jedis.cluster.ClusterReadRouter.ReadPreference;
+import com.wl4g.component.support.cache.jedis.cluster.ClusterReadRouter.ReadRoutingProperties;
+import com.wl4g.component.support.cache.jedis.cluster.ConfigurableJedisClusterCommand.ConfigurableJedisClusterConntionHandler;
+
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.util.SafeEncoder;
+
+/**
+ * {@link ClusterReadRouterTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-02 v1.0.0
+ * @see v1.0.0
+ */
+public class ClusterReadRouterTests {
+
+    @Test
+    public void routeToOnlineReplicaCase1() throws Exception {
+        FakeCluster cluster = new FakeCluster();
+        cluster.setSlots(slot(0, 8191, 7000, 7001), slot(8192, 16383, 7002));
+        cluster.setReplicationInfo(7000, 100L, replica(7001, "online", 100L, 0L));
+        try (ClusterReadRouter router = cluster.newRouter(ReadPreference.REPLICA_PREFERRED)) {
+            assert cluster.isSelected(router.select(0), 7001);
+            assert cluster.isSelected(router.select(8191), 7001);
+            assert router.select(8192) == null; // No replicas
+        }
+        // Read from master only.
+        try (ClusterReadRouter router = cluster.newRouter(ReadPreference.MASTER)) {
+            assert router.select(0) == null;
+        }
+    }
+
+    @Test
+    public void excludeLaggingReplicasCase2() throws Exception {
+        FakeCluster cluster = new FakeCluster();
+        cluster.setSlots(slot(0, 16383, 7000, 7001, 7002, 7003));
+        cluster.setReplicationInfo(7000, 10_000_000L, replica(7001, "online", 0L, 0L), // Offset lag
+                replica(7002, "wait_bgsave", 10_000_000L, 0L), // Not online
+                replica(7003, "online", 10_000_000L, 60L)); // Time lag
+        try (ClusterReadRouter router = cluster.newRouter(ReadPreference.REPLICA_PREFERRED)) {
+            assert router.select(0) == null;
+
+            // Caught up.
+            cluster.setReplicationInfo(7000, 10_000_000L, replica(7001, "online", 10_000_000L, 0L),
+                    replica(7002, "wait_bgsave", 10_000_000L, 0L), replica(7003, "online", 10_000_000L, 60L));
+            router.refresh();
+            for (int i = 0; i < 10; i++) {
+                assert cluster.isSelected(router.select(0), 7001);
+            }
+        }
+    }
+
+    @Test
+    public void excludeUnknownReplicationCase3() throws Exception {
+        FakeCluster cluster = new FakeCluster();
+        cluster.setSlots(slot(0, 16383, 7000, 7001));
+        // The announced address differs.
+        cluster.setReplicationInfo(7000, 100L, "slave0:ip=10.0.0.1,port=7001,state=online,offset=100,lag=0");
+        try (ClusterReadRouter router = cluster.newRouter(ReadPreference.REPLICA_PREFERRED)) {
+            assert router.select(0) == null;
+
+            cluster.setReplicationInfo(7000, 100L, replica(7001, "online", 100L, 0L));
+            router.refresh();
+            assert cluster.isSelected(router.select(0), 7001);
+
+            // The previous state is kept if the INFO failed.
+            cluster.setReplicationInfo(7000, -1L);
+            router.refresh();
+            assert cluster.isSelected(router.select(0), 7001);
+        }
+
+        // Never checked.
+        try (ClusterReadRouter router = cluster.newRouter(ReadPreference.REPLICA_PREFERRED)) {
+            assert router.select(0) == null;
+        }
+    }
+
+    @Test
+    public void updateRolesAfterFailoverCase4() throws Exception {
+        FakeCluster cluster = new FakeCluster();
+        cluster.setSlots(slot(0, 16383, 7000, 7001));
+        cluster.setReplicationInfo(7000, 100L, replica(7001, "online", 100L, 0L));
+        try (ClusterReadRouter router = cluster.newRouter(ReadPreference.REPLICA_PREFERRED)) {
+            assert cluster.isSelected(router.select(0), 7001);
+            router.onConnectionFailure("127.0.0.1:7000"); // Master is not excluded
+
+            // Failover, 7000 is the replica of 7001 now.
+            cluster.setSlots(slot(0, 16383, 7001, 7000));
+            cluster.setReplicationInfo(7001, 200L, replica(7000, "online", 200L, 0L));
+            router.refresh();
+            assert cluster.isSelected(router.select(0), 7000);
+
+            router.onConnectionFailure("127.0.0.1:7001"); // Master is not excluded
+            router.onConnectionFailure("127.0.0.1:7000");
+            assert router.select(0) == null;
+        }
+    }
+
+    @Test
+    public void selectNearestCase5() throws Exception {
+        FakeCluster cluster = new FakeCluster();
+        cluster.setSlots(slot(0, 16383, 7000, 7001));
+        cluster.setReplicationInfo(7000, 100L, replica(7001, "online", 100L, 0L));
+        cluster.pingDelays.put(7000, 30L);
+        try (ClusterReadRouter router = cluster.newRouter(ReadPreference.NEAREST)) {
+            assert cluster.isSelected(router.select(0), 7001);
+        }
+
+        cluster.pingDelays.clear();
+        cluster.pingDelays.put(7001, 30L);
+        try (ClusterReadRouter router = cluster.newRouter(ReadPreference.NEAREST)) {
+            assert router.select(0) == null; // Master is nearest
+        }
+    }
+
+    @Test
+    public void readOnlyCommandsCase6() {
+        for (String command : asList("get", "hgetAll", "zrangeByScore", "smembers", "exists", "xrange")) {
+            assert isReadOnlyCommand(command) : command;
+        }
+        for (String command : asList("set", "del", "eval", "hset", "incr", "xadd", "GET")) {
+            assert !isReadOnlyCommand(command) : command;
+        }
+        assert !ClusterReadRouter.isReading();
+        ClusterReadRouter.beginRead();
+        try {
+            assert ClusterReadRouter.isReading();
+        } finally {
+            ClusterReadRouter.endRead();
+        }
+        assert !ClusterReadRouter.isReading();
+    }
+
+    private static List<Object> slot(int start, int end, int... ports) {
+        List<Object> slot = new ArrayList<>();
+        slot.add((long) start);
+        slot.add((long) end);
+        for (int port : ports) {
+            slot.add(asList(SafeEncoder.encode("127.0.0.1"), (long) port, SafeEncoder.encode("node-" + port)));
+        }
+        return slot;
+    }
+
+    private static String replica(int port, String state, long offset, long lag) {
+        return "ip=127.0.0.1,port=" + port + ",state=" + state + ",offset=" + offset + ",lag=" + lag;
+    }
+
+    /**
+     * Fake cluster nodes (127.0.0.1:port) that reply CLUSTER SLOTS, INFO
+     * REPLICATION and PING.
+     */
+    private static class FakeCluster {
+        private volatile List<Object> slots;
+        private final Map<Integer, String> infos = new ConcurrentHashMap<>();
+        private final Map<Integer, Long> pingDelays = new ConcurrentHashMap<>();
+        private final AtomicInteger slotsCalls = new AtomicInteger(0);
+
+        void setSlots(Object... slots) {
+            this.slots = asList(slots);
+        }
+
+        /**
+         * @param masterPort
+         * @param masterOffset
+         *            The INFO fails if negative.
+         * @param replicas
+         */
+        void setReplicationInfo(int masterPort, long masterOffset, String... replicas) {
+            if (masterOffset < 0) {
+                infos.remove(masterPort);
+                return;
+            }
+            StringBuilder info = new StringBuilder("# Replication\r\nrole:master\r\n");
+            info.append("connected_slaves:").append(replicas.length).append("\r\n");
+            for (int i = 0; i < replicas.length; i++) {
+                info.append(replicas[i].startsWith("slave") ? replicas[i] : ("slave" + i + ":" + replicas[i])).append("\r\n");
+            }
+            info.append("master_repl_offset:").append(masterOffset).append("\r\n");
+            infos.put(masterPort, info.toString());
+        }
+
+        boolean isSelected(NodeState node, int port) {
+            return node != null && node.hostAndPort.getPort() == port;
+        }
+
+        ClusterReadRouter newRouter(ReadPreference preference) throws InterruptedException {
+            ReadRoutingProperties config = new ReadRoutingProperties();
+            config.setPreference(preference);
+            config.setRefreshIntervalMs(3600_000L);
+            int calls = slotsCalls.get();
+            ClusterReadRouter router = new ClusterReadRouter(new FakeConnectionHandler(this), config);
+            // Wait for the initial refresh.
+            long deadline = System.currentTimeMillis() + 5_000L;
+            while (slotsCalls.get() == calls && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5L);
+            }
+            router.refresh();
+            return router;
+        }
+
+        Jedis newConnection(int port) {
+            return new Jedis() {
+                @Override
+                public List<Object> clusterSlots() {
+                    slotsCalls.incrementAndGet();
+                    return slots;
+                }
+
+                @Override
+                public String info(String section) {
+                    String info = infos.get(port);
+                    if (info == null) {
+                        throw new JedisConnectionException("Read timed out");
+                    }
+                    return info;
+                }
+
+                @Override
+                public String ping() {
+                    Long delay = pingDelays.get(port);
+                    if (delay != null) {
+                        try {
+                            Thread.sleep(delay);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return "PONG";
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+    }
+
+    private static class FakeConnectionHandler extends ConfigurableJedisClusterConntionHandler {
+        private final FakeCluster cluster;
+
+        FakeConnectionHandler(FakeCluster cluster) {
+            super(emptySet(), new GenericObjectPoolConfig<>(), 100, 100, null);
+            this.cluster = cluster;
+        }
+
+        @Override
+        public Jedis getConnection() {
+            return cluster.newConnection(0);
+        }
+
+        @Override
+        public Jedis getConnectionFromNode(HostAndPort node) {
+            return cluster.newConnection(node.getPort());
+        }
+    }
+
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.cluster;
+
+import static com.wl4g.component.support.cache.jedis.cluster.ClusterSlotFanoutExecutor.groupBySlot;
+import static com.wl4g.component.support.cache.jedis.cluster.ClusterSlotFanoutExecutor.isSingleSlot;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.Test;
+
+import com.wl4g.component.support.cache.jedis.cluster.ClusterSlotFanoutExecutor.SlotResult;
+import com.wl4g.component.support.cache.jedis.cluster.ConfigurableJedisClusterCommand.ConfigurableJedisClusterConntionHandler;
+
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.exceptions.JedisAskDataException;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisMovedDataException;
+import redis.clients.jedis.util.JedisClusterCRC16;
+
+/**
+ * {@link ClusterSlotFanoutExecutorTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-12 v1.0.0
+ * @see v1.0.0
+ */
+public class ClusterSlotFanoutExecutorTests {
+
+    @Test
+    public void groupBySlotKeepCallerOrderCase1() {
+        String[] keys = { "foo1{abc}", "foo2{abcd}", "foo3{abc}", "foo4{abcd}", "foo5{abcde}" };
+        int[] slots = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            slots[i] = JedisClusterCRC16.getSlot(keys[i]);
+        }
+        Map<Integer, List<Integer>> groups = groupBySlot(slots);
+        System.out.println("groups: " + groups);
+
+        assert groups.size() == 3;
+        assert groups.get(JedisClusterCRC16.getSlot("{abc}")).equals(asList(0, 2));
+        assert groups.get(JedisClusterCRC16.getSlot("{abcd}")).equals(asList(1, 3));
+        assert groups.get(JedisClusterCRC16.getSlot("{abcde}")).equals(asList(4));
+        assert !isSingleSlot(slots);
+    }
+
+    @Test
+    public void singleSlotCase2() {
+        assert isSingleSlot(new int[0]);
+        assert isSingleSlot(new int[] { 100, 100, 100 });
+        assert !isSingleSlot(new int[] { 100, 100, 101 });
+    }
+
+    @Test
+    public void mgetMultiNodesInCallerOrderCase3() {
+        FakeConnectionHandler handler = new FakeConnectionHandler();
+        FakeNodePool node1 = handler.addNode(1, 3);
+        FakeNodePool node2 = handler.addNode(2);
+        ClusterSlotFanoutExecutor executor = new ClusterSlotFanoutExecutor(handler, 2);
+        try {
+            String[] keys = { "foo1", "foo2", "foo3", "foo4", "foo5" };
+            int[] slots = { 1, 2, 1, 3, 2 };
+            // The reassembling of mget, see: ConfigurableJedisClusterJedisClient#mget()
+            List<SlotResult<List<String>>> results = executor.executeDeferred(slots, (p, idx) -> () -> valuesOf(keys, idx),
+                    idx -> {
+                        throw new AssertionError("Unexpected fallback");
+                    });
+            String[] values = new String[keys.length];
+            for (SlotResult<List<String>> res : results) {
+                for (int i = 0; i < res.indexes.length; i++) {
+                    values[res.indexes[i]] = res.result.get(i);
+                }
+            }
+
+            assert asList("value-foo1", "value-foo2", "value-foo3", "value-foo4", "value-foo5").equals(asList(values));
+            // One pipelined request per node.
+            assert node1.requests.get() == 1 && node2.requests.get() == 1;
+            assert handler.renewals.get() == 0;
+        } finally {
+            executor.close();
+        }
+    }
+
+    @Test
+    public void redirectedFallbackToDirectCase4() {
+        FakeConnectionHandler handler = new FakeConnectionHandler();
+        handler.addNode(1, 2, 3);
+        ClusterSlotFanoutExecutor executor = new ClusterSlotFanoutExecutor(handler, 2);
+        try {
+            String[] keys = { "foo1", "foo2", "foo3" };
+            int[] slots = { 1, 2, 3 };
+            List<Integer> directs = new CopyOnWriteArrayList<>();
+            List<SlotResult<List<String>>> results = executor.executeDeferred(slots, (p, idx) -> {
+                if (slots[idx[0]] == 1) {
+                    return () -> {
+                        throw new JedisMovedDataException("MOVED 1 127.0.0.1:7001", new HostAndPort("127.0.0.1", 7001), 1);
+                    };
+                } else if (slots[idx[0]] == 3) {
+                    return () -> {
+                        throw new JedisAskDataException("ASK 3 127.0.0.1:7001", new HostAndPort("127.0.0.1", 7001), 3);
+                    };
+                }
+                return () -> valuesOf(keys, idx);
+            }, idx -> {
+                directs.add(slots[idx[0]]);
+                return valuesOf(keys, idx);
+            });
+
+            assert results.size() == 3;
+            for (SlotResult<List<String>> res : results) {
+                assert valuesOf(keys, res.indexes).equals(res.result);
+            }
+            // Only the redirected slot groups are re-executed directly, and
+            // the slots cache is renewed once.
+            assert asList(1, 3).equals(directs) : directs;
+            assert handler.renewals.get() == 1;
+        } finally {
+            executor.close();
+        }
+    }
+
+    @Test
+    public void brokenNodeFallbackOnlyItsGroupsCase5() {
+        FakeConnectionHandler handler = new FakeConnectionHandler();
+        FakeNodePool node1 = handler.addNode(1, 2);
+        FakeNodePool node2 = handler.addNode(3, 4);
+        node2.broken = true;
+        ClusterSlotFanoutExecutor executor = new ClusterSlotFanoutExecutor(handler, 2);
+        try {
+            String[] keys = { "foo1", "foo2", "foo3", "foo4", "foo5" };
+            int[] slots = { 1, 3, 2, 4, 1 };
+            List<Integer> pipelines = new CopyOnWriteArrayList<>();
+            List<Integer> directs = new CopyOnWriteArrayList<>();
+            List<SlotResult<List<String>>> results = executor.executeDeferred(slots, (p, idx) -> {
+                pipelines.add(slots[idx[0]]);
+                return () -> valuesOf(keys, idx);
+            }, idx -> {
+                directs.add(slots[idx[0]]);
+                return valuesOf(keys, idx);
+            });
+
+            assert results.size() == 4;
+            for (SlotResult<List<String>> res : results) {
+                assert valuesOf(keys, res.indexes).equals(res.result);
+            }
+            assert asList(1, 2).equals(pipelines) : pipelines;
+            assert asList(3, 4).equals(directs) : directs;
+            assert node1.requests.get() == 1 && node2.requests.get() == 1;
+            assert handler.renewals.get() == 1;
+        } finally {
+            executor.close();
+        }
+    }
+
+    private static List<String> valuesOf(String[] keys, int[] indexes) {
+        List<String> values = new ArrayList<>(indexes.length);
+        for (int i : indexes) {
+            values.add("value-" + keys[i]);
+        }
+        return values;
+    }
+
+    /**
+     * The fake cluster connection handler with the fixed slot nodes, the slots
+     * cache is never discovered.
+     */
+    static class FakeConnectionHandler extends ConfigurableJedisClusterConntionHandler {
+        final Map<Integer, JedisPool> slotPools = new HashMap<>();
+        final AtomicInteger renewals = new AtomicInteger(0);
+
+        FakeConnectionHandler() {
+            super(emptySet(), new GenericObjectPoolConfig<>(), 2000, 2000, null);
+        }
+
+        FakeNodePool addNode(int... slots) {
+            FakeNodePool pool = new FakeNodePool();
+            for (int slot : slots) {
+                slotPools.put(slot, pool);
+            }
+            return pool;
+        }
+
+        @Override
+        public JedisPool getSlotPool(int slot) {
+            return slotPools.get(slot);
+        }
+
+        @Override
+        public void renewSlotCache() {
+            renewals.incrementAndGet();
+        }
+    }
+
+    /**
+     * The fake node pool, the connections are not connected, because the
+     * empty pipelines are synchronized without any I/O.
+     */
+    static class FakeNodePool extends JedisPool {
+        final AtomicInteger requests = new AtomicInteger(0);
+        volatile boolean broken;
+
+        @Override
+        public Jedis getResource() {
+            requests.incrementAndGet();
+            if (broken) {
+                throw new JedisConnectionException("Connection refused");
+            }
+            return new Jedis();
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.metrics;
+
+import org.junit.Test;
+
+import com.wl4g.component.support.cache.jedis.metrics.JedisCommandMetrics.LatencySnapshot;
+import com.wl4g.component.support.cache.jedis.metrics.JedisCommandMetrics.MetricsProperties;
+import com.wl4g.component.support.cache.jedis.metrics.JedisCommandMetrics.MetricsSnapshot;
+
+/**
+ * {@link JedisCommandMetricsTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-25 v1.0.0
+ * @see v1.0.0
+ */
+public class JedisCommandMetricsTests {
+
+    @Test
+    public void latencyAndRedirectsCase1() {
+        JedisCommandMetrics metrics = new JedisCommandMetrics();
+        for (int i = 1; i <= 100; i++) {
+            metrics.onCompleted("get", "foo", 1, i * 1000L, "bar", null);
+            metrics.onAttempt("get", "10.0.0.1:6379", i * 1000L, null);
+        }
+        metrics.onCompleted("hset", "foo", 3, 5000L, 1L, new RuntimeException());
+        metrics.onRedirect("hset", "10.0.0.1:6379", true);
+        metrics.onRedirect("hset", "10.0.0.1:6379", false);
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        LatencySnapshot get = snapshot.getCommands().get("get");
+        assert get.getCount() == 100;
+        assert get.getMaxMicros() == 100;
+        assert get.getP50Micros() >= 50 && get.getP50Micros() <= 100;
+        assert get.getP99Micros() <= get.getMaxMicros();
+        LatencySnapshot hset = snapshot.getCommands().get("hset");
+        assert hset.getRetries() == 2 && hset.getErrors() == 1;
+        LatencySnapshot node = snapshot.getNodes().get("10.0.0.1:6379");
+        assert node.getCount() == 100 && node.getMoved() == 1 && node.getAsks() == 1;
+
+        metrics.reset();
+        assert metrics.snapshot().getCommands().isEmpty();
+    }
+
+    @Test
+    public void hotKeysAndBigValuesCase2() {
+        MetricsProperties config = new MetricsProperties();
+        config.setSampleRate(1);
+        config.setTopK(3);
+        config.setBigValueThreshold(10);
+        JedisCommandMetrics metrics = new JedisCommandMetrics(config);
+        for (int i = 0; i < 1000; i++) {
+            metrics.onCompleted("get", (i % 10 == 0) ? "hotKey" : ("key" + i), 1, 1000L, "bar", null);
+        }
+        metrics.onCompleted("get", "bigKey".getBytes(), 1, 1000L, new byte[64], null);
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assert "hotKey".equals(snapshot.getHotKeys().keySet().iterator().next());
+        assert snapshot.getHotKeys().size() == 3;
+        assert snapshot.getBigValues().size() == 1;
+        assert snapshot.getBigValues().get("bigKey") == 64L;
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.near;
+
+import static java.util.Collections.singletonList;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.wl4g.component.support.cache.jedis.near.NearCache.NearCacheProperties;
+
+/**
+ * {@link NearCacheTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-21 v1.0.0
+ * @see v1.0.0
+ */
+public class NearCacheTests {
+
+    @Test
+    public void cachedAndInvalidatedAcrossInstancesCase1() {
+        NearCacheProperties config = new NearCacheProperties();
+        NearCache cache1 = new NearCache(config, new LocalNearCacheInvalidator("testChannel1"));
+        NearCache cache2 = new NearCache(config, new LocalNearCacheInvalidator("testChannel1"));
+        AtomicInteger loads = new AtomicInteger(0);
+
+        assert "v1".equals(cache1.getOrLoad("foo", "string", String.class, () -> "v" + loads.incrementAndGet()));
+        assert "v1".equals(cache1.getOrLoad("foo", "string", String.class, () -> "v" + loads.incrementAndGet()));
+        assert "v2".equals(cache2.getOrLoad("foo", "string", String.class, () -> "v" + loads.incrementAndGet()));
+        assert loads.get() == 2;
+
+        // Written by cache2 instance.
+        cache2.invalidate("foo");
+        assert cache1.size() == 0 && cache2.size() == 0;
+        assert "v3".equals(cache1.getOrLoad("foo", "string", String.class, () -> "v" + loads.incrementAndGet()));
+
+        cache1.close();
+        cache2.close();
+    }
+
+    @Test
+    public void staleLoadNotCachedCase2() {
+        NearCache cache = new NearCache(new NearCacheProperties(), new LocalNearCacheInvalidator("testChannel2"));
+        // The key is invalidated while loading.
+        String value = cache.getOrLoad("foo", "string", String.class, () -> {
+            cache.onInvalidate("foo");
+            return "stale";
+        });
+        assert "stale".equals(value);
+        assert cache.size() == 0;
+        cache.close();
+    }
+
+    @Test
+    public void formatAndPrefixesCase3() {
+        NearCacheProperties config = new NearCacheProperties();
+        config.setKeyPrefixes(singletonList("config:"));
+        NearCache cache = new NearCache(config, new LocalNearCacheInvalidator("testChannel3"));
+
+        cache.getOrLoad("config:foo", "json", String.class, () -> "json");
+        assert "string".equals(cache.getOrLoad("config:foo", "string", String.class, () -> "string"));
+        cache.getOrLoad("session:foo", "string", String.class, () -> "session");
+        assert cache.size() == 1;
+        assert !cache.isCacheable("session:foo");
+        cache.close();
+    }
+
+    @Test
+    public void evictLocalAndPublishFailureCase4() {
+        NearCacheProperties config = new NearCacheProperties();
+        NearCache cache1 = new NearCache(config, new LocalNearCacheInvalidator("testChannel4") {
+            @Override
+            public void publish(String key) {
+                throw new IllegalStateException("Connection refused");
+            }
+        });
+        NearCache cache2 = new NearCache(config, new LocalNearCacheInvalidator("testChannel4"));
+
+        cache1.getOrLoad("foo", "string", String.class, () -> "v1");
+        cache2.getOrLoad("foo", "string", String.class, () -> "v1");
+        // The expiration changed, the value is unchanged.
+        cache2.evict("foo");
+        assert cache1.size() == 1 && cache2.size() == 0;
+
+        // The failed publishing does not fail the write.
+        cache1.invalidate("foo");
+        assert cache1.size() == 0;
+
+        cache1.close();
+        cache2.close();
+    }
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.near;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.Test;
+
+import com.wl4g.component.support.cache.jedis.InMemoryJedisClient;
+import com.wl4g.component.support.cache.jedis.JedisBatch;
+import com.wl4g.component.support.cache.jedis.near.NearCacheInvalidator.InvalidationListener;
+
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+/**
+ * {@link RedisNearCacheInvalidatorTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-21 v1.0.0
+ * @see v1.0.0
+ */
+public class RedisNearCacheInvalidatorTests {
+
+    @Test
+    public void unsubscribeIfClosedBeforeSubscribedCase1() throws Exception {
+        AtomicBoolean unsubscribed = new AtomicBoolean(false);
+        CountDownLatch subscribing = new CountDownLatch(1);
+        CountDownLatch confirming = new CountDownLatch(1);
+        InMemoryJedisClient jedisClient = new InMemoryJedisClient() {
+            @Override
+            public void subscribe(JedisPubSub jedisPubSub, String... channels) {
+                subscribing.countDown();
+                // The blocking socket read is not interruptible.
+                while (confirming.getCount() > 0) {
+                    Thread.yield();
+                }
+                try {
+                    jedisPubSub.onSubscribe(channels[0], 1);
+                } catch (Exception e) {
+                    // Unsubscribing, but this fake is not a subscribed
+                    // connection.
+                    unsubscribed.set(true);
+                    return;
+                }
+                throw new IllegalStateException("Leaked subscription after closed.");
+            }
+        };
+        AtomicInteger resets = new AtomicInteger(0);
+
+        RedisNearCacheInvalidator invalidator = new RedisNearCacheInvalidator(jedisClient, "testChannel");
+        invalidator.start(new CountingListener(resets));
+        subscribing.await();
+        // Closed after subscribing but before the subscription confirmed.
+        invalidator.close();
+        confirming.countDown();
+
+        assert waitUntil(() -> unsubscribed.get());
+        assert resets.get() == 0;
+    }
+
+    @Test
+    public void notRestartAfterClosedCase2() {
+        AtomicInteger subscriptions = new AtomicInteger(0);
+        InMemoryJedisClient jedisClient = new InMemoryJedisClient() {
+            @Override
+            public void subscribe(JedisPubSub jedisPubSub, String... channels) {
+                subscriptions.incrementAndGet();
+            }
+        };
+
+        RedisNearCacheInvalidator invalidator = new RedisNearCacheInvalidator(jedisClient, "testChannel");
+        invalidator.close();
+        invalidator.start(new CountingListener(new AtomicInteger(0)));
+        assert subscriptions.get() == 0;
+    }
+
+    @Test
+    public void publishAsyncInBatchesCase3() throws Exception {
+        AtomicInteger batches = new AtomicInteger(0);
+        AtomicBoolean failing = new AtomicBoolean(false);
+        AtomicInteger failures = new AtomicInteger(0);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> published = new CopyOnWriteArrayList<>();
+        InMemoryJedisClient jedisClient = new InMemoryJedisClient() {
+            @Override
+            public void subscribe(JedisPubSub jedisPubSub, String... channels) {
+            }
+
+            @Override
+            public JedisBatch batch() {
+                batches.incrementAndGet();
+                return super.batch();
+            }
+
+            @Override
+            public Long publish(String channel, String message) {
+                try {
+                    // Slow redis
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                if (failing.get()) {
+                    failures.incrementAndGet();
+                    throw new JedisConnectionException("Connection refused");
+                }
+                published.add(message.substring(message.indexOf('|') + 1));
+                return 1L;
+            }
+        };
+
+        RedisNearCacheInvalidator invalidator = new RedisNearCacheInvalidator(jedisClient, "testChannel");
+        invalidator.start(new CountingListener(new AtomicInteger(0)));
+        try {
+            // The writers are not blocked by the publishing.
+            invalidator.publish("k1");
+            assert waitUntil(() -> batches.get() == 1);
+            invalidator.publish("k2");
+            invalidator.publish("k3");
+            invalidator.publish("k2");
+            assert published.isEmpty();
+
+            // The pending keys are deduplicated and published in one batch.
+            release.countDown();
+            assert waitUntil(() -> published.size() == 3);
+            assert asList("k1", "k2", "k3").equals(published) : published;
+            assert batches.get() == 2;
+
+            // The failed publishing is only logged.
+            failing.set(true);
+            invalidator.publish("k4");
+            assert waitUntil(() -> failures.get() == 1);
+            failing.set(false);
+            invalidator.publish("k5");
+            assert waitUntil(() -> published.contains("k5"));
+            assert !published.contains("k4");
+        } finally {
+            invalidator.close();
+        }
+    }
+
+    static boolean waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + SECONDS.toMillis(5);
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(5L);
+        }
+        return true;
+    }
+
+    static class CountingListener implements InvalidationListener {
+        private final AtomicInteger resets;
+
+        CountingListener(AtomicInteger resets) {
+            this.resets = resets;
+        }
+
+        @Override
+        public void onInvalidate(String key) {
+        }
+
+        @Override
+        public void onReset() {
+            resets.incrementAndGet();
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.serialize;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.wl4g.component.common.serialize.JdkSerializeUtils;
+
+/**
+ * {@link JedisValueCodecTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-22 v1.0.0
+ * @see v1.0.0
+ */
+public class JedisValueCodecTests {
+
+    @Test
+    public void defaultWritesLegacyJdkCase1() {
+        List<String> value = new ArrayList<>(Arrays.asList("a", "b"));
+        byte[] encoded = JedisValueCodec.DEFAULT.encode(value);
+        assert Arrays.equals(encoded, JdkSerializeUtils.serialize(value));
+        assert value.equals(JedisValueCodec.DEFAULT.decode(encoded));
+        assert JedisValueCodec.DEFAULT.encode(null) == null;
+        assert JedisValueCodec.DEFAULT.decode(new byte[0]) == null;
+    }
+
+    @Test
+    public void readsAllFormatsCase2() {
+        JedisValueCodec jackson = new JedisValueCodec(JacksonJedisValueSerializer.INSTANCE, 0);
+        JedisValueCodec protostuff = new JedisValueCodec(ProtostuffJedisValueSerializer.INSTANCE, 0);
+
+        SampleBean bean = new SampleBean();
+        bean.setName("foo");
+        bean.setAge(18);
+        byte[] encoded = jackson.encode(bean);
+        assert encoded[0] == JacksonJedisValueSerializer.FORMAT;
+        // Readable by the codec of other serializer (rolling migration).
+        assert bean.equals(protostuff.decode(encoded));
+        assert bean.equals(JedisValueCodec.DEFAULT.decode(encoded));
+
+        encoded = protostuff.encode(bean);
+        assert encoded[0] == ProtostuffJedisValueSerializer.FORMAT;
+        assert bean.equals(jackson.decode(encoded));
+
+        // Legacy JDK serialized values.
+        assert bean.equals(protostuff.decode(JdkSerializeUtils.serialize(bean)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unknownHeaderCase3() {
+        JedisValueCodec.DEFAULT.decode(new byte[] { 0x0F, 1, 2 });
+    }
+
+    public static class SampleBean implements java.io.Serializable {
+        private static final long serialVersionUID = 1L;
+        private String name;
+        private int age;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof SampleBean)) {
+                return false;
+            }
+            SampleBean that = (SampleBean) obj;
+            return age == that.age && (name == null ? that.name == null : name.equals(that.name));
+        }
+
+        @Override
+        public int hashCode() {
+            return age * 31 + (name == null ? 0 : name.hashCode());
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.spring;
+
+import org.junit.Test;
+import org.springframework.cache.Cache;
+
+import com.wl4g.component.support.cache.jedis.InMemoryJedisClient;
+import com.wl4g.component.support.cache.jedis.JedisClient;
+import com.wl4g.component.support.cache.jedis.near.LocalNearCacheInvalidator;
+import com.wl4g.component.support.cache.jedis.spring.JedisTwoLevelCache.CacheStatsSnapshot;
+import com.wl4g.component.support.cache.jedis.spring.JedisTwoLevelCacheManager.TwoLevelCacheProperties;
+
+/**
+ * {@link JedisTwoLevelCacheManagerTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-28 v1.0.0
+ * @see v1.0.0
+ */
+public class JedisTwoLevelCacheManagerTests {
+
+    @Test
+    public void readThroughAndStatsCase1() {
+        InMemoryJedisClient jedisClient = new InMemoryJedisClient();
+        try (JedisTwoLevelCacheManager manager = newManager(jedisClient, "case1")) {
+            Cache cache = manager.getCache("users");
+            assert cache.get("u1") == null;
+            assert "foo".equals(cache.get("u1", () -> "foo"));
+            assert "foo".equals(cache.get("u1", () -> "bar")); // L1 hit
+            assert jedisClient.data.containsKey("__xcloud:cache:users::u1");
+
+            cache.put("u2", null);
+            assert cache.get("u2") != null && cache.get("u2").get() == null;
+
+            CacheStatsSnapshot stats = manager.getStats().get("users");
+            assert stats.getMisses() == 2 && stats.getL1Hits() >= 1 && stats.getPuts() == 2;
+        }
+    }
+
+    @Test
+    public void invalidateOtherInstancesCase2() {
+        InMemoryJedisClient jedisClient = new InMemoryJedisClient();
+        try (JedisTwoLevelCacheManager manager1 = newManager(jedisClient, "case2");
+                JedisTwoLevelCacheManager manager2 = newManager(jedisClient, "case2")) {
+            Cache cache1 = manager1.getCache("dict");
+            Cache cache2 = manager2.getCache("dict");
+            cache1.put("k1", "v1");
+            assert "v1".equals(cache2.get("k1").get()); // Cached in L1 of cache2
+
+            cache1.put("k1", "v2");
+            assert "v2".equals(cache2.get("k1").get());
+
+            cache1.evict("k1");
+            assert cache2.get("k1") == null;
+        }
+    }
+
+    @Test
+    public void invalidateOtherKeyWhileLoadingCase3() {
+        InMemoryJedisClient jedisClient = new InMemoryJedisClient();
+        try (JedisTwoLevelCacheManager manager = newManager(jedisClient, "case3")) {
+            Cache cache = manager.getCache("users");
+            assert "v1".equals(cache.get("k1", () -> {
+                cache.evict("k2"); // The other key (stripe) is invalidated while loading
+                return "v1";
+            }));
+            long l1Hits = manager.getStats().get("users").getL1Hits();
+            assert "v1".equals(cache.get("k1", () -> "v2"));
+            assert manager.getStats().get("users").getL1Hits() == l1Hits + 1;
+        }
+    }
+
+    private static JedisTwoLevelCacheManager newManager(JedisClient jedisClient, String channel) {
+        TwoLevelCacheProperties config = new TwoLevelCacheProperties();
+        config.setChannel(channel);
+        return new JedisTwoLevelCacheManager(jedisClient, config, null, new LocalNearCacheInvalidator(channel));
+    }
+
+}
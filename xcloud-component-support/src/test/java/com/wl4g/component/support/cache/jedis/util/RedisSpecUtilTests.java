@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.jedis.util;
+
+import static java.util.Arrays.asList;
+
+import org.junit.Test;
+
+import com.wl4g.component.core.exception.framework.ParameterCanonicalException;
+
+/**
+ * {@link RedisSpecUtilTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-23 v1.0.0
+ * @see v1.0.0
+ */
+public class RedisSpecUtilTests {
+
+    @Test
+    public void safeCheckKeysCase1() {
+        RedisSpecUtil.safeCheckKey("iam:session:{user_info}:10000000@a.b");
+        RedisSpecUtil.safeCheckKeys("foo", "bar:1", "中文键");
+        RedisSpecUtil.safeCheckKeys(asList("foo", 'x', "bar".toCharArray(), new byte[] { '-' }));
+        // Warning characters.
+        RedisSpecUtil.safeCheckKeys("3342701404111872&&800492841ab644dc8ea01c683a809255");
+    }
+
+    @Test(expected = ParameterCanonicalException.class)
+    public void safeCheckKeysUnsafeCase2() {
+        RedisSpecUtil.safeCheckKeys("foo", "3342701404111872-800492841ab644dc8ea01c683a809255");
+    }
+
+    @Test
+    public void safeFormatCase3() {
+        String key = "iam:session:user_info";
+        assert RedisSpecUtil.safeFormat(key) == key;
+        assert "iam_session_user_info_1".equals(RedisSpecUtil.safeFormat("iam-session user$info-1"));
+        assert RedisSpecUtil.isInvalidCharacter('a') && RedisSpecUtil.isInvalidCharacter('{');
+        assert !RedisSpecUtil.isInvalidCharacter('-') && !RedisSpecUtil.isInvalidCharacter('&');
+    }
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.locks;
+
+import static com.wl4g.component.support.cache.locks.JedisLockManager.ACQUIRE_LUA;
+import static com.wl4g.component.support.cache.locks.JedisLockManager.NAMESPACE;
+import static com.wl4g.component.support.cache.locks.JedisLockManager.RENEW_LUA;
+import static com.wl4g.component.support.cache.locks.JedisLockManager.UNLOCK_LUA;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BooleanSupplier;
+
+import org.junit.Test;
+
+import com.wl4g.component.support.cache.jedis.InMemoryJedisClient;
+import com.wl4g.component.support.cache.jedis.JedisService;
+
+import redis.clients.jedis.JedisPubSub;
+
+/**
+ * {@link JedisLockManagerTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-24 v1.0.0
+ * @see v1.0.0
+ */
+public class JedisLockManagerTests {
+
+    @Test
+    public void tryLockWithoutWaitingCase1() {
+        LockJedisClient jedisClient = new LockJedisClient();
+        try (JedisLockManager manager1 = new JedisLockManager(new JedisService(jedisClient));
+                JedisLockManager manager2 = new JedisLockManager(new JedisService(jedisClient))) {
+            Lock lock1 = manager1.getLock("foo1", 10, SECONDS);
+            Lock lock2 = manager2.getLock("foo1", 10, SECONDS);
+            assert lock1.tryLock();
+            // Only the fast path, without subscribing.
+            assert !lock2.tryLock();
+            assert jedisClient.getEvals(ACQUIRE_LUA) == 2;
+            assert jedisClient.subscribers.isEmpty();
+
+            lock1.unlock();
+            assert lock2.tryLock();
+            lock2.unlock();
+            assert !jedisClient.data.containsKey(NAMESPACE + "foo1");
+        }
+    }
+
+    @Test
+    public void handOffToLocalWaiterCase2() throws Exception {
+        LockJedisClient jedisClient = new LockJedisClient();
+        try (JedisLockManager manager = new JedisLockManager(new JedisService(jedisClient))) {
+            Lock lock = manager.getLock("foo2", 10, SECONDS);
+            lock.lock();
+
+            CountDownLatch acquired = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Thread waiter = new Thread(() -> {
+                lock.lock();
+                try {
+                    acquired.countDown();
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    lock.unlock();
+                }
+            });
+            waiter.start();
+            assert waitUntil(() -> waiter.getState() == Thread.State.WAITING);
+
+            // Handed off without releasing.
+            lock.unlock();
+            assert acquired.await(5, SECONDS);
+            assert jedisClient.getEvals(UNLOCK_LUA) == 0;
+            assert jedisClient.data.containsKey(NAMESPACE + "foo2");
+
+            release.countDown();
+            waiter.join(5_000L);
+            assert jedisClient.getEvals(UNLOCK_LUA) == 1;
+            assert !jedisClient.data.containsKey(NAMESPACE + "foo2");
+        }
+    }
+
+    @Test
+    public void releaseOrphanAfterWaiterTimeoutCase3() throws Exception {
+        LockJedisClient jedisClient = new LockJedisClient();
+        try (JedisLockManager manager = new JedisLockManager(new JedisService(jedisClient))) {
+            Lock lock = manager.getLock("foo3", 10, SECONDS);
+            for (int i = 0; i < 100; i++) {
+                lock.lock();
+                Thread waiter = new Thread(() -> {
+                    try {
+                        if (lock.tryLock(5, MILLISECONDS)) {
+                            lock.unlock();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                waiter.start();
+                // Vary the interleaving of unlock and waiter timeout.
+                Thread.sleep(i % 10);
+                lock.unlock();
+                waiter.join(5_000L);
+                assert !jedisClient.data.containsKey(NAMESPACE + "foo3") : "Orphan remote lock at round " + i;
+            }
+        }
+    }
+
+    static boolean waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(5L);
+        }
+        return true;
+    }
+
+    /**
+     * In-memory {@link InMemoryJedisClient} that evaluates the lock scripts,
+     * and delivers the unlock notifications to the pattern subscribers.
+     */
+    static class LockJedisClient extends InMemoryJedisClient {
+        final Map<String, AtomicInteger> evals = new ConcurrentHashMap<>();
+        final List<JedisPubSub> subscribers = new CopyOnWriteArrayList<>();
+
+        int getEvals(String script) {
+            AtomicInteger count = evals.get(script);
+            return (count != null) ? count.get() : 0;
+        }
+
+        @Override
+        public synchronized Object eval(String script, List<String> keys, List<String> args) {
+            evals.computeIfAbsent(script, s -> new AtomicInteger(0)).incrementAndGet();
+            String key = keys.get(0);
+            Object value = data.get(key);
+            if (ACQUIRE_LUA.equals(script)) {
+                if (args.get(0).equals(value)) {
+                    return "REENTERED";
+                }
+                if (value == null) {
+                    data.put(key, args.get(0));
+                    return "OK";
+                }
+                return Long.parseLong(args.get(1));
+            } else if (RENEW_LUA.equals(script)) {
+                return args.get(0).equals(value) ? 1L : 0L;
+            } else if (UNLOCK_LUA.equals(script)) {
+                if (data.remove(key, args.get(0))) {
+                    subscribers.forEach(s -> s.onPMessage("*", args.get(1), args.get(0)));
+                    return 1L;
+                }
+                return 0L;
+            }
+            throw new UnsupportedOperationException(script);
+        }
+
+        @Override
+        public void psubscribe(JedisPubSub jedisPubSub, String... patterns) {
+            subscribers.add(jedisPubSub);
+            jedisPubSub.onPSubscribe(patterns[0], 1);
+            try {
+                new CountDownLatch(1).await(); // Blocking until closed
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                subscribers.remove(jedisPubSub);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.locks;
+
+import static com.wl4g.component.support.cache.locks.JedisLockManagerTests.waitUntil;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.wl4g.component.support.cache.jedis.InMemoryJedisClient;
+import com.wl4g.component.support.cache.locks.JedisLockNotifier.LockWaiters;
+
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+/**
+ * {@link JedisLockNotifierTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-24 v1.0.0
+ * @see v1.0.0
+ */
+public class JedisLockNotifierTests {
+
+    @Test
+    public void resubscribeAfterBrokenCase1() throws Exception {
+        AtomicInteger subscriptions = new AtomicInteger(0);
+        CountDownLatch broken = new CountDownLatch(1);
+        InMemoryJedisClient jedisClient = new InMemoryJedisClient() {
+            @Override
+            public void psubscribe(JedisPubSub jedisPubSub, String... patterns) {
+                boolean first = subscriptions.incrementAndGet() == 1;
+                jedisPubSub.onPSubscribe(patterns[0], 1);
+                jedisPubSub.onPMessage(patterns[0], "test:unlock:foo", "bar");
+                try {
+                    if (first) {
+                        broken.await();
+                        throw new JedisConnectionException("Unexpected end of stream.");
+                    }
+                    new CountDownLatch(1).await(); // Blocking until closed
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+
+        JedisLockNotifier notifier = new JedisLockNotifier(jedisClient, "test:unlock:");
+        try {
+            LockWaiters waiters = notifier.register("foo");
+            assert waitUntil(() -> notifier.isSubscribed());
+            // Subscribed and notified.
+            assert waitUntil(() -> waiters.getSignals() >= 2);
+
+            long signals = waiters.getSignals();
+            broken.countDown();
+            assert waitUntil(() -> subscriptions.get() == 1 && !notifier.isSubscribed());
+
+            // Re-subscribed after delay, and the waiters are woken up to retry.
+            assert waitUntil(() -> subscriptions.get() == 2 && notifier.isSubscribed());
+            assert waiters.getSignals() > signals;
+            notifier.unregister("foo");
+        } finally {
+            notifier.close();
+        }
+    }
+
+    @Test
+    public void unsubscribeIfClosedBeforeSubscribedCase2() throws Exception {
+        AtomicInteger subscriptions = new AtomicInteger(0);
+        AtomicBoolean unsubscribed = new AtomicBoolean(false);
+        CountDownLatch subscribing = new CountDownLatch(1);
+        CountDownLatch confirming = new CountDownLatch(1);
+        InMemoryJedisClient jedisClient = new InMemoryJedisClient() {
+            @Override
+            public void psubscribe(JedisPubSub jedisPubSub, String... patterns) {
+                subscriptions.incrementAndGet();
+                subscribing.countDown();
+                // The blocking socket read is not interruptible.
+                while (confirming.getCount() > 0) {
+                    Thread.yield();
+                }
+                try {
+                    jedisPubSub.onPSubscribe(patterns[0], 1);
+                } catch (Exception e) {
+                    // Unsubscribing, but this fake is not a subscribed
+                    // connection.
+                    unsubscribed.set(true);
+                    return;
+                }
+                throw new IllegalStateException("Leaked subscription after closed.");
+            }
+        };
+
+        JedisLockNotifier notifier = new JedisLockNotifier(jedisClient, "test:unlock:");
+        notifier.register("foo");
+        subscribing.await();
+        // Closed after subscribing but before the subscription confirmed.
+        notifier.close();
+        confirming.countDown();
+
+        assert waitUntil(() -> unsubscribed.get());
+        assert !notifier.isSubscribed();
+        notifier.unregister("foo");
+    }
+
+    @Test
+    public void notRestartAfterClosedCase3() throws Exception {
+        AtomicInteger subscriptions = new AtomicInteger(0);
+        InMemoryJedisClient jedisClient = new InMemoryJedisClient() {
+            @Override
+            public void psubscribe(JedisPubSub jedisPubSub, String... patterns) {
+                subscriptions.incrementAndGet();
+            }
+        };
+
+        JedisLockNotifier notifier = new JedisLockNotifier(jedisClient, "test:unlock:");
+        notifier.close();
+
+        // Fallback to polling, the waiting is not blocked by the retry delay.
+        AtomicInteger attempts = new AtomicInteger(0);
+        long start = System.currentTimeMillis();
+        assert !notifier.awaitAcquire("foo", start + 200L, 10_000L, () -> {
+            attempts.incrementAndGet();
+            return 10_000L;
+        });
+        assert attempts.get() > 1;
+        assert !notifier.isSubscribed();
+        assert subscriptions.get() == 0;
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.locks;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.wl4g.component.support.cache.jedis.InMemoryJedisClient;
+
+/**
+ * {@link JedisLockWatchdogTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-23 v1.0.0
+ * @see v1.0.0
+ */
+public class JedisLockWatchdogTests {
+
+    @Test
+    public void renewHoldingLockCase1() throws Exception {
+        RenewingJedisClient jedisClient = new RenewingJedisClient(3);
+        jedisClient.data.put("foo", "req1");
+        try (JedisLockWatchdog watchdog = new JedisLockWatchdog(jedisClient)) {
+            ScheduledFuture<?> future = watchdog.watch("foo", "req1", 60L);
+            assert jedisClient.renewed.await(5, SECONDS);
+            assert !future.isDone();
+            future.cancel(false);
+        }
+    }
+
+    @Test
+    public void stopRenewingExpiredLockCase2() throws Exception {
+        RenewingJedisClient jedisClient = new RenewingJedisClient(1);
+        jedisClient.data.put("foo", "req2");
+        try (JedisLockWatchdog watchdog = new JedisLockWatchdog(jedisClient)) {
+            ScheduledFuture<?> future = watchdog.watch("foo", "req2", 60L);
+            assert jedisClient.renewed.await(5, SECONDS);
+            // Expired (or taken over by other holder).
+            jedisClient.data.put("foo", "req3");
+            long deadline = System.currentTimeMillis() + 5_000L;
+            while (!future.isDone() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10L);
+            }
+            assert future.isCancelled();
+        }
+    }
+
+    @Test
+    public void cancelRenewalCase3() throws Exception {
+        RenewingJedisClient jedisClient = new RenewingJedisClient(1);
+        jedisClient.data.put("foo", "req4");
+        try (JedisLockWatchdog watchdog = new JedisLockWatchdog(jedisClient)) {
+            ScheduledFuture<?> future = watchdog.watch("foo", "req4", 30L);
+            assert jedisClient.renewed.await(5, SECONDS);
+            future.cancel(false);
+            // Wait for the running renewal (if any) to finish.
+            Thread.sleep(50L);
+            int renewals = jedisClient.renewals.get();
+            Thread.sleep(100L);
+            assert jedisClient.renewals.get() == renewals;
+        }
+    }
+
+    /**
+     * In-memory {@link InMemoryJedisClient} that evaluates the lease renewing
+     * script (compare and pexpire).
+     */
+    private static class RenewingJedisClient extends InMemoryJedisClient {
+        final AtomicInteger renewals = new AtomicInteger(0);
+        final CountDownLatch renewed;
+
+        RenewingJedisClient(int expectedRenewals) {
+            this.renewed = new CountDownLatch(expectedRenewals);
+        }
+
+        @Override
+        public Object eval(String script, List<String> keys, List<String> args) {
+            if (args.get(0).equals(data.get(keys.get(0)))) {
+                renewals.incrementAndGet();
+                renewed.countDown();
+                return 1L;
+            }
+            return 0L;
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.locks;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.wl4g.component.support.cache.jedis.InMemoryJedisClient;
+
+/**
+ * {@link JedisRateLimiterTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-24 v1.0.0
+ * @see v1.0.0
+ */
+public class JedisRateLimiterTests {
+
+    @Test
+    public void tokenBucketRefillCase1() throws Exception {
+        JedisRateLimiter limiter = new JedisTokenBucketRateLimiter(new RateLimiterJedisClient(), "foo1", 10d, 2L);
+        assert limiter.tryAcquire() && limiter.tryAcquire();
+        // The burst is exhausted, refilled a token per 100ms.
+        long waitMs = limiter.tryAcquireWait(1);
+        assert waitMs > 0 && waitMs <= 100L;
+        assert limiter.tryAcquireWait(3) == -1L;
+
+        Thread.sleep(waitMs + 20L);
+        assert limiter.tryAcquire();
+        assert !limiter.tryAcquire();
+
+        // Refilled up to the capacity only.
+        Thread.sleep(500L);
+        assert limiter.tryAcquire(2);
+        assert !limiter.tryAcquire();
+        assert limiter.tryAcquire(1, 1, SECONDS);
+    }
+
+    @Test
+    public void slidingWindowEvictionCase2() throws Exception {
+        JedisRateLimiter limiter = new JedisSlidingWindowRateLimiter(new RateLimiterJedisClient(), "foo2", 2L, 200L);
+        assert limiter.tryAcquire();
+        Thread.sleep(100L);
+        assert limiter.tryAcquire();
+        assert !limiter.tryAcquire();
+        assert limiter.tryAcquireWait(3) == -1L;
+
+        // Available when the oldest permit slides out of the window.
+        long waitMs = limiter.tryAcquireWait(1);
+        assert waitMs > 0 && waitMs <= 101L;
+        Thread.sleep(waitMs + 20L);
+        assert limiter.tryAcquire();
+        assert !limiter.tryAcquire();
+
+        long begin = System.currentTimeMillis();
+        assert limiter.tryAcquire(2, 1, SECONDS);
+        assert System.currentTimeMillis() - begin >= 150L;
+        assert !limiter.tryAcquire(1, 50, MILLISECONDS);
+    }
+
+    /**
+     * In-memory {@link InMemoryJedisClient} that evaluates the rate limiter
+     * scripts by the local clock.
+     */
+    static class RateLimiterJedisClient extends InMemoryJedisClient {
+        /** The {tokens, ts} of token buckets. */
+        private final Map<String, double[]> buckets = new HashMap<>();
+        /** The acquired times of sliding windows, in order. */
+        private final Map<String, List<Long>> windows = new HashMap<>();
+
+        @Override
+        public synchronized Object eval(String script, List<String> keys, List<String> args) {
+            long now = System.currentTimeMillis();
+            if (script == JedisTokenBucketRateLimiter.ACQUIRE_LUA) {
+                double rate = Double.parseDouble(args.get(0));
+                long capacity = Long.parseLong(args.get(1));
+                long requested = Long.parseLong(args.get(2));
+                double[] b = buckets.computeIfAbsent(keys.get(0), k -> new double[] { capacity, now });
+                double tokens = Math.min(capacity, b[0] + Math.max(0, now - b[1]) * rate / 1000);
+                long wait = 0L;
+                if (tokens >= requested) {
+                    tokens -= requested;
+                } else {
+                    wait = (long) Math.ceil((requested - tokens) * 1000 / rate);
+                }
+                b[0] = tokens;
+                b[1] = now;
+                return wait;
+            } else if (script == JedisSlidingWindowRateLimiter.ACQUIRE_LUA) {
+                long window = Long.parseLong(args.get(0));
+                long limit = Long.parseLong(args.get(1));
+                int permits = Integer.parseInt(args.get(2));
+                List<Long> acquired = windows.computeIfAbsent(keys.get(0), k -> new ArrayList<>());
+                acquired.removeIf(t -> t <= now - window);
+                if (acquired.size() + permits > limit) {
+                    int i = (int) (acquired.size() + permits - limit - 1);
+                    if (i >= acquired.size()) {
+                        return -1L;
+                    }
+                    return Math.max(1L, acquired.get(i) + window - now + 1);
+                }
+                for (int i = 0; i < permits; i++) {
+                    acquired.add(now);
+                }
+                return 0L;
+            }
+            throw new UnsupportedOperationException(script);
+        }
+    }
+
+}
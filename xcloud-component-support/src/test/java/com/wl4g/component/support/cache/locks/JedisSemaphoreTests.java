@@ -0,0 +1,190 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.locks;
+
+import static com.wl4g.component.support.cache.locks.JedisLockManagerTests.waitUntil;
+import static com.wl4g.component.support.cache.locks.JedisSemaphore.ACQUIRE_LUA;
+import static com.wl4g.component.support.cache.locks.JedisSemaphore.AVAILABLE_LUA;
+import static com.wl4g.component.support.cache.locks.JedisSemaphore.RELEASE_LUA;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.wl4g.component.support.cache.jedis.InMemoryJedisClient;
+
+import redis.clients.jedis.JedisPubSub;
+
+/**
+ * {@link JedisSemaphoreTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-06-24 v1.0.0
+ * @see v1.0.0
+ */
+public class JedisSemaphoreTests {
+
+    @Test
+    public void releaseWakeUpWaiterCase1() throws Exception {
+        SemaphoreJedisClient jedisClient = new SemaphoreJedisClient(true);
+        JedisLockNotifier notifier = new JedisLockNotifier(jedisClient, "test:unlock:");
+        try {
+            // Long lease and max wait, so that only the release wakes up.
+            JedisSemaphore semaphore = new JedisSemaphore(jedisClient, notifier, "foo1", 2L, 60_000L, 60_000L);
+            String permitId = semaphore.tryAcquire(2);
+            assert permitId != null && semaphore.availablePermits() == 0L;
+            assert semaphore.tryAcquire(1) == null;
+
+            AtomicReference<String> acquired = new AtomicReference<>();
+            Thread waiter = new Thread(() -> {
+                try {
+                    acquired.set(semaphore.tryAcquire(1, 10, SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            waiter.start();
+            assert waitUntil(() -> notifier.isSubscribed() && waiter.getState() == Thread.State.TIMED_WAITING);
+
+            long begin = System.currentTimeMillis();
+            assert semaphore.release(permitId, 2) == 2L;
+            waiter.join(5_000L);
+            assert acquired.get() != null && System.currentTimeMillis() - begin < 5_000L;
+            assert semaphore.availablePermits() == 1L;
+
+            // Released already.
+            assert semaphore.release(permitId, 2) == 0L;
+            assert semaphore.release(acquired.get(), 1) == 1L;
+            assert semaphore.availablePermits() == 2L;
+        } finally {
+            notifier.close();
+        }
+    }
+
+    @Test
+    public void reclaimExpiredLeaseCase2() throws Exception {
+        // Without notifications, i.e. polling.
+        SemaphoreJedisClient jedisClient = new SemaphoreJedisClient(false);
+        JedisLockNotifier notifier = new JedisLockNotifier(jedisClient, "test:unlock:");
+        try {
+            JedisSemaphore semaphore = new JedisSemaphore(jedisClient, notifier, "foo2", 1L, 200L, 60_000L);
+            String permitId = semaphore.tryAcquire(1);
+            assert permitId != null;
+            assert semaphore.tryAcquire(2, 1, SECONDS) == null;
+
+            long begin = System.currentTimeMillis();
+            String permitId2 = semaphore.tryAcquire(1, 5, SECONDS);
+            long elapsed = System.currentTimeMillis() - begin;
+            assert permitId2 != null && elapsed >= 100L && elapsed < 2_000L;
+            // The expired permit is not released again.
+            assert semaphore.release(permitId, 1) == 0L;
+            assert !notifier.isSubscribed();
+        } finally {
+            notifier.close();
+        }
+    }
+
+    @Test
+    public void timeoutWithoutReleaseCase3() throws Exception {
+        SemaphoreJedisClient jedisClient = new SemaphoreJedisClient(true);
+        JedisLockNotifier notifier = new JedisLockNotifier(jedisClient, "test:unlock:");
+        try {
+            JedisSemaphore semaphore = new JedisSemaphore(jedisClient, notifier, "foo3", 1L, 60_000L, 60_000L);
+            assert semaphore.tryAcquire(1) != null;
+            long begin = System.currentTimeMillis();
+            assert semaphore.tryAcquire(1, 200, MILLISECONDS) == null;
+            assert System.currentTimeMillis() - begin >= 200L;
+        } finally {
+            notifier.close();
+        }
+    }
+
+    /**
+     * In-memory {@link InMemoryJedisClient} that evaluates the semaphore
+     * scripts by the local clock, and delivers the release notifications to
+     * the pattern subscribers if subscribable.
+     */
+    static class SemaphoreJedisClient extends InMemoryJedisClient {
+        final List<JedisPubSub> subscribers = new CopyOnWriteArrayList<>();
+        private final boolean subscribable;
+        /** The lease expirations of acquired permits. */
+        private final Map<String, Map<String, Long>> leases = new HashMap<>();
+
+        SemaphoreJedisClient(boolean subscribable) {
+            this.subscribable = subscribable;
+        }
+
+        @Override
+        public synchronized Object eval(String script, List<String> keys, List<String> args) {
+            long now = System.currentTimeMillis();
+            Map<String, Long> permits = leases.computeIfAbsent(keys.get(0), k -> new HashMap<>());
+            if (script == ACQUIRE_LUA) {
+                long limit = Long.parseLong(args.get(0));
+                long lease = Long.parseLong(args.get(1));
+                int acquires = Integer.parseInt(args.get(2));
+                permits.values().removeIf(expiration -> expiration <= now);
+                if (permits.size() + acquires > limit) {
+                    long earliest = permits.values().stream().mapToLong(e -> e).min().getAsLong();
+                    return Math.max(1L, earliest - now);
+                }
+                for (int i = 1; i <= acquires; i++) {
+                    permits.put(args.get(3) + ":" + i, now + lease);
+                }
+                return 0L;
+            } else if (script == RELEASE_LUA) {
+                long n = 0L;
+                for (int i = 1; i <= Integer.parseInt(args.get(1)); i++) {
+                    Long expiration = permits.remove(args.get(0) + ":" + i);
+                    if (expiration != null && expiration > now) {
+                        ++n;
+                    }
+                }
+                if (n > 0) {
+                    subscribers.forEach(s -> s.onPMessage("*", args.get(2), args.get(0)));
+                }
+                return n;
+            } else if (script == AVAILABLE_LUA) {
+                long n = permits.values().stream().filter(expiration -> expiration > now).count();
+                return Math.max(0L, Long.parseLong(args.get(0)) - n);
+            }
+            throw new UnsupportedOperationException(script);
+        }
+
+        @Override
+        public void psubscribe(JedisPubSub jedisPubSub, String... patterns) {
+            if (!subscribable) {
+                throw new UnsupportedOperationException();
+            }
+            subscribers.add(jedisPubSub);
+            jedisPubSub.onPSubscribe(patterns[0], 1);
+            try {
+                new CountDownLatch(1).await(); // Blocking until closed
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                subscribers.remove(jedisPubSub);
+            }
+        }
+    }
+
+}
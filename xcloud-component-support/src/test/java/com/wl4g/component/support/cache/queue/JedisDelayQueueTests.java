@@ -0,0 +1,216 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.queue;
+
+import static com.wl4g.component.support.cache.queue.JedisDelayQueue.ACK_LUA;
+import static com.wl4g.component.support.cache.queue.JedisDelayQueue.CLAIM_LUA;
+import static com.wl4g.component.support.cache.queue.JedisDelayQueue.OFFER_LUA;
+import static com.wl4g.component.support.cache.queue.JedisDelayQueue.PEEK_LUA;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.wl4g.component.support.cache.jedis.InMemoryJedisClient;
+import com.wl4g.component.support.cache.queue.JedisDelayQueue.DelayJob;
+import com.wl4g.component.support.cache.queue.JedisDelayQueue.DelayQueueProperties;
+
+/**
+ * {@link JedisDelayQueueTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-04 v1.0.0
+ * @see v1.0.0
+ */
+public class JedisDelayQueueTests {
+
+    @Test
+    public void takeDueJobsCase1() throws Exception {
+        DelayJedisClient jedisClient = new DelayJedisClient();
+        JedisDelayQueue queue = new JedisDelayQueue(jedisClient, "case1", newConfig(100L));
+        queue.offer("foo1", 0L);
+        queue.offer("foo2", 200L);
+        assert queue.size() == 2L;
+
+        List<DelayJob> jobs = queue.take(10, 1_000L);
+        assert jobs.size() == 1 && "foo1".equals(jobs.get(0).getPayload()) && jobs.get(0).getAttempts() == 1;
+        assert queue.ack(jobs.get(0));
+
+        long begin = System.currentTimeMillis();
+        jobs = queue.take(10, 1_000L);
+        assert jobs.size() == 1 && "foo2".equals(jobs.get(0).getPayload());
+        assert System.currentTimeMillis() - begin >= 150L;
+        assert queue.ack(jobs.get(0));
+        assert queue.size() == 0L;
+    }
+
+    @Test
+    public void idleTakeNotClaimCase2() throws Exception {
+        DelayJedisClient jedisClient = new DelayJedisClient();
+        JedisDelayQueue queue = new JedisDelayQueue(jedisClient, "case2", newConfig(50L));
+        assert queue.take(10, 300L).isEmpty();
+        // Only the batched peeks while idle.
+        assert jedisClient.claims.get() == 0 && jedisClient.peeks.get() >= 8;
+
+        // Offered by another instance, i.e. without the local wake up.
+        new JedisDelayQueue(jedisClient, "case2", newConfig(50L)).offer("foo", 0L);
+        List<DelayJob> jobs = queue.take(10, 1_000L);
+        assert jobs.size() == 1 && "foo".equals(jobs.get(0).getPayload());
+        assert jedisClient.claims.get() == 1;
+    }
+
+    @Test
+    public void waitEarliestFireOfAllShardsCase3() throws Exception {
+        DelayJedisClient jedisClient = new DelayJedisClient();
+        JedisDelayQueue queue = new JedisDelayQueue(jedisClient, "case3", newConfig(2_000L));
+        new JedisDelayQueue(jedisClient, "case3", newConfig(2_000L)).offer("foo", 150L);
+
+        long begin = System.currentTimeMillis();
+        List<DelayJob> jobs = queue.take(10, 5_000L);
+        long elapsed = System.currentTimeMillis() - begin;
+        assert jobs.size() == 1 && elapsed >= 100L && elapsed < 1_000L;
+        assert jedisClient.claims.get() == 1;
+    }
+
+    @Test
+    public void redeliverAfterVisibilityCase4() throws Exception {
+        DelayJedisClient jedisClient = new DelayJedisClient();
+        DelayQueueProperties config = newConfig(50L);
+        config.setVisibilityMs(100L);
+        JedisDelayQueue queue = new JedisDelayQueue(jedisClient, "case4", config);
+        queue.offer("foo", 0L);
+
+        DelayJob job1 = queue.take(1, 1_000L).get(0);
+        List<DelayJob> jobs = queue.take(1, 1_000L);
+        assert jobs.size() == 1 && jobs.get(0).getId().equals(job1.getId()) && jobs.get(0).getAttempts() == 2;
+        assert !queue.ack(job1);
+        assert queue.ack(jobs.get(0));
+    }
+
+    private static DelayQueueProperties newConfig(long maxIdleMs) {
+        DelayQueueProperties config = new DelayQueueProperties();
+        config.setShards(8);
+        config.setMaxIdleMs(maxIdleMs);
+        return config;
+    }
+
+    /**
+     * In-memory {@link InMemoryJedisClient} that evaluates the delay queue
+     * scripts, the sorted sets are scored by the local clock.
+     */
+    static class DelayJedisClient extends InMemoryJedisClient {
+        final AtomicInteger peeks = new AtomicInteger(0);
+        final AtomicInteger claims = new AtomicInteger(0);
+        private final Map<String, Map<String, Long>> zsets = new HashMap<>();
+        private final Map<String, Map<String, String>> hashes = new HashMap<>();
+
+        @Override
+        public synchronized Long hlen(String key) {
+            return (long) hash(key).size();
+        }
+
+        @Override
+        public synchronized Object eval(String script, List<String> keys, List<String> args) {
+            long now = System.currentTimeMillis();
+            if (script == OFFER_LUA) {
+                long at = Long.parseLong(args.get(2)) + ("1".equals(args.get(3)) ? now : 0L);
+                hash(keys.get(1)).put(args.get(0), args.get(1));
+                zset(keys.get(0)).put(args.get(0), at);
+                return at;
+            } else if (script == PEEK_LUA) {
+                peeks.incrementAndGet();
+                return listOf(now, nextAt(keys.get(0), keys.get(1)));
+            } else if (script == CLAIM_LUA) {
+                claims.incrementAndGet();
+                int max = Integer.parseInt(args.get(0));
+                long deadline = now + Long.parseLong(args.get(1));
+                for (String id : rangeByScore(keys.get(1), now, max)) {
+                    zset(keys.get(1)).remove(id);
+                    zset(keys.get(0)).put(id, now);
+                }
+                List<Object> res = listOf(now, deadline, -1L);
+                for (String id : rangeByScore(keys.get(0), now, max)) {
+                    zset(keys.get(0)).remove(id);
+                    String payload = hash(keys.get(2)).get(id);
+                    if (payload != null) {
+                        zset(keys.get(1)).put(id, deadline);
+                        long attempts = Long.parseLong(hash(keys.get(3)).getOrDefault(id, "0")) + 1;
+                        hash(keys.get(3)).put(id, String.valueOf(attempts));
+                        res.add(id);
+                        res.add(payload);
+                        res.add(attempts);
+                    }
+                }
+                res.set(2, nextAt(keys.get(0), keys.get(1)));
+                return res;
+            } else if (script == ACK_LUA) {
+                Long score = zset(keys.get(0)).get(args.get(0));
+                if (score != null && score == Long.parseLong(args.get(1))) {
+                    zset(keys.get(0)).remove(args.get(0));
+                    hash(keys.get(1)).remove(args.get(0));
+                    hash(keys.get(2)).remove(args.get(0));
+                    return 1L;
+                }
+                return 0L;
+            }
+            throw new UnsupportedOperationException(script);
+        }
+
+        private Map<String, Long> zset(String key) {
+            return zsets.computeIfAbsent(key, k -> new HashMap<>());
+        }
+
+        private Map<String, String> hash(String key) {
+            return hashes.computeIfAbsent(key, k -> new HashMap<>());
+        }
+
+        private List<String> rangeByScore(String key, long max, int count) {
+            List<Entry<String, Long>> entries = new ArrayList<>(zset(key).entrySet());
+            entries.sort(Entry.comparingByValue());
+            List<String> ids = new ArrayList<>();
+            for (Entry<String, Long> ent : entries) {
+                if (ent.getValue() <= max && ids.size() < count) {
+                    ids.add(ent.getKey());
+                }
+            }
+            return ids;
+        }
+
+        private long nextAt(String delayedKey, String inflightKey) {
+            long nextAt = -1L;
+            for (String key : new String[] { delayedKey, inflightKey }) {
+                for (long score : zset(key).values()) {
+                    nextAt = (nextAt < 0) ? score : Math.min(nextAt, score);
+                }
+            }
+            return nextAt;
+        }
+
+        private static List<Object> listOf(Object... values) {
+            List<Object> list = new ArrayList<>();
+            for (Object value : values) {
+                list.add(value);
+            }
+            return list;
+        }
+    }
+
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.component.support.cache.queue;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.Test;
+
+import com.wl4g.component.support.cache.jedis.InMemoryJedisClient;
+import com.wl4g.component.support.cache.queue.JedisStreamQueue.StreamQueueProperties;
+import com.wl4g.component.support.cache.queue.JedisStreamQueue.StreamSubscription;
+
+import redis.clients.jedis.StreamEntry;
+import redis.clients.jedis.StreamEntryID;
+import redis.clients.jedis.StreamPendingEntry;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.params.XAddParams;
+import redis.clients.jedis.params.XReadGroupParams;
+import redis.clients.jedis.util.SafeEncoder;
+
+/**
+ * {@link JedisStreamQueueTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-04 v1.0.0
+ * @see v1.0.0
+ */
+public class JedisStreamQueueTests {
+
+    @Test
+    public void backpressureCase1() throws Exception {
+        StreamJedisClient jedisClient = new StreamJedisClient();
+        StreamQueueProperties config = newConfig();
+        config.setBatchSize(4);
+        config.setMaxInflight(4);
+        config.setMinIdleMs(60_000L);
+        JedisStreamQueue queue = new JedisStreamQueue(jedisClient, "case1", config);
+        queue.createGroup("g1");
+        for (int i = 0; i < 10; i++) {
+            queue.publish("m" + i);
+        }
+
+        AtomicInteger started = new AtomicInteger(0);
+        AtomicInteger handled = new AtomicInteger(0);
+        CountDownLatch release = new CountDownLatch(1);
+        try (StreamSubscription sub = queue.subscribe("g1", "c1", msg -> {
+            started.incrementAndGet();
+            release.await();
+            handled.incrementAndGet();
+        })) {
+            assert waitUntil(() -> started.get() == 4);
+            Thread.sleep(300L);
+            // No more messages are read until the inflight are acknowledged.
+            assert started.get() == 4 && jedisClient.pendingSize() == 4;
+
+            release.countDown();
+            assert waitUntil(() -> handled.get() == 10 && jedisClient.pendingSize() == 0);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void reclaimFailedMessageCase2() throws Exception {
+        StreamJedisClient jedisClient = new StreamJedisClient();
+        JedisStreamQueue queue = new JedisStreamQueue(jedisClient, "case2", newConfig());
+        queue.createGroup("g1");
+        queue.publish("m1");
+
+        List<Long> deliveries = new CopyOnWriteArrayList<>();
+        try (StreamSubscription sub = queue.subscribe("g1", "c1", msg -> {
+            deliveries.add(msg.getDeliveries());
+            if (msg.getDeliveries() == 1) {
+                throw new IllegalStateException("Failed to handle " + msg);
+            }
+        })) {
+            assert waitUntil(() -> deliveries.size() >= 2 && jedisClient.pendingSize() == 0);
+            assert deliveries.get(0) == 1L && deliveries.get(1) == 2L;
+        }
+    }
+
+    @Test
+    public void deadLetterCase3() throws Exception {
+        StreamJedisClient jedisClient = new StreamJedisClient();
+        StreamQueueProperties config = newConfig();
+        config.setMaxDeliveries(2);
+        JedisStreamQueue queue = new JedisStreamQueue(jedisClient, "case3", config);
+        queue.createGroup("g1");
+        queue.publish("m1");
+
+        AtomicInteger handles = new AtomicInteger(0);
+        try (StreamSubscription sub = queue.subscribe("g1", "c1", msg -> {
+            handles.incrementAndGet();
+            throw new IllegalStateException("Failed to handle " + msg);
+        })) {
+            String deadKey = config.getKeyPrefix() + "{case3:0}:dead";
+            assert waitUntil(() -> jedisClient.xlen(deadKey) == 1L && jedisClient.pendingSize() == 0);
+            assert handles.get() == 2;
+            assert "m1".equals(jedisClient.entries(deadKey).get(0).getFields().get(JedisStreamQueue.FIELD_PAYLOAD));
+        }
+    }
+
+    @Test
+    public void releasePermitsIfDeadLetterFailedCase4() throws Exception {
+        AtomicInteger deadLetterFailures = new AtomicInteger(0);
+        StreamJedisClient jedisClient = new StreamJedisClient() {
+            @Override
+            public StreamEntryID xadd(String key, Map<String, String> hash, XAddParams params) {
+                if (key.endsWith(":dead")) {
+                    deadLetterFailures.incrementAndGet();
+                    throw new JedisConnectionException("Unexpected end of stream.");
+                }
+                return super.xadd(key, hash, params);
+            }
+        };
+        StreamQueueProperties config = newConfig();
+        config.setBatchSize(1);
+        config.setMaxInflight(1);
+        config.setMaxDeliveries(1);
+        JedisStreamQueue queue = new JedisStreamQueue(jedisClient, "case4", config);
+        queue.createGroup("g1");
+        queue.publish("bad");
+
+        List<String> handled = new CopyOnWriteArrayList<>();
+        try (StreamSubscription sub = queue.subscribe("g1", "c1", msg -> {
+            if ("bad".equals(msg.getPayload())) {
+                throw new IllegalStateException("Failed to handle " + msg);
+            }
+            handled.add(msg.getPayload());
+        })) {
+            // The permit is acquired again by the next reclaim.
+            assert waitUntil(() -> deadLetterFailures.get() >= 2);
+            queue.publish("good");
+            assert waitUntil(() -> handled.contains("good"));
+        }
+    }
+
+    @Test
+    public void maxInflightLessThanBatchSizeCase5() {
+        StreamQueueProperties config = newConfig();
+        config.setBatchSize(8);
+        config.setMaxInflight(4);
+        try {
+            new JedisStreamQueue(new StreamJedisClient(), "case5", config);
+            assert false;
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    private static StreamQueueProperties newConfig() {
+        StreamQueueProperties config = new StreamQueueProperties();
+        config.setShards(1);
+        config.setBlockMs(50L);
+        config.setMinIdleMs(100L);
+        config.setReclaimIntervalMs(50L);
+        config.setCloseTimeoutMs(1_000L);
+        return config;
+    }
+
+    static boolean waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(5L);
+        }
+        return true;
+    }
+
+    /**
+     * In-memory {@link InMemoryJedisClient} of the streams with a single
+     * consumer group, which delivers at most one message per read.
+     */
+    static class StreamJedisClient extends InMemoryJedisClient {
+        private final Map<String, List<StreamEntry>> streams = new HashMap<>();
+        private final Map<String, Integer> delivered = new HashMap<>();
+
+        /** The pending {deliveredAt, deliveries} of messages, per stream. */
+        private final Map<String, Map<StreamEntryID, long[]>> pending = new HashMap<>();
+        private long sequence = 0L;
+
+        synchronized int pendingSize() {
+            int size = 0;
+            for (Map<StreamEntryID, long[]> p : pending.values()) {
+                size += p.size();
+            }
+            return size;
+        }
+
+        synchronized List<StreamEntry> entries(String key) {
+            return new ArrayList<>(streams.getOrDefault(key, new ArrayList<>()));
+        }
+
+        @Override
+        public synchronized StreamEntryID xadd(String key, Map<String, String> hash, XAddParams params) {
+            StreamEntryID id = new StreamEntryID(++sequence, 0L);
+            streams.computeIfAbsent(key, k -> new ArrayList<>()).add(new StreamEntry(id, hash));
+            return id;
+        }
+
+        @Override
+        public String xgroupCreate(String key, String groupname, StreamEntryID id, boolean makeStream) {
+            return "OK";
+        }
+
+        @Override
+        public synchronized Long xlen(String key) {
+            return (long) streams.getOrDefault(key, new ArrayList<>()).size();
+        }
+
+        @Override
+        public List<Entry<String, List<StreamEntry>>> xreadGroup(String groupname, String consumer,
+                XReadGroupParams xReadGroupParams, Map<String, StreamEntryID> streams) {
+            String key = streams.keySet().iterator().next();
+            synchronized (this) {
+                List<StreamEntry> entries = this.streams.getOrDefault(key, new ArrayList<>());
+                int index = delivered.getOrDefault(key, 0);
+                if (index < entries.size()) {
+                    StreamEntry entry = entries.get(index);
+                    delivered.put(key, index + 1);
+                    pending.computeIfAbsent(key, k -> new LinkedHashMap<>()).put(entry.getID(),
+                            new long[] { System.currentTimeMillis(), 1L });
+                    List<Entry<String, List<StreamEntry>>> res = new ArrayList<>();
+                    res.add(new SimpleEntry<>(key, singletonList(entry)));
+                    return res;
+                }
+            }
+            try { // Blocking read
+                Thread.sleep(10L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }
+
+        @Override
+        public synchronized List<StreamPendingEntry> xpending(String key, String groupname, StreamEntryID start,
+                StreamEntryID end, int count, String consumername) {
+            long now = System.currentTimeMillis();
+            List<StreamPendingEntry> res = new ArrayList<>();
+            for (Entry<StreamEntryID, long[]> ent : pending.getOrDefault(key, emptyMap()).entrySet()) {
+                if (res.size() >= count) {
+                    break;
+                }
+                res.add(new StreamPendingEntry(ent.getKey(), "c1", now - ent.getValue()[0], ent.getValue()[1]));
+            }
+            return res;
+        }
+
+        @Override
+        public synchronized List<StreamEntry> xclaim(String key, String group, String consumername, long minIdleTime,
+                long newIdleTime, int retries, boolean force, StreamEntryID... ids) {
+            long now = System.currentTimeMillis();
+            Map<StreamEntryID, long[]> p = pending.getOrDefault(key, emptyMap());
+            List<StreamEntry> res = new ArrayList<>();
+            for (StreamEntryID id : ids) {
+                long[] state = p.get(id);
+                if (state != null && now - state[0] >= minIdleTime) {
+                    state[0] = now;
+                    ++state[1];
+                    for (StreamEntry entry : streams.get(key)) {
+                        if (entry.getID().equals(id)) {
+                            res.add(entry);
+                        }
+                    }
+                }
+            }
+            return res;
+        }
+
+        @Override
+        public synchronized Long xack(byte[] key, byte[] group, byte[]... ids) {
+            Map<StreamEntryID, long[]> p = pending.getOrDefault(SafeEncoder.encode(key), emptyMap());
+            long acked = 0L;
+            for (byte[] id : ids) {
+                if (p.remove(new StreamEntryID(SafeEncoder.encode(id))) != null) {
+                    ++acked;
+                }
+            }
+            return acked;
+        }
+    }
+
+}